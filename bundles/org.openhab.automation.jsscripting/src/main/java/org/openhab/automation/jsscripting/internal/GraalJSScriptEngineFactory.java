@@ -19,13 +19,19 @@ import java.util.Map;
 
 import javax.script.ScriptEngine;
 
+import org.graalvm.polyglot.Engine;
+import org.openhab.automation.jsscripting.internal.fs.JSModuleCache;
+import org.openhab.automation.jsscripting.internal.threading.RuleExecutionMonitor;
 import org.openhab.core.automation.module.script.ScriptEngineFactory;
 import org.openhab.core.config.core.ConfigurableService;
-import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Modified;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An implementation of {@link ScriptEngineFactory} with customizations for GraalJS ScriptEngines.
@@ -39,10 +45,26 @@ import org.osgi.service.component.annotations.Modified;
 public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
     private static final String CFG_INJECTION_ENABLED = "injectionEnabled";
     private static final String INJECTION_CODE = "Object.assign(this, require('openhab'));";
+    private final Logger logger = LoggerFactory.getLogger(GraalJSScriptEngineFactory.class);
+
+    /**
+     * All script engines share one polyglot engine, which caches parsed sources and compiled code
+     */
+    private final Engine engine = OpenhabGraalJSScriptEngine.createSharedEngine();
+    private final JSModuleCache moduleCache;
+    private final RuleExecutionMonitor monitor;
     private boolean injectionEnabled = true;
 
     public static final String MIME_TYPE = "application/javascript;version=ECMAScript-2021";
 
+    @Activate
+    public GraalJSScriptEngineFactory(final @Reference JSModuleCache moduleCache,
+            final @Reference RuleExecutionMonitor monitor, Map<String, ?> config) {
+        this.moduleCache = moduleCache;
+        this.monitor = monitor;
+        modified(config);
+    }
+
     @Override
     public List<String> getScriptTypes() {
         List<String> scriptTypes = new ArrayList<>();
@@ -70,13 +92,19 @@ public final class GraalJSScriptEngineFactory implements ScriptEngineFactory {
 
     @Override
     public ScriptEngine createScriptEngine(String scriptType) {
-        return new DebuggingGraalScriptEngine<>(
-                new OpenhabGraalJSScriptEngine(injectionEnabled ? INJECTION_CODE : null));
+        return new DebuggingGraalScriptEngine<>(new OpenhabGraalJSScriptEngine(injectionEnabled ? INJECTION_CODE : null,
+                engine, moduleCache, monitor));
     }
 
-    @Activate
-    protected void activate(BundleContext context, Map<String, ?> config) {
-        modified(config);
+    @Deactivate
+    protected void deactivate() {
+        try {
+            engine.close();
+        } catch (IllegalStateException e) {
+            // Script engines still using the shared engine would keep it alive, so close them forcibly
+            logger.warn("Shared GraalJS engine is still in use, cancelling running scripts: {}", e.getMessage());
+            engine.close(true);
+        }
     }
 
     @Modified
@@ -16,6 +16,8 @@ import static org.openhab.core.automation.module.script.ScriptEngineFactory.*;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.channels.Channels;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.file.AccessMode;
 import java.nio.file.FileSystems;
@@ -27,13 +29,20 @@ import java.nio.file.Paths;
 import java.nio.file.attribute.FileAttribute;
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -43,10 +52,14 @@ import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.Value;
 import org.openhab.automation.jsscripting.internal.fs.DelegatingFileSystem;
+import org.openhab.automation.jsscripting.internal.fs.JSModuleCache;
 import org.openhab.automation.jsscripting.internal.fs.PrefixedSeekableByteChannel;
 import org.openhab.automation.jsscripting.internal.fs.ReadOnlySeekableByteArrayChannel;
 import org.openhab.automation.jsscripting.internal.fs.watch.JSDependencyTracker;
+import org.openhab.automation.jsscripting.internal.scope.Lifecycle;
 import org.openhab.automation.jsscripting.internal.scriptengine.InvocationInterceptingScriptEngineWithInvocableAndAutoCloseable;
+import org.openhab.automation.jsscripting.internal.threading.RuleContextPool;
+import org.openhab.automation.jsscripting.internal.threading.RuleExecutionMonitor;
 import org.openhab.core.automation.module.script.ScriptExtensionAccessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,44 +78,90 @@ public class OpenhabGraalJSScriptEngine
     private static final Logger LOGGER = LoggerFactory.getLogger(OpenhabGraalJSScriptEngine.class);
     private static final String GLOBAL_REQUIRE = "require(\"@jsscripting-globals\");";
     private static final String REQUIRE_WRAPPER_NAME = "__wraprequire__";
+    private static final byte[] REQUIRE_WRAPPER = ("require=" + REQUIRE_WRAPPER_NAME + "(require);").getBytes();
     // final CommonJS search path for our library
     private static final Path NODE_DIR = Paths.get("node_modules");
+    private static final Path LIB_DIR = Paths.get(JSDependencyTracker.LIB_PATH).toAbsolutePath().normalize();
+    private static final String CONTEXT_KEY_DEPENDENCY_LISTENER = "oh.dependency-listener";
+    // attributes a replica needs to load the script like the engine it belongs to
+    private static final List<String> REPLICA_ATTRIBUTES = List.of(CONTEXT_KEY_ENGINE_IDENTIFIER,
+            CONTEXT_KEY_EXTENSION_ACCESSOR, CONTEXT_KEY_DEPENDENCY_LISTENER, ScriptEngine.FILENAME);
+    // a comment line at the top of a script file, e.g. "// @contexts 4", opts its rules into parallel execution
+    private static final Pattern CONTEXTS_DIRECTIVE = Pattern.compile("//\\s*@contexts\\s+(\\d+)\\s*");
+    static final int MAX_CONTEXTS = 16;
+
+    // Custom translate JS Objects - > Java Objects
+    private static final HostAccess HOST_ACCESS = HostAccess.newBuilder(HostAccess.ALL)
+            // Translate JS-Joda ZonedDateTime to java.time.ZonedDateTime
+            .targetTypeMapping(Value.class, ZonedDateTime.class, (v) -> v.hasMember("withFixedOffsetZone"), v -> {
+                return ZonedDateTime.parse(v.invokeMember("withFixedOffsetZone").invokeMember("toString").asString());
+            }, HostAccess.TargetMappingPrecedence.LOW)
+
+            // Translate JS-Joda Duration to java.time.Duration
+            .targetTypeMapping(Value.class, Duration.class,
+                    // picking two members to check as Duration has many common function names
+                    (v) -> v.hasMember("minusDuration") && v.hasMember("toNanos"), v -> {
+                        return Duration.ofNanos(v.invokeMember("toNanos").asLong());
+                    }, HostAccess.TargetMappingPrecedence.LOW)
+            .build();
 
     // these fields start as null because they are populated on first use
     private @NonNullByDefault({}) String engineIdentifier;
     private @NonNullByDefault({}) Consumer<String> scriptDependencyListener;
 
     private boolean initialized = false;
+    private final @Nullable String injectionCode;
     private String globalScript;
+    private final Engine engine;
+    private final JSModuleCache moduleCache;
+    private RuleContextPool contextPool;
+    private final int context;
+    private final @Nullable RuleExecutionMonitor monitor;
+    // the dispose hooks of a replica, which must not be added to the lifecycle of the script
+    private final @Nullable Lifecycle lifecycle;
+    // the script evaluated again in the other contexts of the pool
+    private final List<OpenhabGraalJSScriptEngine> replicas = new ArrayList<>();
+
+    /**
+     * Creates the polyglot engine that is shared by all script engines. Contexts of a shared engine reuse parsed
+     * sources and compiled code, so the injected library is not parsed again for every script.
+     *
+     * @return a new engine, to be closed by the caller
+     */
+    public static Engine createSharedEngine() {
+        return Engine.newBuilder().allowExperimentalOptions(true).option("engine.WarnInterpreterOnly", "false")
+                .build();
+    }
 
     /**
      * Creates an implementation of ScriptEngine (& Invocable), wrapping the contained engine, that tracks the script
      * lifecycle and provides hooks for scripts to do so too.
+     *
+     * @param injectionCode code that is evaluated before the script, may be null
+     * @param engine the polyglot engine shared by all script engines, see {@link #createSharedEngine()}
+     * @param moduleCache the cache for the content of required modules, shared by all script engines
+     * @param monitor tracks the rule executions of all scripts
      */
-    public OpenhabGraalJSScriptEngine(@Nullable String injectionCode) {
+    public OpenhabGraalJSScriptEngine(@Nullable String injectionCode, Engine engine, JSModuleCache moduleCache,
+            RuleExecutionMonitor monitor) {
+        this(injectionCode, engine, moduleCache, new RuleContextPool(1), 0, monitor);
+    }
+
+    private OpenhabGraalJSScriptEngine(@Nullable String injectionCode, Engine engine, JSModuleCache moduleCache,
+            RuleContextPool contextPool, int context, @Nullable RuleExecutionMonitor monitor) {
         super(null); // delegate depends on fields not yet initialised, so we cannot set it immediately
+        this.injectionCode = injectionCode;
         this.globalScript = GLOBAL_REQUIRE + (injectionCode != null ? injectionCode : "");
+        this.engine = engine;
+        this.moduleCache = moduleCache;
+        this.contextPool = contextPool;
+        this.context = context;
+        this.monitor = monitor;
+        this.lifecycle = context > 0 ? new Lifecycle() : null;
 
-        // Custom translate JS Objects - > Java Objects
-        HostAccess hostAccess = HostAccess.newBuilder(HostAccess.ALL)
-                // Translate JS-Joda ZonedDateTime to java.time.ZonedDateTime
-                .targetTypeMapping(Value.class, ZonedDateTime.class, (v) -> v.hasMember("withFixedOffsetZone"), v -> {
-                    return ZonedDateTime
-                            .parse(v.invokeMember("withFixedOffsetZone").invokeMember("toString").asString());
-                }, HostAccess.TargetMappingPrecedence.LOW)
-
-                // Translate JS-Joda Duration to java.time.Duration
-                .targetTypeMapping(Value.class, Duration.class,
-                        // picking two members to check as Duration has many common function names
-                        (v) -> v.hasMember("minusDuration") && v.hasMember("toNanos"), v -> {
-                            return Duration.ofNanos(v.invokeMember("toNanos").asLong());
-                        }, HostAccess.TargetMappingPrecedence.LOW)
-                .build();
-
-        delegate = GraalJSScriptEngine.create(
-                Engine.newBuilder().allowExperimentalOptions(true).option("engine.WarnInterpreterOnly", "false")
-                        .build(),
-                Context.newBuilder("js").allowExperimentalOptions(true).allowAllAccess(true).allowHostAccess(hostAccess)
+        delegate = GraalJSScriptEngine.create(engine,
+                Context.newBuilder("js").allowExperimentalOptions(true).allowAllAccess(true)
+                        .allowHostAccess(HOST_ACCESS)
                         .option("js.commonjs-require-cwd", JSDependencyTracker.LIB_PATH)
                         .option("js.nashorn-compat", "true") // to ease migration
                         .option("js.ecmascript-version", "2021") // nashorn compat will enforce es5 compatibility, we
@@ -118,18 +177,19 @@ public class OpenhabGraalJSScriptEngine
                                 }
 
                                 if (path.toString().endsWith(".js")) {
-                                    SeekableByteChannel sbc = null;
                                     if (isRootNodePath(path)) {
-                                        InputStream is = getClass().getResourceAsStream(nodeFileToResource(path));
-                                        if (is == null) {
-                                            throw new IOException("Could not read " + path.toString());
-                                        }
-                                        sbc = new ReadOnlySeekableByteArrayChannel(is.readAllBytes());
-                                    } else {
-                                        sbc = super.newByteChannel(path, options, attrs);
+                                        // modules of the bundle never change
+                                        String resource = nodeFileToResource(path);
+                                        return new ReadOnlySeekableByteArrayChannel(
+                                                moduleCache.get(resource, () -> readResource(resource)));
+                                    } else if (isLibraryPath(path)) {
+                                        // modules of the library directory are invalidated by the dependency tracker
+                                        return new ReadOnlySeekableByteArrayChannel(
+                                                moduleCache.get(path,
+                                                        () -> readFile(super.newByteChannel(path, options, attrs))));
                                     }
-                                    return new PrefixedSeekableByteChannel(
-                                            ("require=" + REQUIRE_WRAPPER_NAME + "(require);").getBytes(), sbc);
+                                    return new PrefixedSeekableByteChannel(REQUIRE_WRAPPER,
+                                            super.newByteChannel(path, options, attrs));
                                 } else {
                                     return super.newByteChannel(path, options, attrs);
                                 }
@@ -186,15 +246,14 @@ public class OpenhabGraalJSScriptEngine
             throw new IllegalStateException("Failed to retrieve script extension accessor from engine bindings");
         }
 
-        scriptDependencyListener = (Consumer<String>) ctx
-                .getAttribute("oh.dependency-listener"/* CONTEXT_KEY_DEPENDENCY_LISTENER */);
+        scriptDependencyListener = (Consumer<String>) ctx.getAttribute(CONTEXT_KEY_DEPENDENCY_LISTENER);
         if (scriptDependencyListener == null) {
             LOGGER.warn(
                     "Failed to retrieve script script dependency listener from engine bindings. Script dependency tracking will be disabled.");
         }
 
         ScriptExtensionModuleProvider scriptExtensionModuleProvider = new ScriptExtensionModuleProvider(
-                scriptExtensionAccessor);
+                scriptExtensionAccessor, contextPool, context, lifecycle);
 
         Function<Function<Object[], Object>, Function<String, Object>> wrapRequireFn = originalRequireFn -> moduleName -> scriptExtensionModuleProvider
                 .locatorFor(delegate.getPolyglotContext(), engineIdentifier).locateModule(moduleName)
@@ -205,11 +264,182 @@ public class OpenhabGraalJSScriptEngine
 
         initialized = true;
 
+        RuleExecutionMonitor monitor = this.monitor;
+        if (monitor != null) {
+            monitor.register(engineIdentifier, contextPool);
+        }
+
+        long start = System.nanoTime();
         try {
             eval(globalScript);
         } catch (ScriptException e) {
             LOGGER.error("Could not inject global script", e);
         }
+        LOGGER.debug("Injected global script into engine {} in {} ms", engineIdentifier,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Evaluates a script file. If the file opts into more than one context, see {@link #contextsOf(String)}, and
+     * registered rules, it is evaluated again in the other contexts of the pool, so that its rules can be executed in
+     * parallel.
+     */
+    @Override
+    public Object eval(Reader reader) throws ScriptException {
+        if (context > 0) {
+            return super.eval(reader);
+        }
+
+        String script;
+        try {
+            script = readScript(reader);
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+        if (!initialized) {
+            // the pool is handed out to the modules of the script on the first evaluation, so it cannot change later
+            int contexts = contextsOf(script);
+            if (contexts > 1) {
+                contextPool = new RuleContextPool(contexts);
+            }
+        }
+        Object result = super.eval(script);
+        if (contextPool.size() > 1 && contextPool.hasRules() && replicas.isEmpty()) {
+            createReplicas(script);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the number of contexts a script file requests for its rules from a line like "// @contexts 4" in the
+     * comment lines at the top of the file.
+     *
+     * @param script the content of the script file
+     * @return the number of contexts, 1 if the file does not request more
+     */
+    static int contextsOf(String script) {
+        for (String line : script.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!trimmed.startsWith("//")) {
+                break;
+            }
+            Matcher matcher = CONTEXTS_DIRECTIVE.matcher(trimmed);
+            if (matcher.matches()) {
+                try {
+                    return Math.max(1, Math.min(MAX_CONTEXTS, Integer.parseInt(matcher.group(1))));
+                } catch (NumberFormatException e) {
+                    return MAX_CONTEXTS;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private void createReplicas(String script) {
+        ScriptContext ctx = delegate.getContext();
+        long start = System.nanoTime();
+        for (int i = 1; i < contextPool.size(); i++) {
+            OpenhabGraalJSScriptEngine replica = new OpenhabGraalJSScriptEngine(injectionCode, engine, moduleCache,
+                    contextPool, i, null);
+            for (String attribute : REPLICA_ATTRIBUTES) {
+                Object value = ctx.getAttribute(attribute, ScriptContext.ENGINE_SCOPE);
+                if (value != null) {
+                    replica.getContext().setAttribute(attribute, value, ScriptContext.ENGINE_SCOPE);
+                }
+            }
+            try {
+                replica.eval(script);
+                replicas.add(replica);
+            } catch (ScriptException | RuntimeException e) {
+                LOGGER.warn("Could not load script {} in context {}, its rules are executed in fewer contexts: {}",
+                        engineIdentifier, i, e.getMessage());
+                contextPool.discardContext(i);
+                closeReplica(replica);
+            }
+        }
+        LOGGER.debug("Loaded script {} in {} additional contexts in {} ms", engineIdentifier, replicas.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void closeReplica(OpenhabGraalJSScriptEngine replica) {
+        try {
+            replica.close();
+        } catch (Exception e) {
+            LOGGER.debug("Could not close context of script {}: {}", engineIdentifier, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        replicas.forEach(this::closeReplica);
+        replicas.clear();
+        Lifecycle lifecycle = this.lifecycle;
+        if (lifecycle != null && engineIdentifier != null) {
+            lifecycle.unload(engineIdentifier);
+        }
+        RuleExecutionMonitor monitor = this.monitor;
+        if (monitor != null && engineIdentifier != null) {
+            monitor.unregister(engineIdentifier);
+        }
+        super.close();
+    }
+
+    private static String readScript(Reader reader) throws IOException {
+        StringBuilder script = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            script.append(buffer, 0, read);
+        }
+        return script.toString();
+    }
+
+    /**
+     * Tests if the path is within the library directory, which is watched by the {@link JSDependencyTracker}
+     *
+     * @param path
+     * @return
+     */
+    private boolean isLibraryPath(Path path) {
+        return path.isAbsolute() && path.normalize().startsWith(LIB_DIR);
+    }
+
+    /**
+     * Reads a module from the bundle resources and prefixes it with the require wrapper
+     *
+     * @param resource
+     * @return
+     * @throws IOException
+     */
+    private byte[] readResource(String resource) throws IOException {
+        try (InputStream is = getClass().getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new IOException("Could not read " + resource);
+            }
+            return withRequireWrapper(is.readAllBytes());
+        }
+    }
+
+    /**
+     * Reads a module from the given channel and prefixes it with the require wrapper
+     *
+     * @param channel
+     * @return
+     * @throws IOException
+     */
+    private byte[] readFile(SeekableByteChannel channel) throws IOException {
+        try (InputStream is = Channels.newInputStream(channel)) {
+            return withRequireWrapper(is.readAllBytes());
+        }
+    }
+
+    private byte[] withRequireWrapper(byte[] module) {
+        byte[] content = Arrays.copyOf(REQUIRE_WRAPPER, REQUIRE_WRAPPER.length + module.length);
+        System.arraycopy(module, 0, content, REQUIRE_WRAPPER.length, module.length);
+        return content;
     }
 
     /**
@@ -18,9 +18,12 @@ import java.util.Map;
 import java.util.Optional;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
+import org.openhab.automation.jsscripting.internal.scope.Lifecycle;
+import org.openhab.automation.jsscripting.internal.threading.RuleContextPool;
 import org.openhab.automation.jsscripting.internal.threading.ThreadsafeWrappingScriptedAutomationManagerDelegate;
 import org.openhab.core.automation.module.script.ScriptExtensionAccessor;
 import org.openhab.core.automation.module.script.rulesupport.shared.ScriptedAutomationManager;
@@ -38,9 +41,22 @@ public class ScriptExtensionModuleProvider {
     private static final String DEFAULT_MODULE_NAME = "Defaults";
 
     private final ScriptExtensionAccessor scriptExtensionAccessor;
+    private final RuleContextPool contextPool;
+    private final int context;
+    private final @Nullable Lifecycle lifecycle;
 
-    public ScriptExtensionModuleProvider(ScriptExtensionAccessor scriptExtensionAccessor) {
+    /**
+     * @param scriptExtensionAccessor provides the presets of the script
+     * @param contextPool the contexts the rules of the script are executed in
+     * @param context the index of the context the modules are provided to
+     * @param lifecycle replaces the lifecycle of the script, so that a replica context disposes its own resources
+     */
+    public ScriptExtensionModuleProvider(ScriptExtensionAccessor scriptExtensionAccessor, RuleContextPool contextPool,
+            int context, @Nullable Lifecycle lifecycle) {
         this.scriptExtensionAccessor = scriptExtensionAccessor;
+        this.contextPool = contextPool;
+        this.context = context;
+        this.lifecycle = lifecycle;
     }
 
     public ModuleLocator locatorFor(Context ctx, String engineIdentifier) {
@@ -90,11 +106,14 @@ public class ScriptExtensionModuleProvider {
      */
     private Map<String, Object> processValues(Map<String, Object> values) {
         Map<String, Object> rv = new HashMap<>(values);
+        Lifecycle lifecycle = this.lifecycle;
 
         for (Map.Entry<String, Object> entry : rv.entrySet()) {
             if (entry.getValue() instanceof ScriptedAutomationManager) {
                 entry.setValue(new ThreadsafeWrappingScriptedAutomationManagerDelegate(
-                        (ScriptedAutomationManager) entry.getValue()));
+                        (ScriptedAutomationManager) entry.getValue(), contextPool, context));
+            } else if (lifecycle != null && entry.getValue() instanceof Lifecycle) {
+                entry.setValue(lifecycle);
             }
         }
 
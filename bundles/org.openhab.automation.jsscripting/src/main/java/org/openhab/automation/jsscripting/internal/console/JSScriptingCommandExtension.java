@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.console;
+
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.automation.jsscripting.internal.threading.RuleExecutionMetrics;
+import org.openhab.automation.jsscripting.internal.threading.RuleExecutionMonitor;
+import org.openhab.core.io.console.Console;
+import org.openhab.core.io.console.extensions.AbstractConsoleCommandExtension;
+import org.openhab.core.io.console.extensions.ConsoleCommandExtension;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * The {@link JSScriptingCommandExtension} prints the rule execution statistics of the loaded scripts.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = ConsoleCommandExtension.class)
+public class JSScriptingCommandExtension extends AbstractConsoleCommandExtension {
+
+    private static final String RULES = "rules";
+
+    private final RuleExecutionMonitor monitor;
+
+    @Activate
+    public JSScriptingCommandExtension(final @Reference RuleExecutionMonitor monitor) {
+        super("jsscripting", "Show the rule execution statistics of JS scripts");
+        this.monitor = monitor;
+    }
+
+    @Override
+    public void execute(String[] args, Console console) {
+        if (args.length != 1 || !RULES.equals(args[0])) {
+            printUsage(console);
+            return;
+        }
+
+        Map<String, RuleExecutionMetrics> metrics = monitor.getMetrics();
+        if (metrics.isEmpty()) {
+            console.println("No scripts loaded");
+            return;
+        }
+        metrics.forEach((scriptIdentifier, m) -> console.println(String.format(
+                "%s: contexts %d (busy %d), executions %d, queued %d, average wait %d ms, max wait %d ms",
+                scriptIdentifier, m.getContexts(), m.getBusyContexts(), m.getExecutions(), m.getQueueLength(),
+                m.getAverageWaitMillis(), m.getMaxWaitMillis())));
+    }
+
+    @Override
+    public List<String> getUsages() {
+        return List.of(buildCommandUsage(RULES, "list the rule executions and wait times per script"));
+    }
+}
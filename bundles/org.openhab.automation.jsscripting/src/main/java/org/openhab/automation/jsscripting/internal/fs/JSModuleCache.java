@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.fs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.osgi.service.component.annotations.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the content of JS modules, shared by all script engines. Scripts that require the same libraries get the
+ * same bytes without reading them again. As all script engines share one polyglot engine, which caches sources by
+ * their content, the parsed and compiled code of a module is reused as well.
+ *
+ * Modules served from the bundle never change. Modules from the library directory are removed from the cache when
+ * the dependency tracker reports a change. They are keyed by their real path, so that a module is invalidated no
+ * matter whether it was required or reported through a relative or symbolic link path.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = JSModuleCache.class)
+public class JSModuleCache {
+
+    /**
+     * Loads the content of a module
+     */
+    @FunctionalInterface
+    public interface ModuleLoader {
+        byte[] load() throws IOException;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(JSModuleCache.class);
+
+    private final Map<String, byte[]> modules = new ConcurrentHashMap<>();
+    // incremented on every invalidation, so that modules loaded concurrently to a change are not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Returns the cached content of the given module or loads and caches it.
+     *
+     * @param key the resource or file path of the module
+     * @param loader loads the module if it is not cached
+     * @return the content of the module, must not be modified
+     * @throws IOException if the module could not be loaded
+     */
+    public byte[] get(String key, ModuleLoader loader) throws IOException {
+        byte[] content = modules.get(key);
+        if (content != null) {
+            return content;
+        }
+
+        long loadGeneration = generation.get();
+        content = loader.load();
+        if (generation.get() == loadGeneration) {
+            modules.put(key, content);
+        }
+        return content;
+    }
+
+    /**
+     * Returns the cached content of the module file at the given path or loads and caches it.
+     *
+     * @param path the file path of the module
+     * @param loader loads the module if it is not cached
+     * @return the content of the module, must not be modified
+     * @throws IOException if the module could not be loaded
+     */
+    public byte[] get(Path path, ModuleLoader loader) throws IOException {
+        return get(toKey(path), loader);
+    }
+
+    /**
+     * Removes the module with the given path from the cache. If the path is a directory, all modules within are
+     * removed.
+     *
+     * @param file a file or directory path
+     */
+    public void invalidate(String file) {
+        generation.incrementAndGet();
+        String path = toKey(Paths.get(file));
+        String directory = path.endsWith(File.separator) ? path : path + File.separator;
+        if (modules.keySet().removeIf(key -> key.equals(path) || key.startsWith(directory))) {
+            logger.debug("Removed cached modules for {}", path);
+        }
+    }
+
+    /**
+     * Returns the cache key of a file path. Symbolic links are resolved as far as the path exists, which may not be
+     * the case anymore for a deleted module.
+     *
+     * @param path a file or directory path
+     * @return the real, absolute path
+     */
+    static String toKey(Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        Path existing = absolute;
+        while (existing != null) {
+            try {
+                return existing.toRealPath().resolve(existing.relativize(absolute)).toString();
+            } catch (IOException e) {
+                existing = existing.getParent();
+            }
+        }
+        return absolute.toString();
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        modules.clear();
+    }
+}
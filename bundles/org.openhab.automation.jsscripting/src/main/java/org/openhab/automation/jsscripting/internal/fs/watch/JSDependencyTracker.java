@@ -14,6 +14,7 @@ package org.openhab.automation.jsscripting.internal.fs.watch;
 
 import java.io.File;
 
+import org.openhab.automation.jsscripting.internal.fs.JSModuleCache;
 import org.openhab.core.OpenHAB;
 import org.openhab.core.automation.module.script.rulesupport.loader.DependencyTracker;
 import org.slf4j.Logger;
@@ -31,8 +32,11 @@ public class JSDependencyTracker extends DependencyTracker {
     public static final String LIB_PATH = String.join(File.separator, OpenHAB.getConfigFolder(), "automation", "js",
             "node_modules");
 
-    public JSDependencyTracker() {
+    private final JSModuleCache moduleCache;
+
+    public JSDependencyTracker(JSModuleCache moduleCache) {
         super(LIB_PATH);
+        this.moduleCache = moduleCache;
     }
 
     public void activate() {
@@ -47,4 +51,11 @@ public class JSDependencyTracker extends DependencyTracker {
 
         super.activate();
     }
+
+    @Override
+    public void dependencyChanged(String dependency) {
+        // drop the cached content before the scripts depending on it are reloaded
+        moduleCache.invalidate(dependency);
+        super.dependencyChanged(dependency);
+    }
 }
@@ -12,6 +12,7 @@
  */
 package org.openhab.automation.jsscripting.internal.fs.watch;
 
+import org.openhab.automation.jsscripting.internal.fs.JSModuleCache;
 import org.openhab.core.automation.module.script.ScriptEngineManager;
 import org.openhab.core.service.ReadyService;
 import org.osgi.service.component.annotations.Activate;
@@ -36,8 +37,9 @@ public class JSFileWatcher {
     private final JSDependencyTracker jsDependencyTracker;
 
     @Activate
-    public JSFileWatcher(final @Reference ScriptEngineManager manager, final @Reference ReadyService readyService) {
-        jsDependencyTracker = new JSDependencyTracker();
+    public JSFileWatcher(final @Reference ScriptEngineManager manager, final @Reference ReadyService readyService,
+            final @Reference JSModuleCache moduleCache) {
+        jsDependencyTracker = new JSDependencyTracker(moduleCache);
         jsScriptFileWatcher = new JSScriptFileWatcher(manager, readyService, jsDependencyTracker);
     }
 
@@ -80,7 +80,8 @@ public class SharedCache implements ScriptExtensionProvider {
     }
 
     public static class JSCache {
-        private Map<String, Object> backingMap = new HashMap<>();
+        // accessed by the rules of all scripts, which may run in parallel
+        private Map<String, Object> backingMap = Collections.synchronizedMap(new HashMap<>());
 
         public void put(String k, Object v) {
             backingMap.put(k, v);
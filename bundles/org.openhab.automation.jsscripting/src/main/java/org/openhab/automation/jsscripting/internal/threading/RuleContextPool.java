@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.threading;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.automation.Action;
+import org.openhab.core.automation.module.script.rulesupport.shared.simple.SimpleRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The GraalJS contexts the rules of one script are executed in.
+ *
+ * Context 0 is the context the script was loaded in, its rules are registered with the rule engine. With a pool size
+ * greater than one, the script is evaluated again in the other contexts, the replicas. The rules a replica registers
+ * are not added to the rule engine, but matched to the rules of context 0 in registration order. A triggered rule is
+ * executed in an idle context which has a copy of it, or queued behind the context with the fewest waiting
+ * executions. Rules without copies, e.g. rules added after the script was loaded, are always executed in context 0.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RuleContextPool {
+
+    private final Logger logger = LoggerFactory.getLogger(RuleContextPool.class);
+
+    private final List<RuleExecutionLock> locks = new ArrayList<>();
+    private final List<ThreadsafeSimpleRuleDelegate> rules = new CopyOnWriteArrayList<>();
+    // the number of rules each replica registered, guarded by this
+    private final int[] replicaRules;
+
+    /**
+     * @param size the number of contexts, 1 executes all rules of a script in the context it was loaded in
+     */
+    public RuleContextPool(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("A rule context pool needs at least one context");
+        }
+        for (int i = 0; i < size; i++) {
+            locks.add(new RuleExecutionLock());
+        }
+        replicaRules = new int[size];
+    }
+
+    /**
+     * @return the number of contexts, including the one the script was loaded in
+     */
+    public int size() {
+        return locks.size();
+    }
+
+    /**
+     * @return true if rules were registered in the context the script was loaded in
+     */
+    public boolean hasRules() {
+        return !rules.isEmpty();
+    }
+
+    /**
+     * Wraps a rule registered in the context the script was loaded in.
+     *
+     * @param rule the rule to wrap
+     * @return the rule to register with the rule engine
+     */
+    ThreadsafeSimpleRuleDelegate addRule(SimpleRule rule) {
+        ThreadsafeSimpleRuleDelegate wrapped = new ThreadsafeSimpleRuleDelegate(this, rule);
+        rules.add(wrapped);
+        return wrapped;
+    }
+
+    /**
+     * Adds a rule registered by a replica as copy of the rule that context 0 registered at the same position.
+     *
+     * @param context the replica that registered the rule
+     * @param rule the copy of the rule
+     */
+    synchronized void addReplicaRule(int context, SimpleRule rule) {
+        int index = replicaRules[context]++;
+        if (index >= rules.size()) {
+            logger.warn("Context {} registered more rules than the script, rule '{}' is ignored", context,
+                    rule.getName());
+            return;
+        }
+        ThreadsafeSimpleRuleDelegate original = rules.get(index);
+        if (!Objects.equals(original.getName(), rule.getName())) {
+            logger.warn("Context {} registered rule '{}' where the script registered '{}', it is not executed there",
+                    context, rule.getName(), original.getName());
+            return;
+        }
+        original.setReplica(context, rule);
+    }
+
+    /**
+     * Removes all rules a replica registered, e.g. because its evaluation failed.
+     *
+     * @param context the replica to remove the rules of
+     */
+    public synchronized void discardContext(int context) {
+        if (context > 0) {
+            rules.forEach(rule -> rule.setReplica(context, null));
+            replicaRules[context] = 0;
+        }
+    }
+
+    /**
+     * Executes a rule in one of the contexts that have a copy of it.
+     *
+     * @param rule the rule to execute
+     * @param module the action of the rule
+     * @param inputs the inputs of the action
+     * @return the result of the execution
+     */
+    @Nullable
+    Object execute(ThreadsafeSimpleRuleDelegate rule, Action module, Map<String, ?> inputs) {
+        int queued = 0;
+        int shortestQueue = Integer.MAX_VALUE;
+        for (int i = 0; i < locks.size(); i++) {
+            if (i > 0 && !rule.hasReplica(i)) {
+                continue;
+            }
+            RuleExecutionLock lock = locks.get(i);
+            if (lock.tryLock()) {
+                // the lock is reentrant, so the execution does not wait
+                try {
+                    return execute(i, rule, module, inputs);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            int queueLength = lock.getQueueLength();
+            if (queueLength < shortestQueue) {
+                queued = i;
+                shortestQueue = queueLength;
+            }
+        }
+        return execute(queued, rule, module, inputs);
+    }
+
+    private @Nullable Object execute(int context, ThreadsafeSimpleRuleDelegate rule, Action module,
+            Map<String, ?> inputs) {
+        SimpleRule copy = rule.getRule(context);
+        return locks.get(context).execute(rule.getUID(), () -> copy.execute(module, inputs));
+    }
+
+    /**
+     * @return the current execution statistics of all contexts
+     */
+    public RuleExecutionMetrics getMetrics() {
+        RuleExecutionMetrics metrics = new RuleExecutionMetrics();
+        locks.forEach(lock -> lock.addTo(metrics));
+        return metrics;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.threading;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serializes the rule executions of one GraalJS context, as a context must not be used by multiple threads at once.
+ *
+ * Waiting executions are served in the order they arrived. The number of waiting executions and the time they waited
+ * are tracked, so that a rule which blocks the other rules of its script for a long time can be identified.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+class RuleExecutionLock {
+    private static final long SLOW_WAIT_MS = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(RuleExecutionLock.class);
+    private final ReentrantLock lock = new ReentrantLock(true);
+
+    private volatile @Nullable String runningRuleUID;
+    // only written while holding the lock, read without it for the metrics
+    private volatile long executions;
+    private volatile long totalWaitNanos;
+    private volatile long maxWaitNanos;
+
+    /**
+     * Executes the given rule, after all previously triggered executions of this context have finished.
+     *
+     * @param ruleUID the UID of the rule to execute
+     * @param execution the rule execution
+     * @return the result of the execution
+     */
+    @Nullable
+    Object execute(String ruleUID, Supplier<@Nullable Object> execution) {
+        long start = System.nanoTime();
+        String blockingRuleUID = runningRuleUID;
+        int queueLength = lock.getQueueLength();
+        lock.lock();
+        String previousRuleUID = runningRuleUID;
+        try {
+            long waitNanos = System.nanoTime() - start;
+            executions++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            long waitMs = TimeUnit.NANOSECONDS.toMillis(waitNanos);
+            if (waitMs >= SLOW_WAIT_MS) {
+                logger.warn(
+                        "Rule '{}' waited {} ms for rule '{}' of the same script to finish. Consider moving long running rules to a separate script.",
+                        ruleUID, waitMs, blockingRuleUID);
+            } else if (waitMs > 0 && logger.isDebugEnabled()) {
+                logger.debug("Rule '{}' waited {} ms behind {} queued executions, average wait {} ms", ruleUID,
+                        waitMs, queueLength, TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / executions));
+            }
+            runningRuleUID = ruleUID;
+            return execution.get();
+        } finally {
+            // restore the outer rule, if a rule of this script was executed from within another one
+            runningRuleUID = previousRuleUID;
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires the lock if no rule is executed in its context. A following {@link #execute(String, Supplier)} of the
+     * same thread does not wait then.
+     *
+     * @return true if the lock was acquired, it must be released by {@link #unlock()}
+     */
+    boolean tryLock() {
+        return lock.tryLock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * @return true if a rule is executed in the context of this lock
+     */
+    boolean isBusy() {
+        return lock.isLocked();
+    }
+
+    /**
+     * @return the number of executions waiting for the lock
+     */
+    int getQueueLength() {
+        return lock.getQueueLength();
+    }
+
+    @Nullable
+    String getRunningRuleUID() {
+        return runningRuleUID;
+    }
+
+    /**
+     * Adds the statistics of this lock to the given metrics.
+     *
+     * @param metrics the metrics to add to
+     */
+    void addTo(RuleExecutionMetrics metrics) {
+        metrics.add(executions, totalWaitNanos, maxWaitNanos, getQueueLength(), isBusy());
+    }
+}
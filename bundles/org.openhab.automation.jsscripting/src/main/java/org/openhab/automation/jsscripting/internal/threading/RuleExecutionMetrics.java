@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.threading;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Rule execution statistics of the contexts of one script.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RuleExecutionMetrics {
+    private int contexts;
+    private int busyContexts;
+    private int queueLength;
+    private long executions;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    void add(long executions, long totalWaitNanos, long maxWaitNanos, int queueLength, boolean busy) {
+        contexts++;
+        if (busy) {
+            busyContexts++;
+        }
+        this.queueLength += queueLength;
+        this.executions += executions;
+        this.totalWaitNanos += totalWaitNanos;
+        this.maxWaitNanos = Math.max(this.maxWaitNanos, maxWaitNanos);
+    }
+
+    /**
+     * @return the number of contexts rules are executed in
+     */
+    public int getContexts() {
+        return contexts;
+    }
+
+    /**
+     * @return the number of contexts currently executing a rule
+     */
+    public int getBusyContexts() {
+        return busyContexts;
+    }
+
+    /**
+     * @return the number of rule executions currently waiting for a context
+     */
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    /**
+     * @return the number of started rule executions
+     */
+    public long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return the average time a rule execution waited for its context, in milliseconds
+     */
+    public long getAverageWaitMillis() {
+        return executions == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos / executions);
+    }
+
+    /**
+     * @return the longest time a rule execution waited for its context, in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos);
+    }
+}
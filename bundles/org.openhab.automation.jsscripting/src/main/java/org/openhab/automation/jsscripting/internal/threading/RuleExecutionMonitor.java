@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.threading;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.osgi.service.component.annotations.Component;
+
+/**
+ * Keeps track of the context pools of all loaded scripts, so that their rule execution statistics can be queried.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@Component(service = RuleExecutionMonitor.class)
+public class RuleExecutionMonitor {
+
+    private final Map<String, RuleContextPool> pools = new ConcurrentHashMap<>();
+
+    /**
+     * @param scriptIdentifier the identifier of the script engine
+     * @param pool the contexts the rules of the script are executed in
+     */
+    public void register(String scriptIdentifier, RuleContextPool pool) {
+        pools.put(scriptIdentifier, pool);
+    }
+
+    public void unregister(String scriptIdentifier) {
+        pools.remove(scriptIdentifier);
+    }
+
+    /**
+     * @return the current statistics of all scripts, sorted by script identifier
+     */
+    public Map<String, RuleExecutionMetrics> getMetrics() {
+        Map<String, RuleExecutionMetrics> metrics = new TreeMap<>();
+        pools.forEach((scriptIdentifier, pool) -> metrics.put(scriptIdentifier, pool.getMetrics()));
+        return metrics;
+    }
+}
@@ -15,6 +15,7 @@ package org.openhab.automation.jsscripting.internal.threading;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -38,26 +39,40 @@ import org.openhab.core.config.core.Configuration;
 @NonNullByDefault
 class ThreadsafeSimpleRuleDelegate implements Rule, SimpleRuleActionHandler {
 
-    private final Object lock;
+    private final RuleContextPool pool;
     private final SimpleRule delegate;
+    // the copies of this rule in the replica contexts of the pool
+    private final AtomicReferenceArray<@Nullable SimpleRule> replicas;
 
     /**
-     * Constructor requires a lock object and delegate to forward invocations to.
+     * Constructor requires a context pool and delegate to forward invocations to.
      *
-     * @param lock rule executions will synchronize on this object
+     * @param pool rule executions will be serialized by the contexts of this pool
      * @param delegate the delegate to forward invocations to
      */
-    ThreadsafeSimpleRuleDelegate(Object lock, SimpleRule delegate) {
-        this.lock = lock;
+    ThreadsafeSimpleRuleDelegate(RuleContextPool pool, SimpleRule delegate) {
+        this.pool = pool;
         this.delegate = delegate;
+        this.replicas = new AtomicReferenceArray<>(pool.size());
     }
 
     @Override
     @NonNullByDefault({})
     public Object execute(Action module, Map<String, ?> inputs) {
-        synchronized (lock) {
-            return delegate.execute(module, inputs);
-        }
+        return pool.execute(this, module, inputs);
+    }
+
+    void setReplica(int context, @Nullable SimpleRule rule) {
+        replicas.set(context, rule);
+    }
+
+    boolean hasReplica(int context) {
+        return replicas.get(context) != null;
+    }
+
+    SimpleRule getRule(int context) {
+        SimpleRule rule = context == 0 ? null : replicas.get(context);
+        return rule != null ? rule : delegate;
     }
 
     @Override
@@ -28,7 +28,10 @@ import org.openhab.core.automation.type.TriggerType;
 /**
  * A replacement for {@link ScriptedAutomationManager} which wraps all rule registrations in a
  * {@link ThreadsafeSimpleRuleDelegate}. This means that all rules registered via this class with be run in serial per
- * instance of this class that they are registered with.
+ * context of the {@link RuleContextPool} that they are registered with.
+ *
+ * The delegate of a replica context does not register anything, it only passes its rules to the pool as copies of the
+ * rules of the script.
  *
  * @author Jonathan Gilbert - Initial contribution
  */
@@ -36,70 +39,129 @@ import org.openhab.core.automation.type.TriggerType;
 public class ThreadsafeWrappingScriptedAutomationManagerDelegate {
 
     private ScriptedAutomationManager delegate;
-    private Object lock = new Object();
-
-    public ThreadsafeWrappingScriptedAutomationManagerDelegate(ScriptedAutomationManager delegate) {
+    private final RuleContextPool pool;
+    private final int context;
+
+    /**
+     * @param delegate the automation manager of the script
+     * @param pool the contexts the rules of the script are executed in
+     * @param context the index of the context registering rules through this instance
+     */
+    public ThreadsafeWrappingScriptedAutomationManagerDelegate(ScriptedAutomationManager delegate,
+            RuleContextPool pool, int context) {
         this.delegate = delegate;
+        this.pool = pool;
+        this.context = context;
+    }
+
+    private boolean isReplica() {
+        return context > 0;
     }
 
     public void removeModuleType(String UID) {
+        if (isReplica()) {
+            return;
+        }
         delegate.removeModuleType(UID);
     }
 
     public void removeHandler(String typeUID) {
+        if (isReplica()) {
+            return;
+        }
         delegate.removeHandler(typeUID);
     }
 
     public void removePrivateHandler(String privId) {
+        if (isReplica()) {
+            return;
+        }
         delegate.removePrivateHandler(privId);
     }
 
     public void removeAll() {
+        if (isReplica()) {
+            return;
+        }
         delegate.removeAll();
     }
 
     public Rule addRule(Rule element) {
+        if (isReplica()) {
+            if (element instanceof SimpleRule) {
+                pool.addReplicaRule(context, (SimpleRule) element);
+            }
+            return element;
+        }
+
         // wrap in a threadsafe version, safe per context
         if (element instanceof SimpleRule) {
-            element = new ThreadsafeSimpleRuleDelegate(lock, (SimpleRule) element);
+            element = pool.addRule((SimpleRule) element);
         }
 
         return delegate.addRule(element);
     }
 
     public void addConditionType(ConditionType condititonType) {
+        if (isReplica()) {
+            return;
+        }
         delegate.addConditionType(condititonType);
     }
 
     public void addConditionHandler(String uid, ScriptedHandler conditionHandler) {
+        if (isReplica()) {
+            return;
+        }
         delegate.addConditionHandler(uid, conditionHandler);
     }
 
     public String addPrivateConditionHandler(SimpleConditionHandler conditionHandler) {
+        if (isReplica()) {
+            return "";
+        }
         return delegate.addPrivateConditionHandler(conditionHandler);
     }
 
     public void addActionType(ActionType actionType) {
+        if (isReplica()) {
+            return;
+        }
         delegate.addActionType(actionType);
     }
 
     public void addActionHandler(String uid, ScriptedHandler actionHandler) {
+        if (isReplica()) {
+            return;
+        }
         delegate.addActionHandler(uid, actionHandler);
     }
 
     public String addPrivateActionHandler(SimpleActionHandler actionHandler) {
+        if (isReplica()) {
+            return "";
+        }
         return delegate.addPrivateActionHandler(actionHandler);
     }
 
     public void addTriggerType(TriggerType triggerType) {
+        if (isReplica()) {
+            return;
+        }
         delegate.addTriggerType(triggerType);
     }
 
     public void addTriggerHandler(String uid, ScriptedHandler triggerHandler) {
+        if (isReplica()) {
+            return;
+        }
         delegate.addTriggerHandler(uid, triggerHandler);
     }
 
     public String addPrivateTriggerHandler(SimpleTriggerHandler triggerHandler) {
+        if (isReplica()) {
+            return "";
+        }
         return delegate.addPrivateTriggerHandler(triggerHandler);
     }
 }
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.openhab.core.automation.module.script.ScriptEngineFactory.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.script.ScriptContext;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.graalvm.polyglot.Engine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.automation.jsscripting.internal.fs.JSModuleCache;
+import org.openhab.automation.jsscripting.internal.threading.RuleExecutionMonitor;
+import org.openhab.core.automation.module.script.ScriptExtensionAccessor;
+
+/**
+ * Tests for {@link OpenhabGraalJSScriptEngine}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class OpenhabGraalJSScriptEngineTest {
+
+    private static final String GLOBALS_RESOURCE = "/node_modules/@jsscripting-globals.js";
+    private static final String INJECTION_CODE = "globalThis.injections = (globalThis.injections || 0) + 1;";
+
+    private final Engine engine = OpenhabGraalJSScriptEngine.createSharedEngine();
+    private final List<String> requestedModules = new ArrayList<>();
+    private final List<String> loadedModules = new ArrayList<>();
+    private final List<OpenhabGraalJSScriptEngine> scriptEngines = new ArrayList<>();
+
+    /**
+     * Records which modules the script engines request and which of them had to be loaded
+     */
+    private final JSModuleCache moduleCache = new JSModuleCache() {
+        @Override
+        public byte[] get(String key, ModuleLoader loader) throws IOException {
+            requestedModules.add(key);
+            return super.get(key, () -> {
+                loadedModules.add(key);
+                return loader.load();
+            });
+        }
+    };
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        for (OpenhabGraalJSScriptEngine scriptEngine : scriptEngines) {
+            scriptEngine.close();
+        }
+        engine.close();
+    }
+
+    private OpenhabGraalJSScriptEngine createScriptEngine(String identifier) {
+        OpenhabGraalJSScriptEngine scriptEngine = new OpenhabGraalJSScriptEngine(INJECTION_CODE, engine, moduleCache,
+                new RuleExecutionMonitor());
+        ScriptContext ctx = scriptEngine.getContext();
+        ctx.setAttribute(CONTEXT_KEY_ENGINE_IDENTIFIER, identifier, ScriptContext.ENGINE_SCOPE);
+        ctx.setAttribute(CONTEXT_KEY_EXTENSION_ACCESSOR, mock(ScriptExtensionAccessor.class),
+                ScriptContext.ENGINE_SCOPE);
+        scriptEngines.add(scriptEngine);
+        return scriptEngine;
+    }
+
+    @Test
+    public void globalScriptIsNotInjectedOnCreation() {
+        createScriptEngine("first");
+        createScriptEngine("second");
+
+        assertEquals(List.of(), requestedModules);
+    }
+
+    @Test
+    public void globalScriptIsInjectedOnceOnFirstEvaluation() throws Exception {
+        OpenhabGraalJSScriptEngine scriptEngine = createScriptEngine("script");
+
+        assertEquals(1, ((Number) scriptEngine.eval("injections")).intValue());
+        assertEquals(1, ((Number) scriptEngine.eval("injections")).intValue());
+        assertEquals(List.of(GLOBALS_RESOURCE), requestedModules);
+    }
+
+    @Test
+    public void globalsModuleIsLoadedOnceForAllScriptEngines() throws Exception {
+        OpenhabGraalJSScriptEngine first = createScriptEngine("first");
+        OpenhabGraalJSScriptEngine second = createScriptEngine("second");
+
+        first.eval("injections");
+        second.eval("injections");
+
+        assertEquals(List.of(GLOBALS_RESOURCE, GLOBALS_RESOURCE), requestedModules);
+        assertEquals(List.of(GLOBALS_RESOURCE), loadedModules);
+    }
+
+    @Test
+    public void scriptsUseOneContextUnlessTheyRequestMore() {
+        assertEquals(1, OpenhabGraalJSScriptEngine.contextsOf("console.log('hello');"));
+        assertEquals(4, OpenhabGraalJSScriptEngine.contextsOf("// @contexts 4\nconsole.log('hello');"));
+        assertEquals(4, OpenhabGraalJSScriptEngine.contextsOf("\n// my rules\n  //@contexts 4\nconsole.log('hello');"));
+        assertEquals(OpenhabGraalJSScriptEngine.MAX_CONTEXTS,
+                OpenhabGraalJSScriptEngine.contextsOf("// @contexts 100\nconsole.log('hello');"));
+        assertEquals(1, OpenhabGraalJSScriptEngine.contextsOf("console.log('hello');\n// @contexts 4"));
+        assertEquals(1, OpenhabGraalJSScriptEngine.contextsOf("// @contexts all\nconsole.log('hello');"));
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.fs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link JSModuleCache}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class JSModuleCacheTest {
+
+    private @TempDir @NonNullByDefault({}) Path libDir;
+
+    private @NonNullByDefault({}) JSModuleCache cache;
+    private @NonNullByDefault({}) Path module;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        cache = new JSModuleCache();
+        module = Files.createDirectories(libDir.resolve("mylib")).resolve("index.js");
+        Files.writeString(module, "module.exports = 1;");
+    }
+
+    private byte[] load(Path path) throws IOException {
+        return cache.get(path, () -> {
+            loads.incrementAndGet();
+            return Files.readAllBytes(path);
+        });
+    }
+
+    @Test
+    public void resourceIsLoadedOnce() throws IOException {
+        byte[] first = cache.get("/node_modules/openhab.js", () -> {
+            loads.incrementAndGet();
+            return new byte[] { 1 };
+        });
+        byte[] second = cache.get("/node_modules/openhab.js", () -> {
+            loads.incrementAndGet();
+            return new byte[] { 2 };
+        });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void libraryFileIsLoadedOnceForEquivalentPaths() throws IOException {
+        load(module);
+        byte[] content = load(libDir.resolve("mylib").resolve("..").resolve("mylib").resolve("index.js"));
+
+        assertEquals("module.exports = 1;", new String(content, StandardCharsets.UTF_8));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void changedLibraryFileIsReloadedAfterInvalidation() throws IOException {
+        load(module);
+        Files.writeString(module, "module.exports = 2;");
+        assertEquals("module.exports = 1;", new String(load(module), StandardCharsets.UTF_8));
+
+        cache.invalidate(module.toString());
+
+        assertEquals("module.exports = 2;", new String(load(module), StandardCharsets.UTF_8));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void relativePathInvalidatesModule() throws IOException {
+        load(module);
+
+        Path relative = Paths.get("").toAbsolutePath().relativize(module);
+        cache.invalidate(relative.toString());
+        load(module);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void directoryInvalidatesContainedModules() throws IOException {
+        Path other = libDir.resolve("mylib").resolve("other.js");
+        Files.writeString(other, "module.exports = 3;");
+        Path unrelated = Files.writeString(libDir.resolve("mylib2.js"), "module.exports = 4;");
+        load(module);
+        load(other);
+        load(unrelated);
+
+        cache.invalidate(libDir.resolve("mylib").toString());
+        load(module);
+        load(other);
+        load(unrelated);
+
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void symbolicLinkPathInvalidatesModule() throws IOException {
+        Path link = libDir.resolve("link");
+        try {
+            Files.createSymbolicLink(link, libDir.resolve("mylib"));
+        } catch (UnsupportedOperationException | IOException e) {
+            assumeTrue(false, "symbolic links are not supported");
+        }
+
+        load(link.resolve("index.js"));
+        cache.invalidate(module.toString());
+        load(module);
+        load(link.resolve("index.js"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void deletedModuleIsInvalidated() throws IOException {
+        load(module);
+        Files.delete(module);
+
+        cache.invalidate(module.toString());
+
+        assertThrows(IOException.class, () -> load(module));
+    }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.automation.jsscripting.internal.threading;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.automation.Action;
+import org.openhab.core.automation.module.script.rulesupport.shared.ScriptedAutomationManager;
+import org.openhab.core.automation.module.script.rulesupport.shared.simple.SimpleRule;
+
+/**
+ * Tests for {@link RuleContextPool}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RuleContextPoolTest {
+
+    private static final int TRIGGERS = 8;
+    private static final long RULE_DURATION_MS = 100;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(TRIGGERS);
+    private final Action action = mock(Action.class);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+    private final List<Integer> executedContexts = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * A rule which records the context it was executed in and how many rules were executed at the same time
+     */
+    private class RecordingRule extends SimpleRule {
+        private final int context;
+        private final CountDownLatch release;
+        private final long durationMillis;
+
+        RecordingRule(String name, int context, CountDownLatch release) {
+            this(name, context, release, 0);
+        }
+
+        RecordingRule(String name, int context, CountDownLatch release, long durationMillis) {
+            this.context = context;
+            this.release = release;
+            this.durationMillis = durationMillis;
+            setName(name);
+        }
+
+        @Override
+        public @Nullable Object execute(@NonNullByDefault({}) Action module,
+                @NonNullByDefault({}) Map<String, ?> inputs) {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            synchronized (executedContexts) {
+                executedContexts.add(context);
+            }
+            try {
+                release.await(5, TimeUnit.SECONDS);
+                Thread.sleep(durationMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return null;
+        }
+    }
+
+    private void trigger(ThreadsafeSimpleRuleDelegate rule, int times, CountDownLatch release) throws Exception {
+        List<Future<?>> executions = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            executions.add(executor.submit(() -> rule.execute(action, Map.of())));
+        }
+        // let the triggers pile up before the rules are allowed to finish
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<?> execution : executions) {
+            execution.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void singleContextExecutesRulesOneAfterAnother() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RuleContextPool pool = new RuleContextPool(1);
+        ThreadsafeSimpleRuleDelegate rule = pool.addRule(new RecordingRule("rule", 0, release));
+
+        trigger(rule, TRIGGERS, release);
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(TRIGGERS, pool.getMetrics().getExecutions());
+        assertEquals(1, pool.getMetrics().getContexts());
+    }
+
+    /**
+     * Triggers a rule which takes {@link #RULE_DURATION_MS} to execute {@link #TRIGGERS} times at once
+     *
+     * @return the time until all executions finished, in milliseconds
+     */
+    private long measure(RuleContextPool pool) throws Exception {
+        // a released latch lets the rule only take its duration
+        CountDownLatch release = new CountDownLatch(0);
+        ThreadsafeSimpleRuleDelegate rule = pool.addRule(new RecordingRule("rule", 0, release, RULE_DURATION_MS));
+        for (int context = 1; context < pool.size(); context++) {
+            pool.addReplicaRule(context, new RecordingRule("rule", context, release, RULE_DURATION_MS));
+        }
+
+        long start = System.nanoTime();
+        List<Future<?>> executions = new ArrayList<>();
+        for (int i = 0; i < TRIGGERS; i++) {
+            executions.add(executor.submit(() -> rule.execute(action, Map.of())));
+        }
+        for (Future<?> execution : executions) {
+            execution.get(5, TimeUnit.SECONDS);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    public void pooledContextsIncreaseThroughputOfConcurrentTriggers() throws Exception {
+        long singleContextMillis = measure(new RuleContextPool(1));
+        assertEquals(1, maxRunning.get());
+
+        maxRunning.set(0);
+        executedContexts.clear();
+        RuleContextPool pool = new RuleContextPool(4);
+        long pooledMillis = measure(pool);
+
+        // one context executes the triggers one after another, four contexts take turns in two rounds
+        assertTrue(singleContextMillis >= TRIGGERS * RULE_DURATION_MS);
+        assertTrue(pooledMillis * 2 < singleContextMillis,
+                "4 contexts took " + pooledMillis + " ms, 1 context took " + singleContextMillis + " ms");
+        assertEquals(4, maxRunning.get());
+        for (int context = 0; context < 4; context++) {
+            assertTrue(executedContexts.contains(context), "context " + context + " was not used");
+        }
+        RuleExecutionMetrics metrics = pool.getMetrics();
+        assertEquals(4, metrics.getContexts());
+        assertEquals(TRIGGERS, metrics.getExecutions());
+        assertEquals(0, metrics.getQueueLength());
+        assertEquals(0, metrics.getBusyContexts());
+        assertTrue(metrics.getMaxWaitMillis() > 0);
+    }
+
+    @Test
+    public void ruleWithoutReplicaIsExecutedInFirstContext() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RuleContextPool pool = new RuleContextPool(2);
+        pool.addRule(new RecordingRule("first", 0, release));
+        ThreadsafeSimpleRuleDelegate second = pool.addRule(new RecordingRule("second", 0, release));
+        pool.addReplicaRule(1, new RecordingRule("first", 1, release));
+
+        trigger(second, 3, release);
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(List.of(0, 0, 0), executedContexts);
+    }
+
+    @Test
+    public void replicaRuleWithDifferentNameIsIgnored() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RuleContextPool pool = new RuleContextPool(2);
+        ThreadsafeSimpleRuleDelegate rule = pool.addRule(new RecordingRule("rule", 0, release));
+        pool.addReplicaRule(1, new RecordingRule("other", 1, release));
+
+        assertFalse(rule.hasReplica(1));
+        trigger(rule, 2, release);
+
+        assertEquals(List.of(0, 0), executedContexts);
+    }
+
+    @Test
+    public void discardedContextIsNotUsed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RuleContextPool pool = new RuleContextPool(2);
+        ThreadsafeSimpleRuleDelegate rule = pool.addRule(new RecordingRule("rule", 0, release));
+        pool.addReplicaRule(1, new RecordingRule("rule", 1, release));
+
+        pool.discardContext(1);
+        trigger(rule, 2, release);
+
+        assertEquals(List.of(0, 0), executedContexts);
+    }
+
+    @Test
+    public void replicaDelegateDoesNotRegisterRules() {
+        CountDownLatch release = new CountDownLatch(1);
+        RuleContextPool pool = new RuleContextPool(2);
+        ScriptedAutomationManager manager = mock(ScriptedAutomationManager.class);
+
+        ThreadsafeWrappingScriptedAutomationManagerDelegate script = new ThreadsafeWrappingScriptedAutomationManagerDelegate(
+                manager, pool, 0);
+        ThreadsafeWrappingScriptedAutomationManagerDelegate replica = new ThreadsafeWrappingScriptedAutomationManagerDelegate(
+                manager, pool, 1);
+        script.addRule(new RecordingRule("rule", 0, release));
+        replica.addRule(new RecordingRule("rule", 1, release));
+
+        verify(manager).addRule(any());
+        assertTrue(pool.hasRules());
+    }
+}
@@ -24,6 +24,8 @@ import org.eclipse.jetty.client.api.Response;
 import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BufferingResponseListener;
 import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,6 +40,7 @@ public class HttpResponseListener extends BufferingResponseListener {
     private final Logger logger = LoggerFactory.getLogger(HttpResponseListener.class);
     private final CompletableFuture<@Nullable Content> future;
     private final String fallbackEncoding;
+    private final @Nullable Content cachedContent;
 
     /**
      * the HttpResponseListener is responsible
@@ -48,9 +51,24 @@ public class HttpResponseListener extends BufferingResponseListener {
      */
     public HttpResponseListener(CompletableFuture<@Nullable Content> future, @Nullable String fallbackEncoding,
             int bufferSize) {
+        this(future, fallbackEncoding, bufferSize, null);
+    }
+
+    /**
+     * the HttpResponseListener is responsible
+     *
+     * @param future Content future to complete with the result of the request
+     * @param fallbackEncoding a fallback encoding for the content (UTF-8 if null)
+     * @param bufferSize the buffer size for the content in kB (default 2048 kB)
+     * @param cachedContent the content the request was made conditional on, the future is completed with it if the
+     *            remote side responds with "304 Not Modified"
+     */
+    public HttpResponseListener(CompletableFuture<@Nullable Content> future, @Nullable String fallbackEncoding,
+            int bufferSize, @Nullable Content cachedContent) {
         super(bufferSize * 1024);
         this.future = future;
         this.fallbackEncoding = fallbackEncoding != null ? fallbackEncoding : StandardCharsets.UTF_8.name();
+        this.cachedContent = cachedContent;
     }
 
     @Override
@@ -60,13 +78,19 @@ public class HttpResponseListener extends BufferingResponseListener {
             logger.trace("Received from '{}': {}", result.getRequest().getURI(), responseToLogString(response));
         }
         Request request = result.getRequest();
+        Content cachedContent = this.cachedContent;
         if (result.isFailed()) {
             logger.warn("Requesting '{}' (method='{}', content='{}') failed: {}", request.getURI(), request.getMethod(),
                     request.getContent(), result.getFailure().toString());
             future.complete(null);
         } else if (HttpStatus.isSuccess(response.getStatus())) {
             String encoding = Objects.requireNonNullElse(getEncoding(), fallbackEncoding);
-            future.complete(new Content(getContent(), encoding, getMediaType()));
+            HttpFields headers = response.getHeaders();
+            future.complete(new Content(getContent(), encoding, getMediaType(), headers.get(HttpHeader.ETAG),
+                    headers.get(HttpHeader.LAST_MODIFIED)));
+        } else if (response.getStatus() == HttpStatus.NOT_MODIFIED_304 && cachedContent != null) {
+            logger.trace("Content of '{}' was not modified", request.getURI());
+            future.complete(cachedContent);
         } else {
             switch (response.getStatus()) {
                 case HttpStatus.UNAUTHORIZED_401:
@@ -15,8 +15,10 @@ package org.openhab.binding.http.internal.http;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
@@ -31,9 +33,11 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jetty.client.api.Authentication;
 import org.eclipse.jetty.client.api.AuthenticationStore;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.openhab.binding.http.internal.Util;
 import org.openhab.binding.http.internal.config.HttpThingConfig;
+import org.openhab.core.thing.ThingUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,40 +45,50 @@ import org.slf4j.LoggerFactory;
  * The {@link RefreshingUrlCache} is responsible for requesting from a single URL and passing the content to the
  * channels
  *
+ * GET requests are made conditional on the ETag and Last-Modified headers of the last response, so that servers
+ * supporting it answer with "304 Not Modified" instead of sending the same content again. If configured, content that
+ * did not change is not passed to the channels again.
+ *
+ * A cache can be shared by several things requesting the same URL with the same configuration. It is refreshed with the
+ * shortest refresh interval of these things, using the rate limited client of the thing with this interval.
+ *
  * @author Jan N. Klug - Initial contribution
  */
 @NonNullByDefault
 public class RefreshingUrlCache {
     private final Logger logger = LoggerFactory.getLogger(RefreshingUrlCache.class);
 
+    private final ScheduledExecutorService executor;
     private final String url;
     private final boolean escapedUrl;
-    private final RateLimitedHttpClient httpClient;
     private final int timeout;
     private final int bufferSize;
     private final @Nullable String fallbackEncoding;
-    private final Set<Consumer<Content>> consumers = ConcurrentHashMap.newKeySet();
+    private final Map<ThingUID, Subscriber> subscribers = new ConcurrentHashMap<>();
     private final List<String> headers;
     private final HttpMethod httpMethod;
     private final String httpContent;
+    private final boolean skipUnchanged;
 
-    private final ScheduledFuture<?> future;
+    private @Nullable ScheduledFuture<?> future;
+    private int refreshInterval;
+    private volatile @Nullable RateLimitedHttpClient httpClient;
     private @Nullable Content lastContent;
+    // the formatted URL the last content was received from
+    private @Nullable String lastUrl;
 
-    public RefreshingUrlCache(ScheduledExecutorService executor, RateLimitedHttpClient httpClient, String url,
-            boolean escapedUrl, HttpThingConfig thingConfig, String httpContent) {
-        this.httpClient = httpClient;
+    public RefreshingUrlCache(ScheduledExecutorService executor, String url, boolean escapedUrl,
+            HttpThingConfig thingConfig, String httpContent) {
+        this.executor = executor;
         this.url = url;
         this.escapedUrl = escapedUrl;
         this.timeout = thingConfig.timeout;
         this.bufferSize = thingConfig.bufferSize;
-        this.headers = thingConfig.headers;
+        this.headers = List.copyOf(thingConfig.headers);
         this.httpMethod = thingConfig.stateMethod;
         this.httpContent = httpContent;
+        this.skipUnchanged = thingConfig.skipUnchanged;
         fallbackEncoding = thingConfig.encoding;
-
-        future = executor.scheduleWithFixedDelay(this::refresh, 1, thingConfig.refresh, TimeUnit.SECONDS);
-        logger.trace("Started refresh task for URL '{}' with interval {}s", url, thingConfig.refresh);
     }
 
     private void refresh() {
@@ -82,7 +96,8 @@ public class RefreshingUrlCache {
     }
 
     private void refresh(boolean isRetry) {
-        if (consumers.isEmpty()) {
+        RateLimitedHttpClient httpClient = this.httpClient;
+        if (subscribers.isEmpty() || httpClient == null) {
             // do not refresh if we don't have listeners
             return;
         }
@@ -105,6 +120,18 @@ public class RefreshingUrlCache {
                     }
                 });
 
+                Content cachedContent = conditionalContent(url);
+                if (cachedContent != null) {
+                    String eTag = cachedContent.getETag();
+                    if (eTag != null && !request.getHeaders().contains(HttpHeader.IF_NONE_MATCH)) {
+                        request.header(HttpHeader.IF_NONE_MATCH, eTag);
+                    }
+                    String lastModified = cachedContent.getLastModified();
+                    if (lastModified != null && !request.getHeaders().contains(HttpHeader.IF_MODIFIED_SINCE)) {
+                        request.header(HttpHeader.IF_MODIFIED_SINCE, lastModified);
+                    }
+                }
+
                 CompletableFuture<@Nullable Content> response = new CompletableFuture<>();
                 response.exceptionally(e -> {
                     if (e instanceof HttpAuthException) {
@@ -123,13 +150,13 @@ public class RefreshingUrlCache {
                         }
                     }
                     return null;
-                }).thenAccept(this::processResult);
+                }).thenAccept(content -> processResult(url, content));
 
                 if (logger.isTraceEnabled()) {
                     logger.trace("Sending to '{}': {}", uri, Util.requestToLogString(request));
                 }
 
-                request.send(new HttpResponseListener(response, fallbackEncoding, bufferSize));
+                request.send(new HttpResponseListener(response, fallbackEncoding, bufferSize, cachedContent));
             }).exceptionally(e -> {
                 if (e instanceof CancellationException) {
                     logger.debug("Request to URL {} was cancelled by thing handler.", uri);
@@ -143,15 +170,54 @@ public class RefreshingUrlCache {
         }
     }
 
-    public void stop() {
+    public synchronized void stop() {
         // clearing all listeners to prevent further updates
-        consumers.clear();
-        future.cancel(false);
+        subscribers.clear();
+        httpClient = null;
+        ScheduledFuture<?> future = this.future;
+        if (future != null) {
+            future.cancel(false);
+            this.future = null;
+        }
         logger.trace("Stopped refresh task for URL '{}'", url);
     }
 
-    public void addConsumer(Consumer<Content> consumer) {
-        consumers.add(consumer);
+    /**
+     * Add a consumer of a thing. The refresh task is started or rescheduled if necessary. If unchanged content is
+     * skipped, the consumer immediately receives the last content, as it would not receive it again until it changes.
+     *
+     * @param thingUID the thing the consumer belongs to
+     * @param refresh the refresh interval of the thing in s
+     * @param httpClient the rate limited client of the thing
+     * @param consumer the consumer
+     */
+    public synchronized void addConsumer(ThingUID thingUID, int refresh, RateLimitedHttpClient httpClient,
+            Consumer<Content> consumer) {
+        subscribers.computeIfAbsent(thingUID, uid -> new Subscriber(refresh, httpClient)).consumers.add(consumer);
+        updateRefreshTask();
+        Content content = lastContent;
+        if (skipUnchanged && content != null) {
+            deliver(consumer, content);
+        }
+    }
+
+    /**
+     * Remove all consumers of a thing. The refresh task is stopped if no consumers are left, otherwise it is
+     * rescheduled if necessary.
+     *
+     * @param thingUID the thing the consumers belong to
+     * @return true if no consumers are left and the cache is stopped
+     */
+    public synchronized boolean removeConsumers(ThingUID thingUID) {
+        if (subscribers.remove(thingUID) == null) {
+            return subscribers.isEmpty();
+        }
+        if (subscribers.isEmpty()) {
+            stop();
+            return true;
+        }
+        updateRefreshTask();
+        return false;
     }
 
     public Optional<Content> get() {
@@ -163,16 +229,78 @@ public class RefreshingUrlCache {
         }
     }
 
-    private void processResult(@Nullable Content content) {
+    /**
+     * Get the content a request to the given URL can be made conditional on
+     *
+     * @param url the formatted URL of the request
+     * @return the last content if it was received from the same URL and has cache validators, null otherwise
+     */
+    private synchronized @Nullable Content conditionalContent(String url) {
+        Content content = lastContent;
+        if (httpMethod != HttpMethod.GET || content == null || !url.equals(lastUrl)
+                || (content.getETag() == null && content.getLastModified() == null)) {
+            return null;
+        }
+        return content;
+    }
+
+    synchronized void processResult(String url, @Nullable Content content) {
+        Content previousContent = lastContent;
+        lastContent = content;
+        lastUrl = url;
+        if (content != null && skipUnchanged && previousContent != null
+                && (content == previousContent || content.hasSameContent(previousContent))) {
+            logger.trace("Content of URL {} did not change, skipping update of channels", url);
+            return;
+        }
         if (content != null) {
-            for (Consumer<Content> consumer : consumers) {
-                try {
-                    consumer.accept(content);
-                } catch (IllegalArgumentException | IllegalStateException e) {
-                    logger.warn("Failed processing result for URL {}: {}", url, e.getMessage());
+            for (Subscriber subscriber : subscribers.values()) {
+                for (Consumer<Content> consumer : subscriber.consumers) {
+                    deliver(consumer, content);
                 }
             }
         }
-        lastContent = content;
+    }
+
+    private void deliver(Consumer<Content> consumer, Content content) {
+        try {
+            consumer.accept(content);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.warn("Failed processing result for URL {}: {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * Use the shortest refresh interval and the rate limited client of the subscriber with this interval
+     */
+    private void updateRefreshTask() {
+        Subscriber fastest = subscribers.values().stream().min(Comparator.comparingInt(s -> s.refresh)).orElse(null);
+        if (fastest == null) {
+            return;
+        }
+        httpClient = fastest.httpClient;
+
+        ScheduledFuture<?> future = this.future;
+        if (future != null && fastest.refresh == refreshInterval) {
+            return;
+        }
+        if (future != null) {
+            future.cancel(false);
+        }
+        refreshInterval = fastest.refresh;
+        this.future = executor.scheduleWithFixedDelay(this::refresh, 1, refreshInterval, TimeUnit.SECONDS);
+        logger.trace("Started refresh task for URL '{}' with interval {}s for {} things", url, refreshInterval,
+                subscribers.size());
+    }
+
+    private static class Subscriber {
+        private final int refresh;
+        private final RateLimitedHttpClient httpClient;
+        private final Set<Consumer<Content>> consumers = ConcurrentHashMap.newKeySet();
+
+        public Subscriber(int refresh, RateLimitedHttpClient httpClient) {
+            this.refresh = refresh;
+            this.httpClient = httpClient;
+        }
     }
 }
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.jetty.http.HttpMethod;
+import org.openhab.binding.http.internal.config.HttpAuthMode;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+import org.openhab.core.thing.ThingUID;
+
+/**
+ * The {@link RefreshingUrlCacheRegistry} shares {@link RefreshingUrlCache}s between all things of the binding, so that
+ * a URL requested by several things with the same request configuration is only requested once per refresh.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class RefreshingUrlCacheRegistry {
+    private final Map<CacheKey, RefreshingUrlCache> caches = new HashMap<>();
+
+    /**
+     * Add a consumer to the cache for the given request, the cache is created if necessary
+     *
+     * @param thingUID the thing the consumer belongs to
+     * @param scheduler the scheduler for the refresh task, if the cache is created
+     * @param httpClient the rate limited client of the thing
+     * @param url the URL (not yet formatted)
+     * @param escapedUrl if the URL is already escaped
+     * @param thingConfig the configuration of the thing
+     * @param httpContent the content of the request
+     * @param consumer the consumer
+     * @return the cache the consumer was added to
+     */
+    public synchronized RefreshingUrlCache subscribe(ThingUID thingUID, ScheduledExecutorService scheduler,
+            RateLimitedHttpClient httpClient, String url, boolean escapedUrl, HttpThingConfig thingConfig,
+            String httpContent, Consumer<Content> consumer) {
+        RefreshingUrlCache cache = caches.computeIfAbsent(new CacheKey(url, escapedUrl, thingConfig, httpContent),
+                k -> new RefreshingUrlCache(scheduler, url, escapedUrl, thingConfig, httpContent));
+        cache.addConsumer(thingUID, thingConfig.refresh, httpClient, consumer);
+        return cache;
+    }
+
+    /**
+     * Remove all consumers of the given thing, caches without consumers are stopped
+     *
+     * @param thingUID the thing
+     */
+    public synchronized void unsubscribe(ThingUID thingUID) {
+        caches.values().removeIf(cache -> cache.removeConsumers(thingUID));
+    }
+
+    /**
+     * Stop all caches
+     */
+    public synchronized void shutdown() {
+        caches.values().forEach(RefreshingUrlCache::stop);
+        caches.clear();
+    }
+
+    /**
+     * All parameters that influence the request or the processing of the response
+     */
+    private static class CacheKey {
+        private final String url;
+        private final boolean escapedUrl;
+        private final HttpMethod method;
+        private final String content;
+        private final List<String> headers;
+        private final boolean secure;
+        private final String username;
+        private final String password;
+        private final HttpAuthMode authMode;
+        private final int timeout;
+        private final int bufferSize;
+        private final @Nullable String encoding;
+        private final boolean skipUnchanged;
+
+        public CacheKey(String url, boolean escapedUrl, HttpThingConfig thingConfig, String content) {
+            this.url = url;
+            this.escapedUrl = escapedUrl;
+            this.method = thingConfig.stateMethod;
+            this.content = content;
+            this.headers = List.copyOf(thingConfig.headers);
+            this.secure = !thingConfig.ignoreSSLErrors;
+            this.username = thingConfig.username;
+            this.password = thingConfig.password;
+            this.authMode = thingConfig.authMode;
+            this.timeout = thingConfig.timeout;
+            this.bufferSize = thingConfig.bufferSize;
+            this.encoding = thingConfig.encoding;
+            this.skipUnchanged = thingConfig.skipUnchanged;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return url.equals(other.url) && escapedUrl == other.escapedUrl && method == other.method
+                    && content.equals(other.content) && headers.equals(other.headers) && secure == other.secure
+                    && username.equals(other.username) && password.equals(other.password)
+                    && authMode == other.authMode && timeout == other.timeout && bufferSize == other.bufferSize
+                    && Objects.equals(encoding, other.encoding) && skipUnchanged == other.skipUnchanged;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, escapedUrl, method, content, headers, secure, username, password, authMode,
+                    timeout, bufferSize, encoding, skipUnchanged);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Content}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ContentTest {
+
+    /**
+     * Content with the same payload is considered the same, regardless of the cache validators.
+     */
+    @Test
+    public void sameContentIgnoresCacheValidators() {
+        Content content = new Content("foobar".getBytes(), "UTF-8", "application/json", "\"abc\"", null);
+
+        assertTrue(content.hasSameContent(new Content("foobar".getBytes(), "UTF-8", "application/json")));
+        assertTrue(content.hasSameContent(
+                new Content("foobar".getBytes(), "UTF-8", "application/json", null, "Wed, 21 Oct 2015 07:28:00 GMT")));
+    }
+
+    @Test
+    public void differentContent() {
+        Content content = new Content("foobar".getBytes(), "UTF-8", "application/json");
+
+        assertFalse(content.hasSameContent(new Content("foobaz".getBytes(), "UTF-8", "application/json")));
+        assertFalse(content.hasSameContent(new Content("foobar".getBytes(), "UTF-16", "application/json")));
+        assertFalse(content.hasSameContent(new Content("foobar".getBytes(), "UTF-8", "text/plain")));
+    }
+}
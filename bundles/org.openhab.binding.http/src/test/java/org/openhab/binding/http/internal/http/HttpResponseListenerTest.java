@@ -273,6 +273,63 @@ public class HttpResponseListenerTest {
         assertNull(content.getMediaType());
     }
 
+    /**
+     * When the remote side sends cache validators, the future completes normally and contains a
+     * Content object with the validators.
+     */
+    @Test
+    public void okWithCacheValidators() {
+        when(response.getStatus()).thenReturn(HttpStatus.OK_200);
+        response.getHeaders().put(HttpHeader.ETAG, "\"abc\"");
+        response.getHeaders().put(HttpHeader.LAST_MODIFIED, "Wed, 21 Oct 2015 07:28:00 GMT");
+
+        CompletableFuture<@Nullable Content> future = run("foobar".getBytes());
+
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+
+        Content content = future.join();
+        assertNotNull(content);
+        assertEquals("\"abc\"", content.getETag());
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", content.getLastModified());
+    }
+
+    /**
+     * When the remote side response with a HTTP/304 to a conditional request, the future
+     * completes normally and contains the cached Content.
+     */
+    @Test
+    public void notModified() {
+        when(response.getStatus()).thenReturn(HttpStatus.NOT_MODIFIED_304);
+        Content cachedContent = new Content("foobar".getBytes(), "UTF-8", null, "\"abc\"", null);
+
+        CompletableFuture<@Nullable Content> future = new CompletableFuture<>();
+        run(new HttpResponseListener(future, null, 1024 * 1024, cachedContent));
+
+        assertTrue(future.isDone());
+        assertFalse(future.isCompletedExceptionally());
+        assertSame(cachedContent, future.join());
+    }
+
+    /**
+     * When the remote side response with a HTTP/304 to a request that was not conditional, the
+     * future completes exceptionally with a IllegalStateException.
+     */
+    @Test
+    public void notModifiedWithoutCachedContent() {
+        when(response.getStatus()).thenReturn(HttpStatus.NOT_MODIFIED_304);
+
+        CompletableFuture<@Nullable Content> future = run();
+
+        assertTrue(future.isDone());
+        assertTrue(future.isCompletedExceptionally());
+
+        @Nullable
+        CompletionException exceptionWrapper = assertThrows(CompletionException.class, () -> future.join());
+        assertNotNull(exceptionWrapper);
+        assertTrue(exceptionWrapper.getCause() instanceof IllegalStateException);
+    }
+
     /**
      * When the remote side response with a HTTP/401, the future completes exceptionally with a
      * HttpAuthException.
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+import org.openhab.core.thing.ThingUID;
+
+/**
+ * Unit tests for {@link RefreshingUrlCacheRegistry}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@ExtendWith(MockitoExtension.class)
+public class RefreshingUrlCacheRegistryTest {
+    private static final String URL = "http://example.com/data";
+    private static final ThingUID THING_1 = new ThingUID("http:url:thing1");
+    private static final ThingUID THING_2 = new ThingUID("http:url:thing2");
+
+    private @Mock @NonNullByDefault({}) ScheduledExecutorService scheduler;
+    private @Mock @NonNullByDefault({}) ScheduledFuture<?> future;
+    private @Mock @NonNullByDefault({}) RateLimitedHttpClient httpClient1;
+    private @Mock @NonNullByDefault({}) RateLimitedHttpClient httpClient2;
+
+    private RefreshingUrlCacheRegistry registry = new RefreshingUrlCacheRegistry();
+
+    @BeforeEach
+    public void init() {
+        doReturn(future).when(scheduler).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+
+    private HttpThingConfig config(int refresh, String... headers) {
+        HttpThingConfig config = new HttpThingConfig();
+        config.refresh = refresh;
+        config.headers.addAll(List.of(headers));
+        return config;
+    }
+
+    @Test
+    public void sameRequestSharesCache() {
+        RefreshingUrlCache cache1 = registry.subscribe(THING_1, scheduler, httpClient1, URL, false, config(30), "",
+                content -> {
+                });
+        RefreshingUrlCache cache2 = registry.subscribe(THING_2, scheduler, httpClient2, URL, false, config(30), "",
+                content -> {
+                });
+
+        assertSame(cache1, cache2);
+        verify(scheduler, times(1)).scheduleWithFixedDelay(any(), eq(1L), eq(30L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void differentRequestsDoNotShareCache() {
+        RefreshingUrlCache cache1 = registry.subscribe(THING_1, scheduler, httpClient1, URL, false, config(30), "",
+                content -> {
+                });
+        RefreshingUrlCache cache2 = registry.subscribe(THING_2, scheduler, httpClient2, URL, false,
+                config(30, "key=value"), "", content -> {
+                });
+        RefreshingUrlCache cache3 = registry.subscribe(THING_2, scheduler, httpClient2, URL, false, config(30),
+                "content", content -> {
+                });
+
+        assertNotSame(cache1, cache2);
+        assertNotSame(cache1, cache3);
+        assertNotSame(cache2, cache3);
+    }
+
+    @Test
+    public void shortestIntervalIsUsed() {
+        registry.subscribe(THING_1, scheduler, httpClient1, URL, false, config(30), "", content -> {
+        });
+        registry.subscribe(THING_2, scheduler, httpClient2, URL, false, config(10), "", content -> {
+        });
+
+        verify(future).cancel(false);
+        verify(scheduler).scheduleWithFixedDelay(any(), eq(1L), eq(10L), eq(TimeUnit.SECONDS));
+
+        // the remaining thing restores its interval
+        registry.unsubscribe(THING_2);
+        verify(scheduler, times(2)).scheduleWithFixedDelay(any(), eq(1L), eq(30L), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cacheIsStoppedWithLastThing() {
+        RefreshingUrlCache cache1 = registry.subscribe(THING_1, scheduler, httpClient1, URL, false, config(30), "",
+                content -> {
+                });
+        registry.subscribe(THING_2, scheduler, httpClient2, URL, false, config(30), "", content -> {
+        });
+
+        registry.unsubscribe(THING_1);
+        verify(future, never()).cancel(anyBoolean());
+
+        registry.unsubscribe(THING_2);
+        verify(future).cancel(false);
+
+        // a new subscription creates a new cache
+        RefreshingUrlCache cache2 = registry.subscribe(THING_1, scheduler, httpClient1, URL, false, config(30), "",
+                content -> {
+                });
+        assertNotSame(cache1, cache2);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.http.internal.http;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.openhab.binding.http.internal.config.HttpThingConfig;
+import org.openhab.core.thing.ThingUID;
+
+/**
+ * Unit tests for {@link RefreshingUrlCache}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@ExtendWith(MockitoExtension.class)
+public class RefreshingUrlCacheTest {
+    private static final String URL = "http://example.com/data";
+    private static final ThingUID THING_1 = new ThingUID("http:url:thing1");
+    private static final ThingUID THING_2 = new ThingUID("http:url:thing2");
+
+    private @Mock @NonNullByDefault({}) ScheduledExecutorService scheduler;
+    private @Mock @NonNullByDefault({}) ScheduledFuture<?> future;
+    private @Mock @NonNullByDefault({}) RateLimitedHttpClient httpClient;
+
+    private final List<Content> received1 = new ArrayList<>();
+    private final List<Content> received2 = new ArrayList<>();
+
+    @BeforeEach
+    public void init() {
+        doReturn(future).when(scheduler).scheduleWithFixedDelay(any(), anyLong(), anyLong(), any());
+    }
+
+    private RefreshingUrlCache cache(boolean skipUnchanged) {
+        HttpThingConfig config = new HttpThingConfig();
+        config.refresh = 30;
+        config.skipUnchanged = skipUnchanged;
+        return new RefreshingUrlCache(scheduler, URL, false, config, "");
+    }
+
+    private Content content(String value) {
+        return new Content(value.getBytes(StandardCharsets.UTF_8), "UTF-8", null);
+    }
+
+    @Test
+    public void unchangedContentIsNotPassedAgain() {
+        RefreshingUrlCache cache = cache(true);
+        cache.addConsumer(THING_1, 30, httpClient, received1::add);
+
+        cache.processResult(URL, content("1"));
+        cache.processResult(URL, content("1"));
+        cache.processResult(URL, content("2"));
+
+        assertEquals(2, received1.size());
+    }
+
+    @Test
+    public void newConsumerReceivesLastContentIfUnchangedContentIsSkipped() {
+        RefreshingUrlCache cache = cache(true);
+        cache.addConsumer(THING_1, 30, httpClient, received1::add);
+        Content content = content("1");
+        cache.processResult(URL, content);
+
+        cache.addConsumer(THING_2, 30, httpClient, received2::add);
+        cache.processResult(URL, content("1"));
+
+        assertEquals(List.of(content), received1);
+        assertEquals(List.of(content), received2);
+    }
+
+    @Test
+    public void newConsumerWaitsForNextRefreshIfUnchangedContentIsPassed() {
+        RefreshingUrlCache cache = cache(false);
+        cache.addConsumer(THING_1, 30, httpClient, received1::add);
+        cache.processResult(URL, content("1"));
+
+        cache.addConsumer(THING_2, 30, httpClient, received2::add);
+        assertEquals(List.of(), received2);
+
+        cache.processResult(URL, content("1"));
+        assertEquals(2, received1.size());
+        assertEquals(1, received2.size());
+    }
+}
@@ -78,4 +78,14 @@ public class FullGroup extends Group {
     public void setState(State state) {
         this.groupState = state;
     }
+
+    /**
+     * Returns a copy of this group with another current state.
+     *
+     * @param state the current state of the copy
+     * @return the copy
+     */
+    public FullGroup withState(State state) {
+        return new FullGroup(getId(), getName(), getType(), action, lights, state);
+    }
 }
@@ -20,54 +20,131 @@ import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
 /**
+ * Asynchronous PUT requests are queued and sent one after the other, with the delay recommended for the size of the
+ * previous command in between. A new state update for a light, group or sensor that is still waiting in the queue is
+ * merged into the pending request, so that a flood of commands (e.g. from a dragged dimmer slider) does not build up
+ * a backlog of stale states. Group commands are limited to one per {@link #GROUP_COMMAND_INTERVAL_MS}, as recommended
+ * by Philips; light commands may pass waiting group commands.
+ * <p>
+ * The Hue API recommends roughly 10 light commands or 1 group command per second. Instead of separate budgets, a
+ * single global delay, derived from the size of the previous command, is kept between all requests and group
+ * commands additionally have to wait for the group interval.
  *
  * @author Q42 - Initial contribution
  * @author Denis Dudnik - moved Jue library source code inside the smarthome Hue binding
  */
 @NonNullByDefault
 public class HttpClient {
+    static final long GROUP_COMMAND_INTERVAL_MS = 1000;
+    private static final Set<String> COLOR_ATTRIBUTES = Set.of("xy", "ct", "hue", "sat");
+    private static final Set<String> LIGHT_ATTRIBUTES = Set.of("bri", "bri_inc", "xy", "xy_inc", "ct", "ct_inc",
+            "hue", "hue_inc", "sat", "sat_inc");
+    private static final Set<String> UNMERGEABLE_ATTRIBUTES = Set.of("scene", "alert", "effect");
+
     private int timeout = 1000;
     private final Logger logger = LoggerFactory.getLogger(HttpClient.class);
     private final LinkedList<AsyncPutParameters> commandsQueue = new LinkedList<>();
+    // guarded by commandsQueue
+    private final Map<String, AsyncPutParameters> pendingCommands = new HashMap<>();
+    private long nextCommandTime = System.nanoTime();
+    private long nextGroupCommandTime = nextCommandTime;
+    private long sentCommands;
+    private long mergedCommands;
+    private long totalQueueLatencyNanos;
+    private long maxQueueLatencyNanos;
     private @Nullable Future<?> job;
 
-    @SuppressWarnings({ "null", "unused" })
-    private void executeCommands() {
-        while (true) {
-            try {
-                long delayTime = 0;
-                synchronized (commandsQueue) {
-                    AsyncPutParameters payloadCallbackPair = commandsQueue.poll();
-                    if (payloadCallbackPair != null) {
-                        logger.debug("Async sending put to address: {} delay: {} body: {}", payloadCallbackPair.address,
-                                payloadCallbackPair.delay, payloadCallbackPair.body);
-                        try {
-                            Result result = put(payloadCallbackPair.address, payloadCallbackPair.body);
-                            payloadCallbackPair.future.complete(result);
-                        } catch (IOException e) {
-                            payloadCallbackPair.future.completeExceptionally(e);
-                        }
-                        delayTime = payloadCallbackPair.delay;
-                    } else {
-                        return;
-                    }
-                }
-                Thread.sleep(delayTime);
-            } catch (InterruptedException e) {
-                logger.debug("commandExecutorThread was interrupted", e);
+    private void executeCommands(ScheduledExecutorService scheduler) {
+        AsyncPutParameters command;
+        synchronized (commandsQueue) {
+            long now = System.nanoTime();
+            command = pollReadyCommand(now);
+            if (command == null) {
+                job = null;
+                scheduleCommands(scheduler, now);
+                return;
+            }
+            long latency = now - command.queued;
+            sentCommands++;
+            totalQueueLatencyNanos += latency;
+            maxQueueLatencyNanos = Math.max(maxQueueLatencyNanos, latency);
+            logger.debug("Async sending put to address: {} delay: {} queued: {}ms body: {}", command.address,
+                    command.delay, TimeUnit.NANOSECONDS.toMillis(latency), command.body);
+        }
+
+        // Send without holding the lock, so that new commands can be queued or merged meanwhile
+        try {
+            command.future.complete(put(command.address, command.body));
+        } catch (IOException | RuntimeException e) {
+            command.future.completeExceptionally(e);
+        }
+
+        synchronized (commandsQueue) {
+            long now = System.nanoTime();
+            nextCommandTime = now + TimeUnit.MILLISECONDS.toNanos(command.delay);
+            if (command.isGroupCommand()) {
+                nextGroupCommandTime = now + TimeUnit.MILLISECONDS.toNanos(GROUP_COMMAND_INTERVAL_MS);
             }
+            job = null;
+            scheduleCommands(scheduler, now);
+        }
+    }
+
+    /**
+     * Removes the first command from the queue, which may be sent at the given time.
+     */
+    private @Nullable AsyncPutParameters pollReadyCommand(long now) {
+        if (now - nextCommandTime < 0) {
+            return null;
+        }
+        boolean groupReady = now - nextGroupCommandTime >= 0;
+        Iterator<AsyncPutParameters> iterator = commandsQueue.iterator();
+        while (iterator.hasNext()) {
+            AsyncPutParameters command = iterator.next();
+            if (groupReady || !command.isGroupCommand()) {
+                iterator.remove();
+                pendingCommands.remove(command.address, command);
+                return command;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Schedules the next execution for the first command that may be sent, if none is scheduled yet.
+     */
+    private void scheduleCommands(ScheduledExecutorService scheduler, long now) {
+        if (job != null || commandsQueue.isEmpty()) {
+            return;
+        }
+        long next = nextCommandTime;
+        if (commandsQueue.stream().allMatch(AsyncPutParameters::isGroupCommand) && nextGroupCommandTime - next > 0) {
+            next = nextGroupCommandTime;
         }
+        job = scheduler.schedule(() -> executeCommands(scheduler), Math.max(0, next - now), TimeUnit.NANOSECONDS);
     }
 
     public void setTimeout(int timeout) {
@@ -86,23 +163,52 @@ public class HttpClient {
         return doNetwork(address, "PUT", body);
     }
 
+    /**
+     * Queues a PUT request. If a request to the same address is still waiting in the queue and both bodies can be
+     * combined, the attributes of the new body are merged into the waiting request. Both callers then get the result
+     * of the merged request.
+     *
+     * @param address the address of the request
+     * @param body the JSON body of the request
+     * @param delay the delay in milliseconds before the next request may be sent
+     * @param scheduler the scheduler used to send the requests
+     * @return the future result of the request
+     */
     public CompletableFuture<Result> putAsync(String address, String body, long delay,
             ScheduledExecutorService scheduler) {
-        AsyncPutParameters asyncPutParameters = new AsyncPutParameters(address, body, delay);
-
         synchronized (commandsQueue) {
-            if (commandsQueue.isEmpty()) {
-                commandsQueue.offer(asyncPutParameters);
-                Future<?> localJob = job;
-                if (localJob == null || localJob.isDone()) {
-                    job = scheduler.submit(this::executeCommands);
-                }
-            } else {
-                commandsQueue.offer(asyncPutParameters);
+            AsyncPutParameters pending = pendingCommands.get(address);
+            if (pending != null && pending.merge(body, delay)) {
+                mergedCommands++;
+                logger.trace("Merged put to address: {} into pending body: {}", address, pending.body);
+                return pending.future;
             }
+
+            AsyncPutParameters asyncPutParameters = new AsyncPutParameters(address, body, delay);
+            commandsQueue.offer(asyncPutParameters);
+            pendingCommands.put(address, asyncPutParameters);
+            scheduleCommands(scheduler, System.nanoTime());
+            return asyncPutParameters.future;
         }
+    }
 
-        return asyncPutParameters.future;
+    /**
+     * Returns statistics of the asynchronous command queue.
+     *
+     * @return the statistics, one line per value
+     */
+    public List<String> getCommandQueueStatistics() {
+        synchronized (commandsQueue) {
+            List<String> statistics = new ArrayList<>();
+            statistics.add("Queued commands: " + commandsQueue.size());
+            statistics.add("Sent commands: " + sentCommands);
+            statistics.add("Merged commands: " + mergedCommands);
+            statistics.add("Average queue latency: "
+                    + (sentCommands > 0 ? TimeUnit.NANOSECONDS.toMillis(totalQueueLatencyNanos / sentCommands) : 0)
+                    + " ms");
+            statistics.add("Maximum queue latency: " + TimeUnit.NANOSECONDS.toMillis(maxQueueLatencyNanos) + " ms");
+            return statistics;
+        }
     }
 
     public Result delete(String address) throws IOException {
@@ -161,15 +267,60 @@ public class HttpClient {
 
     public final class AsyncPutParameters {
         public final String address;
-        public final String body;
         public final CompletableFuture<Result> future;
-        public final long delay;
+        final long queued;
+        // guarded by commandsQueue
+        String body;
+        long delay;
 
         public AsyncPutParameters(String address, String body, long delay) {
             this.address = address;
             this.body = body;
             this.future = new CompletableFuture<>();
             this.delay = delay;
+            this.queued = System.nanoTime();
+        }
+
+        boolean isGroupCommand() {
+            return address.contains("/groups/");
+        }
+
+        /**
+         * Merges the attributes of a later body into the body of this request. A new color attribute replaces the
+         * color attributes of the other color modes. A later {@code "on":false} discards the pending brightness and color
+         * attributes, which would otherwise switch the light on again. Scene recalls are never merged, as the order of
+         * the attributes matters, and neither are alerts and effects, which would be lost or repeated.
+         *
+         * @return true if the body was merged, false if it has to be sent in a request of its own
+         */
+        boolean merge(String laterBody, long laterDelay) {
+            try {
+                JsonElement current = JsonParser.parseString(body);
+                JsonElement later = JsonParser.parseString(laterBody);
+                if (!current.isJsonObject() || !later.isJsonObject()) {
+                    return false;
+                }
+                JsonObject merged = current.getAsJsonObject();
+                JsonObject laterObject = later.getAsJsonObject();
+                if (UNMERGEABLE_ATTRIBUTES.stream().anyMatch(key -> merged.has(key) || laterObject.has(key))) {
+                    return false;
+                }
+                JsonElement on = laterObject.get("on");
+                if (on != null && on.isJsonPrimitive() && !on.getAsBoolean()) {
+                    LIGHT_ATTRIBUTES.forEach(merged::remove);
+                } else if (laterObject.has("xy") || laterObject.has("ct")) {
+                    COLOR_ATTRIBUTES.forEach(merged::remove);
+                } else if (laterObject.has("hue") || laterObject.has("sat")) {
+                    merged.remove("xy");
+                    merged.remove("ct");
+                }
+                laterObject.entrySet().forEach(entry -> merged.add(entry.getKey(), entry.getValue()));
+                body = merged.toString();
+                delay = Math.max(delay, laterDelay);
+                return true;
+            } catch (JsonParseException e) {
+                return false;
+            }
         }
     }
 }
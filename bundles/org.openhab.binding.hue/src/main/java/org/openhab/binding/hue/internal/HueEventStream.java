@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.HttpsURLConnection;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+/**
+ * Receives the server-sent events of the bridge (CLIP API v2 event stream). The events refer to the resources of
+ * the v2 API, but also contain the address of the resource in the v1 API ("id_v1"), like "/lights/3" or
+ * "/sensors/5". Only these addresses are passed to the {@link Listener}, which fetches the changed resources.
+ *
+ * The certificate of the bridge is checked with the trust manager of a {@link HueTlsTrustManagerProvider}, as it is
+ * not trusted by the default trust store. The stream is read on a thread of the "hue-eventstream" pool. If the connection fails, it is reconnected with an
+ * increasing delay, which starts again at the minimum once a connection was established.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HueEventStream {
+
+    /**
+     * Listener for the changes of the event stream
+     */
+    public interface Listener {
+        /**
+         * Called after a chunk of events was received.
+         *
+         * @param resources the v1 addresses of the changed resources, like "/lights/3"
+         */
+        void onResourcesChanged(Set<String> resources);
+
+        /**
+         * Called when the event stream was connected or disconnected.
+         *
+         * @param connected true if events are received
+         */
+        void onConnectionChanged(boolean connected);
+    }
+
+    private static final String THREADPOOL_NAME = "hue-eventstream";
+    static final long MIN_RECONNECT_DELAY_MS = 5000;
+    static final long MAX_RECONNECT_DELAY_MS = 300000;
+    // the bridge sends a keep alive comment regularly, so a connection without any data is broken
+    private static final int READ_TIMEOUT_MS = (int) TimeUnit.MINUTES.toMillis(5);
+
+    private final Logger logger = LoggerFactory.getLogger(HueEventStream.class);
+    private final String url;
+    private final String applicationKey;
+    private final Listener listener;
+    private final HueTlsTrustManagerProvider trustManagerProvider;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean running;
+    private volatile @Nullable HttpURLConnection connection;
+    // guarded by this
+    private long reconnectDelay = MIN_RECONNECT_DELAY_MS;
+    private @Nullable ScheduledFuture<?> job;
+
+    public HueEventStream(String ip, String applicationKey, Listener listener) {
+        this(ip, applicationKey, listener, ThreadPoolManager.getScheduledPool(THREADPOOL_NAME));
+    }
+
+    HueEventStream(String ip, String applicationKey, Listener listener, ScheduledExecutorService scheduler) {
+        this.url = "https://" + ip + "/eventstream/clip/v2";
+        this.applicationKey = applicationKey;
+        this.listener = listener;
+        this.trustManagerProvider = new HueTlsTrustManagerProvider(ip);
+        this.scheduler = scheduler;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        reconnectDelay = MIN_RECONNECT_DELAY_MS;
+        job = scheduler.schedule(this::run, 0, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        ScheduledFuture<?> localJob = job;
+        if (localJob != null) {
+            localJob.cancel(true);
+            job = null;
+        }
+        // closing the connection ends a blocking read
+        HttpURLConnection localConnection = connection;
+        if (localConnection != null) {
+            localConnection.disconnect();
+        }
+    }
+
+    private void run() {
+        if (!running) {
+            return;
+        }
+        boolean connected = false;
+        try {
+            HttpURLConnection localConnection = connect();
+            connected = true;
+            logger.debug("Connected to the event stream of the Hue bridge");
+            listener.onConnectionChanged(true);
+            readEvents(localConnection);
+        } catch (IOException e) {
+            if (running) {
+                logger.debug("Event stream of the Hue bridge failed: {}", e.getMessage());
+            }
+        } finally {
+            connection = null;
+            // a stopped stream is not reported, as its owner may already use a new one
+            if (connected && running) {
+                listener.onConnectionChanged(false);
+            }
+            scheduleReconnect(connected);
+        }
+    }
+
+    private synchronized void scheduleReconnect(boolean connected) {
+        if (!running) {
+            return;
+        }
+        if (connected) {
+            // the bridge accepted the connection, so a failure afterwards (e.g. a read timeout) is not retried slower
+            reconnectDelay = MIN_RECONNECT_DELAY_MS;
+        }
+        long delay = reconnectDelay;
+        reconnectDelay = Math.min(delay * 2, MAX_RECONNECT_DELAY_MS);
+        logger.debug("Reconnecting to the event stream of the Hue bridge in {} ms", delay);
+        job = scheduler.schedule(this::run, delay, TimeUnit.MILLISECONDS);
+    }
+
+    HttpURLConnection openConnection() throws IOException {
+        HttpsURLConnection localConnection = (HttpsURLConnection) new URL(url).openConnection();
+        localConnection.setSSLSocketFactory(trustManagerProvider.getSocketFactory());
+        localConnection.setHostnameVerifier(trustManagerProvider.getHostnameVerifier());
+        return localConnection;
+    }
+
+    private HttpURLConnection connect() throws IOException {
+        HttpURLConnection localConnection = openConnection();
+        connection = localConnection;
+        localConnection.setRequestProperty("hue-application-key", applicationKey);
+        localConnection.setRequestProperty("Accept", "text/event-stream");
+        localConnection.setConnectTimeout(5000);
+        localConnection.setReadTimeout(READ_TIMEOUT_MS);
+        int responseCode = localConnection.getResponseCode();
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Unexpected response code " + responseCode);
+        }
+        return localConnection;
+    }
+
+    /**
+     * Reads the events until the connection is closed.
+     */
+    private void readEvents(HttpURLConnection localConnection) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(localConnection.getInputStream(), StandardCharsets.UTF_8))) {
+            StringBuilder data = new StringBuilder();
+            String line;
+            while (running && (line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    // an empty line completes an event
+                    if (data.length() > 0) {
+                        Set<String> resources = parseResources(data.toString());
+                        data.setLength(0);
+                        if (!resources.isEmpty()) {
+                            listener.onResourcesChanged(resources);
+                        }
+                    }
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5).trim());
+                }
+                // ignore comments (keep alive), ids and other fields
+            }
+        }
+    }
+
+    /**
+     * Extracts the v1 addresses of the resources changed by a chunk of events.
+     *
+     * @param data the data of a server-sent event, a JSON array of events
+     * @return the v1 addresses of the changed resources, in the order of the events
+     */
+    static Set<String> parseResources(String data) {
+        Set<String> resources = new LinkedHashSet<>();
+        try {
+            JsonElement events = JsonParser.parseString(data);
+            if (!events.isJsonArray()) {
+                return resources;
+            }
+            for (JsonElement event : events.getAsJsonArray()) {
+                if (!event.isJsonObject()) {
+                    continue;
+                }
+                JsonElement eventData = event.getAsJsonObject().get("data");
+                if (eventData == null || !eventData.isJsonArray()) {
+                    continue;
+                }
+                for (JsonElement resource : eventData.getAsJsonArray()) {
+                    if (resource.isJsonObject()) {
+                        JsonObject resourceObject = resource.getAsJsonObject();
+                        JsonElement idV1 = resourceObject.get("id_v1");
+                        if (idV1 != null && idV1.isJsonPrimitive()) {
+                            resources.add(idV1.getAsString());
+                        }
+                    }
+                }
+            }
+        } catch (JsonParseException | IllegalStateException e) {
+            // ignore malformed events, the next poll fetches the state anyway
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.net.http.TlsTrustManagerProvider;
+import org.openhab.core.io.net.http.TrustAllTrustManager;
+
+/**
+ * Provides a TrustManager to allow secure connections to a Hue bridge. The certificate of a bridge is issued by the
+ * private certificate authority of Signify (or self-signed by older bridges) for the id of the bridge, so it is
+ * neither trusted by the default trust store nor valid for the address of the bridge.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HueTlsTrustManagerProvider implements TlsTrustManagerProvider {
+
+    private final String host;
+    private @Nullable SSLSocketFactory socketFactory;
+
+    /**
+     * @param host the IP address or host name of the bridge
+     */
+    public HueTlsTrustManagerProvider(String host) {
+        this.host = host;
+    }
+
+    @Override
+    public String getHostName() {
+        return host;
+    }
+
+    @Override
+    public X509ExtendedTrustManager getTrustManager() {
+        return TrustAllTrustManager.getInstance();
+    }
+
+    /**
+     * @return a socket factory for connections which use the trust manager of this provider
+     * @throws IOException if the TLS context could not be created
+     */
+    public synchronized SSLSocketFactory getSocketFactory() throws IOException {
+        SSLSocketFactory localSocketFactory = socketFactory;
+        if (localSocketFactory == null) {
+            try {
+                SSLContext context = SSLContext.getInstance("TLS");
+                context.init(null, new TrustManager[] { getTrustManager() }, null);
+                localSocketFactory = context.getSocketFactory();
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Could not create TLS context for the Hue bridge", e);
+            }
+            socketFactory = localSocketFactory;
+        }
+        return localSocketFactory;
+    }
+
+    /**
+     * @return a verifier which accepts the certificate of the bridge for its configured address only
+     */
+    public HostnameVerifier getHostnameVerifier() {
+        return (hostname, session) -> host.equalsIgnoreCase(hostname);
+    }
+}
@@ -20,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,6 +43,7 @@ import org.openhab.binding.hue.internal.FullLight;
 import org.openhab.binding.hue.internal.FullSensor;
 import org.openhab.binding.hue.internal.HueBridge;
 import org.openhab.binding.hue.internal.HueConfigStatusMessage;
+import org.openhab.binding.hue.internal.HueEventStream;
 import org.openhab.binding.hue.internal.Scene;
 import org.openhab.binding.hue.internal.State;
 import org.openhab.binding.hue.internal.StateUpdate;
@@ -96,8 +98,14 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
 
     private static final String DEVICE_TYPE = "EclipseSmartHome";
 
+    private static final String EVENT_RESOURCE_LIGHTS = "/lights/";
+    private static final String EVENT_RESOURCE_SENSORS = "/sensors/";
+
     private static final long SCENE_POLLING_INTERVAL = TimeUnit.SECONDS.convert(10, TimeUnit.MINUTES);
 
+    // while the event stream is connected, lights and sensors are only polled to detect added and removed devices
+    private static final long EVENT_STREAM_POLLING_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
     private final Logger logger = LoggerFactory.getLogger(HueBridgeHandler.class);
     private final HueStateDescriptionProvider stateDescriptionOptionProvider;
     private final TranslationProvider i18nProvider;
@@ -181,9 +189,15 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         protected abstract void doConnectedRun() throws IOException, ApiException;
     }
 
-    private final Runnable sensorPollingRunnable = new PollingRunnable() {
+    final Runnable sensorPollingRunnable = new PollingRunnable() {
         @Override
         protected void doConnectedRun() throws IOException, ApiException {
+            long now = System.currentTimeMillis();
+            if (eventStreamConnected && now - lastSensorPoll < EVENT_STREAM_POLLING_INTERVAL_MS) {
+                return;
+            }
+            lastSensorPoll = now;
+
             Map<String, FullSensor> lastSensorStateCopy = new HashMap<>(lastSensorStates);
 
             final HueDeviceDiscoveryService discovery = discoveryService;
@@ -225,9 +239,15 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         }
     };
 
-    private final Runnable lightPollingRunnable = new PollingRunnable() {
+    class LightPollingRunnable extends PollingRunnable {
         @Override
         protected void doConnectedRun() throws IOException, ApiException {
+            long now = System.currentTimeMillis();
+            if (eventStreamConnected && now - lastLightPoll < EVENT_STREAM_POLLING_INTERVAL_MS) {
+                return;
+            }
+            lastLightPoll = now;
+
             updateLights();
             updateGroups();
         }
@@ -288,46 +308,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
             final HueDeviceDiscoveryService discovery = discoveryService;
 
             for (final FullGroup fullGroup : groups) {
-                State groupState = new State();
-                boolean on = false;
-                int sumBri = 0;
-                int nbBri = 0;
-                State colorRef = null;
-                HSBType firstColorHsb = null;
-                for (String lightId : fullGroup.getLightIds()) {
-                    FullLight light = lastLightStates.get(lightId);
-                    if (light != null) {
-                        final State lightState = light.getState();
-                        logger.trace("Group {}: light {}: on {} bri {} hue {} sat {} temp {} mode {} XY {}",
-                                fullGroup.getName(), light.getName(), lightState.isOn(), lightState.getBrightness(),
-                                lightState.getHue(), lightState.getSaturation(), lightState.getColorTemperature(),
-                                lightState.getColorMode(), lightState.getXY());
-                        if (lightState.isOn()) {
-                            on = true;
-                            sumBri += lightState.getBrightness();
-                            nbBri++;
-                            if (lightState.getColorMode() != null) {
-                                HSBType lightHsb = LightStateConverter.toHSBType(lightState);
-                                if (firstColorHsb == null) {
-                                    // first color light
-                                    firstColorHsb = lightHsb;
-                                    colorRef = lightState;
-                                } else if (!lightHsb.equals(firstColorHsb)) {
-                                    colorRef = null;
-                                }
-                            }
-                        }
-                    }
-                }
-                groupState.setOn(on);
-                groupState.setBri(nbBri == 0 ? 0 : sumBri / nbBri);
-                if (colorRef != null) {
-                    groupState.setColormode(colorRef.getColorMode());
-                    groupState.setHue(colorRef.getHue());
-                    groupState.setSaturation(colorRef.getSaturation());
-                    groupState.setColorTemperature(colorRef.getColorTemperature());
-                    groupState.setXY(colorRef.getXY());
-                }
+                State groupState = computeGroupState(fullGroup);
                 fullGroup.setState(groupState);
                 logger.trace("Group {} ({}): on {} bri {} hue {} sat {} temp {} mode {} XY {}", fullGroup.getName(),
                         fullGroup.getType(), groupState.isOn(), groupState.getBrightness(), groupState.getHue(),
@@ -369,6 +350,157 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
                 }
             });
         }
+
+        /**
+         * Computes the state of a group from the last states of its lights.
+         */
+        private State computeGroupState(FullGroup fullGroup) {
+            State groupState = new State();
+            boolean on = false;
+            int sumBri = 0;
+            int nbBri = 0;
+            State colorRef = null;
+            HSBType firstColorHsb = null;
+            for (String lightId : fullGroup.getLightIds()) {
+                FullLight light = lastLightStates.get(lightId);
+                if (light != null) {
+                    final State lightState = light.getState();
+                    logger.trace("Group {}: light {}: on {} bri {} hue {} sat {} temp {} mode {} XY {}",
+                            fullGroup.getName(), light.getName(), lightState.isOn(), lightState.getBrightness(),
+                            lightState.getHue(), lightState.getSaturation(), lightState.getColorTemperature(),
+                            lightState.getColorMode(), lightState.getXY());
+                    if (lightState.isOn()) {
+                        on = true;
+                        sumBri += lightState.getBrightness();
+                        nbBri++;
+                        if (lightState.getColorMode() != null) {
+                            HSBType lightHsb = LightStateConverter.toHSBType(lightState);
+                            if (firstColorHsb == null) {
+                                // first color light
+                                firstColorHsb = lightHsb;
+                                colorRef = lightState;
+                            } else if (!lightHsb.equals(firstColorHsb)) {
+                                colorRef = null;
+                            }
+                        }
+                    }
+                }
+            }
+            groupState.setOn(on);
+            groupState.setBri(nbBri == 0 ? 0 : sumBri / nbBri);
+            if (colorRef != null) {
+                groupState.setColormode(colorRef.getColorMode());
+                groupState.setHue(colorRef.getHue());
+                groupState.setSaturation(colorRef.getSaturation());
+                groupState.setColorTemperature(colorRef.getColorTemperature());
+                groupState.setXY(colorRef.getXY());
+            }
+            return groupState;
+        }
+
+        /**
+         * Recomputes the state of the known groups which contain one of the given lights. The groups are not fetched
+         * from the bridge, as their state only depends on their lights; new or removed groups are found by the next
+         * poll.
+         *
+         * @param lightIds the lights whose state changed
+         */
+        void updateGroupsOfLights(Set<String> lightIds) {
+            for (FullGroup lastGroupState : new ArrayList<>(lastGroupStates.values())) {
+                if (lastGroupState.getLightIds().stream().noneMatch(lightIds::contains)) {
+                    continue;
+                }
+                // a new instance, as the listener compares it with the instance it received before
+                FullGroup fullGroup = lastGroupState.withState(computeGroupState(lastGroupState));
+                String groupId = fullGroup.getId();
+                final GroupStatusListener groupStatusListener = groupStatusListeners.get(groupId);
+                if (groupStatusListener == null || groupStatusListener.onGroupStateChanged(fullGroup)) {
+                    lastGroupStates.put(groupId, fullGroup);
+                }
+            }
+        }
+    }
+
+    final LightPollingRunnable lightPollingRunnable = new LightPollingRunnable();
+
+    private final Runnable eventRunnable = new PollingRunnable() {
+        @Override
+        protected void doConnectedRun() throws IOException, ApiException {
+            List<String> resources = new ArrayList<>(pendingEventResources);
+            pendingEventResources.removeAll(resources);
+
+            Set<String> changedLights = new HashSet<>();
+            for (String resource : resources) {
+                if (resource.startsWith(EVENT_RESOURCE_LIGHTS)) {
+                    String lightId = resource.substring(EVENT_RESOURCE_LIGHTS.length());
+                    if (updateLight(lightId)) {
+                        changedLights.add(lightId);
+                    }
+                } else if (resource.startsWith(EVENT_RESOURCE_SENSORS)) {
+                    updateSensor(resource.substring(EVENT_RESOURCE_SENSORS.length()));
+                }
+                // the state of a group is computed from the states of its lights
+            }
+            if (!changedLights.isEmpty()) {
+                lightPollingRunnable.updateGroupsOfLights(changedLights);
+            }
+        }
+
+        private boolean updateLight(String lightId) throws IOException, ApiException {
+            final FullLight lastLightState = lastLightStates.get(lightId);
+            if (lastLightState == null) {
+                // new lights are discovered by the next poll
+                return false;
+            }
+            final FullLight fullLight;
+            try {
+                fullLight = (FullLight) hueBridge.getLight(lastLightState);
+            } catch (EntityNotAvailableException e) {
+                // removed lights are detected by the next poll
+                return false;
+            }
+
+            final LightStatusListener lightStatusListener = lightStatusListeners.get(lightId);
+            if (lightStatusListener == null || lightStatusListener.onLightStateChanged(fullLight)) {
+                lastLightStates.put(lightId, fullLight);
+            }
+            return true;
+        }
+
+        private void updateSensor(String sensorId) throws IOException, ApiException {
+            if (!lastSensorStates.containsKey(sensorId)) {
+                return;
+            }
+            final FullSensor sensor;
+            try {
+                sensor = hueBridge.getSensor(sensorId);
+            } catch (EntityNotAvailableException e) {
+                return;
+            }
+
+            final SensorStatusListener sensorStatusListener = sensorStatusListeners.get(sensorId);
+            if (sensorStatusListener == null || sensorStatusListener.onSensorStateChanged(sensor)) {
+                lastSensorStates.put(sensorId, sensor);
+            }
+        }
+    };
+
+    private final HueEventStream.Listener eventStreamListener = new HueEventStream.Listener() {
+        @Override
+        public void onResourcesChanged(Set<String> resources) {
+            logger.trace("Hue bridge event stream: changed resources {}", resources);
+            pendingEventResources.addAll(resources);
+            scheduler.execute(eventRunnable);
+        }
+
+        @Override
+        public void onConnectionChanged(boolean connected) {
+            if (connected != eventStreamConnected) {
+                logger.debug("Event stream of Hue bridge {} {}.", hueBridgeConfig.getIpAddress(),
+                        connected ? "connected, reducing polling" : "disconnected, polling at configured intervals");
+            }
+            eventStreamConnected = connected;
+        }
     };
 
     private final Runnable scenePollingRunnable = new PollingRunnable() {
@@ -402,7 +534,14 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private @Nullable ScheduledFuture<?> sensorPollingJob;
     private @Nullable ScheduledFuture<?> scenePollingJob;
 
-    private @NonNullByDefault({}) HueBridge hueBridge = null;
+    private @Nullable HueEventStream eventStream;
+    private volatile boolean eventStreamConnected;
+    private final Set<String> pendingEventResources = ConcurrentHashMap.newKeySet();
+    // time of the last full poll, guarded by pollingLock
+    private long lastLightPoll;
+    private long lastSensorPoll;
+
+    @NonNullByDefault({}) HueBridge hueBridge = null;
     private @NonNullByDefault({}) HueBridgeConfig hueBridgeConfig = null;
 
     private List<String> consoleScenesList = new ArrayList<>();
@@ -663,6 +802,30 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         scenePollingJob = null;
     }
 
+    private synchronized void startEventStream() {
+        String ip = hueBridgeConfig.getIpAddress();
+        String userName = hueBridgeConfig.getUserName();
+        if (eventStream == null && hueBridgeConfig.getUseEventStream() && ip != null && userName != null) {
+            HueEventStream stream = createEventStream(ip, userName, eventStreamListener);
+            eventStream = stream;
+            stream.start();
+        }
+    }
+
+    HueEventStream createEventStream(String ip, String userName, HueEventStream.Listener listener) {
+        return new HueEventStream(ip, userName, listener);
+    }
+
+    private synchronized void stopEventStream() {
+        HueEventStream stream = eventStream;
+        if (stream != null) {
+            stream.stop();
+        }
+        eventStream = null;
+        eventStreamConnected = false;
+        pendingEventResources.clear();
+    }
+
     @Override
     public void dispose() {
         logger.debug("Handler disposed.");
@@ -673,6 +836,7 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         stopLightPolling();
         stopSensorPolling();
         stopScenePolling();
+        stopEventStream();
         if (hueBridge != null) {
             hueBridge = null;
         }
@@ -723,6 +887,8 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
      */
     public void onConnectionLost() {
         logger.debug("Bridge connection lost. Updating thing status to OFFLINE.");
+        // the event stream is started again when the connection is resumed
+        stopEventStream();
         updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.NONE, "@text/offline.bridge-connection-lost");
     }
 
@@ -735,6 +901,8 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
     private void onConnectionResumed() throws IOException, ApiException {
         logger.debug("Bridge connection resumed.");
 
+        startEventStream();
+
         if (!propertiesInitializedSuccessfully) {
             FullConfig fullConfig = hueBridge.getFullConfig();
             Config config = fullConfig.getConfig();
@@ -1035,6 +1203,11 @@ public class HueBridgeHandler extends ConfigStatusBridgeHandler implements HueCl
         return consoleScenesList;
     }
 
+    public List<String> listCommandQueueStatisticsForConsole() {
+        HueBridge localBridge = hueBridge;
+        return localBridge != null ? localBridge.getCommandQueueStatistics() : List.of("Bridge is not connected");
+    }
+
     @Override
     public Collection<ConfigStatusMessage> getConfigStatus() {
         // The bridge IP address to be used for checks
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.hue.internal.HttpClient.Result;
+
+/**
+ * Tests the queue of asynchronous commands of the {@link HttpClient}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HttpClientTest {
+
+    private static final String LIGHT = "http://bridge/api/user/lights/1/state";
+    private static final String LIGHT_2 = "http://bridge/api/user/lights/2/state";
+    private static final String GROUP = "http://bridge/api/user/groups/1/action";
+    private static final String GROUP_2 = "http://bridge/api/user/groups/2/action";
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstRequestStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstRequest = new CountDownLatch(1);
+    private @NonNullByDefault({}) ScheduledExecutorService scheduler;
+    private @NonNullByDefault({}) HttpClient httpClient;
+
+    @BeforeEach
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        httpClient = new HttpClient() {
+            @Override
+            protected Result doNetwork(String address, String requestMethod, @Nullable String body)
+                    throws IOException {
+                requests.add(address + " " + body);
+                firstRequestStarted.countDown();
+                try {
+                    releaseFirstRequest.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new Result("[]", 200);
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Sends a first command, which blocks until released, so that the following commands are queued.
+     */
+    private CompletableFuture<Result> sendBlockingCommand(String address) throws InterruptedException {
+        CompletableFuture<Result> future = httpClient.putAsync(address, "{\"on\":true}", 0, scheduler);
+        assertThat(firstRequestStarted.await(5, TimeUnit.SECONDS), is(true));
+        return future;
+    }
+
+    @Test
+    public void pendingStateUpdatesAreMerged() throws Exception {
+        sendBlockingCommand(LIGHT);
+        CompletableFuture<Result> first = httpClient.putAsync(LIGHT, "{\"on\":true,\"bri\":10}", 0, scheduler);
+        CompletableFuture<Result> second = httpClient.putAsync(LIGHT, "{\"bri\":20}", 0, scheduler);
+        CompletableFuture<Result> third = httpClient.putAsync(LIGHT, "{\"bri\":30}", 0, scheduler);
+        releaseFirstRequest.countDown();
+
+        third.get(5, TimeUnit.SECONDS);
+        assertThat(second, is(sameInstance(first)));
+        assertThat(third, is(sameInstance(first)));
+        assertThat(requests, contains(LIGHT + " {\"on\":true}", LIGHT + " {\"on\":true,\"bri\":30}"));
+        assertThat(httpClient.getCommandQueueStatistics(), hasItem("Merged commands: 2"));
+    }
+
+    @Test
+    public void newColorModeReplacesPendingColor() throws Exception {
+        sendBlockingCommand(LIGHT);
+        httpClient.putAsync(LIGHT, "{\"on\":true,\"ct\":300}", 0, scheduler);
+        CompletableFuture<Result> future = httpClient.putAsync(LIGHT, "{\"xy\":[0.3,0.4]}", 0, scheduler);
+        releaseFirstRequest.countDown();
+
+        future.get(5, TimeUnit.SECONDS);
+        assertThat(requests.get(1), is(LIGHT + " {\"on\":true,\"xy\":[0.3,0.4]}"));
+    }
+
+    @Test
+    public void switchingOffDiscardsPendingBrightnessAndColor() throws Exception {
+        sendBlockingCommand(LIGHT);
+        httpClient.putAsync(LIGHT, "{\"on\":true,\"bri\":100,\"ct\":300,\"transitiontime\":4}", 0, scheduler);
+        CompletableFuture<Result> future = httpClient.putAsync(LIGHT, "{\"on\":false}", 0, scheduler);
+        releaseFirstRequest.countDown();
+
+        future.get(5, TimeUnit.SECONDS);
+        assertThat(requests.get(1), is(LIGHT + " {\"on\":false,\"transitiontime\":4}"));
+    }
+
+    @Test
+    public void alertsAndEffectsAreNotMerged() throws Exception {
+        sendBlockingCommand(LIGHT);
+        CompletableFuture<Result> alert = httpClient.putAsync(LIGHT, "{\"alert\":\"select\"}", 0, scheduler);
+        CompletableFuture<Result> bri = httpClient.putAsync(LIGHT, "{\"bri\":100}", 0, scheduler);
+        CompletableFuture<Result> effect = httpClient.putAsync(LIGHT, "{\"effect\":\"colorloop\"}", 0, scheduler);
+        assertThat(bri, is(not(sameInstance(alert))));
+        assertThat(effect, is(not(sameInstance(bri))));
+        releaseFirstRequest.countDown();
+
+        effect.get(5, TimeUnit.SECONDS);
+        assertThat(requests, contains(LIGHT + " {\"on\":true}", LIGHT + " {\"alert\":\"select\"}",
+                LIGHT + " {\"bri\":100}", LIGHT + " {\"effect\":\"colorloop\"}"));
+    }
+
+    @Test
+    public void sceneRecallsAreNotMerged() throws Exception {
+        sendBlockingCommand(GROUP);
+        CompletableFuture<Result> scene = httpClient.putAsync(GROUP_2, "{\"scene\":\"abc\"}", 0, scheduler);
+        CompletableFuture<Result> bri = httpClient.putAsync(GROUP_2, "{\"bri\":100}", 0, scheduler);
+        assertThat(bri, is(not(sameInstance(scene))));
+        releaseFirstRequest.countDown();
+
+        bri.get(5, TimeUnit.SECONDS);
+        assertThat(requests, contains(GROUP + " {\"on\":true}", GROUP_2 + " {\"scene\":\"abc\"}",
+                GROUP_2 + " {\"bri\":100}"));
+    }
+
+    @Test
+    public void lightCommandsPassWaitingGroupCommands() throws Exception {
+        sendBlockingCommand(GROUP);
+        CompletableFuture<Result> group = httpClient.putAsync(GROUP_2, "{\"bri\":100}", 0, scheduler);
+        CompletableFuture<Result> light = httpClient.putAsync(LIGHT_2, "{\"bri\":50}", 0, scheduler);
+        releaseFirstRequest.countDown();
+
+        light.get(5, TimeUnit.SECONDS);
+        assertThat(group.isDone(), is(false));
+        group.get(5, TimeUnit.SECONDS);
+        assertThat(requests, contains(GROUP + " {\"on\":true}", LIGHT_2 + " {\"bri\":50}", GROUP_2 + " {\"bri\":100}"));
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+/**
+ * Tests the parsing of the events and the reconnects of {@link HueEventStream}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HueEventStreamTest {
+
+    private static final String EVENT = "data: [{\"id\":\"e1\",\"type\":\"update\",\"data\":["
+            + "{\"id\":\"a\",\"id_v1\":\"/lights/3\",\"on\":{\"on\":true},\"type\":\"light\"}]}]\n\n";
+
+    private final List<Runnable> jobs = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final Queue<HttpURLConnection> connections = new LinkedList<>();
+    private final HueEventStream.Listener listener = mock(HueEventStream.Listener.class);
+    private final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+    private @NonNullByDefault({}) HueEventStream stream;
+
+    @BeforeEach
+    public void setUp() {
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        doAnswer(invocation -> {
+            long delay = invocation.getArgument(1);
+            TimeUnit unit = invocation.getArgument(2);
+            jobs.add(invocation.getArgument(0));
+            delays.add(unit.toMillis(delay));
+            return future;
+        }).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+        stream = new HueEventStream("192.168.0.2", "key", listener, scheduler) {
+            @Override
+            HttpURLConnection openConnection() throws IOException {
+                HttpURLConnection connection = connections.poll();
+                if (connection == null) {
+                    throw new IOException("Connection refused");
+                }
+                return connection;
+            }
+        };
+    }
+
+    /**
+     * Creates a connection, which returns the given data and then does not receive anything until the read timeout.
+     */
+    private HttpURLConnection quietConnection(String data) throws IOException {
+        InputStream timeout = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new SocketTimeoutException("Read timed out");
+            }
+        };
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        when(connection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+        when(connection.getInputStream()).thenReturn(
+                new SequenceInputStream(new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)), timeout));
+        return connection;
+    }
+
+    private void runLastJob() {
+        jobs.get(jobs.size() - 1).run();
+    }
+
+    @Test
+    public void reconnectDelayIncreasesWhileConnectionFails() {
+        stream.start();
+        for (int i = 0; i < 8; i++) {
+            runLastJob();
+        }
+
+        assertThat(delays, is(List.of(0L, 5000L, 10000L, 20000L, 40000L, 80000L, 160000L, 300000L, 300000L)));
+        verify(listener, never()).onConnectionChanged(anyBoolean());
+    }
+
+    @Test
+    public void reconnectDelayIsResetAfterQuietConnection() throws IOException {
+        stream.start();
+        runLastJob();
+        runLastJob();
+        connections.add(quietConnection(""));
+        runLastJob();
+
+        assertThat(delays, is(List.of(0L, 5000L, 10000L, HueEventStream.MIN_RECONNECT_DELAY_MS)));
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onConnectionChanged(true);
+        inOrder.verify(listener).onConnectionChanged(false);
+    }
+
+    @Test
+    public void eventsArePassedToListener() throws IOException {
+        connections.add(quietConnection(": hi\n\n" + EVENT));
+        stream.start();
+        runLastJob();
+
+        verify(listener).onResourcesChanged(Set.of("/lights/3"));
+        assertThat(delays, is(List.of(0L, HueEventStream.MIN_RECONNECT_DELAY_MS)));
+    }
+
+    @Test
+    public void stopCancelsReconnect() {
+        stream.start();
+        runLastJob();
+        stream.stop();
+        runLastJob();
+
+        verify(future).cancel(true);
+        assertThat(delays, is(List.of(0L, 5000L)));
+    }
+
+    @Test
+    public void unexpectedResponseCodeIsRetried() throws IOException {
+        HttpURLConnection connection = mock(HttpURLConnection.class);
+        when(connection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_FORBIDDEN);
+        connections.add(connection);
+        stream.start();
+        runLastJob();
+        runLastJob();
+
+        assertThat(delays, is(List.of(0L, 5000L, 10000L)));
+        verify(listener, never()).onConnectionChanged(anyBoolean());
+    }
+
+    @Test
+    public void parseResourcesReturnsV1AddressesInOrder() {
+        String data = "[{\"creationtime\":\"2022-01-01T10:00:00Z\",\"id\":\"e1\",\"type\":\"update\",\"data\":["
+                + "{\"id\":\"a\",\"id_v1\":\"/lights/3\",\"on\":{\"on\":true},\"type\":\"light\"},"
+                + "{\"id\":\"b\",\"id_v1\":\"/groups/1\",\"on\":{\"on\":true},\"type\":\"grouped_light\"}]},"
+                + "{\"creationtime\":\"2022-01-01T10:00:00Z\",\"id\":\"e2\",\"type\":\"update\",\"data\":["
+                + "{\"id\":\"c\",\"id_v1\":\"/sensors/5\",\"motion\":{\"motion\":true},\"type\":\"motion\"},"
+                + "{\"id\":\"d\",\"id_v1\":\"/lights/3\",\"dimming\":{\"brightness\":50.0},\"type\":\"light\"}]}]";
+
+        assertThat(List.copyOf(HueEventStream.parseResources(data)),
+                is(List.of("/lights/3", "/groups/1", "/sensors/5")));
+    }
+
+    @Test
+    public void parseResourcesIgnoresResourcesWithoutV1Address() {
+        String data = "[{\"id\":\"e1\",\"type\":\"update\",\"data\":["
+                + "{\"id\":\"a\",\"type\":\"zigbee_connectivity\",\"status\":\"connected\"}]}]";
+
+        assertThat(HueEventStream.parseResources(data).isEmpty(), is(true));
+    }
+
+    @Test
+    public void parseResourcesIgnoresMalformedData() {
+        assertThat(HueEventStream.parseResources("").isEmpty(), is(true));
+        assertThat(HueEventStream.parseResources("{\"error\":1}").isEmpty(), is(true));
+        assertThat(HueEventStream.parseResources("[{\"data\":").isEmpty(), is(true));
+    }
+}
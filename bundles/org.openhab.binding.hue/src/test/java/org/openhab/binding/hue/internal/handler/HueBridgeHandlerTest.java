@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.hue.internal.handler;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.hue.internal.HueBindingConstants.THING_TYPE_BRIDGE;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.hue.internal.ApiVersion;
+import org.openhab.binding.hue.internal.FullConfig;
+import org.openhab.binding.hue.internal.FullGroup;
+import org.openhab.binding.hue.internal.FullLight;
+import org.openhab.binding.hue.internal.HueBridge;
+import org.openhab.binding.hue.internal.HueEventStream;
+import org.openhab.binding.hue.internal.State;
+import org.openhab.core.config.core.Configuration;
+import org.openhab.core.i18n.LocaleProvider;
+import org.openhab.core.i18n.TranslationProvider;
+import org.openhab.core.thing.Bridge;
+import org.openhab.core.thing.ThingUID;
+import org.openhab.core.thing.binding.ThingHandlerCallback;
+
+/**
+ * Tests the event stream handling of the {@link HueBridgeHandler}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HueBridgeHandlerTest {
+
+    private final List<HueEventStream> streams = new ArrayList<>();
+    private @NonNullByDefault({}) HueEventStream.Listener streamListener;
+    private @NonNullByDefault({}) HueBridge hueBridge;
+    private @NonNullByDefault({}) HueBridgeHandler handler;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        hueBridge = mock(HueBridge.class);
+        when(hueBridge.getIPAddress()).thenReturn("192.168.0.2");
+        when(hueBridge.getVersion()).thenReturn(new ApiVersion(1, 50, 0));
+        when(hueBridge.getFullLights()).thenReturn(List.of());
+        when(hueBridge.getGroups()).thenReturn(List.of());
+        when(hueBridge.getSensors()).thenReturn(List.of());
+        when(hueBridge.getFullConfig()).thenReturn(mock(FullConfig.class));
+
+        Bridge bridge = mock(Bridge.class);
+        when(bridge.getUID()).thenReturn(new ThingUID(THING_TYPE_BRIDGE, "test"));
+        // long polling intervals, so that only the polls run by the tests access the bridge
+        Map<String, Object> configuration = Map.of("ipAddress", "192.168.0.2", "userName", "user", "useEventStream",
+                true, "pollingInterval", 3600, "sensorPollingInterval", 3600000);
+        when(bridge.getConfiguration()).thenReturn(new Configuration(configuration));
+
+        handler = new HueBridgeHandler(bridge, mock(HueStateDescriptionProvider.class),
+                mock(TranslationProvider.class), mock(LocaleProvider.class)) {
+            @Override
+            HueEventStream createEventStream(String ip, String userName, HueEventStream.Listener listener) {
+                streamListener = listener;
+                HueEventStream stream = mock(HueEventStream.class);
+                streams.add(stream);
+                return stream;
+            }
+        };
+        handler.setCallback(mock(ThingHandlerCallback.class));
+        handler.hueBridge = hueBridge;
+        handler.initialize();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        handler.dispose();
+    }
+
+    @Test
+    public void eventStreamIsRestartedAfterConnectionLoss() throws Exception {
+        handler.lightPollingRunnable.run();
+        assertThat(streams.size(), is(1));
+        verify(streams.get(0)).start();
+
+        when(hueBridge.getFullLights()).thenThrow(new IOException("Connection refused"));
+        handler.lightPollingRunnable.run();
+        verify(streams.get(0)).stop();
+
+        doReturn(List.of()).when(hueBridge).getFullLights();
+        handler.lightPollingRunnable.run();
+        assertThat(streams.size(), is(2));
+        verify(streams.get(1)).start();
+    }
+
+    @Test
+    public void pollingIsReducedWhileEventStreamIsConnected() throws Exception {
+        handler.lightPollingRunnable.run();
+        handler.sensorPollingRunnable.run();
+        verify(hueBridge, times(1)).getFullLights();
+        verify(hueBridge, times(1)).getSensors();
+
+        streamListener.onConnectionChanged(true);
+        handler.lightPollingRunnable.run();
+        handler.sensorPollingRunnable.run();
+        verify(hueBridge, times(1)).getFullLights();
+        verify(hueBridge, times(1)).getSensors();
+
+        streamListener.onConnectionChanged(false);
+        handler.lightPollingRunnable.run();
+        handler.sensorPollingRunnable.run();
+        verify(hueBridge, times(2)).getFullLights();
+        verify(hueBridge, times(2)).getSensors();
+    }
+
+    @Test
+    public void lightEventUpdatesGroupsOfTheLightWithoutFetchingGroups() throws Exception {
+        FullLight light = mockLight(false);
+        FullGroup group = mock(FullGroup.class);
+        when(group.getId()).thenReturn("5");
+        when(group.getLightIds()).thenReturn(List.of("1"));
+        FullGroup updatedGroup = mock(FullGroup.class);
+        when(updatedGroup.getId()).thenReturn("5");
+        when(group.withState(argThat(State::isOn))).thenReturn(updatedGroup);
+        when(hueBridge.getFullLights()).thenReturn(List.of(light));
+        when(hueBridge.getGroups()).thenReturn(List.of(group));
+        handler.lightPollingRunnable.run();
+
+        doReturn(mockLight(true)).when(hueBridge).getLight(light);
+        streamListener.onResourcesChanged(Set.of("/lights/1"));
+
+        verify(group, timeout(1000)).withState(any());
+        verify(hueBridge, times(1)).getGroups();
+        assertThat(handler.getGroupById("5"), is(updatedGroup));
+    }
+
+    private FullLight mockLight(boolean on) {
+        State state = new State();
+        state.setOn(on);
+        FullLight light = mock(FullLight.class);
+        when(light.getId()).thenReturn("1");
+        when(light.getState()).thenReturn(state);
+        return light;
+    }
+}
@@ -41,6 +41,7 @@ public class CameraConfig {
     private String ffmpegLocation = "";
     private String ffmpegOutput = "";
     private String hlsOutOptions = "";
+    private boolean ffmpegSharedProcess;
     private String gifOutOptions = "";
     private String mp4OutOptions = "";
     private String mjpegOptions = "";
@@ -81,6 +82,10 @@ public class CameraConfig {
         return hlsOutOptions;
     }
 
+    public boolean getFfmpegSharedProcess() {
+        return ffmpegSharedProcess;
+    }
+
     public String getIpWhitelist() {
         return ipWhitelist;
     }
@@ -54,6 +54,12 @@ public class Ffmpeg {
     private IpCameraFfmpegThread ipCameraFfmpegThread = new IpCameraFfmpegThread();
     private int keepAlive = 8;
     private String password;
+    private final String inputArguments;
+    private final String input;
+    private final String outArguments;
+    private final String output;
+    private @Nullable SharedFfmpeg sharedFfmpeg;
+    private int countOfMotions;
 
     public Ffmpeg(IpCameraHandler handle, FFmpegFormat format, String ffmpegLocation, String inputArguments,
             String input, String outArguments, String output, String username, String password) {
@@ -61,13 +67,11 @@ public class Ffmpeg {
         this.password = URLEncoder.encode(password, StandardCharsets.UTF_8);
 
         ipCameraHandler = handle;
-        String altInput = input;
-        // Input can be snapshots not just rtsp or http
-        if (!password.isEmpty() && !input.contains("@") && input.contains("rtsp")) {
-            String credentials = username + ":" + this.password + "@";
-            // will not work for https: but currently binding does not use https
-            altInput = input.substring(0, 7) + credentials + input.substring(7);
-        }
+        String altInput = addCredentials(input, username, password);
+        this.inputArguments = inputArguments;
+        this.input = altInput;
+        this.outArguments = outArguments;
+        this.output = output;
         if (inputArguments.isEmpty()) {
             ffmpegCommand = "-i " + altInput + " " + outArguments + " " + output;
         } else {
@@ -78,6 +82,47 @@ public class Ffmpeg {
         commandArrayList.add(0, ffmpegLocation);
     }
 
+    /**
+     * Adds the credentials to an rtsp input that does not contain them yet.
+     */
+    static String addCredentials(String input, String username, String password) {
+        // Input can be snapshots not just rtsp or http
+        if (!password.isEmpty() && !input.contains("@") && input.contains("rtsp")) {
+            String credentials = username + ":" + URLEncoder.encode(password, StandardCharsets.UTF_8) + "@";
+            // will not work for https: but currently binding does not use https
+            return input.substring(0, 7) + credentials + input.substring(7);
+        }
+        return input;
+    }
+
+    /**
+     * Let this conversion be an output of the camera's shared FFmpeg process, if its input is the same. Otherwise it
+     * still runs in its own process.
+     */
+    public void setSharedFfmpeg(@Nullable SharedFfmpeg sharedFfmpeg) {
+        this.sharedFfmpeg = sharedFfmpeg;
+    }
+
+    public FFmpegFormat getFormat() {
+        return format;
+    }
+
+    public String getInputArguments() {
+        return inputArguments;
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    public String getOutArguments() {
+        return outArguments;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
     public void setKeepAlive(int numberOfEightSeconds) {
         // We poll every 8 seconds due to mjpeg stream requirement.
         if (keepAlive == -1 && numberOfEightSeconds > 1) {
@@ -98,9 +143,54 @@ public class Ffmpeg {
         }
     }
 
+    /**
+     * Evaluates a line FFmpeg logged, to detect motion and audio alarms.
+     */
+    void processLine(String line) {
+        if (format.equals(FFmpegFormat.RTSP_ALARMS)) {
+            if (line.contains("lavfi.")) {
+                // When the number of pixels that change are below the noise floor we need to look
+                // across frames to confirm it is motion and not noise.
+                if (countOfMotions < 10) {// Stop increasing otherwise it will take too long to go OFF.
+                    countOfMotions++;
+                }
+                if (countOfMotions > 9) {
+                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
+                } else if (countOfMotions > 4 && ipCameraHandler.motionThreshold.intValue() > 10) {
+                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
+                } else if (countOfMotions > 3 && ipCameraHandler.motionThreshold.intValue() > 15) {
+                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
+                } else if (countOfMotions > 2 && ipCameraHandler.motionThreshold.intValue() > 30) {
+                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
+                } else if (countOfMotions > 0 && ipCameraHandler.motionThreshold.intValue() > 89) {
+                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
+                    countOfMotions = 4;// Used to debounce the Alarm.
+                }
+            } else if (line.contains("speed=")) {
+                if (countOfMotions > 0) {
+                    if (ipCameraHandler.motionThreshold.intValue() > 89) {
+                        countOfMotions--;
+                    }
+                    if (ipCameraHandler.motionThreshold.intValue() > 10) {
+                        countOfMotions -= 2;
+                    } else {
+                        countOfMotions -= 4;
+                    }
+                    if (countOfMotions <= 0) {
+                        ipCameraHandler.noMotionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
+                        countOfMotions = 0;
+                    }
+                }
+            } else if (line.contains("silence_start")) {
+                ipCameraHandler.noAudioDetected();
+            } else if (line.contains("silence_end")) {
+                ipCameraHandler.audioDetected();
+            }
+        }
+    }
+
     private class IpCameraFfmpegThread extends Thread {
         private ScheduledExecutorService threadPool = Executors.newScheduledThreadPool(1);
-        public int countOfMotions;
 
         IpCameraFfmpegThread() {
             setDaemon(true);
@@ -131,46 +221,7 @@ public class Ffmpeg {
                     String line = null;
                     while ((line = bufferedReader.readLine()) != null) {
                         logger.debug("{}", line);
-                        if (format.equals(FFmpegFormat.RTSP_ALARMS)) {
-                            if (line.contains("lavfi.")) {
-                                // When the number of pixels that change are below the noise floor we need to look
-                                // across frames to confirm it is motion and not noise.
-                                if (countOfMotions < 10) {// Stop increasing otherwise it will take too long to go OFF.
-                                    countOfMotions++;
-                                }
-                                if (countOfMotions > 9) {
-                                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
-                                } else if (countOfMotions > 4 && ipCameraHandler.motionThreshold.intValue() > 10) {
-                                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
-                                } else if (countOfMotions > 3 && ipCameraHandler.motionThreshold.intValue() > 15) {
-                                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
-                                } else if (countOfMotions > 2 && ipCameraHandler.motionThreshold.intValue() > 30) {
-                                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
-                                } else if (countOfMotions > 0 && ipCameraHandler.motionThreshold.intValue() > 89) {
-                                    ipCameraHandler.motionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
-                                    countOfMotions = 4;// Used to debounce the Alarm.
-                                }
-                            } else if (line.contains("speed=")) {
-                                if (countOfMotions > 0) {
-                                    if (ipCameraHandler.motionThreshold.intValue() > 89) {
-                                        countOfMotions--;
-                                    }
-                                    if (ipCameraHandler.motionThreshold.intValue() > 10) {
-                                        countOfMotions -= 2;
-                                    } else {
-                                        countOfMotions -= 4;
-                                    }
-                                    if (countOfMotions <= 0) {
-                                        ipCameraHandler.noMotionDetected(CHANNEL_FFMPEG_MOTION_ALARM);
-                                        countOfMotions = 0;
-                                    }
-                                }
-                            } else if (line.contains("silence_start")) {
-                                ipCameraHandler.noAudioDetected();
-                            } else if (line.contains("silence_end")) {
-                                ipCameraHandler.audioDetected();
-                            }
-                        }
+                        processLine(line);
                     }
                 }
             } catch (IOException e) {
@@ -191,7 +242,13 @@ public class Ffmpeg {
     }
 
     public void startConverting() {
-        if (!ipCameraFfmpegThread.isAlive()) {
+        SharedFfmpeg localShared = sharedFfmpeg;
+        if (localShared != null && !ipCameraFfmpegThread.isAlive() && localShared.addOutput(this)) {
+            if (format.equals(FFmpegFormat.HLS)) {
+                ipCameraHandler.setChannelState(CHANNEL_START_STREAM, OnOffType.ON);
+            }
+        } else if (!ipCameraFfmpegThread.isAlive()) {
+            countOfMotions = 0;
             ipCameraFfmpegThread = new IpCameraFfmpegThread();
             if (!password.isEmpty()) {
                 logger.debug("Starting ffmpeg with this command now:{}",
@@ -210,6 +267,10 @@ public class Ffmpeg {
     }
 
     public boolean getIsAlive() {
+        SharedFfmpeg localShared = sharedFfmpeg;
+        if (localShared != null && localShared.hasOutput(this)) {
+            return localShared.isAlive(this);
+        }
         Process localProcess = process;
         if (localProcess != null) {
             return localProcess.isAlive();
@@ -218,7 +279,13 @@ public class Ffmpeg {
     }
 
     public void stopConverting() {
-        if (ipCameraFfmpegThread.isAlive()) {
+        SharedFfmpeg localShared = sharedFfmpeg;
+        if (localShared != null && localShared.removeOutput(this)) {
+            logger.debug("Removed ffmpeg {} from the shared process when keepalive is:{}", format, keepAlive);
+            if (format.equals(FFmpegFormat.HLS)) {
+                ipCameraHandler.setChannelState(CHANNEL_START_STREAM, OnOffType.OFF);
+            }
+        } else if (ipCameraFfmpegThread.isAlive()) {
             logger.debug("Stopping ffmpeg {} now when keepalive is:{}", format, keepAlive);
             Process localProcess = process;
             if (localProcess != null) {
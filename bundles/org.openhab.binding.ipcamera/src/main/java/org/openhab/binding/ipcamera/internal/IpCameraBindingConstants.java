@@ -45,6 +45,11 @@ public class IpCameraBindingConstants {
 
     public static final BigDecimal BIG_DECIMAL_SCALE_MOTION = new BigDecimal(5000);
     public static final long HLS_STARTUP_DELAY_MS = 4500;
+    // Initial size of the receive buffer for snapshots without a Content-Length header
+    public static final int SNAPSHOT_INITIAL_BUFFER_SIZE = 64 * 1024;
+    public static final int MAX_SNAPSHOT_SIZE = 16 * 1024 * 1024;
+    // Upper limit for the memory used by the pre-roll snapshots of a GIF per camera
+    public static final long MAX_PREROLL_BYTES = 64 * 1024 * 1024;
     @SuppressWarnings("null")
     public static final int SERVLET_PORT = Integer.getInteger("org.osgi.service.http.port", 8080);
 
@@ -0,0 +1,337 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.FFmpegFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link SharedFfmpeg} class runs one FFmpeg process per camera, which reads the camera's stream once and
+ * produces the outputs of several {@link Ffmpeg} conversions, instead of each conversion opening its own connection
+ * to the camera and decoding the stream again.
+ *
+ * Conversions can only share the process if they use the same input with the same input options. Logging options
+ * are ignored for this comparison. Extra inputs found in the output options of a conversion (like the silent audio
+ * source of the HLS stream) are moved in front of the outputs, only one conversion may bring its own inputs.
+ *
+ * The alarm detection runs as long as the camera is online, while the streams are started and stopped on demand. They
+ * therefore use separate processes, so that starting or stopping a stream does not interrupt the alarm detection. A
+ * process is restarted with all its current outputs whenever one of them is added or removed. Changes made within one
+ * second are combined into a single restart. If a process exits on its own, it is restarted with an increasing delay
+ * of up to one minute.
+ *
+ * @author agent - Initial contribution
+ */
+
+@NonNullByDefault
+public class SharedFfmpeg {
+    private static final long RESTART_DELAY_MS = 1000;
+    private static final long MAX_RESTART_DELAY_MS = 60000;
+    private static final Duration STABLE_RUN_TIME = Duration.ofMinutes(1);
+    private static final Set<String> LOGGING_OPTIONS = Set.of("-hide_banner", "-loglevel", "-v");
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final ScheduledExecutorService scheduler;
+    private final String ffmpegLocation;
+    private final List<String> inputArguments;
+    private final String input;
+    private final String password;
+
+    // guarded by this
+    private final SharedProcess longLivedProcess = new SharedProcess("alarms");
+    private final SharedProcess onDemandProcess = new SharedProcess("streams");
+    private boolean stopped = false;
+
+    /**
+     * @param scheduler the scheduler of the camera's handler, used to (re)start the processes
+     */
+    public SharedFfmpeg(String ffmpegLocation, String inputArguments, String input, String username, String password,
+            ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        this.ffmpegLocation = ffmpegLocation;
+        this.inputArguments = withoutLoggingOptions(inputArguments);
+        this.input = Ffmpeg.addCredentials(input, username, password);
+        this.password = URLEncoder.encode(password, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Add the output of a conversion to the shared process.
+     *
+     * @param output the conversion
+     * @return false if the conversion can not share the process and has to use its own one
+     */
+    public synchronized boolean addOutput(Ffmpeg output) {
+        if (stopped || !input.equals(output.getInput())
+                || !inputArguments.equals(withoutLoggingOptions(output.getInputArguments()))) {
+            return false;
+        }
+        return processOf(output).addOutput(output);
+    }
+
+    /**
+     * Remove the output of a conversion from the shared process.
+     *
+     * @param output the conversion
+     * @return false if the conversion was not an output of the shared process
+     */
+    public synchronized boolean removeOutput(Ffmpeg output) {
+        return processOf(output).removeOutput(output);
+    }
+
+    public synchronized boolean hasOutput(Ffmpeg output) {
+        return processOf(output).outputs.contains(output);
+    }
+
+    /**
+     * @param output the conversion
+     * @return true if the process of the conversion is running or about to be (re)started
+     */
+    public synchronized boolean isAlive(Ffmpeg output) {
+        return processOf(output).isAlive();
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        longLivedProcess.stop();
+        onDemandProcess.stop();
+    }
+
+    private SharedProcess processOf(Ffmpeg output) {
+        return output.getFormat() == FFmpegFormat.RTSP_ALARMS ? longLivedProcess : onDemandProcess;
+    }
+
+    Process startProcess(List<String> command) throws IOException {
+        return new ProcessBuilder(command).start();
+    }
+
+    /**
+     * One FFmpeg process and the outputs it produces. All methods have to be called with the lock of the
+     * {@link SharedFfmpeg} held.
+     */
+    private class SharedProcess {
+        private final String name;
+        private final Set<Ffmpeg> outputs = new LinkedHashSet<>();
+        private @Nullable Process process;
+        private @Nullable ScheduledFuture<?> restartJob;
+        private long restartDelayMs = RESTART_DELAY_MS;
+
+        SharedProcess(String name) {
+            this.name = name;
+        }
+
+        boolean addOutput(Ffmpeg output) {
+            if (outputs.contains(output)) {
+                return true;
+            }
+            if (!extraInputs(output).isEmpty() && outputs.stream().anyMatch(o -> !extraInputs(o).isEmpty())) {
+                logger.debug("Ffmpeg {} has its own inputs like another output, it can not share the process",
+                        output.getFormat());
+                return false;
+            }
+            outputs.add(output);
+            scheduleRestart(RESTART_DELAY_MS);
+            return true;
+        }
+
+        boolean removeOutput(Ffmpeg output) {
+            if (!outputs.remove(output)) {
+                return false;
+            }
+            scheduleRestart(RESTART_DELAY_MS);
+            return true;
+        }
+
+        boolean isAlive() {
+            Process localProcess = process;
+            return restartJob != null || (localProcess != null && localProcess.isAlive());
+        }
+
+        void stop() {
+            outputs.clear();
+            cancelRestart();
+            destroyProcess();
+        }
+
+        private void scheduleRestart(long delayMs) {
+            if (restartJob == null && !stopped) {
+                restartJob = scheduler.schedule(this::restart, delayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void cancelRestart() {
+            ScheduledFuture<?> localJob = restartJob;
+            if (localJob != null) {
+                localJob.cancel(false);
+                restartJob = null;
+            }
+        }
+
+        private void restart() {
+            synchronized (SharedFfmpeg.this) {
+                restartJob = null;
+                destroyProcess();
+                if (outputs.isEmpty() || stopped) {
+                    logger.debug("Shared ffmpeg for {} has no outputs left", name);
+                    return;
+                }
+                List<Ffmpeg> currentOutputs = new ArrayList<>(outputs);
+                List<String> command = buildCommand(currentOutputs);
+                String commandString = String.join(" ", command);
+                logger.debug("Starting shared ffmpeg for {} with this command now:{}", name,
+                        password.isEmpty() ? commandString : commandString.replace(password, "********"));
+                try {
+                    Process localProcess = startProcess(command);
+                    process = localProcess;
+                    Thread thread = new Thread(() -> readErrorStream(localProcess, currentOutputs),
+                            "OH-binding-ipcamera-sharedFfmpeg-" + name);
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    logger.warn("An IO error occured trying to start FFmpeg:{}", e.getMessage());
+                    restartAfterFailure();
+                }
+            }
+        }
+
+        private void readErrorStream(Process localProcess, List<Ffmpeg> currentOutputs) {
+            Instant started = Instant.now();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(localProcess.getErrorStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    logger.debug("{}", line);
+                    for (Ffmpeg output : currentOutputs) {
+                        output.processLine(line);
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Reading the output of the shared ffmpeg failed:{}", e.getMessage());
+            }
+            synchronized (SharedFfmpeg.this) {
+                if (process != localProcess) {
+                    // stopped on purpose
+                    return;
+                }
+                process = null;
+                if (Duration.between(started, Instant.now()).compareTo(STABLE_RUN_TIME) > 0) {
+                    restartDelayMs = RESTART_DELAY_MS;
+                }
+                logger.debug("Shared ffmpeg for {} stopped unexpectedly, restarting it in {}ms", name,
+                        restartDelayMs);
+                restartAfterFailure();
+            }
+        }
+
+        private void restartAfterFailure() {
+            cancelRestart();
+            scheduleRestart(restartDelayMs);
+            restartDelayMs = Math.min(restartDelayMs * 2, MAX_RESTART_DELAY_MS);
+        }
+
+        private void destroyProcess() {
+            Process localProcess = process;
+            if (localProcess != null) {
+                process = null;
+                localProcess.destroyForcibly();
+            }
+        }
+    }
+
+    List<String> buildCommand(List<Ffmpeg> currentOutputs) {
+        List<String> command = new ArrayList<>();
+        // ffmpegLocation may have a space in its folder
+        command.add(ffmpegLocation);
+        command.add("-hide_banner");
+        if (currentOutputs.stream().noneMatch(o -> o.getFormat() == FFmpegFormat.RTSP_ALARMS)) {
+            // the alarms need the info level, as they are detected from the log
+            command.add("-loglevel");
+            command.add("warning");
+        }
+        command.addAll(inputArguments);
+        command.add("-i");
+        command.add(input);
+        boolean hasExtraInputs = false;
+        for (Ffmpeg output : currentOutputs) {
+            List<String> extraInputs = extraInputs(output);
+            command.addAll(extraInputs);
+            hasExtraInputs |= !extraInputs.isEmpty();
+        }
+        for (Ffmpeg output : currentOutputs) {
+            List<String> outArguments = split(output.getOutArguments());
+            List<String> extraInputs = extraInputs(output);
+            List<String> outputOptions = outArguments.subList(extraInputs.size(), outArguments.size());
+            if (hasExtraInputs && extraInputs.isEmpty() && !outputOptions.contains("-map")) {
+                // only use the camera's streams, not the ones of the extra inputs
+                Collections.addAll(command, "-map", "0:v?");
+                if (output.getFormat() != FFmpegFormat.MJPEG) {
+                    Collections.addAll(command, "-map", "0:a?");
+                }
+            }
+            command.addAll(outputOptions);
+            command.addAll(split(output.getOutput()));
+        }
+        return command;
+    }
+
+    /**
+     * In a command of its own, all options in front of the last '-i' of the output options belong to extra inputs
+     */
+    private static List<String> extraInputs(Ffmpeg output) {
+        List<String> outArguments = split(output.getOutArguments());
+        int lastInput = outArguments.lastIndexOf("-i");
+        if (lastInput == -1 || lastInput + 1 >= outArguments.size()) {
+            return List.of();
+        }
+        return outArguments.subList(0, lastInput + 2);
+    }
+
+    private static List<String> withoutLoggingOptions(String arguments) {
+        List<String> result = new ArrayList<>();
+        List<String> tokens = split(arguments);
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (LOGGING_OPTIONS.contains(token)) {
+                if (!"-hide_banner".equals(token)) {
+                    i++; // skip the level
+                }
+            } else {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private static List<String> split(String arguments) {
+        String trimmed = arguments.trim();
+        return trimmed.isEmpty() ? List.of() : Arrays.asList(trimmed.split("\\s+"));
+    }
+}
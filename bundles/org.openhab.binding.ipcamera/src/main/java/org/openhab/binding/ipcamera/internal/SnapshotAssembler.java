@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import static org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.*;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * The {@link SnapshotAssembler} collects the chunks of a jpg received from a camera in a pooled buffer. The buffer
+ * grows as needed up to {@link IpCameraBindingConstants#MAX_SNAPSHOT_SIZE}, the finished jpg is copied once into an
+ * array of its exact size. The buffer is owned by this class and must be released by {@link #release()} if the
+ * snapshot is not finished. The class is not thread safe.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SnapshotAssembler {
+    private @Nullable ByteBuf incomingJpeg;
+
+    /**
+     * Start receiving a new snapshot, a snapshot that was not finished is dropped.
+     *
+     * @param alloc the allocator of the channel
+     * @param contentLength the announced size of the jpg, 0 if the camera sent no Content-Length header
+     */
+    public void start(ByteBufAllocator alloc, int contentLength) {
+        release();
+        if (contentLength <= 0) {
+            incomingJpeg = alloc.buffer(SNAPSHOT_INITIAL_BUFFER_SIZE, MAX_SNAPSHOT_SIZE);
+        } else {
+            incomingJpeg = alloc.buffer(Math.min(contentLength, MAX_SNAPSHOT_SIZE), MAX_SNAPSHOT_SIZE);
+        }
+    }
+
+    public boolean isReceiving() {
+        return incomingJpeg != null;
+    }
+
+    /**
+     * Append a chunk of the jpg. The chunk is read, but not released.
+     *
+     * @param content the received chunk
+     * @throws IndexOutOfBoundsException if the jpg gets larger than {@link IpCameraBindingConstants#MAX_SNAPSHOT_SIZE},
+     *             the snapshot is dropped then
+     */
+    public void append(ByteBuf content) {
+        ByteBuf localJpeg = incomingJpeg;
+        if (localJpeg == null) {
+            return;
+        }
+        try {
+            localJpeg.writeBytes(content);
+        } catch (IndexOutOfBoundsException e) {
+            release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the received jpg, the pooled buffer is released
+     */
+    public byte[] finish() {
+        ByteBuf localJpeg = incomingJpeg;
+        if (localJpeg == null) {
+            return new byte[0];
+        }
+        byte[] snapshot = ByteBufUtil.getBytes(localJpeg);
+        release();
+        return snapshot;
+    }
+
+    public void release() {
+        ByteBuf localJpeg = incomingJpeg;
+        if (localJpeg != null) {
+            incomingJpeg = null;
+            localJpeg.release();
+        }
+    }
+}
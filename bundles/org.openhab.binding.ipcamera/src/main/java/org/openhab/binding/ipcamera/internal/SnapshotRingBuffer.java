@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link SnapshotRingBuffer} keeps the most recent snapshots of a camera, so they can be used as pre-roll when a
+ * GIF is created. The number of snapshots and their total size are limited, the oldest snapshots are dropped first.
+ * The buffer is not thread safe.
+ *
+ * @author agent - Initial contribution
+ */
+
+@NonNullByDefault
+public class SnapshotRingBuffer {
+    private static final byte[] EMPTY = new byte[0];
+    private final long maxBytes;
+    private byte[][] snapshots;
+    private int head = 0; // index of the oldest snapshot
+    private int size = 0;
+    private long bytes = 0;
+
+    /**
+     * @param capacity the maximum number of snapshots
+     * @param maxBytes the maximum total size of all snapshots in bytes
+     */
+    public SnapshotRingBuffer(int capacity, long maxBytes) {
+        this.maxBytes = maxBytes;
+        snapshots = newArray(capacity);
+    }
+
+    public int getCapacity() {
+        return snapshots.length;
+    }
+
+    /**
+     * Change the maximum number of snapshots, the newest snapshots are kept.
+     *
+     * @param capacity the new maximum number of snapshots
+     */
+    public void setCapacity(int capacity) {
+        if (capacity == snapshots.length) {
+            return;
+        }
+        List<byte[]> kept = toList();
+        snapshots = newArray(capacity);
+        head = 0;
+        size = 0;
+        bytes = 0;
+        for (byte[] snapshot : kept.subList(Math.max(0, kept.size() - capacity), kept.size())) {
+            add(snapshot);
+        }
+    }
+
+    /**
+     * Add a snapshot, the oldest snapshots are dropped if the buffer is full or too large.
+     *
+     * @param snapshot a jpg, must not be modified afterwards
+     */
+    public void add(byte[] snapshot) {
+        if (snapshots.length == 0) {
+            return;
+        }
+        if (size == snapshots.length) {
+            removeOldest();
+        }
+        snapshots[(head + size) % snapshots.length] = snapshot;
+        size++;
+        bytes += snapshot.length;
+        while (bytes > maxBytes && size > 1) {
+            removeOldest();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        snapshots = newArray(snapshots.length);
+        head = 0;
+        size = 0;
+        bytes = 0;
+    }
+
+    /**
+     * @return the snapshots, oldest first
+     */
+    public List<byte[]> toList() {
+        List<byte[]> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(snapshots[(head + i) % snapshots.length]);
+        }
+        return list;
+    }
+
+    private void removeOldest() {
+        bytes -= snapshots[head].length;
+        snapshots[head] = EMPTY;
+        head = (head + 1) % snapshots.length;
+        size--;
+    }
+
+    private static byte[][] newArray(int capacity) {
+        byte[][] array = new byte[Math.max(0, capacity)][];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = EMPTY;
+        }
+        return array;
+    }
+}
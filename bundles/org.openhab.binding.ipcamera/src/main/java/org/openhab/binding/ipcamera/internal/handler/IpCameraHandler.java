@@ -28,7 +28,6 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -57,6 +56,9 @@ import org.openhab.binding.ipcamera.internal.IpCameraActions;
 import org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.FFmpegFormat;
 import org.openhab.binding.ipcamera.internal.IpCameraDynamicStateDescriptionProvider;
 import org.openhab.binding.ipcamera.internal.MyNettyAuthHandler;
+import org.openhab.binding.ipcamera.internal.SharedFfmpeg;
+import org.openhab.binding.ipcamera.internal.SnapshotAssembler;
+import org.openhab.binding.ipcamera.internal.SnapshotRingBuffer;
 import org.openhab.binding.ipcamera.internal.onvif.OnvifConnection;
 import org.openhab.binding.ipcamera.internal.servlet.CameraServlet;
 import org.openhab.core.OpenHAB;
@@ -138,6 +140,7 @@ public class IpCameraHandler extends BaseThingHandler {
     public @Nullable Ffmpeg ffmpegGIF = null;
     public @Nullable Ffmpeg ffmpegRtspHelper = null;
     public @Nullable Ffmpeg ffmpegMjpeg = null;
+    private @Nullable SharedFfmpeg sharedFfmpeg = null;
     public @Nullable Ffmpeg ffmpegSnapshot = null;
     public boolean streamingAutoFps = false;
     public boolean motionDetected = false;
@@ -158,7 +161,8 @@ public class IpCameraHandler extends BaseThingHandler {
     private String mp4Filename = "ipcamera";
     private int mp4RecordTime;
     private int gifRecordTime = 5;
-    private LinkedList<byte[]> fifoSnapshotBuffer = new LinkedList<byte[]>();
+    // guarded by lockCurrentSnapshot
+    private SnapshotRingBuffer fifoSnapshotBuffer = new SnapshotRingBuffer(0, MAX_PREROLL_BYTES);
     private int snapCount;
     private boolean updateImageChannel = false;
     private byte lowPriorityCounter = 0;
@@ -193,7 +197,7 @@ public class IpCameraHandler extends BaseThingHandler {
     private class CommonCameraHandler extends ChannelDuplexHandler {
         private int bytesToRecieve = 0;
         private int bytesAlreadyRecieved = 0;
-        private byte[] incomingJpeg = new byte[0];
+        private final SnapshotAssembler snapshotAssembler = new SnapshotAssembler();
         private String incomingMessage = "";
         private String contentType = "empty";
         private String boundary = "";
@@ -246,10 +250,10 @@ public class IpCameraHandler extends BaseThingHandler {
                                 }
                             } else if (contentType.contains("image/jp")) {
                                 if (bytesToRecieve == 0) {
-                                    bytesToRecieve = 768000; // 0.768 Mbyte when no Content-Length is sent
-                                    logger.debug("Camera has no Content-Length header, we have to guess how much RAM.");
+                                    logger.debug("Camera has no Content-Length header, the buffer grows as needed.");
                                 }
-                                incomingJpeg = new byte[bytesToRecieve];
+                                snapshotAssembler.start(ctx.alloc(), bytesToRecieve);
+                                bytesAlreadyRecieved = 0;
                             }
                         }
                     } else {
@@ -261,21 +265,21 @@ public class IpCameraHandler extends BaseThingHandler {
                     HttpContent content = (HttpContent) msg;
                     if (mjpegUri.equals(requestUrl) && !(content instanceof LastHttpContent)) {
                         // multiple MJPEG stream packets come back as this.
-                        byte[] chunkedFrame = new byte[content.content().readableBytes()];
-                        content.content().getBytes(content.content().readerIndex(), chunkedFrame);
                         CameraServlet localServlet = servlet;
                         if (localServlet != null) {
-                            localServlet.openStreams.queueFrame(chunkedFrame);
+                            // copied once for all streams, so the buffer can be released below
+                            localServlet.openStreams.queueFrame(content.content());
                         }
                     } else {
                         // Found some cameras use Content-Type: image/jpg instead of image/jpeg
                         if (contentType.contains("image/jp")) {
-                            for (int i = 0; i < content.content().capacity(); i++) {
-                                incomingJpeg[bytesAlreadyRecieved++] = content.content().getByte(i);
-                            }
-                            if (content instanceof LastHttpContent) {
-                                processSnapshot(incomingJpeg);
-                                ctx.close();
+                            if (snapshotAssembler.isReceiving()) {
+                                bytesAlreadyRecieved += content.content().readableBytes();
+                                snapshotAssembler.append(content.content());
+                                if (content instanceof LastHttpContent) {
+                                    processSnapshot(snapshotAssembler.finish());
+                                    ctx.close();
+                                }
                             }
                         } else { // incomingMessage that is not an IMAGE
                             if (incomingMessage.isEmpty()) {
@@ -343,12 +347,17 @@ public class IpCameraHandler extends BaseThingHandler {
             }
         }
 
+        @Override
+        public void handlerRemoved(@Nullable ChannelHandlerContext ctx) {
+            snapshotAssembler.release();
+        }
+
         @Override
         public void exceptionCaught(@Nullable ChannelHandlerContext ctx, @Nullable Throwable cause) {
             if (cause == null || ctx == null) {
                 return;
             }
-            if (cause instanceof ArrayIndexOutOfBoundsException) {
+            if (cause instanceof IndexOutOfBoundsException) {
                 logger.debug("Camera sent {} bytes when the content-length header was {}.", bytesAlreadyRecieved,
                         bytesToRecieve);
             } else {
@@ -637,10 +646,8 @@ public class IpCameraHandler extends BaseThingHandler {
         try {
             currentSnapshot = incommingSnapshot;
             if (cameraConfig.getGifPreroll() > 0) {
+                fifoSnapshotBuffer.setCapacity(cameraConfig.getGifPreroll() + gifRecordTime);
                 fifoSnapshotBuffer.add(incommingSnapshot);
-                if (fifoSnapshotBuffer.size() > (cameraConfig.getGifPreroll() + gifRecordTime)) {
-                    fifoSnapshotBuffer.removeFirst();
-                }
             }
         } finally {
             lockCurrentSnapshot.unlock();
@@ -737,7 +744,7 @@ public class IpCameraHandler extends BaseThingHandler {
         // Need to lock as fifoSnapshotBuffer is not thread safe and new snapshots can be incoming.
         lockCurrentSnapshot.lock();
         try {
-            for (byte[] foo : fifoSnapshotBuffer) {
+            for (byte[] foo : fifoSnapshotBuffer.toList()) {
                 File file = new File(cameraConfig.getFfmpegOutput() + "snapshot" + count + ".jpg");
                 count++;
                 try {
@@ -755,6 +762,27 @@ public class IpCameraHandler extends BaseThingHandler {
         }
     }
 
+    /**
+     * The FFmpeg process that the HLS, MJPEG and alarm conversions share if enabled. The conversions fall back to
+     * their own process if their input differs, for example if a separate alarm input is configured.
+     */
+    private @Nullable SharedFfmpeg getSharedFfmpeg(String inputOptions) {
+        if (!cameraConfig.getFfmpegSharedProcess()) {
+            return null;
+        }
+        SharedFfmpeg localShared = sharedFfmpeg;
+        if (localShared == null) {
+            String sharedInputOptions = inputOptions;
+            if (sharedInputOptions.isEmpty() && rtspUri.toLowerCase().contains("rtsp")) {
+                sharedInputOptions = "-rtsp_transport tcp";
+            }
+            localShared = new SharedFfmpeg(cameraConfig.getFfmpegLocation(), sharedInputOptions, rtspUri,
+                    cameraConfig.getUser(), cameraConfig.getPassword(), scheduler);
+            sharedFfmpeg = localShared;
+        }
+        return localShared;
+    }
+
     public void setupFfmpegFormat(FFmpegFormat format) {
         String inputOptions = cameraConfig.getFfmpegInputOptions();
         if (cameraConfig.getFfmpegOutput().isEmpty()) {
@@ -794,6 +822,7 @@ public class IpCameraHandler extends BaseThingHandler {
                 }
                 Ffmpeg localHLS = ffmpegHLS;
                 if (localHLS != null) {
+                    localHLS.setSharedFfmpeg(getSharedFfmpeg(inputOptions));
                     localHLS.startConverting();
                 }
                 break;
@@ -892,6 +921,7 @@ public class IpCameraHandler extends BaseThingHandler {
                         filterOptions, "-f null -", cameraConfig.getUser(), cameraConfig.getPassword());
                 localAlarms = ffmpegRtspHelper;
                 if (localAlarms != null) {
+                    localAlarms.setSharedFfmpeg(getSharedFfmpeg(inputOptions));
                     localAlarms.startConverting();
                 }
                 break;
@@ -909,6 +939,7 @@ public class IpCameraHandler extends BaseThingHandler {
                 }
                 Ffmpeg localMjpeg = ffmpegMjpeg;
                 if (localMjpeg != null) {
+                    localMjpeg.setSharedFfmpeg(getSharedFfmpeg(cameraConfig.getFfmpegInputOptions()));
                     localMjpeg.startConverting();
                 }
                 break;
@@ -1724,6 +1755,11 @@ public class IpCameraHandler extends BaseThingHandler {
             localFfmpeg.stopConverting();
             ffmpegSnapshot = null;
         }
+        SharedFfmpeg localShared = sharedFfmpeg;
+        if (localShared != null) {
+            localShared.stop();
+            sharedFfmpeg = null;
+        }
         onvifCamera.disconnect();
         openChannels.close();
     }
@@ -18,10 +18,15 @@ import java.util.List;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
 /**
  * The {@link OpenStreams} Keeps track of all open mjpeg streams so the byte[] can be given to all FIFO buffers to allow
  * 1 to many streams without needing to open more than 1 source stream.
  *
+ * Frames are not copied for each stream, all streams share the same array.
+ *
  *
  * @author Matthew Skinner - Initial contribution
  */
@@ -54,16 +59,41 @@ public class OpenStreams {
         }
     }
 
+    /**
+     * Give a frame to all open streams. The frame is copied once, the caller keeps its reference to the buffer.
+     *
+     * @param frame a frame or chunk of the mjpeg stream
+     */
+    public void queueFrame(ByteBuf frame) {
+        if (!isEmpty()) {
+            queueFrame(ByteBufUtil.getBytes(frame));
+        }
+    }
+
+    /**
+     * Give a frame to all open streams. All streams share the array, snapshot based streams share one part wrapping it.
+     *
+     * @param frame a frame or chunk of the mjpeg stream, must not be modified afterwards
+     */
     public synchronized void queueFrame(byte[] frame) {
+        byte[] snapshotPart = null;
         for (StreamOutput stream : openStreams) {
-            stream.queueFrame(frame);
+            if (stream.isSnapshotBased) {
+                if (snapshotPart == null) {
+                    snapshotPart = StreamOutput.wrapSnapshot(frame);
+                }
+                stream.queueSnapshotPart(snapshotPart);
+            } else {
+                stream.queueFrame(frame);
+            }
         }
     }
 
     public synchronized void closeAllStreams() {
-        for (StreamOutput stream : openStreams) {
+        List<StreamOutput> streams = new ArrayList<>(openStreams);
+        openStreams.clear();
+        for (StreamOutput stream : streams) {
             stream.close();
         }
-        openStreams.clear();
     }
 }
@@ -13,35 +13,57 @@
 package org.openhab.binding.ipcamera.internal.servlet;
 
 import java.io.IOException;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletResponse;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The {@link StreamOutput} Streams mjpeg out to a client
  *
+ * Frames given to {@link #queueFrame(byte[])} are shared with all other streams of the camera and never modified, so
+ * the container may still use a written frame after the write returned. Once
+ * {@link #startAsync(AsyncContext, Runnable)} was called, frames are written with non-blocking servlet I/O whenever
+ * the client is ready for more data, each with a single write call, which is all that is allowed per
+ * {@link ServletOutputStream#isReady()}. A client that can not keep up loses its oldest frames instead of holding up
+ * the camera.
+ *
  * @author Matthew Skinner - Initial contribution
  */
 
 @NonNullByDefault
-public class StreamOutput {
+public class StreamOutput implements WriteListener {
+    private static final int MAX_QUEUED_FRAMES = 50;
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final String SNAPSHOT_BOUNDARY = "thisMjpegStream";
     public final Logger logger = LoggerFactory.getLogger(getClass());
     private final HttpServletResponse response;
     private final String boundary;
     private String contentType;
     private final ServletOutputStream output;
-    private BlockingQueue<byte[]> fifo = new ArrayBlockingQueue<byte[]>(50);
+    // guarded by this
+    private final Deque<byte[]> fifo = new ArrayDeque<>(MAX_QUEUED_FRAMES);
     private boolean connected = false;
     public boolean isSnapshotBased = false;
+    private @Nullable AsyncContext asyncContext;
+    private @Nullable Runnable errorCallback;
+    private boolean closed = false;
+    private long droppedFrames = 0;
 
     public StreamOutput(HttpServletResponse response) throws IOException {
-        boundary = "thisMjpegStream";
+        boundary = SNAPSHOT_BOUNDARY;
         contentType = "multipart/x-mixed-replace; boundary=" + boundary;
         this.response = response;
         output = response.getOutputStream();
@@ -75,42 +97,190 @@ public class StreamOutput {
         output.write("\r\n".getBytes());
     }
 
+    /**
+     * Switch the stream to non-blocking output. Queued frames are written whenever the client is ready to take more
+     * data, so no thread is blocked while waiting for a slow client.
+     *
+     * @param asyncContext the started async context of the request
+     * @param onError called once, if the client closed the stream or writing to it failed
+     */
+    public void startAsync(AsyncContext asyncContext, Runnable onError) {
+        asyncContext.setTimeout(0);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(@Nullable AsyncEvent event) {
+            }
+
+            @Override
+            public void onTimeout(@Nullable AsyncEvent event) {
+                failed(null);
+            }
+
+            @Override
+            public void onError(@Nullable AsyncEvent event) {
+                failed(event != null ? event.getThrowable() : null);
+            }
+
+            @Override
+            public void onStartAsync(@Nullable AsyncEvent event) {
+            }
+        });
+        synchronized (this) {
+            this.asyncContext = asyncContext;
+            this.errorCallback = onError;
+        }
+        // the container calls onWritePossible as soon as the stream is ready
+        output.setWriteListener(this);
+    }
+
+    /**
+     * Queue a frame for this stream.
+     *
+     * @param frame a frame or chunk of the mjpeg stream, must not be modified afterwards
+     */
     public void queueFrame(byte[] frame) {
-        try {
-            fifo.add(frame);
-        } catch (IllegalStateException e) {
-            logger.debug("FIFO buffer has run out of space:{}", e.getMessage());
-            fifo.remove();
-            fifo.add(frame);
+        if (isSnapshotBased) {
+            queueSnapshotPart(wrapSnapshot(frame));
+            return;
         }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            addToFifo(frame);
+        }
+        writeQueuedFrames();
+    }
+
+    /**
+     * Queue a snapshot for this snapshot based stream.
+     *
+     * @param part a snapshot wrapped by {@link #wrapSnapshot(byte[])}, must not be modified afterwards
+     */
+    void queueSnapshotPart(byte[] part) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (!connected) {
+                // iOS needs to have two jpgs sent for the picture to appear instantly.
+                connected = true;
+                sendInitialHeaders();
+                addToFifo(part);
+            }
+            addToFifo(part);
+        }
+        writeQueuedFrames();
     }
 
     public void updateContentType(String contentType) {
-        this.contentType = contentType;
-        if (!connected) {
-            sendInitialHeaders();
-            connected = true;
+        synchronized (this) {
+            this.contentType = contentType;
+            if (!connected) {
+                sendInitialHeaders();
+                connected = true;
+            }
         }
+        writeQueuedFrames();
     }
 
-    public void sendFrame() throws IOException, InterruptedException {
-        if (isSnapshotBased) {
-            sendSnapshotBasedFrame(fifo.take());
-        } else if (connected) {
-            output.write(fifo.take());
+    @Override
+    public void onWritePossible() {
+        writeQueuedFrames();
+    }
+
+    @Override
+    public void onError(@Nullable Throwable t) {
+        failed(t);
+    }
+
+    private void writeQueuedFrames() {
+        Exception error = null;
+        synchronized (this) {
+            if (asyncContext == null || closed || !connected) {
+                return;
+            }
+            try {
+                while (output.isReady()) {
+                    byte[] frame = fifo.poll();
+                    if (frame == null) {
+                        break;
+                    }
+                    output.write(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                error = e;
+            }
+        }
+        if (error != null) {
+            // outside of the lock, the callback removes the stream from the open streams
+            failed(error);
         }
     }
 
+    private void addToFifo(byte[] frame) {
+        if (fifo.size() >= MAX_QUEUED_FRAMES) {
+            fifo.poll();
+            if (droppedFrames++ % 100 == 0) {
+                logger.debug("Client is too slow for the stream, {} frames have been dropped so far", droppedFrames);
+            }
+        }
+        fifo.add(frame);
+    }
+
+    /**
+     * Wrap a snapshot into a part of the multipart stream of snapshot based streams.
+     *
+     * @param snapshot the jpeg of the snapshot
+     * @return one contiguous part, so that the client gets the whole part in one write
+     */
+    static byte[] wrapSnapshot(byte[] snapshot) {
+        byte[] header = ("--" + SNAPSHOT_BOUNDARY + "\r\n" + "Content-Type: image/jpeg" + "\r\n" + "Content-Length: "
+                + snapshot.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] part = Arrays.copyOf(header, header.length + snapshot.length + CRLF.length);
+        System.arraycopy(snapshot, 0, part, header.length, snapshot.length);
+        System.arraycopy(CRLF, 0, part, header.length + snapshot.length, CRLF.length);
+        return part;
+    }
+
     private void sendInitialHeaders() {
         response.setContentType(contentType);
         response.setHeader("Access-Control-Allow-Origin", "*");
         response.setHeader("Access-Control-Expose-Headers", "*");
     }
 
-    public void close() {
+    private void failed(@Nullable Throwable t) {
+        Runnable localOnError;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            localOnError = errorCallback;
+            closeInternal();
+        }
+        logger.debug("Stream to client closed: {}", t != null ? t.getMessage() : "timeout");
+        if (localOnError != null) {
+            localOnError.run();
+        }
+    }
+
+    private void closeInternal() {
+        closed = true;
+        fifo.clear();
+        AsyncContext localAsyncContext = asyncContext;
         try {
-            output.close();
-        } catch (IOException e) {
+            if (localAsyncContext != null) {
+                localAsyncContext.complete();
+            } else {
+                output.close();
+            }
+        } catch (IOException | IllegalStateException e) {
+        }
+    }
+
+    public synchronized void close() {
+        if (!closed) {
+            closeInternal();
         }
     }
 }
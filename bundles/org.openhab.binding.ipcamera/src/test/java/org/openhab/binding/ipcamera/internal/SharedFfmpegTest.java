@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.FFmpegFormat;
+
+/**
+ * Tests for {@link SharedFfmpeg}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SharedFfmpegTest {
+
+    private static final String INPUT = "rtsp://192.168.0.2/stream";
+    private static final String INPUT_ARGUMENTS = "-rtsp_transport tcp";
+
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+    private final List<Runnable> jobs = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final List<List<String>> commands = new ArrayList<>();
+    private @Nullable Process process;
+
+    private final SharedFfmpeg shared = new SharedFfmpeg("/usr/bin/ffmpeg", INPUT_ARGUMENTS, INPUT, "", "",
+            scheduler) {
+        @Override
+        Process startProcess(List<String> command) throws IOException {
+            commands.add(command);
+            Process localProcess = process;
+            if (localProcess == null) {
+                throw new IOException("ffmpeg not found");
+            }
+            return localProcess;
+        }
+    };
+
+    @BeforeEach
+    public void setUp() {
+        doAnswer(invocation -> {
+            jobs.add(invocation.getArgument(0));
+            delays.add(invocation.getArgument(1));
+            return future;
+        }).when(scheduler).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+    }
+
+    private static Ffmpeg output(FFmpegFormat format, String outArguments, String output) {
+        Ffmpeg ffmpeg = mock(Ffmpeg.class);
+        when(ffmpeg.getFormat()).thenReturn(format);
+        when(ffmpeg.getInput()).thenReturn(INPUT);
+        when(ffmpeg.getInputArguments()).thenReturn("-hide_banner -loglevel warning " + INPUT_ARGUMENTS);
+        when(ffmpeg.getOutArguments()).thenReturn(outArguments);
+        when(ffmpeg.getOutput()).thenReturn(output);
+        return ffmpeg;
+    }
+
+    /**
+     * @return a process that keeps running, as its error output is never closed
+     */
+    private static Process runningProcess() throws IOException {
+        Process process = mock(Process.class);
+        when(process.getErrorStream()).thenReturn(new PipedInputStream(new PipedOutputStream()));
+        when(process.isAlive()).thenReturn(true);
+        return process;
+    }
+
+    private void runLastJob() {
+        jobs.get(jobs.size() - 1).run();
+    }
+
+    @Test
+    public void outputsAreCombinedIntoOneCommand() {
+        Ffmpeg mjpeg = output(FFmpegFormat.MJPEG, "-q:v 5 -f mpjpeg",
+                "http://127.0.0.1:8080/ipcamera/cam/ipcamera.jpg");
+        Ffmpeg snapshot = output(FFmpegFormat.SNAPSHOT, "-an -vsync vfr -update 1", "/tmp/snapshot.jpg");
+
+        List<String> command = shared.buildCommand(List.of(mjpeg, snapshot));
+
+        assertEquals(List.of("/usr/bin/ffmpeg", "-hide_banner", "-loglevel", "warning", "-rtsp_transport", "tcp",
+                "-i", INPUT, "-q:v", "5", "-f", "mpjpeg", "http://127.0.0.1:8080/ipcamera/cam/ipcamera.jpg", "-an",
+                "-vsync", "vfr", "-update", "1", "/tmp/snapshot.jpg"), command);
+    }
+
+    @Test
+    public void alarmsKeepTheInfoLogLevel() {
+        Ffmpeg alarms = output(FFmpegFormat.RTSP_ALARMS, "-vn -af silencedetect -f null", "-");
+
+        List<String> command = shared.buildCommand(List.of(alarms));
+
+        assertFalse(command.contains("-loglevel"));
+        assertEquals(List.of("/usr/bin/ffmpeg", "-hide_banner", "-rtsp_transport", "tcp", "-i", INPUT, "-vn", "-af",
+                "silencedetect", "-f", "null", "-"), command);
+    }
+
+    @Test
+    public void extraInputsAreMovedInFrontOfTheOutputs() {
+        Ffmpeg hls = output(FFmpegFormat.HLS, "-f lavfi -i anullsrc -c:v copy -c:a aac -f hls", "/tmp/ipcamera.m3u8");
+        Ffmpeg mjpeg = output(FFmpegFormat.MJPEG, "-q:v 5 -f mpjpeg", "http://127.0.0.1/ipcamera.jpg");
+        Ffmpeg gif = output(FFmpegFormat.GIF, "-r 2 -vf scale=480:-2", "/tmp/ipcamera.gif");
+
+        List<String> command = shared.buildCommand(List.of(mjpeg, hls, gif));
+
+        assertEquals(List.of("/usr/bin/ffmpeg", "-hide_banner", "-loglevel", "warning", "-rtsp_transport", "tcp",
+                "-i", INPUT, "-f", "lavfi", "-i", "anullsrc",
+                // the other outputs only use the camera's streams, MJPEG has no audio
+                "-map", "0:v?", "-q:v", "5", "-f", "mpjpeg", "http://127.0.0.1/ipcamera.jpg",
+                // the output with the extra input keeps its own mapping
+                "-c:v", "copy", "-c:a", "aac", "-f", "hls", "/tmp/ipcamera.m3u8", "-map", "0:v?", "-map", "0:a?",
+                "-r", "2", "-vf", "scale=480:-2", "/tmp/ipcamera.gif"), command);
+    }
+
+    @Test
+    public void outputsWithDifferentInputsAreRejected() {
+        Ffmpeg other = output(FFmpegFormat.HLS, "-c:v copy", "/tmp/ipcamera.m3u8");
+        when(other.getInput()).thenReturn("rtsp://192.168.0.2/substream");
+
+        assertFalse(shared.addOutput(other));
+        Ffmpeg secondExtraInput = output(FFmpegFormat.GIF, "-f lavfi -i anullsrc -r 2", "/tmp/ipcamera.gif");
+        assertTrue(shared.addOutput(output(FFmpegFormat.HLS, "-f lavfi -i anullsrc -c:v copy", "/tmp/a.m3u8")));
+        assertFalse(shared.addOutput(secondExtraInput));
+    }
+
+    @Test
+    public void changesWithinTheDebounceDelayCauseOneRestart() throws IOException {
+        Ffmpeg mjpeg = output(FFmpegFormat.MJPEG, "-f mpjpeg", "http://127.0.0.1/ipcamera.jpg");
+        Ffmpeg snapshot = output(FFmpegFormat.SNAPSHOT, "-update 1", "/tmp/snapshot.jpg");
+        process = runningProcess();
+
+        assertTrue(shared.addOutput(mjpeg));
+        assertTrue(shared.addOutput(snapshot));
+        assertTrue(shared.removeOutput(mjpeg));
+
+        assertEquals(List.of(1000L), delays);
+        assertTrue(shared.isAlive(snapshot));
+        runLastJob();
+        assertEquals(1, commands.size());
+        assertFalse(commands.get(0).contains("mpjpeg"));
+        assertTrue(commands.get(0).contains("/tmp/snapshot.jpg"));
+    }
+
+    @Test
+    public void failedStartsAreRetriedWithIncreasingDelay() {
+        shared.addOutput(output(FFmpegFormat.SNAPSHOT, "-update 1", "/tmp/snapshot.jpg"));
+
+        for (int i = 0; i < 8; i++) {
+            runLastJob();
+        }
+
+        // the first restart is the debounced start
+        assertEquals(List.of(1000L, 1000L, 2000L, 4000L, 8000L, 16000L, 32000L, 60000L, 60000L), delays);
+        assertEquals(8, commands.size());
+    }
+
+    @Test
+    public void exitedProcessIsRestarted() throws Exception {
+        PipedOutputStream stderr = new PipedOutputStream();
+        Process localProcess = mock(Process.class);
+        when(localProcess.getErrorStream()).thenReturn(new PipedInputStream(stderr));
+        process = localProcess;
+        Ffmpeg snapshot = output(FFmpegFormat.SNAPSHOT, "-update 1", "/tmp/snapshot.jpg");
+        shared.addOutput(snapshot);
+        runLastJob();
+
+        stderr.write("frame=1\n".getBytes());
+        stderr.close();
+
+        verify(scheduler, timeout(5000).times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        verify(snapshot, timeout(5000)).processLine("frame=1");
+        assertEquals(List.of(1000L, 1000L), delays);
+    }
+
+    @Test
+    public void alarmsAreNotInterruptedByChangingStreams() throws IOException {
+        Ffmpeg alarms = output(FFmpegFormat.RTSP_ALARMS, "-vn -af silencedetect -f null", "-");
+        Ffmpeg mjpeg = output(FFmpegFormat.MJPEG, "-f mpjpeg", "http://127.0.0.1/ipcamera.jpg");
+        Ffmpeg hls = output(FFmpegFormat.HLS, "-c:v copy -f hls", "/tmp/ipcamera.m3u8");
+        Process alarmProcess = runningProcess();
+        process = alarmProcess;
+        shared.addOutput(alarms);
+        runLastJob();
+
+        process = runningProcess();
+        assertTrue(shared.addOutput(mjpeg));
+        runLastJob();
+        assertTrue(shared.addOutput(hls));
+        runLastJob();
+        assertTrue(shared.removeOutput(mjpeg));
+        runLastJob();
+
+        assertEquals(4, commands.size());
+        assertTrue(commands.get(0).contains("silencedetect"));
+        for (List<String> command : commands.subList(1, 4)) {
+            assertFalse(command.contains("silencedetect"));
+        }
+        verify(alarmProcess, never()).destroyForcibly();
+        assertTrue(shared.isAlive(mjpeg));
+    }
+
+    @Test
+    public void stopCancelsPendingRestart() {
+        Ffmpeg snapshot = output(FFmpegFormat.SNAPSHOT, "-update 1", "/tmp/snapshot.jpg");
+        shared.addOutput(snapshot);
+
+        shared.stop();
+
+        verify(future).cancel(false);
+        // the scheduler belongs to the handler
+        verify(scheduler, never()).shutdown();
+        assertFalse(shared.isAlive(snapshot));
+        assertFalse(shared.addOutput(output(FFmpegFormat.SNAPSHOT, "-update 1", "/tmp/snapshot.jpg")));
+    }
+}
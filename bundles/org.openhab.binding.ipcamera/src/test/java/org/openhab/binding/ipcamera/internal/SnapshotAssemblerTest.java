@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ResourceLeakDetector;
+
+/**
+ * Tests for {@link SnapshotAssembler}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SnapshotAssemblerTest {
+
+    private static ResourceLeakDetector.Level leakDetectionLevel = ResourceLeakDetector.Level.SIMPLE;
+
+    private final List<ByteBuf> allocated = new ArrayList<>();
+    private final List<ByteBuf> chunks = new ArrayList<>();
+    private final SnapshotAssembler assembler = new SnapshotAssembler();
+    private ByteBufAllocator alloc = PooledByteBufAllocator.DEFAULT;
+
+    @BeforeAll
+    public static void enableLeakDetection() {
+        leakDetectionLevel = ResourceLeakDetector.getLevel();
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+    }
+
+    @AfterAll
+    public static void restoreLeakDetection() {
+        ResourceLeakDetector.setLevel(leakDetectionLevel);
+    }
+
+    @BeforeEach
+    public void setUp() {
+        // record the buffers of the assembler, so that their reference counts can be checked
+        alloc = spy(new PooledByteBufAllocator(false));
+        doAnswer(invocation -> {
+            ByteBuf buffer = (ByteBuf) invocation.callRealMethod();
+            allocated.add(buffer);
+            return buffer;
+        }).when(alloc).buffer(anyInt(), anyInt());
+    }
+
+    @AfterEach
+    public void allBuffersReleased() {
+        for (ByteBuf buffer : allocated) {
+            assertEquals(0, buffer.refCnt(), "receive buffer was not released");
+        }
+        for (ByteBuf chunk : chunks) {
+            // the chunks are owned by the caller
+            assertTrue(chunk.release());
+        }
+    }
+
+    private ByteBuf chunk(String content) {
+        return chunk(content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private ByteBuf chunk(byte[] content) {
+        ByteBuf chunk = Unpooled.copiedBuffer(content);
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    @Test
+    public void chunksAreJoinedIntoExactArray() {
+        assembler.start(alloc, 0);
+        ByteBuf first = chunk("jp");
+        ByteBuf second = chunk("eg");
+
+        assembler.append(first);
+        assembler.append(second);
+        byte[] snapshot = assembler.finish();
+
+        assertEquals("jpeg", new String(snapshot, StandardCharsets.US_ASCII));
+        assertFalse(assembler.isReceiving());
+        assertEquals(1, allocated.size());
+        assertEquals(1, first.refCnt());
+        assertEquals(1, second.refCnt());
+    }
+
+    @Test
+    public void unfinishedSnapshotIsReleasedOnRestart() {
+        assembler.start(alloc, 4);
+        assembler.append(chunk("jp"));
+        assembler.start(alloc, 4);
+        assembler.append(chunk("jpeg"));
+
+        assertEquals(1, allocated.get(0).refCnt() + allocated.get(1).refCnt());
+        assertEquals("jpeg", new String(assembler.finish(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void releaseDropsUnfinishedSnapshot() {
+        assembler.start(alloc, 0);
+        assembler.append(chunk("jp"));
+
+        assembler.release();
+        assembler.release();
+
+        assertFalse(assembler.isReceiving());
+        assertEquals(0, assembler.finish().length);
+    }
+
+    @Test
+    public void initialCapacityIsLimitedToMaxSnapshotSize() {
+        assembler.start(alloc, Integer.MAX_VALUE);
+
+        assertEquals(MAX_SNAPSHOT_SIZE, allocated.get(0).capacity());
+        assertEquals(MAX_SNAPSHOT_SIZE, allocated.get(0).maxCapacity());
+        assembler.release();
+    }
+
+    @Test
+    public void snapshotLargerThanMaxSnapshotSizeIsDropped() {
+        assembler.start(alloc, 0);
+        assembler.append(chunk(new byte[MAX_SNAPSHOT_SIZE]));
+        assertEquals(MAX_SNAPSHOT_SIZE, allocated.get(0).readableBytes());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> assembler.append(chunk("x")));
+
+        assertFalse(assembler.isReceiving());
+        assertEquals(0, allocated.get(0).refCnt());
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.openhab.binding.ipcamera.internal.IpCameraBindingConstants.MAX_PREROLL_BYTES;
+
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link SnapshotRingBuffer}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SnapshotRingBufferTest {
+
+    private static byte[] snapshot(int id, int size) {
+        byte[] snapshot = new byte[size];
+        snapshot[0] = (byte) id;
+        return snapshot;
+    }
+
+    private static int[] ids(SnapshotRingBuffer buffer) {
+        List<byte[]> snapshots = buffer.toList();
+        return snapshots.stream().mapToInt(s -> s[0]).toArray();
+    }
+
+    @Test
+    public void oldestSnapshotsAreDroppedWhenFull() {
+        SnapshotRingBuffer buffer = new SnapshotRingBuffer(3, 1000);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(snapshot(i, 10));
+        }
+
+        assertEquals(3, buffer.size());
+        assertArrayEquals(new int[] { 3, 4, 5 }, ids(buffer));
+    }
+
+    @Test
+    public void oldestSnapshotsAreDroppedWhenTooLarge() {
+        SnapshotRingBuffer buffer = new SnapshotRingBuffer(10, 100);
+        buffer.add(snapshot(1, 40));
+        buffer.add(snapshot(2, 40));
+        buffer.add(snapshot(3, 40));
+
+        assertArrayEquals(new int[] { 2, 3 }, ids(buffer));
+
+        // a single snapshot larger than the limit is kept, so that there is always a pre-roll
+        buffer.add(snapshot(4, 200));
+        assertArrayEquals(new int[] { 4 }, ids(buffer));
+    }
+
+    @Test
+    public void preRollIsLimitedToMaxPrerollBytes() {
+        int size = (int) (MAX_PREROLL_BYTES / 2) + 1;
+        SnapshotRingBuffer buffer = new SnapshotRingBuffer(10, MAX_PREROLL_BYTES);
+        buffer.add(snapshot(1, size));
+        buffer.add(snapshot(2, size));
+
+        assertArrayEquals(new int[] { 2 }, ids(buffer));
+    }
+
+    @Test
+    public void capacityChangeKeepsNewestSnapshots() {
+        SnapshotRingBuffer buffer = new SnapshotRingBuffer(5, 1000);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(snapshot(i, 10));
+        }
+
+        buffer.setCapacity(2);
+        assertEquals(2, buffer.getCapacity());
+        assertArrayEquals(new int[] { 4, 5 }, ids(buffer));
+
+        buffer.setCapacity(4);
+        buffer.add(snapshot(6, 10));
+        buffer.add(snapshot(7, 10));
+        buffer.add(snapshot(8, 10));
+        assertArrayEquals(new int[] { 5, 6, 7, 8 }, ids(buffer));
+    }
+
+    @Test
+    public void zeroCapacityKeepsNothing() {
+        SnapshotRingBuffer buffer = new SnapshotRingBuffer(0, 1000);
+        buffer.add(snapshot(1, 10));
+
+        assertEquals(0, buffer.size());
+        assertTrue(buffer.toList().isEmpty());
+    }
+
+    @Test
+    public void clearRemovesAllSnapshots() {
+        SnapshotRingBuffer buffer = new SnapshotRingBuffer(3, 1000);
+        buffer.add(snapshot(1, 10));
+        buffer.add(snapshot(2, 10));
+
+        buffer.clear();
+        buffer.add(snapshot(3, 10));
+
+        assertArrayEquals(new int[] { 3 }, ids(buffer));
+    }
+}
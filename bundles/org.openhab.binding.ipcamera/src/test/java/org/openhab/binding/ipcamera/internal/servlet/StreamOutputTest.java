@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.ipcamera.internal.servlet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Tests for {@link StreamOutput}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class StreamOutputTest {
+
+    /**
+     * An output stream that enforces the non-blocking contract: every write must follow a call of {@link #isReady()}
+     * that returned true. A write leaves the stream not ready until {@link #drain()} is called, like a container
+     * which is still sending the data to a slow client.
+     */
+    private static class NonBlockingOutputStream extends ServletOutputStream {
+        private final List<byte[]> writes = new ArrayList<>();
+        private @Nullable WriteListener listener;
+        private boolean ready = true;
+        private boolean writeAllowed = false;
+
+        @Override
+        public boolean isReady() {
+            writeAllowed = ready;
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(@Nullable WriteListener listener) {
+            this.listener = listener;
+            notifyListener();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        @NonNullByDefault({})
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!writeAllowed) {
+                throw new IllegalStateException("write without isReady() returning true");
+            }
+            writeAllowed = false;
+            ready = false;
+            writes.add(Arrays.copyOfRange(b, off, off + len));
+        }
+
+        void drain() throws IOException {
+            ready = true;
+            notifyListener();
+        }
+
+        private void notifyListener() {
+            WriteListener localListener = listener;
+            if (localListener != null) {
+                try {
+                    localListener.onWritePossible();
+                } catch (IOException e) {
+                    localListener.onError(e);
+                }
+            }
+        }
+    }
+
+    private final NonBlockingOutputStream output = new NonBlockingOutputStream();
+    private final HttpServletResponse response = mock(HttpServletResponse.class);
+    private final AsyncContext asyncContext = mock(AsyncContext.class);
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        when(response.getOutputStream()).thenReturn(output);
+    }
+
+    private static byte[] frame(String frame) {
+        return frame.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static ByteBuf buffer(String... chunks) {
+        CompositeByteBuf frame = Unpooled.compositeBuffer();
+        for (String chunk : chunks) {
+            frame.addComponent(true, Unpooled.copiedBuffer(chunk, StandardCharsets.US_ASCII));
+        }
+        return frame;
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    public void oneWritePerReadyStream() throws IOException {
+        StreamOutput stream = new StreamOutput(response, "multipart/x-mixed-replace; boundary=test");
+        stream.startAsync(asyncContext, () -> failed.set(true));
+        byte[] first = frame("--test\r\nfirst\r\n");
+        byte[] second = frame("--test\r\nsecond\r\n");
+
+        stream.queueFrame(first);
+        stream.queueFrame(second);
+
+        assertEquals(1, output.writes.size());
+        assertEquals("--test\r\nfirst\r\n", string(output.writes.get(0)));
+
+        output.drain();
+        assertEquals(2, output.writes.size());
+        assertEquals("--test\r\nsecond\r\n", string(output.writes.get(1)));
+
+        output.drain();
+        assertEquals(2, output.writes.size());
+        assertFalse(failed.get());
+    }
+
+    @Test
+    public void framesAreCopiedOnceForAllStreams() {
+        OpenStreams openStreams = new OpenStreams();
+        StreamOutput first = mock(StreamOutput.class);
+        StreamOutput second = mock(StreamOutput.class);
+        openStreams.addStream(first);
+        openStreams.addStream(second);
+        ByteBuf frame = buffer("--test\r\n", "frame", "\r\n");
+
+        openStreams.queueFrame(frame);
+
+        ArgumentCaptor<byte[]> firstFrame = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> secondFrame = ArgumentCaptor.forClass(byte[].class);
+        verify(first).queueFrame(firstFrame.capture());
+        verify(second).queueFrame(secondFrame.capture());
+        assertSame(firstFrame.getValue(), secondFrame.getValue());
+        assertEquals("--test\r\nframe\r\n", string(firstFrame.getValue()));
+        // the caller keeps its reference
+        assertEquals(1, frame.refCnt());
+        assertTrue(frame.release());
+    }
+
+    @Test
+    public void snapshotPartIsWrittenAtOnce() throws IOException {
+        StreamOutput stream = new StreamOutput(response);
+        stream.startAsync(asyncContext, () -> failed.set(true));
+        stream.queueFrame(frame("jpeg"));
+        output.drain();
+
+        // the first snapshot is sent twice, so that iOS shows it instantly
+        String part = "--thisMjpegStream\r\nContent-Type: image/jpeg\r\nContent-Length: 4\r\n\r\njpeg\r\n";
+        assertEquals(2, output.writes.size());
+        assertEquals(part, string(output.writes.get(0)));
+        assertEquals(part, string(output.writes.get(1)));
+        assertFalse(failed.get());
+    }
+
+    @Test
+    public void snapshotPartIsSharedBySnapshotBasedStreams() throws IOException {
+        OpenStreams openStreams = new OpenStreams();
+        StreamOutput first = mock(StreamOutput.class);
+        StreamOutput second = mock(StreamOutput.class);
+        first.isSnapshotBased = true;
+        second.isSnapshotBased = true;
+        openStreams.addStream(first);
+        openStreams.addStream(second);
+
+        openStreams.queueFrame(frame("jpeg"));
+
+        ArgumentCaptor<byte[]> firstPart = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> secondPart = ArgumentCaptor.forClass(byte[].class);
+        verify(first).queueSnapshotPart(firstPart.capture());
+        verify(second).queueSnapshotPart(secondPart.capture());
+        assertSame(firstPart.getValue(), secondPart.getValue());
+        assertEquals("--thisMjpegStream\r\nContent-Type: image/jpeg\r\nContent-Length: 4\r\n\r\njpeg\r\n",
+                string(firstPart.getValue()));
+    }
+
+    @Test
+    public void queuedFramesAreDroppedOnClose() throws IOException {
+        StreamOutput stream = new StreamOutput(response, "multipart/x-mixed-replace; boundary=test");
+        stream.startAsync(asyncContext, () -> failed.set(true));
+        stream.queueFrame(frame("first"));
+        stream.queueFrame(frame("second"));
+
+        stream.close();
+        output.drain();
+
+        assertEquals(1, output.writes.size());
+        verify(asyncContext).complete();
+    }
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Index from group addresses to the {@link GroupAddressListener}s interested in them.
+ *
+ * Group addresses are 16 bit values, so the index is a dense array with one slot per address. Lookups are lock-free
+ * and do not allocate, modifications replace the immutable listener list of the affected slots.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class GroupAddressListenerIndex {
+
+    private static final int GROUP_ADDRESS_COUNT = 0x10000;
+
+    private final AtomicReferenceArray<@Nullable List<GroupAddressListener>> listenersByAddress = new AtomicReferenceArray<>(
+            GROUP_ADDRESS_COUNT);
+    private final Map<GroupAddressListener, Set<GroupAddress>> addressesByListener = new HashMap<>();
+
+    /**
+     * Sets the group addresses of the given listener, replacing the ones indexed before.
+     *
+     * @param listener the listener
+     * @param groupAddresses the group addresses the listener is interested in
+     */
+    public synchronized void put(GroupAddressListener listener, Set<GroupAddress> groupAddresses) {
+        Set<GroupAddress> addresses = Set.copyOf(groupAddresses);
+        Set<GroupAddress> previous = addressesByListener.put(listener, addresses);
+        if (previous != null) {
+            for (GroupAddress address : previous) {
+                if (!addresses.contains(address)) {
+                    removeFromSlot(address, listener);
+                }
+            }
+        }
+        for (GroupAddress address : addresses) {
+            if (previous == null || !previous.contains(address)) {
+                addToSlot(address, listener);
+            }
+        }
+    }
+
+    /**
+     * Removes the given listener from the index.
+     *
+     * @param listener the listener
+     * @return {@code true} if the listener was indexed
+     */
+    public synchronized boolean remove(GroupAddressListener listener) {
+        Set<GroupAddress> previous = addressesByListener.remove(listener);
+        if (previous == null) {
+            return false;
+        }
+        for (GroupAddress address : previous) {
+            removeFromSlot(address, listener);
+        }
+        return true;
+    }
+
+    public synchronized boolean contains(GroupAddressListener listener) {
+        return addressesByListener.containsKey(listener);
+    }
+
+    /**
+     * Returns the listeners interested in the given group address.
+     *
+     * @param address the group address
+     * @return an immutable list of listeners, empty if no listener is interested
+     */
+    public List<GroupAddressListener> get(GroupAddress address) {
+        List<GroupAddressListener> listeners = listenersByAddress.get(address.getRawAddress());
+        return listeners != null ? listeners : Collections.emptyList();
+    }
+
+    private void addToSlot(GroupAddress address, GroupAddressListener listener) {
+        int slot = address.getRawAddress();
+        List<GroupAddressListener> current = listenersByAddress.get(slot);
+        List<GroupAddressListener> updated = new ArrayList<>(current != null ? current.size() + 1 : 1);
+        if (current != null) {
+            updated.addAll(current);
+        }
+        updated.add(listener);
+        listenersByAddress.set(slot, List.copyOf(updated));
+    }
+
+    private void removeFromSlot(GroupAddress address, GroupAddressListener listener) {
+        int slot = address.getRawAddress();
+        List<GroupAddressListener> current = listenersByAddress.get(slot);
+        if (current == null) {
+            return;
+        }
+        List<GroupAddressListener> updated = new ArrayList<>(current);
+        updated.remove(listener);
+        listenersByAddress.set(slot, updated.isEmpty() ? null : List.copyOf(updated));
+    }
+}
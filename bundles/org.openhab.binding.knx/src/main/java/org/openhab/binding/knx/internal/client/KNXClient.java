@@ -68,6 +68,13 @@ public interface KNXClient {
      */
     boolean registerGroupAddressListener(GroupAddressListener listener);
 
+    /**
+     * Update the group addresses of an already registered listener, after they have changed.
+     *
+     * @param listener the listener
+     */
+    void updateGroupAddressListener(GroupAddressListener listener);
+
     /**
      * Remove the given listener.
      *
@@ -83,6 +90,15 @@ public interface KNXClient {
      */
     void readDatapoint(Datapoint datapoint);
 
+    /**
+     * Schedule the given data point for asynchronous reading with the given priority. Data points which are
+     * already scheduled are not scheduled twice.
+     *
+     * @param datapoint the datapoint
+     * @param priority the priority of the read request
+     */
+    void readDatapoint(Datapoint datapoint, ReadPriority priority);
+
     /**
      * Write a command to the KNX bus.
      *
@@ -53,6 +53,10 @@ public class NoOpClient implements KNXClient {
         return false;
     }
 
+    @Override
+    public void updateGroupAddressListener(GroupAddressListener listener) {
+    }
+
     @Override
     public boolean unregisterGroupAddressListener(GroupAddressListener listener) {
         return false;
@@ -62,6 +66,10 @@ public class NoOpClient implements KNXClient {
     public void readDatapoint(Datapoint datapoint) {
     }
 
+    @Override
+    public void readDatapoint(Datapoint datapoint, ReadPriority priority) {
+    }
+
     @Override
     public void writeToKNX(OutboundSpec commandSpec) throws KNXException {
     }
@@ -0,0 +1,277 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Queue of datapoints to be read from the KNX bus.
+ *
+ * Each group address is queued at most once, datapoints with {@link ReadPriority#HIGH} are read first. Queued reads
+ * are dropped when the value of the group address is seen on the bus anyway.
+ *
+ * The pause between two reads adapts to the bus: It is doubled (up to {@link #MAX_PAUSE_FACTOR} times the
+ * configured reading pause) while the bus is busy or the responses take considerably longer than usual, and halved
+ * again (down to the configured reading pause) otherwise.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ReadScheduler {
+
+    static final int MAX_PAUSE_FACTOR = 16;
+    /** telegrams per second on the bus above which the bus is considered busy */
+    static final int BUSY_BUS_TELEGRAMS_PER_SECOND = 20;
+    /** factor of the usual response time above which the response is considered slow */
+    private static final double SLOW_RESPONSE_FACTOR = 2.0;
+    private static final int PROGRESS_INTERVAL = 100;
+
+    private final Logger logger = LoggerFactory.getLogger(ReadScheduler.class);
+
+    private final String name;
+    private final int readingPause;
+    private final LongSupplier nanoClock;
+    private final Map<ReadPriority, Map<GroupAddress, ReadDatapoint>> queues = new EnumMap<>(ReadPriority.class);
+
+    private int pause;
+    private long nextReadTime;
+    private long readStartTime;
+    private long observationStartTime;
+    private int telegrams;
+    private double usualResponseTime = -1;
+
+    private boolean batchRunning;
+    private long batchStartTime;
+    private int batchRead;
+    private int batchFailed;
+    private int batchObserved;
+    private long batchResponseTime;
+
+    /**
+     * @param name name used in the log
+     * @param readingPause configured pause in milliseconds between two reads
+     */
+    public ReadScheduler(String name, int readingPause) {
+        this(name, readingPause, System::nanoTime);
+    }
+
+    ReadScheduler(String name, int readingPause, LongSupplier nanoClock) {
+        this.name = name;
+        this.readingPause = readingPause;
+        this.nanoClock = nanoClock;
+        this.pause = readingPause;
+        for (ReadPriority priority : ReadPriority.values()) {
+            queues.put(priority, new LinkedHashMap<>());
+        }
+    }
+
+    /**
+     * Queues the given datapoint. If its group address is already queued with a lower priority, the queued read is
+     * moved to the given priority.
+     *
+     * @return {@code true} if the datapoint was not queued before
+     */
+    public synchronized boolean add(Datapoint datapoint, int retryLimit, ReadPriority priority) {
+        GroupAddress address = datapoint.getMainAddress();
+        for (Map.Entry<ReadPriority, Map<GroupAddress, ReadDatapoint>> queue : queues.entrySet()) {
+            ReadDatapoint queued = queue.getValue().get(address);
+            if (queued != null) {
+                if (priority.compareTo(queue.getKey()) < 0) {
+                    queue.getValue().remove(address);
+                    queued.setPriority(priority);
+                    getQueue(priority).put(address, queued);
+                }
+                return false;
+            }
+        }
+        startBatch();
+        getQueue(priority).put(address, new ReadDatapoint(datapoint, retryLimit, priority));
+        return true;
+    }
+
+    /**
+     * Queues a datapoint whose read failed again, behind all datapoints of the same priority.
+     */
+    public synchronized void retry(ReadDatapoint datapoint) {
+        GroupAddress address = datapoint.getDatapoint().getMainAddress();
+        for (Map<GroupAddress, ReadDatapoint> queue : queues.values()) {
+            if (queue.containsKey(address)) {
+                // queued again in the meantime
+                return;
+            }
+        }
+        getQueue(datapoint.getPriority()).put(address, datapoint);
+    }
+
+    /**
+     * @return {@code true} if the pause since the last read has passed
+     */
+    public synchronized boolean isReadDue() {
+        return nanoClock.getAsLong() - nextReadTime >= 0;
+    }
+
+    /**
+     * Takes the next datapoint to be read from the queue.
+     *
+     * @return the datapoint or {@code null} if the queue is empty
+     */
+    public synchronized @Nullable ReadDatapoint poll() {
+        for (Map<GroupAddress, ReadDatapoint> queue : queues.values()) {
+            Iterator<ReadDatapoint> iterator = queue.values().iterator();
+            if (iterator.hasNext()) {
+                ReadDatapoint datapoint = iterator.next();
+                iterator.remove();
+                readStartTime = nanoClock.getAsLong();
+                return datapoint;
+            }
+        }
+        finishBatch();
+        return null;
+    }
+
+    /**
+     * The read request for the datapoint returned by {@link #poll()} was answered.
+     */
+    public synchronized void readSucceeded() {
+        long responseTime = nanoClock.getAsLong() - readStartTime;
+        batchRead++;
+        batchResponseTime += responseTime;
+        boolean slow = usualResponseTime >= 0 && responseTime > SLOW_RESPONSE_FACTOR * usualResponseTime;
+        usualResponseTime = usualResponseTime < 0 ? responseTime : 0.875 * usualResponseTime + 0.125 * responseTime;
+        adaptPause(slow);
+        if (batchRead % PROGRESS_INTERVAL == 0) {
+            logger.debug("Bridge {} read {} datapoints, {} queued, current pause {} ms", name, batchRead, size(),
+                    pause);
+        }
+    }
+
+    /**
+     * The read request for the datapoint returned by {@link #poll()} failed, the datapoint was either queued for a
+     * retry or is given up.
+     *
+     * @param givenUp {@code true} if the datapoint is not read again
+     */
+    public synchronized void readFailed(boolean givenUp) {
+        if (givenUp) {
+            batchFailed++;
+        }
+        // no response within the timeout, do not add more load
+        adaptPause(true);
+    }
+
+    /**
+     * A telegram was seen on the bus. If it carries the value of a queued group address, the queued read is dropped.
+     *
+     * @param destination the destination of the telegram
+     * @param value {@code true} if the telegram carries the value of the destination (write or response)
+     */
+    public synchronized void telegramReceived(GroupAddress destination, boolean value) {
+        telegrams++;
+        if (value) {
+            for (Map<GroupAddress, ReadDatapoint> queue : queues.values()) {
+                if (queue.remove(destination) != null) {
+                    batchObserved++;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all queued datapoints.
+     */
+    public synchronized void clear() {
+        for (Map<GroupAddress, ReadDatapoint> queue : queues.values()) {
+            queue.clear();
+        }
+        finishBatch();
+        pause = readingPause;
+        nextReadTime = nanoClock.getAsLong();
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (Map<GroupAddress, ReadDatapoint> queue : queues.values()) {
+            size += queue.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return the current pause in milliseconds between two reads
+     */
+    public synchronized int getPause() {
+        return pause;
+    }
+
+    private Map<GroupAddress, ReadDatapoint> getQueue(ReadPriority priority) {
+        Map<GroupAddress, ReadDatapoint> queue = queues.get(priority);
+        if (queue == null) {
+            throw new IllegalStateException("No queue for priority " + priority);
+        }
+        return queue;
+    }
+
+    private void adaptPause(boolean slow) {
+        long now = nanoClock.getAsLong();
+        // bus load since the previous read finished, including the pause and this read
+        long observed = Math.max(now - observationStartTime, 1);
+        boolean busy = telegrams * TimeUnit.SECONDS.toNanos(1) / observed > BUSY_BUS_TELEGRAMS_PER_SECOND;
+        observationStartTime = now;
+        telegrams = 0;
+        if (slow || busy) {
+            pause = Math.min(pause * 2, readingPause * MAX_PAUSE_FACTOR);
+        } else {
+            pause = Math.max(pause / 2, readingPause);
+        }
+        // the reading job itself runs every reading pause
+        nextReadTime = now + TimeUnit.MILLISECONDS.toNanos(pause - readingPause);
+    }
+
+    private void startBatch() {
+        if (!batchRunning) {
+            batchRunning = true;
+            batchStartTime = nanoClock.getAsLong();
+            observationStartTime = batchStartTime;
+            telegrams = 0;
+            batchRead = 0;
+            batchFailed = 0;
+            batchObserved = 0;
+            batchResponseTime = 0;
+        }
+    }
+
+    private void finishBatch() {
+        if (batchRunning) {
+            batchRunning = false;
+            logger.debug(
+                    "Bridge {} finished reading: {} datapoints read, {} failed, {} seen on the bus in {} ms (average response time {} ms)",
+                    name, batchRead, batchFailed, batchObserved,
+                    TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - batchStartTime),
+                    batchRead > 0 ? TimeUnit.NANOSECONDS.toMillis(batchResponseTime / batchRead) : 0);
+        }
+    }
+}
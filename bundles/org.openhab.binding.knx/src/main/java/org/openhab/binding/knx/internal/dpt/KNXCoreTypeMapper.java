@@ -25,6 +25,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
 
 import org.openhab.binding.knx.internal.KNXTypeMapper;
 import org.openhab.core.library.types.DateTimeType;
@@ -110,6 +112,24 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     /** stores the default KNX DPT to use for each openHAB type */
     private final Map<Class<? extends Type>, String> defaultDptMap;
 
+    /**
+     * Decodes the data of a datapoint directly into an openHAB type, without creating a {@link DPTXlator} and
+     * without a round trip through its string representation.
+     */
+    @FunctionalInterface
+    private interface DirectDecoder {
+        /**
+         * @param data the data of the datapoint
+         * @return the openHAB type or {@code null} if the data has to be decoded by the translator
+         */
+        Type decode(byte[] data);
+    }
+
+    private static final DirectDecoder NO_DIRECT_DECODER = data -> null;
+
+    /** stores the direct decoder for each datapoint type id that has been decoded so far */
+    private final Map<String, DirectDecoder> directDecoders = new ConcurrentHashMap<>();
+
     public KNXCoreTypeMapper() {
         @SuppressWarnings("unused")
         final List<Class<?>> xlators = Arrays.<Class<?>> asList(DPTXlator1BitControlled.class,
@@ -839,6 +859,24 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
+        if (datapoint.getMainNumber() == 0 && datapoint.getDPT() != null) {
+            Type type = directDecoders.computeIfAbsent(datapoint.getDPT(), this::createDirectDecoder).decode(data);
+            if (type != null) {
+                return type;
+            }
+        }
+        return toTypeWithTranslator(datapoint, data);
+    }
+
+    /**
+     * Converts the data of a datapoint into an openHAB type using a {@link DPTXlator}. Used for all datapoint types
+     * without a direct decoder and for data the direct decoders cannot handle.
+     *
+     * @param datapoint the datapoint
+     * @param data the data of the datapoint
+     * @return the openHAB type or {@code null} if the data could not be converted
+     */
+    Type toTypeWithTranslator(Datapoint datapoint, byte[] data) {
         try {
             DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
             translator.setData(data);
@@ -864,20 +902,7 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
             switch (mainNumber) {
                 case 1:
                     DPTXlatorBoolean translatorBoolean = (DPTXlatorBoolean) translator;
-                    switch (subNumber) {
-                        case 8:
-                            return translatorBoolean.getValueBoolean() ? UpDownType.DOWN : UpDownType.UP;
-                        case 9:
-                            return translatorBoolean.getValueBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
-                        case 10:
-                            return translatorBoolean.getValueBoolean() ? StopMoveType.MOVE : StopMoveType.STOP;
-                        case 19:
-                            return translatorBoolean.getValueBoolean() ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
-                        case 22:
-                            return DecimalType.valueOf(translatorBoolean.getValueBoolean() ? "1" : "0");
-                        default:
-                            return translatorBoolean.getValueBoolean() ? OnOffType.ON : OnOffType.OFF;
-                    }
+                    return toBooleanType(subNumber, translatorBoolean.getValueBoolean());
                 case 2:
                     DPTXlator1BitControlled translator1BitControlled = (DPTXlator1BitControlled) translator;
                     int decValue = (translator1BitControlled.getControlBit() ? 2 : 0)
@@ -1026,6 +1051,112 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         return null;
     }
 
+    private Type toBooleanType(int subNumber, boolean value) {
+        switch (subNumber) {
+            case 8:
+                return value ? UpDownType.DOWN : UpDownType.UP;
+            case 9:
+                return value ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            case 10:
+                return value ? StopMoveType.MOVE : StopMoveType.STOP;
+            case 19:
+                return value ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+            case 22:
+                return DecimalType.valueOf(value ? "1" : "0");
+            default:
+                return value ? OnOffType.ON : OnOffType.OFF;
+        }
+    }
+
+    /**
+     * Creates the direct decoder for the most frequently used datapoint types. The decoders produce the same types
+     * as {@link #toTypeWithTranslator(Datapoint, byte[])}, datapoint types whose translator scales the value (like
+     * DPT 5.003 or 7.003) are left to the translator.
+     *
+     * @param dptId the datapoint type id
+     * @return the direct decoder or {@link #NO_DIRECT_DECODER} if the translator has to be used
+     */
+    private DirectDecoder createDirectDecoder(String dptId) {
+        String id;
+        try {
+            id = TranslatorTypes.createTranslator(0, dptId).getType().getID();
+        } catch (KNXException | KNXIllegalArgumentException e) {
+            // unsupported datapoint types are reported by the translator
+            return NO_DIRECT_DECODER;
+        }
+        int mainNumber = getMainNumber(id);
+        int subNumber = getSubNumber(id);
+        boolean percent = PercentType.class.equals(toTypeClass(id));
+        switch (mainNumber) {
+            case 1:
+                return data -> data.length < 1 ? null : toBooleanType(subNumber, (data[0] & 0x01) != 0);
+            case 5:
+                if (subNumber == 1) {
+                    return numericDecoder(1, percent, data -> (data[0] & 0xff) * 100.0 / 255);
+                }
+                return subNumber == 3 ? NO_DIRECT_DECODER : numericDecoder(1, percent, data -> data[0] & 0xff);
+            case 7:
+                return subNumber == 3 || subNumber == 4 ? NO_DIRECT_DECODER
+                        : numericDecoder(2, percent, data -> (data[0] & 0xff) << 8 | (data[1] & 0xff));
+            case 9:
+                return numericDecoder(2, percent, KNXCoreTypeMapper::decode2ByteFloat);
+            case 13:
+                return numericDecoder(4, percent, KNXCoreTypeMapper::decode4ByteSigned);
+            case 14:
+                return numericDecoder(4, percent, data -> {
+                    float value = Float.intBitsToFloat(decode4ByteSigned(data));
+                    return Float.isFinite(value) ? value : Double.NaN;
+                });
+            case 232:
+                if (subNumber == 600) {
+                    return data -> data.length < 3 ? null
+                            : HSBType.fromRGB(data[0] & 0xff, data[1] & 0xff, data[2] & 0xff);
+                }
+                return NO_DIRECT_DECODER;
+            default:
+                return NO_DIRECT_DECODER;
+        }
+    }
+
+    /**
+     * Creates a direct decoder for numeric datapoint types.
+     *
+     * @param size the number of bytes of the datapoint
+     * @param percent {@code true} if the value is mapped to a {@link PercentType}
+     * @param decoder decodes the value, returns {@link Double#NaN} for data that has to be decoded by the translator
+     * @return the direct decoder
+     */
+    private static DirectDecoder numericDecoder(int size, boolean percent, ToDoubleFunction<byte[]> decoder) {
+        return data -> {
+            if (data.length < size) {
+                return null;
+            }
+            double value = decoder.applyAsDouble(data);
+            if (Double.isNaN(value)) {
+                return null;
+            }
+            return percent ? new PercentType(BigDecimal.valueOf(Math.round(value))) : new DecimalType(value);
+        };
+    }
+
+    /**
+     * Decodes a KNX 2 byte float (DPT 9.x): value = 0.01 * mantissa * 2^exponent.
+     */
+    private static double decode2ByteFloat(byte[] data) {
+        if ((data[0] & 0xff) == 0x7f && (data[1] & 0xff) == 0xff) {
+            // invalid data
+            return Double.NaN;
+        }
+        // high byte: MEEEEMMM, low byte: MMMMMMMM; left align the 12 bit mantissa to get the sign extended
+        int mantissa = ((data[0] & 0x80) << 24 | (data[0] & 0x07) << 28 | (data[1] & 0xff) << 20) >> 20;
+        int exponent = (data[0] & 0x78) >> 3;
+        return (1 << exponent) * mantissa * 0.01;
+    }
+
+    private static int decode4ByteSigned(byte[] data) {
+        return data[0] << 24 | (data[1] & 0xff) << 16 | (data[2] & 0xff) << 8 | (data[3] & 0xff);
+    }
+
     /**
      * Converts a datapoint type id into an openHAB type class
      *
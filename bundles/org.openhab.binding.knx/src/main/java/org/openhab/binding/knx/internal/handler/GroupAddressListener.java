@@ -12,6 +12,8 @@
  */
 package org.openhab.binding.knx.internal.handler;
 
+import java.util.Set;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.binding.knx.internal.client.BusMessageListener;
 
@@ -28,9 +30,9 @@ import tuwien.auto.calimero.GroupAddress;
 public interface GroupAddressListener extends BusMessageListener {
 
     /**
-     * Called to verify if the GroupAddressListener has an interest in the given GroupAddress
-     *
-     * @param destination
+     * Returns all group addresses the GroupAddressListener has an interest in. Used to dispatch bus telegrams
+     * without asking every listener. After a change, the client must be informed with
+     * {@link org.openhab.binding.knx.internal.client.KNXClient#updateGroupAddressListener(GroupAddressListener)}.
      */
-    public boolean listensTo(GroupAddress destination);
+    public Set<GroupAddress> getGroupAddresses();
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class GroupAddressListenerIndexTest {
+
+    private static final GroupAddress GA_1 = new GroupAddress(1, 2, 3);
+    private static final GroupAddress GA_2 = new GroupAddress(1, 2, 4);
+    private static final GroupAddress GA_3 = new GroupAddress(31, 7, 255);
+
+    private final GroupAddressListenerIndex index = new GroupAddressListenerIndex();
+    private final GroupAddressListener listener1 = mock(GroupAddressListener.class);
+    private final GroupAddressListener listener2 = mock(GroupAddressListener.class);
+
+    @Test
+    public void testLookup() {
+        index.put(listener1, Set.of(GA_1, GA_3));
+        index.put(listener2, Set.of(GA_1, GA_2));
+
+        assertEquals(Set.of(listener1, listener2), Set.copyOf(index.get(GA_1)));
+        assertEquals(List.of(listener2), index.get(GA_2));
+        assertEquals(List.of(listener1), index.get(GA_3));
+        assertTrue(index.get(new GroupAddress(0, 0, 1)).isEmpty());
+    }
+
+    @Test
+    public void testUpdateReplacesAddresses() {
+        index.put(listener1, Set.of(GA_1, GA_2));
+        index.put(listener1, Set.of(GA_2, GA_3));
+
+        assertTrue(index.get(GA_1).isEmpty());
+        assertEquals(List.of(listener1), index.get(GA_2));
+        assertEquals(List.of(listener1), index.get(GA_3));
+    }
+
+    @Test
+    public void testRemove() {
+        index.put(listener1, Set.of(GA_1));
+        index.put(listener2, Set.of(GA_1));
+
+        assertTrue(index.remove(listener1));
+        assertFalse(index.remove(listener1));
+        assertFalse(index.contains(listener1));
+        assertEquals(List.of(listener2), index.get(GA_1));
+
+        assertTrue(index.remove(listener2));
+        assertTrue(index.get(GA_1).isEmpty());
+    }
+}
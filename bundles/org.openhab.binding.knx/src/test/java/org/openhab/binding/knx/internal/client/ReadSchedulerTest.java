@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ *
+ * @author agent - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ReadSchedulerTest {
+
+    private static final int READING_PAUSE = 50;
+    private static final GroupAddress GA_1 = new GroupAddress(1, 2, 3);
+    private static final GroupAddress GA_2 = new GroupAddress(1, 2, 4);
+    private static final GroupAddress GA_3 = new GroupAddress(1, 2, 5);
+
+    private long now;
+    private final ReadScheduler scheduler = new ReadScheduler("test", READING_PAUSE, () -> now);
+
+    private static Datapoint datapoint(GroupAddress address) {
+        return new CommandDP(address, "test", 0, "1.001");
+    }
+
+    private @Nullable GroupAddress pollAddress() {
+        ReadDatapoint datapoint = scheduler.poll();
+        return datapoint != null ? datapoint.getDatapoint().getMainAddress() : null;
+    }
+
+    @Test
+    public void testDeduplication() {
+        assertTrue(scheduler.add(datapoint(GA_1), 3, ReadPriority.NORMAL));
+        assertFalse(scheduler.add(datapoint(GA_1), 3, ReadPriority.NORMAL));
+        assertEquals(1, scheduler.size());
+
+        assertEquals(GA_1, pollAddress());
+        assertNull(pollAddress());
+    }
+
+    @Test
+    public void testPriority() {
+        scheduler.add(datapoint(GA_1), 3, ReadPriority.NORMAL);
+        scheduler.add(datapoint(GA_2), 3, ReadPriority.NORMAL);
+        scheduler.add(datapoint(GA_3), 3, ReadPriority.HIGH);
+        // already queued, moved to high priority
+        assertFalse(scheduler.add(datapoint(GA_2), 3, ReadPriority.HIGH));
+        // not moved to a lower priority
+        assertFalse(scheduler.add(datapoint(GA_3), 3, ReadPriority.NORMAL));
+
+        assertEquals(GA_3, pollAddress());
+        assertEquals(GA_2, pollAddress());
+        assertEquals(GA_1, pollAddress());
+        assertNull(pollAddress());
+    }
+
+    @Test
+    public void testRetryKeepsPriority() {
+        scheduler.add(datapoint(GA_1), 3, ReadPriority.HIGH);
+        scheduler.add(datapoint(GA_2), 3, ReadPriority.NORMAL);
+
+        ReadDatapoint datapoint = scheduler.poll();
+        assertNotNull(datapoint);
+        scheduler.retry(datapoint);
+        scheduler.readFailed(false);
+
+        assertEquals(GA_1, pollAddress());
+        assertEquals(GA_2, pollAddress());
+    }
+
+    @Test
+    public void testValueOnBusDropsQueuedRead() {
+        scheduler.add(datapoint(GA_1), 3, ReadPriority.NORMAL);
+        scheduler.add(datapoint(GA_2), 3, ReadPriority.NORMAL);
+
+        scheduler.telegramReceived(GA_1, false);
+        assertEquals(2, scheduler.size());
+        scheduler.telegramReceived(GA_1, true);
+        assertEquals(1, scheduler.size());
+        assertEquals(GA_2, pollAddress());
+    }
+
+    @Test
+    public void testPauseAdaptsToBusLoad() {
+        for (int i = 0; i < 10; i++) {
+            scheduler.add(datapoint(new GroupAddress(2, 0, i)), 3, ReadPriority.NORMAL);
+        }
+        assertEquals(READING_PAUSE, scheduler.getPause());
+        assertTrue(scheduler.isReadDue());
+
+        // busy bus: 10 telegrams within 100 ms
+        read(100, 10);
+        assertEquals(2 * READING_PAUSE, scheduler.getPause());
+        assertFalse(scheduler.isReadDue());
+        now += TimeUnit.MILLISECONDS.toNanos(READING_PAUSE);
+        assertTrue(scheduler.isReadDue());
+
+        read(100, 10);
+        read(100, 10);
+        assertEquals(8 * READING_PAUSE, scheduler.getPause());
+
+        // quiet bus
+        read(100, 0);
+        read(100, 0);
+        assertEquals(2 * READING_PAUSE, scheduler.getPause());
+        read(100, 0);
+        read(100, 0);
+        assertEquals(READING_PAUSE, scheduler.getPause());
+    }
+
+    @Test
+    public void testPauseAdaptsToResponseTime() {
+        for (int i = 0; i < 10; i++) {
+            scheduler.add(datapoint(new GroupAddress(2, 0, i)), 3, ReadPriority.NORMAL);
+        }
+        read(100, 0);
+        read(100, 0);
+        assertEquals(READING_PAUSE, scheduler.getPause());
+
+        read(500, 0);
+        assertEquals(2 * READING_PAUSE, scheduler.getPause());
+
+        assertNotNull(scheduler.poll());
+        scheduler.readFailed(true);
+        assertEquals(4 * READING_PAUSE, scheduler.getPause());
+
+        read(100, 0);
+        assertEquals(2 * READING_PAUSE, scheduler.getPause());
+    }
+
+    @Test
+    public void testPauseIsLimited() {
+        for (int i = 0; i < 10; i++) {
+            scheduler.add(datapoint(new GroupAddress(2, 0, i)), 3, ReadPriority.NORMAL);
+        }
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(scheduler.poll());
+            scheduler.readFailed(false);
+        }
+        assertEquals(ReadScheduler.MAX_PAUSE_FACTOR * READING_PAUSE, scheduler.getPause());
+    }
+
+    private void read(int responseTimeMillis, int telegrams) {
+        assertNotNull(scheduler.poll());
+        now += TimeUnit.MILLISECONDS.toNanos(responseTimeMillis);
+        for (int i = 0; i < telegrams; i++) {
+            scheduler.telegramReceived(new GroupAddress(3, 0, i), false);
+        }
+        scheduler.readSucceeded();
+    }
+}
@@ -14,11 +14,21 @@ package org.openhab.binding.knx.internal.dpt;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Arrays;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.jupiter.api.Test;
 import org.openhab.core.library.types.DateTimeType;
 import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.library.types.HSBType;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.library.types.PercentType;
 import org.openhab.core.library.types.QuantityType;
+import org.openhab.core.library.types.UpDownType;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
 
 /**
  *
@@ -278,4 +288,98 @@ public class KNXCoreTypeMapperTest {
         assertEquals("42.0", new KNXCoreTypeMapper().toDPTValue(new QuantityType<>("42 VAh"), "29.011"));
         assertEquals("42.0", new KNXCoreTypeMapper().toDPTValue(new QuantityType<>("42 varh"), "29.012"));
     }
+
+    @Test
+    public void testToTypeDPT1() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        assertEquals(OnOffType.ON, mapper.toType(datapoint("1.001"), new byte[] { 1 }));
+        assertEquals(UpDownType.DOWN, mapper.toType(datapoint("1.008"), new byte[] { 1 }));
+        for (String dpt : new String[] { "1.001", "1.008", "1.009", "1.010", "1.019", "1.022" }) {
+            assertDirectDecoding(mapper, dpt, new byte[] { 0 });
+            assertDirectDecoding(mapper, dpt, new byte[] { 1 });
+        }
+    }
+
+    @Test
+    public void testToTypeDPT5() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        assertEquals(new PercentType(50), mapper.toType(datapoint("5.001"), new byte[] { (byte) 0x80 }));
+        for (int i = 0; i <= 0xff; i++) {
+            byte[] data = new byte[] { (byte) i };
+            assertDirectDecoding(mapper, "5.001", data);
+            assertDirectDecoding(mapper, "5.003", data);
+            assertDirectDecoding(mapper, "5.010", data);
+            if (i <= 100) {
+                assertDirectDecoding(mapper, "5.004", data);
+            }
+        }
+    }
+
+    @Test
+    public void testToTypeDPT7() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        assertEquals(new DecimalType(258), mapper.toType(datapoint("7.001"), new byte[] { 1, 2 }));
+        for (int i = 0; i <= 0xffff; i += 7) {
+            byte[] data = new byte[] { (byte) (i >> 8), (byte) i };
+            assertDirectDecoding(mapper, "7.001", data);
+            assertDirectDecoding(mapper, "7.004", data);
+        }
+    }
+
+    @Test
+    public void testToTypeDPT9() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        assertEquals(new DecimalType(21.5), mapper.toType(datapoint("9.001"), new byte[] { 0x0c, 0x33 }));
+        for (int i = 0; i <= 0xffff; i++) {
+            byte[] data = new byte[] { (byte) (i >> 8), (byte) i };
+            assertDirectDecoding(mapper, "9.001", data);
+        }
+        for (int i = 0; i <= 0x7ff; i++) {
+            // humidity is mapped to PercentType, stay within 0..100 %
+            byte[] data = new byte[] { (byte) (i >> 8), (byte) i };
+            assertDirectDecoding(mapper, "9.007", data);
+        }
+    }
+
+    @Test
+    public void testToTypeDPT13And14() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        int[] values = new int[] { 0, 1, -1, 42, 1000000, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Float.floatToIntBits(3.14159f), Float.floatToIntBits(-21.75f), Float.floatToIntBits(1.5e20f),
+                Float.floatToIntBits(Float.MIN_VALUE) };
+        for (int value : values) {
+            byte[] data = new byte[] { (byte) (value >> 24), (byte) (value >> 16), (byte) (value >> 8),
+                    (byte) value };
+            assertDirectDecoding(mapper, "13.010", data);
+            assertDirectDecoding(mapper, "14.056", data);
+        }
+    }
+
+    @Test
+    public void testToTypeDPT232() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        assertEquals(HSBType.fromRGB(255, 0, 0),
+                mapper.toType(datapoint("232.600"), new byte[] { (byte) 0xff, 0, 0 }));
+        assertDirectDecoding(mapper, "232.600", new byte[] { 0, 0, 0 });
+        assertDirectDecoding(mapper, "232.600", new byte[] { 10, (byte) 0x80, (byte) 0xff });
+    }
+
+    @Test
+    public void testToTypeInvalidData() {
+        KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+        assertNull(mapper.toType(datapoint("9.001"), new byte[] { 1 }));
+        assertNull(mapper.toType(datapoint("13.010"), new byte[] { 1, 2 }));
+        assertDirectDecoding(mapper, "9.001", new byte[] { 0x7f, (byte) 0xff });
+        assertDirectDecoding(mapper, "14.056", new byte[] { 0x7f, (byte) 0xc0, 0, 0 });
+    }
+
+    private static Datapoint datapoint(String dpt) {
+        return new CommandDP(new GroupAddress(1, 2, 3), "test", 0, dpt);
+    }
+
+    private static void assertDirectDecoding(KNXCoreTypeMapper mapper, String dpt, byte[] data) {
+        Datapoint datapoint = datapoint(dpt);
+        assertEquals(mapper.toTypeWithTranslator(datapoint, data), mapper.toType(datapoint, data),
+                () -> "DPT " + dpt + ", data " + Arrays.toString(data));
+    }
 }
@@ -14,11 +14,16 @@ package org.openhab.binding.modbus.sunspec.internal.discovery;
 
 import static org.openhab.binding.modbus.sunspec.internal.SunSpecConstants.*;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -33,12 +38,14 @@ import org.openhab.core.config.discovery.DiscoveryResultBuilder;
 import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
 import org.openhab.core.io.transport.modbus.ModbusBitUtilities;
 import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusConstants;
 import org.openhab.core.io.transport.modbus.ModbusConstants.ValueType;
 import org.openhab.core.io.transport.modbus.ModbusReadFunctionCode;
 import org.openhab.core.io.transport.modbus.ModbusReadRequestBlueprint;
 import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
 import org.openhab.core.io.transport.modbus.exception.ModbusSlaveErrorResponseException;
 import org.openhab.core.library.types.DecimalType;
+import org.openhab.core.storage.Storage;
 import org.openhab.core.thing.ThingTypeUID;
 import org.openhab.core.thing.ThingUID;
 import org.slf4j.Logger;
@@ -50,6 +57,14 @@ import org.slf4j.LoggerFactory;
  * It scans trough the defined model items and notifies the
  * discovery service about the discovered devices
  *
+ * The model chain is read in chunks of up to {@link ModbusConstants#MAX_REGISTERS_READ_COUNT} registers, so that
+ * several model headers (and usually the common block) are received with a single request. Devices refusing such
+ * reads are scanned header by header instead.
+ *
+ * The discovered model map is cached per endpoint and slave id. Only chains terminated by the end block are cached,
+ * and cached maps expire after {@link #CACHE_EXPIRY}. When a valid cached map is available, only the common blocks
+ * are read to verify that the map is still valid.
+ *
  * @author Nagy Attila Gabor - Initial contribution
  */
 @NonNullByDefault
@@ -82,6 +97,16 @@ public class SunspecDiscoveryProcess {
      */
     private static final int maxTries = 3;
 
+    /**
+     * Number of registers to read at once while walking the model chain
+     */
+    private static final int MODEL_CHAIN_READ_SIZE = ModbusConstants.MAX_REGISTERS_READ_COUNT;
+
+    /**
+     * Time after which a cached model map is not used anymore and the device is scanned again
+     */
+    static final Duration CACHE_EXPIRY = Duration.ofDays(1);
+
     /**
      * List of start addresses to try
      */
@@ -113,13 +138,38 @@ public class SunspecDiscoveryProcess {
      */
     private ModbusCommunicationInterface comms;
 
+    /**
+     * Cache of discovered model maps, keyed by {@link #cacheKey}
+     */
+    private final Storage<String> cache;
+
+    /**
+     * Key of this endpoint and slave in the cache
+     */
+    private final String cacheKey;
+
+    /**
+     * Whether the model chain is read in chunks. Disabled when the device refuses larger reads.
+     */
+    private boolean chunkedReads = true;
+
+    /**
+     * Blocks found during the scan. These are stored to the cache after the scan has finished
+     */
+    private final List<ModelBlock> foundBlocks = new ArrayList<>();
+
+    /**
+     * Blocks from the cache still to be processed
+     */
+    private final Queue<ModelBlock> cachedBlocks = new ConcurrentLinkedQueue<>();
+
     /**
      * New instances of this class should get a reference to the handler
      *
      * @throws EndpointNotInitializedException
      */
-    public SunspecDiscoveryProcess(ModbusEndpointThingHandler handler, ModbusDiscoveryListener listener)
-            throws EndpointNotInitializedException {
+    public SunspecDiscoveryProcess(ModbusEndpointThingHandler handler, ModbusDiscoveryListener listener,
+            Storage<String> cache) throws EndpointNotInitializedException {
         this.handler = handler;
 
         ModbusCommunicationInterface localComms = handler.getCommunicationInterface();
@@ -130,6 +180,8 @@ public class SunspecDiscoveryProcess {
         }
         slaveId = handler.getSlaveId();
         this.listener = listener;
+        this.cache = cache;
+        this.cacheKey = handler.getUID().getAsString() + ":" + slaveId;
         commonBlockParser = new CommonModelParser();
         possibleAddresses = new ConcurrentLinkedQueue<>();
         // Preferred and alternate base registers
@@ -146,13 +198,34 @@ public class SunspecDiscoveryProcess {
      * @throws EndpointNotInitializedException
      */
     public void detectModel() {
+        String cachedModelMap = cache.get(cacheKey);
+        if (cachedModelMap != null) {
+            List<ModelBlock> blocks = fromCacheValue(cachedModelMap, System.currentTimeMillis());
+            if (!blocks.isEmpty()) {
+                logger.debug("Using cached SunSpec model map for {}: {}", cacheKey, blocks);
+                cachedBlocks.addAll(blocks);
+                processNextCachedBlock();
+                return;
+            }
+            cache.remove(cacheKey);
+        }
+        tryNextBaseAddress();
+    }
 
+    /**
+     * Look for the SunSpec header at the next possible base address
+     */
+    private void tryNextBaseAddress() {
         if (possibleAddresses.isEmpty()) {
-            parsingFinished();
+            parsingFinished(false);
             return;
         }
         // Try the next address from the possibles
         baseAddress = possibleAddresses.poll();
+        // Forget anything found at a previous base address
+        blocksFound = 0;
+        foundBlocks.clear();
+        lastCommonBlock = null;
         logger.trace("Beginning scan for SunSpec device at address {}", baseAddress);
 
         ModbusReadRequestBlueprint request = new ModbusReadRequestBlueprint(slaveId,
@@ -175,7 +248,7 @@ public class SunspecDiscoveryProcess {
         if (!id.isPresent() || id.get().longValue() != SUNSPEC_ID) {
             logger.debug("Could not find SunSpec DID at address {}, received: {}, expected: {}", baseAddress, id,
                     SUNSPEC_ID);
-            detectModel();
+            tryNextBaseAddress();
             return;
         }
 
@@ -186,55 +259,76 @@ public class SunspecDiscoveryProcess {
     }
 
     /**
-     * Look for a valid model block at the current base address
+     * Look for valid model blocks starting from the current base address
      */
     private void lookForModelBlock() {
-
+        int length = chunkedReads ? MODEL_CHAIN_READ_SIZE : MODEL_HEADER_SIZE;
         ModbusReadRequestBlueprint request = new ModbusReadRequestBlueprint(slaveId,
                 ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, baseAddress, // Start address
-                MODEL_HEADER_SIZE, // number or words to return
+                length, // number or words to return
                 maxTries);
 
-        comms.submitOneTimePoll(request, result -> result.getRegisters().ifPresent(this::modelBlockReceived),
-                this::handleError);
+        comms.submitOneTimePoll(request, result -> result.getRegisters().ifPresent(this::modelBlocksReceived),
+                this::handleModelChainError);
     }
 
     /**
-     * We received a model block header
+     * We received registers starting with a model block header. Process all the model blocks whose header fits in
+     * the received registers.
      */
-    private void modelBlockReceived(ModbusRegisterArray registers) {
+    private void modelBlocksReceived(ModbusRegisterArray registers) {
         logger.debug("Received response from device {}", registers.toString());
 
-        Optional<DecimalType> moduleID = ModbusBitUtilities.extractStateFromRegisters(registers, 0, ValueType.UINT16);
-        Optional<DecimalType> blockLength = ModbusBitUtilities.extractStateFromRegisters(registers, 1,
-                ValueType.UINT16);
+        int offset = 0;
+        while (offset + MODEL_HEADER_SIZE <= registers.size()) {
+            Optional<DecimalType> moduleID = ModbusBitUtilities.extractStateFromRegisters(registers, offset,
+                    ValueType.UINT16);
+            Optional<DecimalType> blockLength = ModbusBitUtilities.extractStateFromRegisters(registers, offset + 1,
+                    ValueType.UINT16);
 
-        if (!moduleID.isPresent() || !blockLength.isPresent()) {
-            logger.info("Could not find valid module id or block length field.");
-            parsingFinished();
-            return;
-        }
-        ModelBlock block = new ModelBlock();
-        block.address = baseAddress;
-        block.moduleID = moduleID.get().intValue();
-        block.length = blockLength.get().intValue() + MODEL_HEADER_SIZE;
-        logger.debug("SunSpec detector found block {}", block);
+            if (!moduleID.isPresent() || !blockLength.isPresent()) {
+                logger.info("Could not find valid module id or block length field.");
+                parsingFinished(false);
+                return;
+            }
+            ModelBlock block = new ModelBlock();
+            block.address = baseAddress;
+            block.moduleID = moduleID.get().intValue();
+            block.length = blockLength.get().intValue() + MODEL_HEADER_SIZE;
+            logger.debug("SunSpec detector found block {}", block);
 
-        blocksFound++;
+            blocksFound++;
 
-        if (block.moduleID == FINAL_BLOCK) {
-            parsingFinished();
-        } else {
+            if (block.moduleID == FINAL_BLOCK) {
+                parsingFinished(true);
+                return;
+            }
+            foundBlocks.add(block);
             baseAddress += block.length;
             if (block.moduleID == COMMON_BLOCK) {
-                readCommonBlock(block); // This is an asynchronous task
-                return;
+                if (offset + block.length > registers.size()) {
+                    readCommonBlock(block); // This is an asynchronous task
+                    return;
+                }
+                parseCommonBlock(slice(registers, offset, block.length));
             } else {
                 createDiscoveryResult(block);
-                lookForModelBlock();
             }
-
+            offset += block.length;
         }
+        lookForModelBlock();
+    }
+
+    /**
+     * Extract registers from the given array
+     *
+     * @param registers registers to extract from
+     * @param offset index of the first register to extract
+     * @param length number of registers to extract
+     * @return extracted registers
+     */
+    private static ModbusRegisterArray slice(ModbusRegisterArray registers, int offset, int length) {
+        return new ModbusRegisterArray(Arrays.copyOfRange(registers.getBytes(), offset * 2, (offset + length) * 2));
     }
 
     /**
@@ -248,8 +342,10 @@ public class SunspecDiscoveryProcess {
                 block.length, // number or words to return
                 maxTries);
 
-        comms.submitOneTimePoll(request, result -> result.getRegisters().ifPresent(this::parseCommonBlock),
-                this::handleError);
+        comms.submitOneTimePoll(request, result -> result.getRegisters().ifPresent(registers -> {
+            parseCommonBlock(registers);
+            lookForModelBlock(); // Continue parsing
+        }), this::handleError);
     }
 
     /**
@@ -261,7 +357,59 @@ public class SunspecDiscoveryProcess {
     private void parseCommonBlock(ModbusRegisterArray registers) {
         logger.trace("Got common block data: {}", registers);
         lastCommonBlock = commonBlockParser.parse(registers);
-        lookForModelBlock(); // Continue parsing
+    }
+
+    /**
+     * Process the next block from the cached model map. Common blocks are read from the device to verify that the
+     * cached map is still valid and to get the current device details.
+     */
+    private void processNextCachedBlock() {
+        ModelBlock block = cachedBlocks.poll();
+        if (block == null) {
+            listener.discoveryFinished();
+            return;
+        }
+        if (block.moduleID != COMMON_BLOCK) {
+            createDiscoveryResult(block);
+            processNextCachedBlock();
+            return;
+        }
+        ModbusReadRequestBlueprint request = new ModbusReadRequestBlueprint(slaveId,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, block.address, // Start address
+                block.length, // number or words to return
+                maxTries);
+
+        comms.submitOneTimePoll(request,
+                result -> result.getRegisters().ifPresent(registers -> cachedCommonBlockReceived(block, registers)),
+                failure -> {
+                    logger.debug("Could not read cached common block {}: {}", block, failure.getCause().getMessage());
+                    invalidateCache();
+                });
+    }
+
+    /**
+     * We received a common block listed in the cached model map
+     */
+    private void cachedCommonBlockReceived(ModelBlock block, ModbusRegisterArray registers) {
+        CommonModelBlock commonBlock = commonBlockParser.parse(registers);
+        if (commonBlock.sunSpecDID != COMMON_BLOCK || commonBlock.length + MODEL_HEADER_SIZE != block.length) {
+            logger.debug("Cached SunSpec model map does not match the device at block {}", block);
+            invalidateCache();
+            return;
+        }
+        lastCommonBlock = commonBlock;
+        processNextCachedBlock();
+    }
+
+    /**
+     * Drop the cached model map and do a full scan instead
+     */
+    private void invalidateCache() {
+        logger.debug("Invalidating cached SunSpec model map for {}", cacheKey);
+        cache.remove(cacheKey);
+        cachedBlocks.clear();
+        lastCommonBlock = null;
+        tryNextBaseAddress();
     }
 
     /**
@@ -309,11 +457,74 @@ public class SunspecDiscoveryProcess {
     /**
      * Parsing of model blocks finished
      * Now we have to report back to the handler the common block and the block we were looking for
+     *
+     * @param chainComplete true if the model chain was terminated by the end block. Otherwise the found blocks might
+     *            be only a part of the chain (e.g. after a timeout) and are not cached.
      */
-    private void parsingFinished() {
+    private void parsingFinished(boolean chainComplete) {
+        if (chainComplete && !foundBlocks.isEmpty()) {
+            cache.put(cacheKey, toCacheValue(foundBlocks, System.currentTimeMillis()));
+        } else {
+            logger.debug("SunSpec model chain of {} is incomplete, not caching it", cacheKey);
+            cache.remove(cacheKey);
+        }
         listener.discoveryFinished();
     }
 
+    /**
+     * Serialize model blocks for the cache, as the time of the scan followed by a comma separated list of
+     * address:moduleID:length triplets
+     */
+    static String toCacheValue(List<ModelBlock> blocks, long timestamp) {
+        return timestamp + ";" + blocks.stream().map(block -> block.address + ":" + block.moduleID + ":" + block.length)
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Deserialize model blocks from the cache
+     *
+     * @return the model blocks, or empty list if the cached value is not valid or has expired
+     */
+    static List<ModelBlock> fromCacheValue(String value, long now) {
+        List<ModelBlock> blocks = new ArrayList<>();
+        try {
+            String[] timestampAndBlocks = value.split(";");
+            if (timestampAndBlocks.length != 2
+                    || now - Long.parseLong(timestampAndBlocks[0]) > CACHE_EXPIRY.toMillis()) {
+                return List.of();
+            }
+            for (String item : timestampAndBlocks[1].split(",")) {
+                String[] parts = item.split(":");
+                if (parts.length != 3) {
+                    return List.of();
+                }
+                ModelBlock block = new ModelBlock();
+                block.address = Integer.parseInt(parts[0]);
+                block.moduleID = Integer.parseInt(parts[1]);
+                block.length = Integer.parseInt(parts[2]);
+                blocks.add(block);
+            }
+        } catch (NumberFormatException e) {
+            return List.of();
+        }
+        return blocks;
+    }
+
+    /**
+     * Handle errors received while reading the model chain
+     */
+    private void handleModelChainError(AsyncModbusFailure<ModbusReadRequestBlueprint> failure) {
+        if (chunkedReads && failure.getCause() instanceof ModbusSlaveErrorResponseException) {
+            // Device might refuse reading past the end of its register map. Fall back to reading header by header.
+            logger.debug("Device refused reading {} registers at address {}, continuing with single model headers",
+                    MODEL_CHAIN_READ_SIZE, baseAddress);
+            chunkedReads = false;
+            lookForModelBlock();
+            return;
+        }
+        handleError(failure);
+    }
+
     /**
      * Handle errors received during communication
      */
@@ -323,10 +534,11 @@ public class SunspecDiscoveryProcess {
             if (code == ModbusSlaveErrorResponseException.ILLEGAL_DATA_ACCESS
                     || code == ModbusSlaveErrorResponseException.ILLEGAL_DATA_VALUE) {
                 // It is very likely that the slave does not report an end block (0xffff) after the main blocks
-                // so we treat this situation as normal.
+                // so we treat this situation as normal. As the chain can't be told apart from a truncated one, it
+                // is not cached.
                 logger.debug(
                         "Seems like slave device does not report an end block. Continuing with the dectected blocks");
-                parsingFinished();
+                parsingFinished(false);
                 return;
             }
         }
@@ -336,6 +548,6 @@ public class SunspecDiscoveryProcess {
 
         logger.warn("Error with read at address {}: {} {}", baseAddress, cls, msg);
 
-        detectModel();
+        tryNextBaseAddress();
     }
 }
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.sunspec.internal.discovery;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.modbus.sunspec.internal.SunSpecConstants.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.binding.modbus.discovery.ModbusDiscoveryListener;
+import org.openhab.binding.modbus.handler.EndpointNotInitializedException;
+import org.openhab.binding.modbus.handler.ModbusEndpointThingHandler;
+import org.openhab.binding.modbus.sunspec.internal.dto.ModelBlock;
+import org.openhab.core.config.discovery.DiscoveryResult;
+import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
+import org.openhab.core.io.transport.modbus.AsyncModbusReadResult;
+import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadCallback;
+import org.openhab.core.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.core.storage.Storage;
+import org.openhab.core.thing.ThingUID;
+
+/**
+ * Tests the model chain walk and the caching of model maps of {@link SunspecDiscoveryProcess}
+ *
+ * The simulated device has the SunSpec header at 40000, followed by a common block, a single phase inverter block,
+ * a single phase meter block and the end block.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@SuppressWarnings({ "null", "unchecked" })
+public class SunspecDiscoveryProcessTest {
+
+    private static final int COMMON_BLOCK_ADDRESS = 40002;
+    private static final int INVERTER_BLOCK_ADDRESS = COMMON_BLOCK_ADDRESS + 68;
+    private static final int METER_BLOCK_ADDRESS = INVERTER_BLOCK_ADDRESS + 52;
+    private static final int END_BLOCK_ADDRESS = METER_BLOCK_ADDRESS + 107;
+
+    private final Map<Integer, Integer> deviceRegisters = new HashMap<>();
+    private final Map<String, String> cacheContent = new HashMap<>();
+    private final List<ModbusReadRequestBlueprint> requests = new ArrayList<>();
+    private final List<DiscoveryResult> results = new ArrayList<>();
+    private final ModbusEndpointThingHandler handler = mock(ModbusEndpointThingHandler.class);
+    private final ModbusCommunicationInterface comms = mock(ModbusCommunicationInterface.class);
+    private final Storage<String> cache = mock(Storage.class);
+    private int failFromAddress = Integer.MAX_VALUE;
+    private int finishedCount = 0;
+
+    @BeforeEach
+    public void setUp() throws EndpointNotInitializedException {
+        deviceRegisters.put(40000, 0x5375);
+        deviceRegisters.put(40001, 0x6e53);
+        putHeader(COMMON_BLOCK_ADDRESS, COMMON_BLOCK, 66);
+        putHeader(INVERTER_BLOCK_ADDRESS, INVERTER_SINGLE_PHASE, 50);
+        putHeader(METER_BLOCK_ADDRESS, METER_SINGLE_PHASE, 105);
+        putHeader(END_BLOCK_ADDRESS, FINAL_BLOCK, 0);
+
+        when(handler.getCommunicationInterface()).thenReturn(comms);
+        when(handler.getSlaveId()).thenReturn(1);
+        when(handler.getUID()).thenReturn(new ThingUID("modbus", "tcp", "endpoint"));
+
+        doAnswer(invocation -> cacheContent.get(invocation.getArgument(0))).when(cache).get(any());
+        doAnswer(invocation -> cacheContent.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+                .put(any(), any());
+        doAnswer(invocation -> cacheContent.remove(invocation.getArgument(0))).when(cache).remove(any());
+
+        doAnswer(invocation -> {
+            ModbusReadRequestBlueprint request = invocation.getArgument(0);
+            ModbusReadCallback resultCallback = invocation.getArgument(1);
+            ModbusFailureCallback<ModbusReadRequestBlueprint> failureCallback = invocation.getArgument(2);
+            requests.add(request);
+            if (request.getReference() >= failFromAddress) {
+                failureCallback.handle(new AsyncModbusFailure<ModbusReadRequestBlueprint>(request,
+                        new Exception("Read timed out")));
+            } else {
+                resultCallback.handle(new AsyncModbusReadResult(request, read(request)));
+            }
+            return null;
+        }).when(comms).submitOneTimePoll(any(ModbusReadRequestBlueprint.class), any(ModbusReadCallback.class),
+                any(ModbusFailureCallback.class));
+    }
+
+    private void putHeader(int address, int moduleID, int length) {
+        deviceRegisters.put(address, moduleID);
+        deviceRegisters.put(address + 1, length);
+    }
+
+    private ModbusRegisterArray read(ModbusReadRequestBlueprint request) {
+        byte[] bytes = new byte[request.getDataLength() * 2];
+        for (int i = 0; i < request.getDataLength(); i++) {
+            int value = deviceRegisters.getOrDefault(request.getReference() + i, 0);
+            bytes[2 * i] = (byte) (value >> 8);
+            bytes[2 * i + 1] = (byte) value;
+        }
+        return new ModbusRegisterArray(bytes);
+    }
+
+    private void runDiscovery() throws EndpointNotInitializedException {
+        requests.clear();
+        results.clear();
+        new SunspecDiscoveryProcess(handler, new ModbusDiscoveryListener() {
+            @Override
+            public void thingDiscovered(DiscoveryResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void discoveryFinished() {
+                finishedCount++;
+            }
+        }, cache).detectModel();
+    }
+
+    private List<Object> discoveredAddresses() {
+        return results.stream().map(result -> result.getProperties().get(PROPERTY_BLOCK_ADDRESS))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testCompleteChainIsCached() throws EndpointNotInitializedException {
+        runDiscovery();
+
+        assertEquals(1, finishedCount);
+        assertEquals(List.of(INVERTER_BLOCK_ADDRESS, METER_BLOCK_ADDRESS), discoveredAddresses());
+        assertEquals(1, cacheContent.size());
+        List<ModelBlock> cachedBlocks = SunspecDiscoveryProcess.fromCacheValue(cacheContent.values().iterator().next(),
+                System.currentTimeMillis());
+        assertEquals(List.of(COMMON_BLOCK_ADDRESS, INVERTER_BLOCK_ADDRESS, METER_BLOCK_ADDRESS),
+                cachedBlocks.stream().map(block -> block.address).collect(Collectors.toList()));
+
+        // Second scan only verifies the common block
+        runDiscovery();
+
+        assertEquals(2, finishedCount);
+        assertEquals(List.of(INVERTER_BLOCK_ADDRESS, METER_BLOCK_ADDRESS), discoveredAddresses());
+        assertEquals(1, requests.size());
+        assertEquals(COMMON_BLOCK_ADDRESS, requests.get(0).getReference());
+    }
+
+    @Test
+    public void testTruncatedChainIsNotCached() throws EndpointNotInitializedException {
+        // The device stops answering before the end block is read
+        failFromAddress = END_BLOCK_ADDRESS;
+
+        runDiscovery();
+
+        assertEquals(1, finishedCount);
+        assertEquals(List.of(INVERTER_BLOCK_ADDRESS, METER_BLOCK_ADDRESS), discoveredAddresses());
+        assertTrue(cacheContent.isEmpty());
+
+        // Next scan walks the chain again and caches it once it is complete
+        failFromAddress = Integer.MAX_VALUE;
+        runDiscovery();
+
+        assertEquals(2, finishedCount);
+        assertTrue(requests.stream().anyMatch(request -> request.getReference() == END_BLOCK_ADDRESS));
+        assertEquals(1, cacheContent.size());
+    }
+
+    @Test
+    public void testExpiredCacheIsNotUsed() throws EndpointNotInitializedException {
+        runDiscovery();
+        String key = cacheContent.keySet().iterator().next();
+        List<ModelBlock> blocks = SunspecDiscoveryProcess.fromCacheValue(cacheContent.get(key),
+                System.currentTimeMillis());
+        cacheContent.put(key, SunspecDiscoveryProcess.toCacheValue(blocks,
+                System.currentTimeMillis() - SunspecDiscoveryProcess.CACHE_EXPIRY.toMillis() - 1));
+
+        runDiscovery();
+
+        assertEquals(List.of(INVERTER_BLOCK_ADDRESS, METER_BLOCK_ADDRESS), discoveredAddresses());
+        assertEquals(40000, requests.get(0).getReference());
+        assertTrue(requests.stream().anyMatch(request -> request.getReference() == END_BLOCK_ADDRESS));
+    }
+}
@@ -22,7 +22,9 @@ import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.binding.modbus.internal.AtomicStampedValue;
 import org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal;
+import org.openhab.binding.modbus.internal.ModbusWriteCoalescer;
 import org.openhab.binding.modbus.internal.config.ModbusPollerConfiguration;
+import org.openhab.binding.modbus.internal.handler.AbstractModbusEndpointThingHandler;
 import org.openhab.binding.modbus.internal.handler.ModbusDataThingHandler;
 import org.openhab.core.io.transport.modbus.AsyncModbusFailure;
 import org.openhab.core.io.transport.modbus.AsyncModbusReadResult;
@@ -418,6 +420,19 @@ public class ModbusPollerThingHandler extends BaseBridgeHandler {
         return comms;
     }
 
+    /**
+     * Get write coalescer of the endpoint associated with this poller
+     *
+     * @return write coalescer, or <code>null</code> in case the endpoint is not initialized
+     */
+    public @Nullable ModbusWriteCoalescer getWriteCoalescer() {
+        ModbusEndpointThingHandler endpointThingHandler = getEndpointThingHandler();
+        if (endpointThingHandler instanceof AbstractModbusEndpointThingHandler) {
+            return ((AbstractModbusEndpointThingHandler<?, ?>) endpointThingHandler).getWriteCoalescer();
+        }
+        return null;
+    }
+
     /**
      * Refresh the data
      *
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.io.transport.modbus.BitArray;
+import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.core.io.transport.modbus.ModbusWriteCallback;
+import org.openhab.core.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusWriteRegisterRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusWriteRequestBlueprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aggregates one-time writes submitted to a single endpoint within a short time window.
+ *
+ * Writes to adjacent holding registers of the same slave are merged into one FC16 (write multiple registers) request,
+ * and writes to adjacent coils are merged into one FC15 (write multiple coils) request. Writes are only merged with
+ * the most recently opened batch of the same slave and type, so writes touching the same register are always
+ * submitted in the order they were received.
+ *
+ * With aggregation window of zero (the default), requests are passed to the communication interface as-is.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusWriteCoalescer {
+
+    /**
+     * Protocol limit for FC16 (write multiple registers)
+     */
+    public static final int MAX_REGISTERS_WRITE_COUNT = 123;
+
+    /**
+     * Protocol limit for FC15 (write multiple coils)
+     */
+    public static final int MAX_COILS_WRITE_COUNT = 1968;
+
+    private static class PendingWrite {
+        final ModbusWriteRequestBlueprint request;
+        final ModbusWriteCallback resultCallback;
+        final ModbusFailureCallback<ModbusWriteRequestBlueprint> failureCallback;
+        final boolean coil;
+        final int start;
+        final int length;
+
+        PendingWrite(ModbusWriteRequestBlueprint request, ModbusWriteCallback resultCallback,
+                ModbusFailureCallback<ModbusWriteRequestBlueprint> failureCallback) {
+            this.request = request;
+            this.resultCallback = resultCallback;
+            this.failureCallback = failureCallback;
+            this.coil = request instanceof ModbusWriteCoilRequestBlueprint;
+            this.start = request.getReference();
+            this.length = coil ? ((ModbusWriteCoilRequestBlueprint) request).getCoils().size()
+                    : ((ModbusWriteRegisterRequestBlueprint) request).getRegisters().size();
+        }
+    }
+
+    /**
+     * Writes of one slave and one type (coil or register) covering consecutive addresses [start, end)
+     */
+    private static class Batch {
+        final int unitId;
+        final boolean coil;
+        int start;
+        int end;
+        final List<PendingWrite> writes = new ArrayList<>();
+
+        Batch(PendingWrite write) {
+            this.unitId = write.request.getUnitID();
+            this.coil = write.coil;
+            this.start = write.start;
+            this.end = write.start + write.length;
+            this.writes.add(write);
+        }
+
+        boolean accepts(PendingWrite write) {
+            if (write.request.getUnitID() != unitId || write.coil != coil) {
+                return false;
+            }
+            boolean adjacent = write.start + write.length == start || write.start == end;
+            int maxLength = coil ? MAX_COILS_WRITE_COUNT : MAX_REGISTERS_WRITE_COUNT;
+            return adjacent && end - start + write.length <= maxLength;
+        }
+
+        boolean overlaps(PendingWrite write) {
+            return write.request.getUnitID() == unitId && write.coil == coil && write.start < end
+                    && write.start + write.length > start;
+        }
+
+        void add(PendingWrite write) {
+            writes.add(write);
+            start = Math.min(start, write.start);
+            end = Math.max(end, write.start + write.length);
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(ModbusWriteCoalescer.class);
+
+    private final ModbusCommunicationInterface comms;
+    private final ScheduledExecutorService scheduler;
+    private final long windowMillis;
+    private final List<PendingWrite> pending = new ArrayList<>();
+    private @Nullable ScheduledFuture<?> flushJob;
+
+    /**
+     * @param comms communication interface of the endpoint
+     * @param scheduler scheduler used to flush aggregated writes
+     * @param windowMillis aggregation window in milliseconds. Zero or negative value disables aggregation.
+     */
+    public ModbusWriteCoalescer(ModbusCommunicationInterface comms, ScheduledExecutorService scheduler,
+            long windowMillis) {
+        this.comms = comms;
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Submit one-time write, possibly aggregating it with other writes submitted within the aggregation window
+     *
+     * Callbacks of aggregated writes are called with the result (or failure) of the merged request.
+     *
+     * @param request write request
+     * @param resultCallback callback to call with the response
+     * @param failureCallback callback to call in case of failure
+     */
+    public void submitOneTimeWrite(ModbusWriteRequestBlueprint request, ModbusWriteCallback resultCallback,
+            ModbusFailureCallback<ModbusWriteRequestBlueprint> failureCallback) {
+        if (windowMillis <= 0 || !(request instanceof ModbusWriteCoilRequestBlueprint
+                || request instanceof ModbusWriteRegisterRequestBlueprint)) {
+            comms.submitOneTimeWrite(request, resultCallback, failureCallback);
+            return;
+        }
+        synchronized (this) {
+            pending.add(new PendingWrite(request, resultCallback, failureCallback));
+            if (flushJob == null) {
+                flushJob = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Submit all pending writes immediately
+     */
+    public void flush() {
+        List<PendingWrite> writes;
+        synchronized (this) {
+            writes = new ArrayList<>(pending);
+            pending.clear();
+            flushJob = null;
+        }
+        for (Batch batch : toBatches(writes)) {
+            submitBatch(batch);
+        }
+    }
+
+    /**
+     * Cancel the scheduled flush and submit all pending writes
+     */
+    public void dispose() {
+        synchronized (this) {
+            ScheduledFuture<?> localFlushJob = flushJob;
+            if (localFlushJob != null) {
+                localFlushJob.cancel(false);
+            }
+        }
+        flush();
+    }
+
+    private static List<Batch> toBatches(List<PendingWrite> writes) {
+        List<Batch> batches = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            @Nullable
+            Batch lastMatching = null;
+            for (Batch batch : batches) {
+                if (batch.unitId == write.request.getUnitID() && batch.coil == write.coil) {
+                    lastMatching = batch;
+                }
+            }
+            if (lastMatching != null && !lastMatching.overlaps(write) && lastMatching.accepts(write)) {
+                lastMatching.add(write);
+            } else {
+                batches.add(new Batch(write));
+            }
+        }
+        return batches;
+    }
+
+    private void submitBatch(Batch batch) {
+        if (batch.writes.size() == 1) {
+            PendingWrite write = batch.writes.get(0);
+            comms.submitOneTimeWrite(write.request, write.resultCallback, write.failureCallback);
+            return;
+        }
+        List<PendingWrite> writes = batch.writes;
+        writes.sort(Comparator.comparingInt(write -> write.start));
+        int maxTries = writes.stream().mapToInt(write -> write.request.getMaxTries()).max().orElse(1);
+        ModbusWriteRequestBlueprint merged;
+        if (batch.coil) {
+            BitArray coils = new BitArray(batch.end - batch.start);
+            for (PendingWrite write : writes) {
+                BitArray data = ((ModbusWriteCoilRequestBlueprint) write.request).getCoils();
+                for (int i = 0; i < data.size(); i++) {
+                    coils.setBit(write.start - batch.start + i, data.getBit(i));
+                }
+            }
+            merged = new ModbusWriteCoilRequestBlueprint(batch.unitId, batch.start, coils, true, maxTries);
+        } else {
+            byte[] bytes = new byte[(batch.end - batch.start) * 2];
+            for (PendingWrite write : writes) {
+                byte[] data = ((ModbusWriteRegisterRequestBlueprint) write.request).getRegisters().getBytes();
+                System.arraycopy(data, 0, bytes, (write.start - batch.start) * 2, data.length);
+            }
+            merged = new ModbusWriteRegisterRequestBlueprint(batch.unitId, batch.start,
+                    new ModbusRegisterArray(bytes), true, maxTries);
+        }
+        logger.debug("Merged {} write requests into {} for endpoint {}", writes.size(), merged, comms.getEndpoint());
+        comms.submitOneTimeWrite(merged, result -> writes.forEach(write -> write.resultCallback.handle(result)),
+                failure -> writes.forEach(write -> write.failureCallback.handle(failure)));
+    }
+}
@@ -39,6 +39,7 @@ public class ModbusSerialConfiguration {
     private int afterConnectionDelayMillis;
     private int connectTimeoutMillis = 10_000;
     private boolean enableDiscovery;
+    private int writeAggregationMillis;
 
     public @Nullable String getPort() {
         return port;
@@ -167,4 +168,12 @@ public class ModbusSerialConfiguration {
     public void setDiscoveryEnabled(boolean enableDiscovery) {
         this.enableDiscovery = enableDiscovery;
     }
+
+    public int getWriteAggregationMillis() {
+        return writeAggregationMillis;
+    }
+
+    public void setWriteAggregationMillis(int writeAggregationMillis) {
+        this.writeAggregationMillis = writeAggregationMillis;
+    }
 }
@@ -34,6 +34,7 @@ public class ModbusTcpConfiguration {
     private int connectTimeoutMillis = 10_000;
     private boolean enableDiscovery;
     private boolean rtuEncoded;
+    private int writeAggregationMillis;
 
     public boolean getRtuEncoded() {
         return rtuEncoded;
@@ -118,4 +119,12 @@ public class ModbusTcpConfiguration {
     public void setDiscoveryEnabled(boolean enableDiscovery) {
         this.enableDiscovery = enableDiscovery;
     }
+
+    public int getWriteAggregationMillis() {
+        return writeAggregationMillis;
+    }
+
+    public void setWriteAggregationMillis(int writeAggregationMillis) {
+        this.writeAggregationMillis = writeAggregationMillis;
+    }
 }
@@ -17,6 +17,7 @@ import static org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,6 +36,7 @@ import org.openhab.binding.modbus.handler.ModbusPollerThingHandler;
 import org.openhab.binding.modbus.internal.CascadedValueTransformationImpl;
 import org.openhab.binding.modbus.internal.ModbusBindingConstantsInternal;
 import org.openhab.binding.modbus.internal.ModbusConfigurationException;
+import org.openhab.binding.modbus.internal.ModbusWriteCoalescer;
 import org.openhab.binding.modbus.internal.SingleValueTransformation;
 import org.openhab.binding.modbus.internal.ValueTransformation;
 import org.openhab.binding.modbus.internal.config.ModbusDataConfiguration;
@@ -143,6 +145,7 @@ public class ModbusDataThingHandler extends BaseThingHandler {
     private volatile @Nullable ModbusReadRequestBlueprint readRequest;
     private volatile long updateUnchangedValuesEveryMillis;
     private volatile @NonNullByDefault({}) ModbusCommunicationInterface comms;
+    private volatile @Nullable ModbusWriteCoalescer writeCoalescer;
     private volatile boolean isWriteEnabled;
     private volatile boolean isReadEnabled;
     private volatile boolean writeParametersHavingTransformationOnly;
@@ -151,6 +154,10 @@ public class ModbusDataThingHandler extends BaseThingHandler {
     private volatile Map<String, ChannelUID> channelCache = new HashMap<>();
     private volatile Map<ChannelUID, Long> channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
     private volatile Map<ChannelUID, State> channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+    // Polled data this thing is interested in, as seen on last successful read. Used to skip the value extraction and
+    // transformation when the data has not changed
+    private volatile byte @Nullable [] lastReadRegisterSlice;
+    private volatile @Nullable Boolean lastReadBit;
 
     private volatile LocalDateTime lastStatusInfoUpdate = LocalDateTime.MIN;
     private volatile ThingStatusInfo statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE,
@@ -225,7 +232,22 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         }
 
         logger.trace("Submitting write task {} to endpoint {}", request, comms.getEndpoint());
-        comms.submitOneTimeWrite(request, this::onWriteResponse, this::handleWriteError);
+        submitOneTimeWrite(comms, request);
+    }
+
+    /**
+     * Submit write request, through the write coalescer of the endpoint when available
+     *
+     * @param localComms communication interface to use in case the write coalescer is not available
+     * @param request request to write
+     */
+    private void submitOneTimeWrite(ModbusCommunicationInterface localComms, ModbusWriteRequestBlueprint request) {
+        ModbusWriteCoalescer localWriteCoalescer = writeCoalescer;
+        if (localWriteCoalescer != null) {
+            localWriteCoalescer.submitOneTimeWrite(request, this::onWriteResponse, this::handleWriteError);
+        } else {
+            localComms.submitOneTimeWrite(request, this::onWriteResponse, this::handleWriteError);
+        }
     }
 
     /**
@@ -391,7 +413,7 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         requests.stream().forEach(request -> {
             logger.trace("Submitting write request: {} to endpoint {} (based from transformation {})", request,
                     localComms.getEndpoint(), transformOutput);
-            localComms.submitOneTimeWrite(request, this::onWriteResponse, this::handleWriteError);
+            submitOneTimeWrite(localComms, request);
         });
     }
 
@@ -422,6 +444,9 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                 ModbusEndpointThingHandler endpointHandler = (ModbusEndpointThingHandler) bridgeHandler;
                 slaveId = endpointHandler.getSlaveId();
                 comms = endpointHandler.getCommunicationInterface();
+                if (endpointHandler instanceof AbstractModbusEndpointThingHandler) {
+                    writeCoalescer = ((AbstractModbusEndpointThingHandler<?, ?>) endpointHandler).getWriteCoalescer();
+                }
                 childOfEndpoint = true;
                 functionCode = null;
                 readRequest = null;
@@ -441,6 +466,7 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                 slaveId = localReadRequest.getUnitID();
                 functionCode = localReadRequest.getFunctionCode();
                 comms = localPollerHandler.getCommunicationInterface();
+                writeCoalescer = localPollerHandler.getWriteCoalescer();
                 pollStart = localReadRequest.getReference();
                 childOfEndpoint = false;
             }
@@ -472,6 +498,7 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         pollStart = 0;
         slaveId = 0;
         comms = null;
+        writeCoalescer = null;
         functionCode = null;
         readRequest = null;
         isWriteEnabled = false;
@@ -484,6 +511,25 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         statusInfo = new ThingStatusInfo(ThingStatus.UNKNOWN, ThingStatusDetail.NONE, null);
         channelLastUpdated = new HashMap<>(NUMER_OF_CHANNELS_HINT);
         channelLastState = new HashMap<>(NUMER_OF_CHANNELS_HINT);
+        invalidateLastReadData();
+    }
+
+    @Override
+    public synchronized void channelLinked(ChannelUID channelUID) {
+        // Newly linked channel has no cached state, process next poll result fully
+        invalidateLastReadData();
+        super.channelLinked(channelUID);
+    }
+
+    @Override
+    public synchronized void channelUnlinked(ChannelUID channelUID) {
+        invalidateLastReadData();
+        super.channelUnlinked(channelUID);
+    }
+
+    private void invalidateLastReadData() {
+        lastReadRegisterSlice = null;
+        lastReadBit = null;
     }
 
     @Override
@@ -841,10 +887,31 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             int itemsPerRegister = 16 / readValueType.getBits();
             extractIndex = (readIndex.get() - pollStart) * itemsPerRegister + subIndex;
         }
+
+        // Registers covering the value, e.g. one register with 16 bit and smaller types, two with 32 bit types
+        int sliceStart = (readIndex.get() - pollStart) * 2;
+        int sliceEnd = sliceStart + Math.max(2, readValueType.getBits() / 8);
+        byte[] bytes = registers.getBytes();
+        byte @Nullable [] slice = null;
+        if (sliceEnd <= bytes.length) {
+            byte[] lastSlice = lastReadRegisterSlice;
+            if (lastSlice != null && Arrays.equals(lastSlice, 0, lastSlice.length, bytes, sliceStart, sliceEnd)) {
+                processUnchangedValue();
+                logger.trace(
+                        "Thing {} polled data unchanged, reusing previous channel values. Registers {} for request {}",
+                        thing.getUID(), registers, request);
+                return;
+            }
+            slice = Arrays.copyOfRange(bytes, sliceStart, sliceEnd);
+        }
+        // The slice is recorded only after the channel values have been computed from it, so that the cached channel
+        // values always match the cached slice
+        invalidateLastReadData();
         numericState = ModbusBitUtilities.extractStateFromRegisters(registers, extractIndex, readValueType)
                 .map(state -> (State) state).orElse(UnDefType.UNDEF);
         boolean boolValue = !numericState.equals(DecimalType.ZERO);
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
+        lastReadRegisterSlice = slice;
         logger.debug(
                 "Thing {} channels updated: {}. readValueType={}, readIndex={}, readSubIndex(or 0)={}, extractIndex={} -> numeric value {} and boolValue={}. Registers {} for request {}",
                 thing.getUID(), values, readValueType, readIndex, readSubIndex.orElse(0), extractIndex, numericState,
@@ -858,8 +925,17 @@ public class ModbusDataThingHandler extends BaseThingHandler {
             return;
         }
         boolean boolValue = bits.getBit(readIndex.get() - pollStart);
+        Boolean lastBit = lastReadBit;
+        if (lastBit != null && lastBit.booleanValue() == boolValue) {
+            processUnchangedValue();
+            logger.trace("Thing {} polled data unchanged, reusing previous channel values. Bits {} for request {}",
+                    thing.getUID(), bits, request);
+            return;
+        }
+        invalidateLastReadData();
         DecimalType numericState = boolValue ? new DecimalType(BigDecimal.ONE) : DecimalType.ZERO;
         Map<ChannelUID, State> values = processUpdatedValue(numericState, boolValue);
+        lastReadBit = boolValue;
         logger.debug(
                 "Thing {} channels updated: {}. readValueType={}, readIndex={} -> numeric value {} and boolValue={}. Bits {} for request {}",
                 thing.getUID(), values, readValueType, readIndex, numericState, boolValue, bits, request);
@@ -883,6 +959,8 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                     getThing().getUID(), getThing().getLabel(), error.getClass().getName(), error.toString(),
                     error.getMessage(), error);
         }
+        // Process the next successful read fully, the channels might have been updated meanwhile
+        invalidateLastReadData();
         Map<ChannelUID, State> states = new HashMap<>();
         ChannelUID lastReadErrorUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_ERROR);
         if (isLinked(lastReadErrorUID)) {
@@ -919,6 +997,7 @@ public class ModbusDataThingHandler extends BaseThingHandler {
                     getThing().getUID(), getThing().getLabel(), error.getClass().getName(), error.toString(),
                     error.getMessage(), error);
         }
+        invalidateLastReadData();
         Map<ChannelUID, State> states = new HashMap<>();
         ChannelUID lastWriteErrorUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_WRITE_ERROR);
         if (isLinked(lastWriteErrorUID)) {
@@ -1027,6 +1106,19 @@ public class ModbusDataThingHandler extends BaseThingHandler {
         return states;
     }
 
+    /**
+     * Update linked channels with the values computed from previous poll, without extracting or transforming the data
+     * again. Used when the polled data relevant to this thing has not changed.
+     */
+    private void processUnchangedValue() {
+        Map<ChannelUID, State> states = new HashMap<>(channelLastState);
+        ChannelUID lastReadSuccessUID = getChannelUID(ModbusBindingConstantsInternal.CHANNEL_LAST_READ_SUCCESS);
+        if (isLinked(lastReadSuccessUID)) {
+            states.put(lastReadSuccessUID, new DateTimeType());
+        }
+        updateExpiredChannels(states);
+    }
+
     private void updateExpiredChannels(Map<ChannelUID, State> states) {
         synchronized (this) {
             updateStatusIfChanged(ThingStatus.ONLINE);
@@ -60,6 +60,7 @@ public class ModbusTcpThingHandler
         poolConfiguration.setConnectTimeoutMillis(config.getConnectTimeoutMillis());
         poolConfiguration.setInterConnectDelayMillis(config.getTimeBetweenReconnectMillis());
         poolConfiguration.setInterTransactionDelayMillis(config.getTimeBetweenTransactionsMillis());
+        writeAggregationMillis = config.getWriteAggregationMillis();
         poolConfiguration.setReconnectAfterMillis(config.getReconnectAfterMillis());
     }
 
@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.io.transport.modbus.AsyncModbusWriteResult;
+import org.openhab.core.io.transport.modbus.BitArray;
+import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.core.io.transport.modbus.ModbusResponse;
+import org.openhab.core.io.transport.modbus.ModbusWriteCallback;
+import org.openhab.core.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusWriteRegisterRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusWriteRequestBlueprint;
+
+/**
+ * In-memory fake of the holding registers and coils of Modbus slaves behind a {@link ModbusCommunicationInterface}.
+ *
+ * Write requests are executed one at a time on a thread of its own, like the transactions of a serial line, and
+ * applied to the memory of the addressed slave before the result callback is called. All executed requests are
+ * recorded, so that tests can verify both the resulting slave memory and the number of round trips.
+ *
+ * The requests never leave the JVM: the encoding, the TCP/serial transport and the Modbus manager of the transport
+ * bundle are not involved, as the binding has no test dependency on a Modbus slave implementation.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@SuppressWarnings({ "null", "unchecked" })
+public class InMemoryModbusSlaves {
+
+    private static final int MEMORY_SIZE = 1024;
+
+    private final ExecutorService transactions = Executors.newSingleThreadExecutor();
+    private final Map<Integer, int[]> registers = new HashMap<>();
+    private final Map<Integer, boolean[]> coils = new HashMap<>();
+    private final List<ModbusWriteRequestBlueprint> requests = Collections.synchronizedList(new ArrayList<>());
+    private final ModbusCommunicationInterface comms = mock(ModbusCommunicationInterface.class);
+
+    public InMemoryModbusSlaves() {
+        doAnswer(invocation -> {
+            ModbusWriteRequestBlueprint request = invocation.getArgument(0);
+            ModbusWriteCallback resultCallback = invocation.getArgument(1);
+            return CompletableFuture.runAsync(() -> {
+                requests.add(request);
+                execute(request);
+                resultCallback.handle(new AsyncModbusWriteResult(request, mock(ModbusResponse.class)));
+            }, transactions);
+        }).when(comms).submitOneTimeWrite(any(ModbusWriteRequestBlueprint.class), any(ModbusWriteCallback.class),
+                any(ModbusFailureCallback.class));
+    }
+
+    public ModbusCommunicationInterface getCommunicationInterface() {
+        return comms;
+    }
+
+    /**
+     * @return the write requests received by the slaves, in the order they were executed
+     */
+    public List<ModbusWriteRequestBlueprint> getRequests() {
+        synchronized (requests) {
+            return new ArrayList<>(requests);
+        }
+    }
+
+    public synchronized int getRegister(int unitId, int address) {
+        return registers.computeIfAbsent(unitId, id -> new int[MEMORY_SIZE])[address];
+    }
+
+    public synchronized boolean getCoil(int unitId, int address) {
+        return coils.computeIfAbsent(unitId, id -> new boolean[MEMORY_SIZE])[address];
+    }
+
+    public void shutdown() {
+        transactions.shutdownNow();
+    }
+
+    private synchronized void execute(ModbusWriteRequestBlueprint request) {
+        int reference = request.getReference();
+        if (request instanceof ModbusWriteCoilRequestBlueprint) {
+            boolean[] memory = coils.computeIfAbsent(request.getUnitID(), id -> new boolean[MEMORY_SIZE]);
+            BitArray data = ((ModbusWriteCoilRequestBlueprint) request).getCoils();
+            for (int i = 0; i < data.size(); i++) {
+                memory[reference + i] = data.getBit(i);
+            }
+        } else if (request instanceof ModbusWriteRegisterRequestBlueprint) {
+            int[] memory = registers.computeIfAbsent(request.getUnitID(), id -> new int[MEMORY_SIZE]);
+            byte[] data = ((ModbusWriteRegisterRequestBlueprint) request).getRegisters().getBytes();
+            for (int i = 0; i < data.length / 2; i++) {
+                memory[reference + i] = ((data[2 * i] & 0xff) << 8) | (data[2 * i + 1] & 0xff);
+            }
+        }
+    }
+}
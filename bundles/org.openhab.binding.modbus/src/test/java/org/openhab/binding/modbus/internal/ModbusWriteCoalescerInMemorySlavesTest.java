@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.core.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusWriteRegisterRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusWriteRequestBlueprint;
+
+/**
+ * Tests {@link ModbusWriteCoalescer} with aggregation enabled against {@link InMemoryModbusSlaves}, verifying the
+ * memory of the slaves and the number of transactions.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusWriteCoalescerInMemorySlavesTest {
+
+    private static final long WINDOW_MILLIS = 200;
+
+    private @NonNullByDefault({}) InMemoryModbusSlaves slaves;
+    private @NonNullByDefault({}) ScheduledExecutorService scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        slaves = new InMemoryModbusSlaves();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+        slaves.shutdown();
+    }
+
+    private static ModbusWriteRegisterRequestBlueprint register(int unitId, int reference, int value) {
+        return new ModbusWriteRegisterRequestBlueprint(unitId, reference,
+                new ModbusRegisterArray(new byte[] { (byte) (value >> 8), (byte) value }), false, 3);
+    }
+
+    private void submitAll(ModbusWriteCoalescer coalescer, List<ModbusWriteRequestBlueprint> requests)
+            throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests.size());
+        for (ModbusWriteRequestBlueprint request : requests) {
+            coalescer.submitOneTimeWrite(request, result -> done.countDown(), failure -> {
+            });
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    public void testAdjacentRegisterWritesSentAsOneTransaction() throws InterruptedException {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(slaves.getCommunicationInterface(), scheduler,
+                WINDOW_MILLIS);
+
+        submitAll(coalescer, List.of(register(1, 12, 300), register(1, 10, 100), register(1, 11, 200),
+                register(1, 13, 0xffff)));
+
+        List<ModbusWriteRequestBlueprint> requests = slaves.getRequests();
+        assertThat(requests.size(), is(equalTo(1)));
+        assertThat(requests.get(0).isWriteMultiple(), is(true));
+        assertThat(slaves.getRegister(1, 10), is(equalTo(100)));
+        assertThat(slaves.getRegister(1, 11), is(equalTo(200)));
+        assertThat(slaves.getRegister(1, 12), is(equalTo(300)));
+        assertThat(slaves.getRegister(1, 13), is(equalTo(0xffff)));
+    }
+
+    @Test
+    public void testWritesToSameRegisterKeepLastValue() throws InterruptedException {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(slaves.getCommunicationInterface(), scheduler,
+                WINDOW_MILLIS);
+
+        submitAll(coalescer, List.of(register(1, 10, 1), register(1, 11, 2), register(1, 10, 3)));
+
+        assertThat(slaves.getRequests().size(), is(equalTo(2)));
+        assertThat(slaves.getRegister(1, 10), is(equalTo(3)));
+        assertThat(slaves.getRegister(1, 11), is(equalTo(2)));
+    }
+
+    @Test
+    public void testWritesOfDifferentSlavesKeptApart() throws InterruptedException {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(slaves.getCommunicationInterface(), scheduler,
+                WINDOW_MILLIS);
+
+        submitAll(coalescer, List.of(register(1, 10, 1), register(2, 11, 2), register(1, 11, 3)));
+
+        assertThat(slaves.getRequests().size(), is(equalTo(2)));
+        assertThat(slaves.getRegister(1, 10), is(equalTo(1)));
+        assertThat(slaves.getRegister(1, 11), is(equalTo(3)));
+        assertThat(slaves.getRegister(2, 10), is(equalTo(0)));
+        assertThat(slaves.getRegister(2, 11), is(equalTo(2)));
+    }
+
+    @Test
+    public void testAdjacentCoilWritesSentAsOneTransaction() throws InterruptedException {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(slaves.getCommunicationInterface(), scheduler,
+                WINDOW_MILLIS);
+
+        submitAll(coalescer,
+                List.of(new ModbusWriteCoilRequestBlueprint(1, 5, true, false, 1),
+                        new ModbusWriteCoilRequestBlueprint(1, 6, false, false, 1),
+                        new ModbusWriteCoilRequestBlueprint(1, 7, true, false, 1)));
+
+        assertThat(slaves.getRequests().size(), is(equalTo(1)));
+        assertThat(slaves.getCoil(1, 5), is(true));
+        assertThat(slaves.getCoil(1, 6), is(false));
+        assertThat(slaves.getCoil(1, 7), is(true));
+    }
+
+    @Test
+    public void testEveryWriteIsATransactionWhenDisabled() throws InterruptedException {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(slaves.getCommunicationInterface(), scheduler,
+                0);
+
+        submitAll(coalescer, List.of(register(1, 10, 1), register(1, 11, 2), register(1, 12, 3)));
+
+        assertThat(slaves.getRequests().size(), is(equalTo(3)));
+        assertThat(slaves.getRegister(1, 12), is(equalTo(3)));
+    }
+}
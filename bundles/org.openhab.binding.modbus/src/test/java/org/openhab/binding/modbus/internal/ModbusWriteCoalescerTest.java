@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.modbus.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.core.io.transport.modbus.AsyncModbusWriteResult;
+import org.openhab.core.io.transport.modbus.BitArray;
+import org.openhab.core.io.transport.modbus.ModbusCommunicationInterface;
+import org.openhab.core.io.transport.modbus.ModbusFailureCallback;
+import org.openhab.core.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.core.io.transport.modbus.ModbusResponse;
+import org.openhab.core.io.transport.modbus.ModbusWriteCallback;
+import org.openhab.core.io.transport.modbus.ModbusWriteCoilRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusWriteRegisterRequestBlueprint;
+import org.openhab.core.io.transport.modbus.ModbusWriteRequestBlueprint;
+
+/**
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@SuppressWarnings({ "null", "unchecked" })
+public class ModbusWriteCoalescerTest {
+
+    private @NonNullByDefault({}) ModbusCommunicationInterface comms;
+    private @NonNullByDefault({}) ScheduledExecutorService scheduler;
+    private @NonNullByDefault({}) ModbusWriteCallback resultCallback;
+    private @NonNullByDefault({}) ModbusFailureCallback<ModbusWriteRequestBlueprint> failureCallback;
+
+    @BeforeEach
+    public void setUp() {
+        comms = mock(ModbusCommunicationInterface.class);
+        scheduler = mock(ScheduledExecutorService.class);
+        resultCallback = mock(ModbusWriteCallback.class);
+        failureCallback = mock(ModbusFailureCallback.class);
+    }
+
+    private static ModbusWriteRegisterRequestBlueprint register(int unitId, int reference, int... bytes) {
+        byte[] data = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            data[i] = (byte) bytes[i];
+        }
+        return new ModbusWriteRegisterRequestBlueprint(unitId, reference, new ModbusRegisterArray(data), false, 3);
+    }
+
+    private List<ModbusWriteRequestBlueprint> submittedRequests(int expectedCount) {
+        ArgumentCaptor<ModbusWriteRequestBlueprint> captor = ArgumentCaptor.forClass(ModbusWriteRequestBlueprint.class);
+        verify(comms, times(expectedCount)).submitOneTimeWrite(captor.capture(), any(), any());
+        return captor.getAllValues();
+    }
+
+    @Test
+    public void testWritesPassedThroughWhenDisabled() {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(comms, scheduler, 0);
+        ModbusWriteRegisterRequestBlueprint request = register(1, 5, 0, 1);
+        coalescer.submitOneTimeWrite(request, resultCallback, failureCallback);
+
+        verify(comms).submitOneTimeWrite(request, resultCallback, failureCallback);
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    public void testAdjacentRegistersMerged() {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(comms, scheduler, 50);
+        coalescer.submitOneTimeWrite(register(1, 6, 0, 2), resultCallback, failureCallback);
+        coalescer.submitOneTimeWrite(register(1, 5, 0, 1), resultCallback, failureCallback);
+        coalescer.submitOneTimeWrite(register(1, 7, 0, 3, 0, 4), resultCallback, failureCallback);
+        verify(comms, never()).submitOneTimeWrite(any(), any(), any());
+
+        coalescer.flush();
+
+        List<ModbusWriteRequestBlueprint> requests = submittedRequests(1);
+        ModbusWriteRegisterRequestBlueprint merged = (ModbusWriteRegisterRequestBlueprint) requests.get(0);
+        assertThat(merged.getUnitID(), is(equalTo(1)));
+        assertThat(merged.getReference(), is(equalTo(5)));
+        assertThat(merged.isWriteMultiple(), is(true));
+        assertThat(merged.getRegisters(),
+                is(equalTo(new ModbusRegisterArray(new byte[] { 0, 1, 0, 2, 0, 3, 0, 4 }))));
+    }
+
+    @Test
+    public void testSameRegisterKeepsOrder() {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(comms, scheduler, 50);
+        ModbusWriteRegisterRequestBlueprint first = register(1, 5, 0, 1);
+        ModbusWriteRegisterRequestBlueprint second = register(1, 5, 0, 2);
+        coalescer.submitOneTimeWrite(first, resultCallback, failureCallback);
+        coalescer.submitOneTimeWrite(second, resultCallback, failureCallback);
+        coalescer.flush();
+
+        List<ModbusWriteRequestBlueprint> requests = submittedRequests(2);
+        assertThat(requests.get(0), is(sameInstance(first)));
+        assertThat(requests.get(1), is(sameInstance(second)));
+    }
+
+    @Test
+    public void testDifferentSlavesAndGapsNotMerged() {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(comms, scheduler, 50);
+        coalescer.submitOneTimeWrite(register(1, 5, 0, 1), resultCallback, failureCallback);
+        coalescer.submitOneTimeWrite(register(2, 6, 0, 2), resultCallback, failureCallback);
+        coalescer.submitOneTimeWrite(register(2, 8, 0, 3), resultCallback, failureCallback);
+        coalescer.flush();
+
+        submittedRequests(3);
+    }
+
+    @Test
+    public void testAdjacentCoilsMerged() {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(comms, scheduler, 50);
+        coalescer.submitOneTimeWrite(new ModbusWriteCoilRequestBlueprint(1, 3, true, false, 1), resultCallback,
+                failureCallback);
+        coalescer.submitOneTimeWrite(new ModbusWriteCoilRequestBlueprint(1, 4, false, false, 1), resultCallback,
+                failureCallback);
+        coalescer.submitOneTimeWrite(new ModbusWriteCoilRequestBlueprint(1, 2, true, false, 1), resultCallback,
+                failureCallback);
+        coalescer.flush();
+
+        List<ModbusWriteRequestBlueprint> requests = submittedRequests(1);
+        ModbusWriteCoilRequestBlueprint merged = (ModbusWriteCoilRequestBlueprint) requests.get(0);
+        assertThat(merged.getReference(), is(equalTo(2)));
+        BitArray coils = merged.getCoils();
+        assertThat(coils.size(), is(equalTo(3)));
+        assertThat(coils.getBit(0), is(true));
+        assertThat(coils.getBit(1), is(true));
+        assertThat(coils.getBit(2), is(false));
+    }
+
+    @Test
+    public void testCallbacksOfMergedWritesCalled() {
+        ModbusWriteCoalescer coalescer = new ModbusWriteCoalescer(comms, scheduler, 50);
+        ModbusWriteCallback otherResultCallback = mock(ModbusWriteCallback.class);
+        coalescer.submitOneTimeWrite(register(1, 5, 0, 1), resultCallback, failureCallback);
+        coalescer.submitOneTimeWrite(register(1, 6, 0, 2), otherResultCallback, failureCallback);
+        coalescer.flush();
+
+        ArgumentCaptor<ModbusWriteCallback> captor = ArgumentCaptor.forClass(ModbusWriteCallback.class);
+        verify(comms).submitOneTimeWrite(any(), captor.capture(), any());
+        AsyncModbusWriteResult result = new AsyncModbusWriteResult(register(1, 5, 0, 1, 0, 2),
+                mock(ModbusResponse.class));
+        captor.getValue().handle(result);
+
+        verify(resultCallback).handle(result);
+        verify(otherResultCallback).handle(result);
+    }
+}
@@ -20,7 +20,6 @@ import java.net.UnknownHostException;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -36,6 +35,7 @@ import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
 import org.openhab.binding.network.internal.utils.PingResult;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine;
 import org.openhab.core.cache.ExpiringCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,6 +51,8 @@ import org.slf4j.LoggerFactory;
 public class PresenceDetection implements IPRequestReceivedCallback {
 
     private static final int DESTINATION_TTL = 300 * 1000; // in ms, 300 s
+    // how long the checks may wait for a thread of the busy probe pool, before the detection is given up
+    static final int MAX_QUEUE_WAIT_MS = 30 * 1000;
 
     NetworkUtils networkUtils = new NetworkUtils();
     private final Logger logger = LoggerFactory.getLogger(PresenceDetection.class);
@@ -79,6 +81,8 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     private final PresenceDetectionListener updateListener;
     private @Nullable ScheduledFuture<?> refreshJob;
     protected @Nullable ExecutorService executorService;
+    private @Nullable ScheduledFuture<?> detectionDeadline;
+    private boolean detectionTimeoutStarted;
     private String dhcpState = "off";
     private Integer currentCheck = 0;
     int detectionChecks;
@@ -179,6 +183,18 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         }
     }
 
+    /**
+     * Sets a ping method that was already determined by {@link NetworkUtils#determinePingMethod()}. Use this instead
+     * of {@link #setUseIcmpPing(Boolean)} if many presence detections are set up at once, to perform the feature
+     * test only once.
+     *
+     * @param pingMethod The ping method
+     */
+    public void setIcmpPingMethod(IpPingMethodEnum pingMethod) {
+        this.pingMethod = pingMethod;
+        ipPingState = pingMethod.name();
+    }
+
     /**
      * Enables or disables ARP pings. Will be automatically disabled if the destination
      * is not an IPv4 address. If the feature test for the native arping utility fails,
@@ -253,14 +269,18 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
+    /**
+     * Returns an executor for the blocking checks of one presence detection. The checks are run by the thread pool
+     * of the {@link PresenceProbeEngine}, which is shared by all presence detections.
+     */
+    public ExecutorService createProbeExecutor() {
+        return PresenceProbeEngine.getInstance().newProbeExecutor(timeoutInMS + 100);
     }
 
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. ICMP and ARP pings are executed by the shared probe thread pool,
+     * TCP connection attempts are non-blocking and do not occupy a thread while waiting for the connection.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -270,6 +290,10 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * - Non system / Java pings are not recommended at all
      * (not interruptible, useless TCP echo service fall back)
      *
+     * The final result is submitted at the latest after the timeout, even if a check did not finish by then. The
+     * timeout starts when the first check is run by the probe pool, waiting for a thread of the busy pool has a budget
+     * of its own.
+     *
      * @param waitForDetectionToFinish If you want to synchronously wait for the result, set this to true
      * @return Return true if a presence detection is performed and false otherwise.
      */
@@ -288,6 +312,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         Set<String> interfaceNames = null;
 
         currentCheck = 0;
+        detectionTimeoutStarted = false;
         detectionChecks = tcpPorts.size();
         if (pingMethod != null) {
             detectionChecks += 1;
@@ -301,30 +326,30 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
-        final ExecutorService executorService = getThreadsFor(detectionChecks);
+        final ExecutorService executorService = createProbeExecutor();
         this.executorService = executorService;
+        // Checks that wait in the queue of a busy probe pool must not keep the detection running forever. The
+        // deadline is replaced by the detection timeout when the first check starts, see startDetectionTimeout()
+        detectionDeadline = PresenceProbeEngine.getInstance().getScheduler().schedule(
+                () -> submitFinalResult(executorService), MAX_QUEUE_WAIT_MS + timeoutInMS + 100,
+                TimeUnit.MILLISECONDS);
 
+        // The TCP check is finished when the connection attempt completes, see performServicePing()
         for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
+            executeCheck(executorService, () -> performServicePing(tcpPort));
         }
 
         // ARP ping for IPv4 addresses. Use single executor for Windows tool and
         // each own executor for each network interface for other tools
         if (arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionARP_" + hostname + " ");
+            executeCheck(executorService, () -> {
                 // arp-ping.exe tool capable of handling multiple interfaces by itself
                 performARPping("");
                 checkIfFinished();
             });
         } else if (interfaceNames != null) {
             for (final String interfaceName : interfaceNames) {
-                executorService.execute(() -> {
-                    Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
+                executeCheck(executorService, () -> {
                     performARPping(interfaceName);
                     checkIfFinished();
                 });
@@ -333,9 +358,8 @@ public class PresenceDetection implements IPRequestReceivedCallback {
 
         // ICMP ping
         if (pingMethod != null) {
-            executorService.execute(() -> {
+            executeCheck(executorService, () -> {
                 if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
                     performSystemPing();
                 } else {
                     performJavaPing();
@@ -351,6 +375,29 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return true;
     }
 
+    private void executeCheck(ExecutorService service, Runnable check) {
+        service.execute(() -> {
+            startDetectionTimeout(service);
+            check.run();
+        });
+    }
+
+    /**
+     * Replaces the deadline for waiting in the queue of the probe pool by the detection timeout, when the first check
+     * of the presence detection that is executed by the given executor starts. Checks that can't be interrupted (Java
+     * ping) must not keep the detection running longer than the timeout.
+     */
+    private synchronized void startDetectionTimeout(ExecutorService service) {
+        ScheduledFuture<?> deadline = detectionDeadline;
+        if (service != executorService || deadline == null || detectionTimeoutStarted) {
+            return;
+        }
+        detectionTimeoutStarted = true;
+        deadline.cancel(false);
+        detectionDeadline = PresenceProbeEngine.getInstance().getScheduler()
+                .schedule(() -> submitFinalResult(service), timeoutInMS + 100, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Calls updateListener.finalDetectionResult() with a final result value.
      * Safe to be called from different threads. After a call to this method,
@@ -367,6 +414,12 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         service.shutdownNow();
         executorService = null;
         detectionChecks = 0;
+        ScheduledFuture<?> deadline = detectionDeadline;
+        if (deadline != null) {
+            deadline.cancel(false);
+            detectionDeadline = null;
+        }
+        notifyAll();
 
         PresenceDetectionValue v;
 
@@ -388,6 +441,17 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         updateListener.finalDetectionResult(v);
     }
 
+    /**
+     * Submits the final result of the presence detection process that is executed by the given executor,
+     * if it is still running. Called when the detection timed out.
+     */
+    private synchronized void submitFinalResult(ExecutorService service) {
+        if (service == executorService) {
+            logger.debug("Presence detection for {} timed out before all checks finished", hostname);
+            submitFinalResult();
+        }
+    }
+
     /**
      * This method is called after each individual check and increases a check counter.
      * If the counter equals the total checks,the final result is submitted. This will
@@ -402,6 +466,16 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         submitFinalResult();
     }
 
+    /**
+     * Like {@link #checkIfFinished()}, but only counts the check if it belongs to the presence detection
+     * process that is executed by the given executor. Used by checks that complete asynchronously.
+     */
+    private synchronized void checkIfFinished(@Nullable ExecutorService service) {
+        if (service != null && service == executorService) {
+            checkIfFinished();
+        }
+    }
+
     /**
      * Waits for the presence detection threads to finish. Returns immediately
      * if no presence detection is performed right now.
@@ -413,8 +487,15 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         }
         try {
             // We may get interrupted here by cancelRefreshJob().
-            service.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
-            submitFinalResult();
+            synchronized (this) {
+                // The detection deadline submits the final result, the limit is only a safeguard
+                long end = System.currentTimeMillis() + MAX_QUEUE_WAIT_MS + timeoutInMS + 100;
+                long remaining;
+                while (executorService == service && (remaining = end - System.currentTimeMillis()) > 0) {
+                    wait(remaining);
+                }
+            }
+            submitFinalResult(service);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
             service.shutdownNow();
@@ -447,24 +528,32 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return v;
     }
 
+    /**
+     * Starts a non-blocking TCP connection attempt. The check is finished when the connection attempt completes.
+     *
+     * @param tcpPort The TCP port
+     */
     protected void performServicePing(int tcpPort) {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
-        try {
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress != null) {
-                networkUtils.servicePing(destinationAddress.getHostAddress(), tcpPort, timeoutInMS).ifPresent(o -> {
-                    if (o.isSuccess()) {
+        final ExecutorService service = executorService;
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            checkIfFinished(service);
+            return;
+        }
+        networkUtils.servicePingAsync(destinationAddress.getHostAddress(), tcpPort, timeoutInMS)
+                .whenComplete((o, e) -> {
+                    if (e != null) {
+                        // This should not happen and might be a user configuration issue, we log a warning therefore.
+                        logger.warn("Could not create a socket connection", e);
+                    } else if (o.isSuccess()) {
                         PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION,
                                 getLatency(o, preferResponseTimeAsLatency));
                         v.addReachableTcpService(tcpPort);
                         updateListener.partialDetectionResult(v);
                     }
+                    checkIfFinished(service);
                 });
-            }
-        } catch (IOException e) {
-            // This should not happen and might be a user configuration issue, we log a warning message therefore.
-            logger.warn("Could not create a socket connection", e);
-        }
     }
 
     /**
@@ -568,6 +657,8 @@ public class PresenceDetection implements IPRequestReceivedCallback {
 
     /**
      * Start/Restart a fixed scheduled runner to update the devices reach-ability state.
+     * The runner only starts the presence detection and does not wait for its result, so a single timer
+     * thread can refresh many devices.
      *
      * @param scheduledExecutorService A scheduler to run pings periodically.
      */
@@ -576,7 +667,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         if (future != null && !future.isDone()) {
             future.cancel(true);
         }
-        refreshJob = scheduledExecutorService.scheduleWithFixedDelay(() -> performPresenceDetection(true), 0,
+        refreshJob = scheduledExecutorService.scheduleWithFixedDelay(() -> performPresenceDetection(false), 0,
                 refreshIntervalInMS, TimeUnit.MILLISECONDS);
     }
 
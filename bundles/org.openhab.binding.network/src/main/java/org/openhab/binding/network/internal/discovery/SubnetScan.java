@@ -0,0 +1,408 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.binding.network.internal.PresenceDetection;
+import org.openhab.binding.network.internal.PresenceDetectionListener;
+import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PingResult;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A single scan of all addresses of the local networks. The scan is performed in three stages:
+ * <ol>
+ * <li>Hosts in the ARP table of the operating system are reported immediately.</li>
+ * <li>A non-blocking TCP connect sweep over all addresses and service ports. The number of concurrent connection
+ * attempts and the connect timeout adapt to the round trip times observed on the network: Concurrency is increased
+ * while hosts answer quickly and halved when answers get considerably slower.</li>
+ * <li>Addresses that did neither appear in the ARP table nor accept a TCP connection are checked with ICMP and ARP
+ * pings. These presence detections are started from a discovery thread pool and only a limited number of them runs at
+ * the same time. The limit is increased for every detection that finished in time and halved when detections took
+ * considerably longer than their timeout, because their checks had to wait for the busy probe pool. Addresses
+ * without an answer are no congestion signal, most addresses of a sparse network are unused.</li>
+ * </ol>
+ * Results are reported as soon as they are found, the scan progress is logged.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SubnetScan {
+    static final int MIN_CONCURRENCY = 8;
+    static final int INITIAL_CONCURRENCY = 32;
+    static final int MAX_CONCURRENCY = 256;
+    static final int MIN_CONNECT_TIMEOUT_IN_MS = 100;
+    static final int MIN_ESCALATIONS = 4;
+    static final int INITIAL_ESCALATIONS = 16;
+    static final int MAX_ESCALATIONS = 64;
+    private static final String ESCALATION_POOL_NAME = "network-discovery";
+    private static final double RTT_CONGESTION_FACTOR = 3.0;
+    // a presence detection runs its checks for at most the timeout and this margin, see PresenceDetection
+    private static final int DETECTION_TIMEOUT_MARGIN_IN_MS = 100;
+    private static final int PROGRESS_STEPS = 10;
+
+    private final Logger logger = LoggerFactory.getLogger(SubnetScan.class);
+
+    private final NetworkDiscoveryService discoveryService;
+    private final PresenceProbeEngine engine;
+    private final NetworkUtils networkUtils;
+    private final Set<String> ips;
+    private final Set<Integer> tcpPorts;
+    private final int timeoutInMS;
+    private final String arpPingToolPath;
+    private final ArpPingUtilEnum arpPingUtilMethod;
+    private final Consumer<SubnetScan> finishedCallback;
+
+    private final Queue<InetSocketAddress> pendingConnects = new ArrayDeque<>();
+    private final Set<String> responders = new HashSet<>();
+    private @Nullable IpPingMethodEnum pingMethod;
+    private int totalConnects;
+    private int finishedConnects;
+    private int connectsInFlight;
+    private int concurrency = INITIAL_CONCURRENCY;
+    private double smoothedRttInMS = -1;
+    private double rttVariationInMS;
+    private boolean sweepDone;
+    private final Queue<String> pendingPings = new ArrayDeque<>();
+    private int pendingEscalations;
+    private int escalationsInFlight;
+    private int escalationConcurrency = INITIAL_ESCALATIONS;
+    private long lastEscalationDecreaseInMS = Long.MIN_VALUE;
+    private int lastReportedProgressStep;
+    private boolean cancelled;
+
+    /**
+     * @param discoveryService The discovery service the results are reported to
+     * @param engine The probe engine
+     * @param networkUtils Network utility functions
+     * @param ips The addresses to scan
+     * @param tcpPorts The TCP ports to probe
+     * @param timeoutInMS Maximum timeout of a single check
+     * @param arpPingToolPath Path of the arping tool
+     * @param arpPingUtilMethod Type of the arping tool
+     * @param finishedCallback Called when the scan is finished. Not called if the scan is cancelled.
+     */
+    public SubnetScan(NetworkDiscoveryService discoveryService, PresenceProbeEngine engine, NetworkUtils networkUtils,
+            Set<String> ips, Set<Integer> tcpPorts, int timeoutInMS, String arpPingToolPath,
+            ArpPingUtilEnum arpPingUtilMethod, Consumer<SubnetScan> finishedCallback) {
+        this.discoveryService = discoveryService;
+        this.engine = engine;
+        this.networkUtils = networkUtils;
+        this.ips = new LinkedHashSet<>(ips);
+        this.tcpPorts = tcpPorts;
+        this.timeoutInMS = timeoutInMS;
+        this.arpPingToolPath = arpPingToolPath;
+        this.arpPingUtilMethod = arpPingUtilMethod;
+        this.finishedCallback = finishedCallback;
+    }
+
+    /**
+     * Starts the scan. Returns after the ARP table was evaluated and the TCP sweep was started.
+     */
+    public void start() {
+        // Feature test once for all addresses that have to be pinged
+        pingMethod = networkUtils.determinePingMethod();
+
+        Set<String> neighbours = networkUtils.getArpTableAddresses();
+        neighbours.retainAll(ips);
+        logger.debug("Scanning {} addresses, {} found in the ARP table", ips.size(), neighbours.size());
+        for (String ip : neighbours) {
+            discoveryService.newPingDevice(ip);
+        }
+
+        synchronized (this) {
+            responders.addAll(neighbours);
+            for (String ip : ips) {
+                for (int port : tcpPorts) {
+                    pendingConnects.add(new InetSocketAddress(ip, port));
+                }
+            }
+            totalConnects = pendingConnects.size();
+        }
+        startConnects();
+    }
+
+    /**
+     * Cancels the scan. Results that arrive afterwards are not reported anymore.
+     */
+    public synchronized void cancel() {
+        cancelled = true;
+        pendingConnects.clear();
+        pendingPings.clear();
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * The current number of concurrent TCP connection attempts
+     */
+    synchronized int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * The current number of concurrent presence detections for addresses that did not answer the TCP sweep
+     */
+    synchronized int getEscalationConcurrency() {
+        return escalationConcurrency;
+    }
+
+    /**
+     * The executor starting the presence detections. The shared probe engine timer must not be blocked by this.
+     */
+    Executor getEscalationExecutor() {
+        return ThreadPoolManager.getPool(ESCALATION_POOL_NAME);
+    }
+
+    long getCurrentTimeInMS() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * The timeout for new TCP connection attempts, derived from the observed round trip times like TCP
+     * retransmission timeouts (RFC 6298).
+     */
+    synchronized int getConnectTimeout() {
+        if (smoothedRttInMS < 0) {
+            return timeoutInMS;
+        }
+        int timeout = (int) Math.ceil(smoothedRttInMS + 4 * rttVariationInMS);
+        return Math.min(timeoutInMS, Math.max(MIN_CONNECT_TIMEOUT_IN_MS, timeout));
+    }
+
+    private void startConnects() {
+        List<InetSocketAddress> toStart = new ArrayList<>();
+        int connectTimeout;
+        boolean sweepFinished;
+        synchronized (this) {
+            InetSocketAddress address;
+            while (!cancelled && connectsInFlight < concurrency && (address = pendingConnects.poll()) != null) {
+                toStart.add(address);
+                connectsInFlight++;
+            }
+            connectTimeout = getConnectTimeout();
+            sweepFinished = !cancelled && !sweepDone && connectsInFlight == 0 && pendingConnects.isEmpty();
+            if (sweepFinished) {
+                sweepDone = true;
+            }
+        }
+        for (InetSocketAddress address : toStart) {
+            engine.connect(address, connectTimeout)
+                    .whenComplete((result, e) -> connectFinished(address, connectTimeout, result, e));
+        }
+        if (sweepFinished) {
+            getEscalationExecutor().execute(this::escalate);
+        }
+    }
+
+    private void connectFinished(InetSocketAddress address, int connectTimeout, @Nullable PingResult result,
+            @Nullable Throwable e) {
+        boolean serviceFound = false;
+        synchronized (this) {
+            connectsInFlight--;
+            finishedConnects++;
+            if (cancelled) {
+                return;
+            }
+            if (result != null) {
+                double rtt = result.getExecutionTimeInMS();
+                // Refused connections answer as well and are a valid round trip time sample
+                if (result.isSuccess() || rtt < connectTimeout) {
+                    updateRtt(rtt);
+                }
+                if (result.isSuccess()) {
+                    responders.add(address.getHostString());
+                    serviceFound = true;
+                }
+            } else {
+                logger.debug("TCP connection attempt to {} failed", address, e);
+            }
+        }
+        if (serviceFound) {
+            discoveryService.newServiceDevice(address.getHostString(), address.getPort());
+        }
+        reportProgress();
+        startConnects();
+    }
+
+    private void updateRtt(double rttInMS) {
+        if (smoothedRttInMS < 0) {
+            smoothedRttInMS = rttInMS;
+            rttVariationInMS = rttInMS / 2;
+            return;
+        }
+        if (rttInMS > RTT_CONGESTION_FACTOR * (smoothedRttInMS + rttVariationInMS)) {
+            concurrency = Math.max(MIN_CONCURRENCY, concurrency / 2);
+        } else {
+            concurrency = Math.min(MAX_CONCURRENCY, concurrency + 1);
+        }
+        rttVariationInMS = 0.75 * rttVariationInMS + 0.25 * Math.abs(smoothedRttInMS - rttInMS);
+        smoothedRttInMS = 0.875 * smoothedRttInMS + 0.125 * rttInMS;
+    }
+
+    private void reportProgress() {
+        int step;
+        int finished;
+        int concurrency;
+        synchronized (this) {
+            if (totalConnects == 0) {
+                return;
+            }
+            finished = finishedConnects;
+            concurrency = this.concurrency;
+            step = finished * PROGRESS_STEPS / totalConnects;
+            if (step <= lastReportedProgressStep) {
+                return;
+            }
+            lastReportedProgressStep = step;
+        }
+        logger.debug("Network scan: {}% of {} TCP connection attempts done ({} concurrent, timeout {} ms)",
+                step * 100 / PROGRESS_STEPS, totalConnects, concurrency, getConnectTimeout());
+    }
+
+    private void escalate() {
+        int count;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            for (String ip : ips) {
+                if (!responders.contains(ip)) {
+                    pendingPings.add(ip);
+                }
+            }
+            count = pendingPings.size();
+            pendingEscalations = count;
+        }
+        logger.debug("Network scan: TCP sweep done, pinging {} remaining addresses", count);
+        if (count == 0) {
+            finish();
+            return;
+        }
+        startEscalations();
+    }
+
+    private void startEscalations() {
+        List<String> toStart = new ArrayList<>();
+        synchronized (this) {
+            String ip;
+            while (!cancelled && escalationsInFlight < escalationConcurrency && (ip = pendingPings.poll()) != null) {
+                toStart.add(ip);
+                escalationsInFlight++;
+            }
+        }
+        Executor executor = getEscalationExecutor();
+        for (String ip : toStart) {
+            executor.execute(() -> ping(ip));
+        }
+    }
+
+    private void ping(String ip) {
+        if (isCancelled()) {
+            return;
+        }
+        long startTimeInMS = getCurrentTimeInMS();
+        PresenceDetectionListener listener = new PresenceDetectionListener() {
+            @Override
+            public void partialDetectionResult(PresenceDetectionValue value) {
+                if (!isCancelled()) {
+                    discoveryService.partialDetectionResult(value);
+                }
+            }
+
+            @Override
+            public void finalDetectionResult(PresenceDetectionValue value) {
+                escalationFinished(startTimeInMS, true);
+            }
+        };
+        if (!createPresenceDetection(ip, listener).performPresenceDetection(false)) {
+            escalationFinished(startTimeInMS, false);
+        }
+    }
+
+    /**
+     * Creates the presence detection used to ping an address that did not respond to the TCP sweep.
+     */
+    PresenceDetection createPresenceDetection(String ip, PresenceDetectionListener listener) {
+        PresenceDetection detection = new PresenceDetection(listener, 2000);
+        detection.setHostname(ip);
+        detection.setIOSDevice(true);
+        detection.setUseDhcpSniffing(false);
+        detection.setTimeout(timeoutInMS);
+        IpPingMethodEnum pingMethod = this.pingMethod;
+        if (pingMethod != null) {
+            detection.setIcmpPingMethod(pingMethod);
+        }
+        detection.setUseArpPing(true, arpPingToolPath, arpPingUtilMethod);
+        return detection;
+    }
+
+    /**
+     * @param startTimeInMS The time the presence detection was started
+     * @param performed False if the presence detection had nothing to check, its duration is no sample then
+     */
+    private void escalationFinished(long startTimeInMS, boolean performed) {
+        boolean finished;
+        int remaining;
+        synchronized (this) {
+            escalationsInFlight--;
+            pendingEscalations--;
+            remaining = pendingEscalations;
+            finished = remaining == 0 && !cancelled;
+            if (performed) {
+                long now = getCurrentTimeInMS();
+                long queueDelayInMS = now - startTimeInMS - timeoutInMS - DETECTION_TIMEOUT_MARGIN_IN_MS;
+                if (queueDelayInMS <= timeoutInMS / 2) {
+                    escalationConcurrency = Math.min(MAX_ESCALATIONS, escalationConcurrency + 1);
+                } else if (startTimeInMS >= lastEscalationDecreaseInMS) {
+                    // Only detections started after the last decrease show whether it was enough
+                    lastEscalationDecreaseInMS = now;
+                    escalationConcurrency = Math.max(MIN_ESCALATIONS, escalationConcurrency / 2);
+                }
+            }
+        }
+        if (remaining > 0 && remaining % 50 == 0) {
+            logger.debug("Network scan: {} addresses left to ping", remaining);
+        }
+        if (finished) {
+            finish();
+        } else {
+            startEscalations();
+        }
+    }
+
+    private void finish() {
+        logger.debug("Network scan of {} addresses finished", ips.size());
+        finishedCallback.accept(this);
+    }
+}
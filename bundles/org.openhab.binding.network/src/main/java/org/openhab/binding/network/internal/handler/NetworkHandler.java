@@ -31,6 +31,7 @@ import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
 import org.openhab.binding.network.internal.WakeOnLanPacketSender;
 import org.openhab.binding.network.internal.action.NetworkActions;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine;
 import org.openhab.core.library.types.DateTimeType;
 import org.openhab.core.library.types.DecimalType;
 import org.openhab.core.library.types.OnOffType;
@@ -202,7 +203,8 @@ public class NetworkHandler extends BaseThingHandler
                 handlerConfiguration.hostname, handlerConfiguration.port);
 
         updateStatus(ThingStatus.ONLINE);
-        presenceDetection.startAutomaticRefresh(scheduler);
+        // All network things share the timer of the probe engine, the refresh jobs do not block it
+        presenceDetection.startAutomaticRefresh(PresenceProbeEngine.getInstance().getScheduler());
 
         updateNetworkProperties();
     }
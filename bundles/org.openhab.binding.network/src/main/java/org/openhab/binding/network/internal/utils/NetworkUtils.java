@@ -15,6 +15,7 @@ package org.openhab.binding.network.internal.utils;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
@@ -29,6 +30,8 @@ import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Enumeration;
@@ -37,7 +40,9 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -54,6 +59,9 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class NetworkUtils {
+    private static final String ARP_TABLE_PATH = "/proc/net/arp";
+    private static final int ARP_FLAG_COMPLETE = 0x2;
+
     private final Logger logger = LoggerFactory.getLogger(NetworkUtils.class);
 
     private LatencyParser latencyParser = new LatencyParser();
@@ -175,6 +183,36 @@ public class NetworkUtils {
         return networkIPs;
     }
 
+    /**
+     * Reads the IPv4 neighbour (ARP) table of the operating system. Only complete entries are returned, i.e. hosts
+     * that answered an ARP request recently. This is only supported on Linux, an empty set is returned otherwise.
+     *
+     * @return The IPv4 addresses of the known neighbours
+     */
+    public Set<String> getArpTableAddresses() {
+        Set<String> result = new HashSet<>();
+        Path arpTable = Path.of(ARP_TABLE_PATH);
+        if (!Files.isReadable(arpTable)) {
+            return result;
+        }
+        try (Stream<String> lines = Files.lines(arpTable)) {
+            // Format: IP address, HW type, Flags, HW address, Mask, Device. The first line is a header.
+            lines.skip(1).map(line -> line.trim().split("\\s+")).filter(columns -> columns.length >= 4)
+                    .filter(columns -> isCompleteArpEntry(columns[2])).forEach(columns -> result.add(columns[0]));
+        } catch (IOException | UncheckedIOException e) {
+            logger.debug("Could not read the ARP table {}", ARP_TABLE_PATH, e);
+        }
+        return result;
+    }
+
+    private static boolean isCompleteArpEntry(String flags) {
+        try {
+            return (Integer.decode(flags) & ARP_FLAG_COMPLETE) != 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     /**
      * Try to establish a tcp connection to the given port. Returns false if a timeout occurred
      * or the connection was denied.
@@ -197,6 +235,20 @@ public class NetworkUtils {
         }
     }
 
+    /**
+     * Try to establish a tcp connection to the given port without blocking. The connection attempt is performed by
+     * the shared {@link PresenceProbeEngine}. The result is unsuccessful if a timeout occurred or the connection was
+     * denied.
+     *
+     * @param host The IP address
+     * @param port The tcp port. Must be not 0.
+     * @param timeout Timeout in ms
+     * @return A future with the ping result information.
+     */
+    public CompletableFuture<PingResult> servicePingAsync(String host, int port, int timeout) {
+        return PresenceProbeEngine.getInstance().connect(new InetSocketAddress(host, port), timeout);
+    }
+
     /**
      * Return the working method for the native system ping. If no native ping
      * works JavaPing is returned.
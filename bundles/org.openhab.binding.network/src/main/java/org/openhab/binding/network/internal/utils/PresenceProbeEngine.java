@@ -0,0 +1,424 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.common.NamedThreadFactory;
+import org.openhab.core.common.ThreadPoolManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A singleton shared by all presence detections of the binding.
+ *
+ * It provides
+ * <ul>
+ * <li>non-blocking TCP connect probes. All pending connects are multiplexed on one selector task, which is started
+ * on demand on a thread of the {@link ThreadPoolManager} and ends when no connect is pending anymore. The results are
+ * completed on a separate pool, so callbacks never delay the selector.</li>
+ * <li>a bounded thread pool for the probes that have to block (native ping and arping processes, Java pings).
+ * Every presence detection gets its own {@link ExecutorService} view on that pool, see
+ * {@link #newProbeExecutor(int)}.</li>
+ * <li>a single timer used to schedule the periodic refresh of all network things.</li>
+ * </ul>
+ * All threads time out when idle. The engine is shut down together with the handler factory, see
+ * {@link #shutdownInstance()}.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PresenceProbeEngine {
+    private static final int MAX_PROBE_THREADS = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+    private static final String THREAD_NAME = "OH-binding-network";
+    private static final String SELECTOR_POOL_NAME = "network-connect";
+    private static final String CALLBACK_POOL_NAME = "network-probe-result";
+
+    private static @Nullable PresenceProbeEngine instance;
+
+    private final Logger logger = LoggerFactory.getLogger(PresenceProbeEngine.class);
+
+    private final ThreadPoolExecutor probePool;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Executor selectorPool = ThreadPoolManager.getPool(SELECTOR_POOL_NAME);
+    private final Executor callbackPool = ThreadPoolManager.getPool(CALLBACK_POOL_NAME);
+
+    private final Queue<PendingConnect> newConnects = new ConcurrentLinkedQueue<>();
+    private @Nullable Selector selector;
+    private boolean shutdown;
+
+    private class PendingConnect {
+        final InetSocketAddress address;
+        final long startTimeInMS;
+        final long deadlineInMS;
+        final CompletableFuture<PingResult> result = new CompletableFuture<>();
+
+        PendingConnect(InetSocketAddress address, int timeoutInMS) {
+            this.address = address;
+            this.startTimeInMS = System.currentTimeMillis();
+            this.deadlineInMS = startTimeInMS + timeoutInMS;
+        }
+
+        void complete(boolean success) {
+            PingResult pingResult = new PingResult(success, System.currentTimeMillis() - startTimeInMS);
+            callbackPool.execute(() -> result.complete(pingResult));
+        }
+
+        void fail(Exception e) {
+            callbackPool.execute(() -> result.completeExceptionally(e));
+        }
+    }
+
+    PresenceProbeEngine() {
+        probePool = new ThreadPoolExecutor(MAX_PROBE_THREADS, MAX_PROBE_THREADS, IDLE_THREAD_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory(THREAD_NAME + "-probe", true));
+        probePool.allowCoreThreadTimeOut(true);
+        timer = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(THREAD_NAME + "-timer", true));
+        timer.setKeepAliveTime(IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        timer.allowCoreThreadTimeOut(true);
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public static synchronized PresenceProbeEngine getInstance() {
+        PresenceProbeEngine instance = PresenceProbeEngine.instance;
+        if (instance == null) {
+            instance = new PresenceProbeEngine();
+            PresenceProbeEngine.instance = instance;
+        }
+        return instance;
+    }
+
+    /**
+     * Shuts the engine down, if it was created. A later call to {@link #getInstance()} creates a new engine.
+     */
+    public static synchronized void shutdownInstance() {
+        PresenceProbeEngine instance = PresenceProbeEngine.instance;
+        if (instance != null) {
+            PresenceProbeEngine.instance = null;
+            instance.shutdown();
+        }
+    }
+
+    /**
+     * Stops the selector, fails all pending connects and interrupts all running probes.
+     */
+    void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            Selector selector = this.selector;
+            if (selector != null) {
+                selector.wakeup();
+            }
+        }
+        probePool.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    /**
+     * The timer shared by all presence detections. Tasks scheduled here must not block.
+     */
+    public ScheduledExecutorService getScheduler() {
+        return timer;
+    }
+
+    /**
+     * Creates a new {@link ExecutorService} for the blocking probes of one presence detection. Tasks are executed
+     * by the shared probe pool. Shutting the returned executor down only affects its own tasks.
+     *
+     * @param probeTimeoutInMS Maximum run time of a single task. A task is interrupted if it runs longer. This only
+     *            stops tasks waiting for an external ping process, the process itself ends by its own timeout. Java
+     *            pings can't be interrupted and keep their thread until they time out.
+     */
+    public ExecutorService newProbeExecutor(int probeTimeoutInMS) {
+        return new ProbeExecutor(probeTimeoutInMS);
+    }
+
+    /**
+     * Try to establish a tcp connection to the given address without blocking the calling thread.
+     * The returned future completes with an unsuccessful result if the connection was refused or not
+     * established in time.
+     *
+     * @param address The destination address
+     * @param timeoutInMS Timeout in ms
+     * @return A future with the ping result
+     */
+    public CompletableFuture<PingResult> connect(InetSocketAddress address, int timeoutInMS) {
+        PendingConnect connect = new PendingConnect(address, timeoutInMS);
+        synchronized (this) {
+            if (shutdown) {
+                connect.result.completeExceptionally(new RejectedExecutionException("Probe engine is shut down"));
+                return connect.result;
+            }
+            newConnects.add(connect);
+            Selector selector = this.selector;
+            if (selector == null) {
+                final Selector newSelector;
+                try {
+                    newSelector = Selector.open();
+                } catch (IOException e) {
+                    newConnects.remove(connect);
+                    connect.result.completeExceptionally(e);
+                    return connect.result;
+                }
+                this.selector = newSelector;
+                selectorPool.execute(() -> runSelector(newSelector));
+            } else {
+                selector.wakeup();
+            }
+        }
+        return connect.result;
+    }
+
+    private void runSelector(Selector selector) {
+        try {
+            while (true) {
+                registerNewConnects(selector);
+                long now = System.currentTimeMillis();
+                long nextDeadline = Long.MAX_VALUE;
+                for (SelectionKey key : selector.keys()) {
+                    PendingConnect connect = (PendingConnect) key.attachment();
+                    if (connect.deadlineInMS <= now || connect.result.isDone()) {
+                        finish(key, false);
+                    } else {
+                        nextDeadline = Math.min(nextDeadline, connect.deadlineInMS);
+                    }
+                }
+                selector.selectNow();
+                synchronized (this) {
+                    if (shutdown) {
+                        failAll(selector, new RejectedExecutionException("Probe engine is shut down"));
+                        break;
+                    }
+                    if (selector.keys().isEmpty() && newConnects.isEmpty()) {
+                        this.selector = null;
+                        break;
+                    }
+                }
+                if (selector.selectedKeys().isEmpty() && newConnects.isEmpty()) {
+                    selector.select(Math.max(1, nextDeadline - System.currentTimeMillis()));
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    try {
+                        if (channel.finishConnect()) {
+                            finish(key, true);
+                        }
+                    } catch (IOException e) {
+                        // Connection refused, no route to host and the like
+                        finish(key, false);
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("TCP connect probe selector failed", e);
+            failAll(selector, e);
+        } finally {
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void registerNewConnects(Selector selector) {
+        PendingConnect connect;
+        while ((connect = newConnects.poll()) != null) {
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                if (channel.connect(connect.address)) {
+                    channel.close();
+                    connect.complete(true);
+                } else {
+                    channel.register(selector, SelectionKey.OP_CONNECT, connect);
+                }
+            } catch (IOException e) {
+                closeQuietly(channel);
+                connect.complete(false);
+            } catch (RuntimeException e) {
+                // Unresolved addresses and the like
+                closeQuietly(channel);
+                connect.fail(e);
+            }
+        }
+    }
+
+    private void finish(SelectionKey key, boolean success) {
+        key.cancel();
+        closeQuietly((SocketChannel) key.channel());
+        ((PendingConnect) key.attachment()).complete(success);
+    }
+
+    private synchronized void failAll(Selector selector, Exception e) {
+        if (selector.isOpen()) {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly((SocketChannel) key.channel());
+                ((PendingConnect) key.attachment()).fail(e);
+            }
+        }
+        PendingConnect connect;
+        while ((connect = newConnects.poll()) != null) {
+            connect.fail(e);
+        }
+        if (this.selector == selector) {
+            this.selector = null;
+        }
+    }
+
+    private static void closeQuietly(@Nullable SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * An {@link ExecutorService} view on the shared probe pool. It only tracks and terminates its own tasks.
+     */
+    private class ProbeExecutor extends AbstractExecutorService {
+        /**
+         * A task that is interrupted if it runs longer than the probe timeout. The timeout starts when the task is
+         * picked up by the pool, so waiting in the queue of a busy pool does not count.
+         */
+        private class ProbeTask extends FutureTask<@Nullable Void> {
+            private @Nullable ScheduledFuture<?> deadline;
+
+            ProbeTask(Runnable command) {
+                super(command, null);
+            }
+
+            @Override
+            public void run() {
+                if (isDone()) {
+                    return;
+                }
+                deadline = timer.schedule(() -> cancel(true), probeTimeoutInMS, TimeUnit.MILLISECONDS);
+                super.run();
+            }
+
+            @Override
+            protected void done() {
+                ScheduledFuture<?> deadline = this.deadline;
+                if (deadline != null) {
+                    deadline.cancel(false);
+                }
+                taskDone(this);
+            }
+        }
+
+        private final int probeTimeoutInMS;
+        private final Set<FutureTask<?>> tasks = new HashSet<>();
+        private boolean shutdown;
+
+        ProbeExecutor(int probeTimeoutInMS) {
+            this.probeTimeoutInMS = probeTimeoutInMS;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            ProbeTask task = new ProbeTask(command);
+            synchronized (this) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("Presence detection already finished");
+                }
+                tasks.add(task);
+            }
+            probePool.execute(task);
+        }
+
+        private synchronized void taskDone(FutureTask<?> task) {
+            tasks.remove(task);
+            if (tasks.isEmpty()) {
+                notifyAll();
+            }
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            shutdown = true;
+            if (tasks.isEmpty()) {
+                notifyAll();
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            List<FutureTask<?>> pending;
+            synchronized (this) {
+                shutdown = true;
+                pending = new ArrayList<>(tasks);
+            }
+            List<Runnable> notStarted = new ArrayList<>();
+            for (FutureTask<?> task : pending) {
+                if (probePool.remove(task)) {
+                    notStarted.add(task);
+                }
+                task.cancel(true);
+            }
+            return notStarted;
+        }
+
+        @Override
+        public synchronized boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public synchronized boolean isTerminated() {
+            return shutdown && tasks.isEmpty();
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, @Nullable TimeUnit unit)
+                throws InterruptedException {
+            long deadline = System.nanoTime() + (unit == null ? TimeUnit.MILLISECONDS : unit).toNanos(timeout);
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+    }
+}
@@ -22,7 +22,10 @@ import java.io.IOException;
 import java.net.UnknownHostException;
 import java.util.Collections;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
@@ -117,7 +120,8 @@ public class PresenceDetectionTest {
                 anyString(), anyInt());
         doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils)
                 .nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(), anyInt());
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        doReturn(CompletableFuture.completedFuture(new PingResult(true, 10))).when(networkUtils)
+                .servicePingAsync(anyString(), anyInt(), anyInt());
 
         assertTrue(subject.performPresenceDetection(false));
         subject.waitForPresenceDetection();
@@ -140,9 +144,10 @@ public class PresenceDetectionTest {
                 anyString(), anyInt());
         doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils)
                 .nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(), anyInt());
-        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).servicePing(anyString(), anyInt(), anyInt());
+        doReturn(CompletableFuture.completedFuture(new PingResult(true, 10))).when(networkUtils)
+                .servicePingAsync(anyString(), anyInt(), anyInt());
 
-        doReturn(executorService).when(subject).getThreadsFor(anyInt());
+        doReturn(executorService).when(subject).createProbeExecutor();
 
         // We expect no valid value
         assertTrue(subject.cache.isExpired());
@@ -176,6 +181,61 @@ public class PresenceDetectionTest {
         verify(callback, times(2)).accept(any());
     }
 
+    @Test
+    public void detectionIsFinishedAfterTimeoutIfChecksDoNotFinish() {
+        // The TCP check is started, but the connection attempt never completes
+        doNothing().when(subject).performServicePing(anyInt());
+        doReturn(executorService).when(subject).createProbeExecutor();
+
+        assertTrue(subject.performPresenceDetection(false));
+        assertNotNull(subject.executorService);
+        ArgumentCaptor<Runnable> checks = ArgumentCaptor.forClass(Runnable.class);
+        verify(executorService, times(3)).execute(checks.capture());
+        checks.getAllValues().get(0).run();
+
+        ArgumentCaptor<PresenceDetectionValue> capture = ArgumentCaptor.forClass(PresenceDetectionValue.class);
+        verify(listener, timeout(2000)).finalDetectionResult(capture.capture());
+        assertFalse(capture.getValue().isReachable());
+        assertNull(subject.executorService);
+        verify(executorService).shutdownNow();
+    }
+
+    @Test
+    public void timeoutStartsWhenChecksRunInSaturatedProbePool() throws InterruptedException, IOException {
+        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils).nativePing(eq(IpPingMethodEnum.WINDOWS_PING),
+                anyString(), anyInt());
+        doReturn(Optional.of(new PingResult(true, 10))).when(networkUtils)
+                .nativeARPPing(eq(ArpPingUtilEnum.IPUTILS_ARPING), anyString(), anyString(), any(), anyInt());
+        doReturn(CompletableFuture.completedFuture(new PingResult(true, 10))).when(networkUtils)
+                .servicePingAsync(anyString(), anyInt(), anyInt());
+
+        // All threads of the pool are busy with the checks of other detections
+        ExecutorService saturatedPool = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        saturatedPool.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        doReturn(saturatedPool).when(subject).createProbeExecutor();
+
+        try {
+            assertTrue(subject.performPresenceDetection(false));
+            // Waiting for the pool takes much longer than the detection timeout of 300 ms
+            Thread.sleep(1000);
+            verify(listener, never()).finalDetectionResult(any());
+
+            release.countDown();
+            ArgumentCaptor<PresenceDetectionValue> capture = ArgumentCaptor.forClass(PresenceDetectionValue.class);
+            verify(listener, timeout(2000)).finalDetectionResult(capture.capture());
+            assertTrue(capture.getValue().isReachable());
+        } finally {
+            saturatedPool.shutdownNow();
+        }
+    }
+
     @Test
     public void reuseValueTests() throws InterruptedException, IOException {
         final long startTime = 1000L;
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.openhab.binding.network.internal.PresenceDetection;
+import org.openhab.binding.network.internal.PresenceDetectionListener;
+import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
+import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PingResult;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine;
+
+/**
+ * Tests cases for {@link SubnetScan}
+ *
+ * @author agent - Initial contribution
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SubnetScanTest {
+    private static final int TIMEOUT = 500;
+
+    private @Mock NetworkDiscoveryService discoveryService;
+    private @Mock PresenceProbeEngine engine;
+    private @Mock NetworkUtils networkUtils;
+    private @Mock Consumer<SubnetScan> finishedCallback;
+
+    private final List<String> pingedIps = new ArrayList<>();
+    private final List<PresenceDetectionListener> runningPings = new ArrayList<>();
+    private final List<Long> pingStartTimes = new ArrayList<>();
+    private boolean pingsFinishImmediately = true;
+    private long now = 100000;
+
+    @BeforeEach
+    public void setUp() {
+        when(networkUtils.determinePingMethod()).thenReturn(IpPingMethodEnum.JAVA_PING);
+        when(networkUtils.getArpTableAddresses())
+                .thenReturn(new HashSet<>(Set.of("192.168.0.1", "10.0.0.1")));
+        when(engine.connect(any(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new PingResult(false, TIMEOUT)));
+        when(engine.connect(eq(new InetSocketAddress("192.168.0.2", 80)), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(new PingResult(true, 2)));
+    }
+
+    private SubnetScan createScan(Set<String> ips) {
+        return new SubnetScan(discoveryService, engine, networkUtils, ips, Set.of(80), TIMEOUT, "arping",
+                ArpPingUtilEnum.DISABLED, finishedCallback) {
+            @Override
+            Executor getEscalationExecutor() {
+                return Runnable::run;
+            }
+
+            @Override
+            long getCurrentTimeInMS() {
+                return now;
+            }
+
+            @Override
+            PresenceDetection createPresenceDetection(String ip, PresenceDetectionListener listener) {
+                pingedIps.add(ip);
+                runningPings.add(listener);
+                pingStartTimes.add(now);
+                PresenceDetection detection = mock(PresenceDetection.class);
+                when(detection.performPresenceDetection(false)).thenReturn(!pingsFinishImmediately);
+                return detection;
+            }
+        };
+    }
+
+    private PresenceDetectionValue detectionValue(boolean reachable) {
+        PresenceDetectionValue value = mock(PresenceDetectionValue.class);
+        when(value.isReachable()).thenReturn(reachable);
+        return value;
+    }
+
+    @Test
+    public void onlyNonRespondersArePinged() {
+        Set<String> ips = Stream.of("192.168.0.1", "192.168.0.2", "192.168.0.3")
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        SubnetScan scan = createScan(ips);
+        scan.start();
+
+        // From the ARP table, addresses of other networks are ignored
+        verify(discoveryService).newPingDevice("192.168.0.1");
+        verify(discoveryService, never()).newPingDevice("10.0.0.1");
+        // From the TCP sweep
+        verify(discoveryService).newServiceDevice("192.168.0.2", 80);
+        verify(engine, times(3)).connect(any(), anyInt());
+        // Only the address without any response is pinged
+        assertThat(pingedIps, is(List.of("192.168.0.3")));
+        verify(finishedCallback).accept(scan);
+    }
+
+    @Test
+    public void connectTimeoutAdaptsToRoundTripTime() {
+        SubnetScan scan = createScan(Set.of("192.168.0.2"));
+        assertThat(scan.getConnectTimeout(), is(TIMEOUT));
+        assertThat(scan.getConcurrency(), is(SubnetScan.INITIAL_CONCURRENCY));
+
+        scan.start();
+
+        assertThat(scan.getConnectTimeout(), is(SubnetScan.MIN_CONNECT_TIMEOUT_IN_MS));
+        verify(finishedCallback).accept(scan);
+    }
+
+    private SubnetScan startEscalationScan(int addresses) {
+        pingsFinishImmediately = false;
+        Set<String> ips = new LinkedHashSet<>();
+        for (int i = 0; i < addresses; i++) {
+            ips.add("192.168." + (1 + i / 250) + "." + (1 + i % 250));
+        }
+        SubnetScan scan = createScan(ips);
+        scan.start();
+        return scan;
+    }
+
+    @Test
+    public void unreachableAddressesDoNotReduceEscalationConcurrency() {
+        SubnetScan scan = startEscalationScan(1000);
+
+        // Only a window of the addresses is pinged at once
+        assertThat(pingedIps.size(), is(SubnetScan.INITIAL_ESCALATIONS));
+
+        // Nobody answers, every detection ends after its timeout
+        for (int i = 0; i < runningPings.size(); i++) {
+            now = Math.max(now, pingStartTimes.get(i) + TIMEOUT + 100);
+            runningPings.get(i).finalDetectionResult(detectionValue(false));
+        }
+        assertThat(pingedIps.size(), is(1000));
+        assertThat(scan.getEscalationConcurrency(), is(SubnetScan.MAX_ESCALATIONS));
+        verify(finishedCallback).accept(scan);
+    }
+
+    @Test
+    public void escalationConcurrencyIsHalvedOnceWhenDetectionsQueueUp() {
+        SubnetScan scan = startEscalationScan(50);
+        assertThat(pingedIps.size(), is(SubnetScan.INITIAL_ESCALATIONS));
+
+        // The detections of the window waited for the probe pool for longer than their timeout
+        now += 3 * TIMEOUT;
+        for (int i = 0; i < SubnetScan.INITIAL_ESCALATIONS; i++) {
+            runningPings.get(i).finalDetectionResult(detectionValue(false));
+        }
+        // Detections started before the decrease don't decrease the concurrency again
+        assertThat(scan.getEscalationConcurrency(), is(SubnetScan.INITIAL_ESCALATIONS / 2));
+        assertThat(pingedIps.size(), is(SubnetScan.INITIAL_ESCALATIONS + SubnetScan.INITIAL_ESCALATIONS / 2));
+
+        // A slow detection started after the decrease reduces it again
+        now += 3 * TIMEOUT;
+        runningPings.get(SubnetScan.INITIAL_ESCALATIONS).finalDetectionResult(detectionValue(false));
+        assertThat(scan.getEscalationConcurrency(), is(SubnetScan.INITIAL_ESCALATIONS / 4));
+        // The other detections started before that decrease
+        for (int i = SubnetScan.INITIAL_ESCALATIONS + 1; i < SubnetScan.INITIAL_ESCALATIONS
+                + SubnetScan.INITIAL_ESCALATIONS / 2; i++) {
+            runningPings.get(i).finalDetectionResult(detectionValue(false));
+        }
+        assertThat(scan.getEscalationConcurrency(), is(SubnetScan.INITIAL_ESCALATIONS / 4));
+        verify(finishedCallback, never()).accept(any());
+
+        // Detections in time increase it
+        int first = SubnetScan.INITIAL_ESCALATIONS + SubnetScan.INITIAL_ESCALATIONS / 2;
+        for (int i = first; i < runningPings.size(); i++) {
+            runningPings.get(i).finalDetectionResult(detectionValue(true));
+        }
+        assertThat(pingedIps.size(), is(50));
+        assertThat(scan.getEscalationConcurrency() > SubnetScan.INITIAL_ESCALATIONS / 4, is(true));
+        verify(finishedCallback).accept(scan);
+    }
+
+    @Test
+    public void cancelledScanDoesNotFinish() {
+        when(engine.connect(any(), anyInt())).thenReturn(new CompletableFuture<>());
+        SubnetScan scan = createScan(Set.of("192.168.0.3"));
+        scan.start();
+        scan.cancel();
+
+        assertThat(pingedIps.isEmpty(), is(true));
+        verify(finishedCallback, never()).accept(any());
+    }
+}
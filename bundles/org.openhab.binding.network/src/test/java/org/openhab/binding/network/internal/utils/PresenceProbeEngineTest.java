@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the shared probe engine.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class PresenceProbeEngineTest {
+    private final PresenceProbeEngine engine = new PresenceProbeEngine();
+
+    @AfterEach
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    public void connectToListeningPortSucceeds() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            PingResult result = engine
+                    .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()), 2000)
+                    .get(5, TimeUnit.SECONDS);
+            assertTrue(result.isSuccess());
+        }
+    }
+
+    @Test
+    public void connectToClosedPortFails() throws Exception {
+        int port;
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = server.getLocalPort();
+        }
+        PingResult result = engine.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 2000)
+                .get(5, TimeUnit.SECONDS);
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    public void connectResultIsNotCompletedOnSelectorThread() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            CompletableFuture<PingResult> result = engine
+                    .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getLocalPort()), 2000);
+            String completingThread = result.thenApply(r -> Thread.currentThread().getName()).get(5,
+                    TimeUnit.SECONDS);
+            assertFalse(completingThread.contains("network-connect"), completingThread);
+        }
+    }
+
+    @Test
+    public void connectAfterShutdownIsRejected() {
+        engine.shutdown();
+        CompletableFuture<PingResult> result = engine
+                .connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), 1), 2000);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    public void probeExecutorTerminatesAfterShutdown() throws InterruptedException {
+        ExecutorService executor = engine.newProbeExecutor(2000);
+        CountDownLatch executed = new CountDownLatch(1);
+        executor.execute(executed::countDown);
+        assertTrue(executed.await(5, TimeUnit.SECONDS));
+
+        // Not terminated before shutdown
+        assertFalse(executor.awaitTermination(50, TimeUnit.MILLISECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+    }
+
+    @Test
+    public void probeExceedingTimeoutIsInterrupted() throws InterruptedException {
+        ExecutorService executor = engine.newProbeExecutor(100);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shutdownNowOnlyAffectsOwnTasks() throws InterruptedException {
+        ExecutorService first = engine.newProbeExecutor(10000);
+        ExecutorService second = engine.newProbeExecutor(10000);
+        CountDownLatch firstInterrupted = new CountDownLatch(1);
+        CountDownLatch secondExecuted = new CountDownLatch(1);
+        first.execute(() -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException e) {
+                firstInterrupted.countDown();
+            }
+        });
+        first.shutdownNow();
+        second.execute(secondExecuted::countDown);
+
+        assertTrue(firstInterrupted.await(5, TimeUnit.SECONDS) || first.isTerminated());
+        assertTrue(secondExecuted.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -86,6 +86,8 @@ public class ShellyCoapHandler implements ShellyCoapListener {
 
     private long coiotMessages = 0;
     private long coiotErrors = 0;
+    // written by the CoIoT receiver thread, read by the status polling of the thing handler
+    private volatile long lastStatusUpdate = 0;
     private int lastSerial = -1;
     private String lastPayload = "";
     private Map<String, CoIotDescrBlk> blkMap = new LinkedHashMap<>();
@@ -128,7 +130,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
                 String ps = substringAfter(profile.coiotEndpoint, ":");
                 coiotPort = Integer.parseInt(ps);
             }
-            coapServer.start(config.localIp, coiotPort, this);
+            coapServer.start(config.localIp, coiotPort, config.deviceIp, profile.mac, this);
             statusClient = new CoapClient(completeUrl(config.deviceIp, coiotPort, COLOIT_URI_DEVSTATUS))
                     .setTimeout((long) SHELLY_API_TIMEOUT_MS).useNONs().setEndpoint(coapServer.getEndpoint());
             @Nullable
@@ -176,30 +178,8 @@ public class ShellyCoapHandler implements ShellyCoapListener {
             return;
         }
 
+        // The message was already matched to this device by the CoAP server or is the response to our own request
         List<Option> options = response.getOptions().asSortedList();
-        String ip = response.getSourceContext().getPeerAddress().toString();
-        boolean match = ip.contains(config.deviceIp);
-        if (!match) {
-            // We can't identify device by IP, so we need to check the CoAP header's Global Device ID
-            for (Option opt : options) {
-                if (opt.getNumber() == COIOT_OPTION_GLOBAL_DEVID) {
-                    String devid = opt.getStringValue();
-                    if (devid.contains("#")) {
-                        // Format: <device type>#<mac address>#<coap version>
-                        String macid = substringBetween(devid, "#", "#");
-                        if (profile.mac.toUpperCase().contains(macid.toUpperCase())) {
-                            match = true;
-                            break;
-                        }
-                    }
-                }
-            }
-        }
-        if (!match) {
-            // other instance
-            return;
-        }
-
         String payload = "";
         String devId = "";
         String uri = "";
@@ -524,9 +504,8 @@ public class ShellyCoapHandler implements ShellyCoapListener {
 
             // Old firmware release are lacking various status values, which are not updated using CoIoT.
             // In this case we keep a refresh so it gets polled using REST. Beginning with Firmware 1.6 most
-            // of the values are available
-            if ((!thingHandler.autoCoIoT && (thingHandler.scheduledUpdates < 1))
-                    || (thingHandler.autoCoIoT && !profile.isLight && !profile.hasBattery)) {
+            // of the values are available, the remaining ones are refreshed by the regular status poll.
+            if (!thingHandler.autoCoIoT && (thingHandler.scheduledUpdates < 1)) {
                 thingHandler.requestUpdates(1, false);
             }
         } else {
@@ -538,6 +517,7 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         }
 
         // Remember serial, new packets with same serial will be ignored
+        lastStatusUpdate = now();
         lastSerial = serial;
         lastPayload = payload;
     }
@@ -678,6 +658,13 @@ public class ShellyCoapHandler implements ShellyCoapListener {
         return coiotErrors;
     }
 
+    /**
+     * @return timestamp (epoch seconds) of the last CoIoT status update, 0 if none was received
+     */
+    public long getLastStatusUpdate() {
+        return lastStatusUpdate;
+    }
+
     public void dispose() {
         stop();
     }
@@ -12,20 +12,24 @@
  */
 package org.openhab.binding.shelly.internal.coap;
 
-import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.COIOT_PORT;
+import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.*;
+import static org.openhab.binding.shelly.internal.util.ShellyUtils.substringBetween;
 
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketException;
 import java.net.UnknownHostException;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.eclipse.californium.core.CoapResource;
 import org.eclipse.californium.core.CoapServer;
 import org.eclipse.californium.core.coap.CoAP;
 import org.eclipse.californium.core.coap.CoAP.Code;
 import org.eclipse.californium.core.coap.CoAP.ResponseCode;
+import org.eclipse.californium.core.coap.Option;
 import org.eclipse.californium.core.coap.Request;
 import org.eclipse.californium.core.coap.Response;
 import org.eclipse.californium.core.network.CoapEndpoint;
@@ -40,17 +44,47 @@ import org.slf4j.LoggerFactory;
 /**
  * The {@link ShellyCoapServer} implements the UDP listener and status event processor (for /cit/s messages)
  *
+ * Each listener registers the IP and MAC address of its device. Inbound messages are dispatched by a lookup of the
+ * peer address, or the device id included in the CoIoT Global Device ID if the device uses a different IP address,
+ * so that every message is processed by the listener of its device only. Depending on the firmware, the device id is
+ * the full MAC address or only its last 6 hex digits. If a message matches no device, the configured device addresses
+ * are resolved again (at most once per minute), as a host name may point to a new IP address by now.
+ *
  * @author Markus Michels - Initial contribution
  */
 @NonNullByDefault
 public class ShellyCoapServer {
+    private static final int DEVICE_ID_LENGTH = 6;
+    private static final long RESOLVE_INTERVAL_NS = TimeUnit.MINUTES.toNanos(1);
+
     private final Logger logger = LoggerFactory.getLogger(ShellyCoapServer.class);
 
     boolean started = false;
     private CoapEndpoint statusEndpoint = new CoapEndpoint.Builder().build();
     private @Nullable UdpMulticastConnector statusConnector;
     private CoapServer server = new CoapServer(NetworkConfig.getStandard(), COIOT_PORT);
-    private final Set<ShellyCoapListener> coapListeners = ConcurrentHashMap.newKeySet();
+    private final Map<ShellyCoapListener, DeviceKey> coapListeners = new ConcurrentHashMap<>();
+    private final Map<InetAddress, ShellyCoapListener> listenersByAddress = new ConcurrentHashMap<>();
+    private final Map<String, ShellyCoapListener> listenersByMac = new ConcurrentHashMap<>();
+    private final Map<String, ShellyCoapListener> listenersByDeviceId = new ConcurrentHashMap<>();
+    private final AtomicLong unmatchedMessages = new AtomicLong();
+    private volatile long lastResolve = System.nanoTime() - RESOLVE_INTERVAL_NS;
+
+    private static class DeviceKey {
+        private final String host;
+        private volatile @Nullable InetAddress address;
+        private final String mac;
+
+        private DeviceKey(String host, @Nullable InetAddress address, String mac) {
+            this.host = host;
+            this.address = address;
+            this.mac = mac;
+        }
+
+        private String getDeviceId() {
+            return mac.length() > DEVICE_ID_LENGTH ? mac.substring(mac.length() - DEVICE_ID_LENGTH) : mac;
+        }
+    }
 
     protected class ShellyStatusListener extends CoapResource {
         private ShellyCoapServer listener;
@@ -78,8 +112,17 @@ public class ShellyCoapServer {
         }
     }
 
-    public synchronized void start(String localIp, int port, ShellyCoapListener listener)
-            throws UnknownHostException, SocketException {
+    /**
+     * Start the listener (if not yet started) and register a device
+     *
+     * @param localIp IP address of the local interface to bind
+     * @param port CoIoT port
+     * @param deviceIp IP address of the device
+     * @param deviceMac MAC address of the device, empty if not known
+     * @param listener Listener processing the messages of this device
+     */
+    public synchronized void start(String localIp, int port, String deviceIp, String deviceMac,
+            ShellyCoapListener listener) throws UnknownHostException, SocketException {
         if (!started) {
             logger.debug("Initializing CoIoT listener (local IP={}:{})", localIp, port);
             NetworkConfig nc = NetworkConfig.getStandard();
@@ -98,13 +141,153 @@ public class ShellyCoapServer {
             started = true;
         }
 
-        if (!coapListeners.contains(listener)) {
-            coapListeners.add(listener);
+        register(deviceIp, deviceMac, listener);
+    }
+
+    /**
+     * Register the device of a listener, so that its messages are dispatched to it
+     *
+     * @param deviceIp IP address or host name of the device
+     * @param deviceMac MAC address of the device, empty if not known
+     * @param listener Listener processing the messages of this device
+     */
+    synchronized void register(String deviceIp, String deviceMac, ShellyCoapListener listener) {
+        removeListener(listener);
+        InetAddress deviceAddr = null;
+        try {
+            deviceAddr = resolve(deviceIp);
+        } catch (UnknownHostException e) {
+            logger.debug("Unable to resolve device address {}, messages can only be matched by MAC address", deviceIp);
+        }
+        DeviceKey key = new DeviceKey(deviceIp, deviceAddr, normalizeMac(deviceMac));
+        coapListeners.put(listener, key);
+        if (deviceAddr != null) {
+            addToIndex(listenersByAddress, deviceAddr, listener);
+        }
+        if (!key.mac.isEmpty()) {
+            addToIndex(listenersByMac, key.mac, listener);
+            addToIndex(listenersByDeviceId, key.getDeviceId(), listener);
+        }
+    }
+
+    InetAddress resolve(String host) throws UnknownHostException {
+        return InetAddress.getByName(host);
+    }
+
+    private <K> void addToIndex(Map<K, ShellyCoapListener> index, K key, ShellyCoapListener listener) {
+        ShellyCoapListener previous = index.put(key, listener);
+        if (previous != null && previous != listener) {
+            logger.debug("Device {} is registered by multiple things, only the last one receives CoIoT updates", key);
+        }
+    }
+
+    private synchronized void removeListener(ShellyCoapListener listener) {
+        DeviceKey key = coapListeners.remove(listener);
+        if (key != null) {
+            InetAddress deviceAddr = key.address;
+            if (deviceAddr != null) {
+                listenersByAddress.remove(deviceAddr, listener);
+            }
+            listenersByMac.remove(key.mac, listener);
+            listenersByDeviceId.remove(key.getDeviceId(), listener);
         }
     }
 
     protected void processResponse(Response response) {
-        coapListeners.forEach(listener -> listener.processResponse(response));
+        ShellyCoapListener listener = findListener(response);
+        if (listener != null) {
+            listener.processResponse(response);
+        } else {
+            long count = unmatchedMessages.incrementAndGet();
+            logger.trace("CoIoT Message from {} does not belong to a known device ({} unmatched messages)",
+                    response.getSourceContext().getPeerAddress(), count);
+        }
+    }
+
+    private @Nullable ShellyCoapListener findListener(Response response) {
+        InetAddress peerAddr = response.getSourceContext().getPeerAddress().getAddress();
+        ShellyCoapListener listener = peerAddr != null ? listenersByAddress.get(peerAddr) : null;
+        if (listener != null) {
+            return listener;
+        }
+
+        // We can't identify device by IP, so we need to check the CoAP header's Global Device ID
+        for (Option opt : response.getOptions().asSortedList()) {
+            if (opt.getNumber() == COIOT_OPTION_GLOBAL_DEVID) {
+                String devid = opt.getStringValue();
+                if (devid.contains("#")) {
+                    // Format: <device type>#<mac address or device id>#<coap version>
+                    listener = findListenerByDeviceId(normalizeMac(substringBetween(devid, "#", "#")));
+                    if (listener != null) {
+                        if (peerAddr != null) {
+                            updateAddress(listener, peerAddr);
+                        }
+                        return listener;
+                    }
+                }
+            }
+        }
+        return peerAddr != null ? resolveAgain(peerAddr) : null;
+    }
+
+    private @Nullable ShellyCoapListener findListenerByDeviceId(String id) {
+        ShellyCoapListener listener = listenersByMac.get(id);
+        if (listener == null && id.length() >= DEVICE_ID_LENGTH) {
+            listener = listenersByDeviceId.get(id.substring(id.length() - DEVICE_ID_LENGTH));
+        }
+        return listener;
+    }
+
+    /**
+     * The device sends from a new IP address, use it for the following messages
+     */
+    private synchronized void updateAddress(ShellyCoapListener listener, InetAddress peerAddr) {
+        DeviceKey key = coapListeners.get(listener);
+        if (key == null || peerAddr.equals(key.address)) {
+            return;
+        }
+        logger.debug("Device {} now uses IP address {}", key.host, peerAddr.getHostAddress());
+        InetAddress oldAddr = key.address;
+        if (oldAddr != null) {
+            listenersByAddress.remove(oldAddr, listener);
+        }
+        key.address = peerAddr;
+        addToIndex(listenersByAddress, peerAddr, listener);
+    }
+
+    /**
+     * Resolve the addresses of the registered devices again, in case the one sending the message got a new IP address.
+     * This is done at most once per minute, as unknown devices on the network would trigger it for every message.
+     */
+    private synchronized @Nullable ShellyCoapListener resolveAgain(InetAddress peerAddr) {
+        long now = System.nanoTime();
+        if (now - lastResolve < RESOLVE_INTERVAL_NS) {
+            return null;
+        }
+        lastResolve = now;
+        for (Map.Entry<ShellyCoapListener, DeviceKey> entry : coapListeners.entrySet()) {
+            DeviceKey key = entry.getValue();
+            try {
+                if (peerAddr.equals(resolve(key.host))) {
+                    updateAddress(entry.getKey(), peerAddr);
+                    return entry.getKey();
+                }
+            } catch (UnknownHostException e) {
+                logger.trace("Unable to resolve device address {}", key.host);
+            }
+        }
+        return null;
+    }
+
+    private static String normalizeMac(String mac) {
+        return mac.replace(":", "").toUpperCase();
+    }
+
+    /**
+     * @return number of inbound messages, which didn't belong to any registered device
+     */
+    public long getUnmatchedMessageCount() {
+        return unmatchedMessages.get();
     }
 
     public static Response createResponse(Request request) {
@@ -125,8 +308,8 @@ public class ShellyCoapServer {
     /**
      * Cancel pending requests and shutdown the client
      */
-    public void stop(ShellyCoapListener listener) {
-        coapListeners.remove(listener);
+    public synchronized void stop(ShellyCoapListener listener) {
+        removeListener(listener);
         if (coapListeners.isEmpty()) {
             stop();
         }
@@ -138,8 +321,12 @@ public class ShellyCoapServer {
             server.stop();
             statusEndpoint.stop();
             coapListeners.clear();
+            listenersByAddress.clear();
+            listenersByMac.clear();
+            listenersByDeviceId.clear();
             started = false;
-            logger.debug("CoAP Listener stopped");
+            logger.debug("CoAP Listener stopped, {} messages did not belong to a known device",
+                    unmatchedMessages.get());
         }
     }
 
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -99,6 +100,7 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
     public int scheduledUpdates = 0;
     private int skipCount = UPDATE_SKIP_COUNT;
     private int skipUpdate = 0;
+    private int lastPoll = 0;
     private boolean refreshSettings = false;
 
     // delay before enabling channel
@@ -433,7 +435,8 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
 
             skipUpdate++;
             ThingStatus thingStatus = getThing().getStatus();
-            if (refreshSettings || (scheduledUpdates > 0) || (skipUpdate % skipCount == 0)) {
+            if (refreshSettings || (scheduledUpdates > 0) || (skipUpdate - lastPoll >= getPollInterval())) {
+                lastPoll = skipUpdate;
                 if (!profile.isInitialized() || ((thingStatus == ThingStatus.OFFLINE))
                         || (thingStatus == ThingStatus.UNKNOWN)) {
                     logger.debug("{}: Status update triggered thing initialization", thingName);
@@ -516,6 +519,20 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
         }
     }
 
+    /**
+     * Get the number of status job cycles between two regular status polls. While CoIoT status updates are received,
+     * most channels are already up to date and the device is polled less frequently.
+     *
+     * @return number of cycles
+     */
+    private int getPollInterval() {
+        long lastCoIoTUpdate = coap.getLastStatusUpdate();
+        if ((lastCoIoTUpdate > 0) && (now() - lastCoIoTUpdate <= config.updateInterval)) {
+            return skipCount * UPDATE_COIOT_SKIP_FACTOR;
+        }
+        return skipCount;
+    }
+
     public boolean isThingOnline() {
         return getThing().getStatus() == ThingStatus.ONLINE;
     }
@@ -849,6 +866,8 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
         }
 
         skipCount = config.updateInterval / UPDATE_STATUS_INTERVAL_SECONDS;
+        // spread the polls of multiple devices across the interval
+        lastPoll = skipUpdate - ThreadLocalRandom.current().nextInt(skipCount);
         logger.trace("{}: updateInterval = {}s -> skipCount = {}", thingName, config.updateInterval, skipCount);
     }
 
@@ -927,8 +946,10 @@ public class ShellyBaseHandler extends BaseThingHandler implements ShellyDeviceL
     protected void startUpdateJob() {
         ScheduledFuture<?> statusJob = this.statusJob;
         if ((statusJob == null) || statusJob.isCancelled()) {
-            this.statusJob = scheduler.scheduleWithFixedDelay(this::refreshStatus, 2, UPDATE_STATUS_INTERVAL_SECONDS,
-                    TimeUnit.SECONDS);
+            // start with a random offset, so that the status jobs of multiple devices don't run at the same time
+            long initialDelay = 2000 + ThreadLocalRandom.current().nextLong(UPDATE_STATUS_INTERVAL_SECONDS * 1000);
+            this.statusJob = scheduler.scheduleWithFixedDelay(this::refreshStatus, initialDelay,
+                    UPDATE_STATUS_INTERVAL_SECONDS * 1000, TimeUnit.MILLISECONDS);
             logger.debug("{}: Update status job started, interval={}*{}={}sec.", thingName, skipCount,
                     UPDATE_STATUS_INTERVAL_SECONDS, skipCount * UPDATE_STATUS_INTERVAL_SECONDS);
         }
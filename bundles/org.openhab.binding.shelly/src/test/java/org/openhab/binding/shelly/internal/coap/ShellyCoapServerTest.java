@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.shelly.internal.coap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.openhab.binding.shelly.internal.coap.ShellyCoapJSonDTO.COIOT_OPTION_GLOBAL_DEVID;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.californium.core.coap.Option;
+import org.eclipse.californium.core.coap.Request;
+import org.eclipse.californium.core.coap.Response;
+import org.eclipse.californium.core.network.config.NetworkConfig;
+import org.eclipse.californium.elements.AddressEndpointContext;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the dispatching of CoIoT messages by the {@link ShellyCoapServer}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ShellyCoapServerTest {
+
+    private final Map<String, String> hosts = new HashMap<>();
+    private int resolved = 0;
+
+    private final ShellyCoapServer server = new ShellyCoapServer() {
+        @Override
+        InetAddress resolve(String host) throws UnknownHostException {
+            resolved++;
+            // host names of the test are mapped, IP addresses are used as they are
+            return InetAddress.getByName(hosts.getOrDefault(host, host));
+        }
+    };
+
+    private final ShellyCoapListener switch25 = mock(ShellyCoapListener.class);
+    private final ShellyCoapListener plug = mock(ShellyCoapListener.class);
+
+    @BeforeAll
+    public static void setUpNetworkConfig() {
+        // do not create a Californium.properties file
+        NetworkConfig.setStandard(new NetworkConfig());
+    }
+
+    private static Response message(String peerAddress, @Nullable String globalDeviceId) throws UnknownHostException {
+        Request request = Request.newPut();
+        request.setSourceContext(
+                new AddressEndpointContext(new InetSocketAddress(InetAddress.getByName(peerAddress), 5683)));
+        if (globalDeviceId != null) {
+            request.getOptions().addOption(new Option(COIOT_OPTION_GLOBAL_DEVID, globalDeviceId));
+        }
+        return ShellyCoapServer.createResponse(request);
+    }
+
+    @Test
+    public void messageIsDispatchedByPeerAddress() throws UnknownHostException {
+        server.register("192.168.1.10", "A4:CF:12:F4:54:E2", switch25);
+        server.register("192.168.1.11", "E8DB84AABBCC", plug);
+
+        Response response = message("192.168.1.11", "SHPLG-S#E8DB84AABBCC#2");
+        server.processResponse(response);
+
+        verify(plug).processResponse(response);
+        verifyNoInteractions(switch25);
+        assertEquals(0, server.getUnmatchedMessageCount());
+    }
+
+    @Test
+    public void messageIsDispatchedByMacAddress() throws UnknownHostException {
+        server.register("192.168.1.10", "A4:CF:12:F4:54:E2", switch25);
+        server.register("192.168.1.11", "E8DB84AABBCC", plug);
+
+        Response response = message("192.168.1.99", "SHSW-25#A4CF12F454E2#2");
+        server.processResponse(response);
+
+        verify(switch25).processResponse(response);
+        verifyNoInteractions(plug);
+    }
+
+    @Test
+    public void messageIsDispatchedByDeviceId() throws UnknownHostException {
+        server.register("192.168.1.10", "A4:CF:12:F4:54:E2", switch25);
+        server.register("192.168.1.11", "E8DB84AABBCC", plug);
+
+        // older firmware only sends the last 6 hex digits of the MAC address
+        Response response = message("192.168.1.99", "SHSW-25#f454e2#1");
+        server.processResponse(response);
+
+        verify(switch25).processResponse(response);
+        verifyNoInteractions(plug);
+    }
+
+    @Test
+    public void newAddressIsLearnedFromDeviceId() throws UnknownHostException {
+        server.register("192.168.1.10", "A4CF12F454E2", switch25);
+
+        server.processResponse(message("192.168.1.99", "SHSW-25#A4CF12F454E2#2"));
+        Response response = message("192.168.1.99", null);
+        server.processResponse(response);
+
+        verify(switch25).processResponse(response);
+        verify(switch25, times(2)).processResponse(any());
+    }
+
+    @Test
+    public void hostNameIsResolvedAgainOnMiss() throws UnknownHostException {
+        hosts.put("shellyplug.local", "192.168.1.11");
+        server.register("shellyplug.local", "", plug);
+        assertEquals(1, resolved);
+
+        // the device got a new IP address, and sends no global device id
+        hosts.put("shellyplug.local", "192.168.1.12");
+        Response response = message("192.168.1.12", null);
+        server.processResponse(response);
+
+        verify(plug).processResponse(response);
+        assertEquals(2, resolved);
+
+        // the new address is used without resolving it again
+        server.processResponse(message("192.168.1.12", null));
+        verify(plug, times(2)).processResponse(any());
+        assertEquals(2, resolved);
+    }
+
+    @Test
+    public void unknownDevicesDoNotResolveOnEveryMessage() throws UnknownHostException {
+        hosts.put("shellyplug.local", "192.168.1.11");
+        server.register("shellyplug.local", "E8DB84AABBCC", plug);
+
+        server.processResponse(message("192.168.1.50", "SHSW-1#112233#1"));
+        server.processResponse(message("192.168.1.50", "SHSW-1#112233#1"));
+        server.processResponse(message("192.168.1.51", null));
+
+        verifyNoInteractions(plug);
+        assertEquals(3, server.getUnmatchedMessageCount());
+        // once at registration, once for the first miss
+        assertEquals(2, resolved);
+    }
+
+    @Test
+    public void unregisteredListenerReceivesNoMessages() throws UnknownHostException {
+        server.register("192.168.1.10", "A4CF12F454E2", switch25);
+        server.stop(switch25);
+
+        server.processResponse(message("192.168.1.10", "SHSW-25#A4CF12F454E2#2"));
+
+        verifyNoInteractions(switch25);
+        assertEquals(1, server.getUnmatchedMessageCount());
+    }
+}
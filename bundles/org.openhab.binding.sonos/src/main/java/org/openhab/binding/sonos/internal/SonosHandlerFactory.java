@@ -64,6 +64,8 @@ public class SonosHandlerFactory extends BaseThingHandlerFactory {
     private final NetworkAddressService networkAddressService;
     private final SonosStateDescriptionOptionProvider stateDescriptionProvider;
 
+    private final SonosZoneGroupTopology zoneGroupTopology = new SonosZoneGroupTopology();
+
     private final Map<String, ServiceRegistration<AudioSink>> audioSinkRegistrations = new ConcurrentHashMap<>();
 
     // optional OPML URL that can be configured through configuration admin
@@ -118,7 +120,7 @@ public class SonosHandlerFactory extends BaseThingHandlerFactory {
                     thing.getConfiguration().get(UDN));
 
             ZonePlayerHandler handler = new ZonePlayerHandler(thingRegistry, thing, upnpIOService, opmlUrl,
-                    stateDescriptionProvider);
+                    stateDescriptionProvider, zoneGroupTopology);
 
             // register the speaker as an audio sink
             String callbackUrl = createCallbackUrl();
@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.sonos.internal;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * The {@link SonosZoneGroupTopology} holds the parsed zone groups of the Sonos system, shared by all zone players.
+ *
+ * Every zone player receives the same ZoneGroupState on a change of the grouping. The state is parsed by the first
+ * player asking for it, the other players get the parsed zone groups. A few recent states are kept, as the players
+ * receive a new state one after another.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class SonosZoneGroupTopology {
+
+    private static final int MAX_STATES = 4;
+
+    private final Map<String, List<SonosZoneGroup>> zoneGroupsByState = new LinkedHashMap<>(MAX_STATES + 1, 0.75f,
+            true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<SonosZoneGroup>> eldest) {
+            return size() > MAX_STATES;
+        }
+    };
+
+    /**
+     * @param zoneGroupState the ZoneGroupState value of a zone player
+     * @return the unmodifiable list of zone groups described by the given state
+     */
+    public synchronized List<SonosZoneGroup> getZoneGroups(String zoneGroupState) {
+        List<SonosZoneGroup> zoneGroups = zoneGroupsByState.get(zoneGroupState);
+        if (zoneGroups == null) {
+            zoneGroups = Collections.unmodifiableList(SonosXMLParser.getZoneGroupFromXML(zoneGroupState));
+            zoneGroupsByState.put(zoneGroupState, zoneGroups);
+        }
+        return zoneGroups;
+    }
+}
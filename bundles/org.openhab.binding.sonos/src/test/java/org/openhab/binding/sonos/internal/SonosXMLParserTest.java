@@ -12,7 +12,10 @@
  */
 package org.openhab.binding.sonos.internal;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.junit.jupiter.api.Test;
@@ -60,4 +63,43 @@ public class SonosXMLParserTest {
     public void buildThingTypeIdFromModelWithAdditionalTextInParenthesis() {
         assertEquals("OneSL", SonosXMLParser.buildThingTypeIdFromModelName("Sonos One SL (OpenHome)"));
     }
+
+    @Test
+    public void getRenderingControlFromXMLWithReusedReader() {
+        String first = "<Event><InstanceID val=\"0\"><Volume channel=\"Master\" val=\"25\"/>"
+                + "<Bass val=\"2\"/></InstanceID></Event>";
+        String second = "<Event><InstanceID val=\"0\"><Mute channel=\"Master\" val=\"1\"/></InstanceID></Event>";
+
+        assertEquals(Map.of("VolumeMaster", "25", "Bass", "2"), SonosXMLParser.getRenderingControlFromXML(first));
+        // the reader of the first document must not leak any state into the second one
+        assertEquals(Map.of("MuteMaster", "1"), SonosXMLParser.getRenderingControlFromXML(second));
+    }
+
+    @Test
+    public void getRenderingControlFromXMLAfterMalformedXML() {
+        assertTrue(SonosXMLParser.getRenderingControlFromXML("<Event><InstanceID").isEmpty());
+        assertEquals(Map.of("Treble", "-3"), SonosXMLParser
+                .getRenderingControlFromXML("<Event><InstanceID val=\"0\"><Treble val=\"-3\"/></InstanceID></Event>"));
+    }
+
+    @Test
+    public void getZoneGroupsIsParsedOnceForAllPlayers() {
+        SonosZoneGroupTopology topology = new SonosZoneGroupTopology();
+        String zoneGroupState = "<ZoneGroupState><ZoneGroups>"
+                + "<ZoneGroup Coordinator=\"RINCON_A\" ID=\"RINCON_A:1\">"
+                + "<ZoneGroupMember UUID=\"RINCON_A\" ZoneName=\"Kitchen\"/>"
+                + "<ZoneGroupMember UUID=\"RINCON_B\" ZoneName=\"Dining Room\"/></ZoneGroup>"
+                + "<ZoneGroup Coordinator=\"RINCON_C\" ID=\"RINCON_C:2\">"
+                + "<ZoneGroupMember UUID=\"RINCON_C\" ZoneName=\"Office\"/></ZoneGroup>"
+                + "</ZoneGroups></ZoneGroupState>";
+
+        List<SonosZoneGroup> groups = topology.getZoneGroups(zoneGroupState);
+        assertEquals(2, groups.size());
+        assertEquals("RINCON_A", groups.get(0).getCoordinator());
+        assertEquals(List.of("RINCON_A", "RINCON_B"), groups.get(0).getMembers());
+        assertEquals(List.of("Office"), groups.get(1).getMemberZoneNames());
+
+        // another player receiving the same state gets the already parsed groups
+        assertSame(groups, topology.getZoneGroups(new String(zoneGroupState)));
+    }
 }
@@ -15,13 +15,19 @@ package org.openhab.io.homekit.internal;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import javax.json.JsonObject;
+import javax.json.JsonValue;
 
 import org.eclipse.jdt.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.hapjava.accessories.HomekitAccessory;
+import io.github.hapjava.characteristics.Characteristic;
 import io.github.hapjava.server.impl.HomekitRoot;
+import io.github.hapjava.services.Service;
 
 /**
  * Stores the created HomekitAccessories. GroupedAccessories are also held here
@@ -102,4 +108,47 @@ class HomekitAccessoryRegistry {
     public Map<String, HomekitAccessory> getAllAccessories() {
         return this.createdAccessories;
     }
+
+    /**
+     * Describes the structure of an accessory as it is exposed to HomeKit clients, i.e. its id, name, services and
+     * characteristics including their properties, but without the current values. HomeKit clients only need to
+     * download the accessory database again if the structure of an accessory changed.
+     *
+     * @param itemName name of the item of the root accessory
+     * @return the structure or null if there is no accessory for the item
+     */
+    public synchronized @Nullable String getStructure(String itemName) {
+        final @Nullable HomekitAccessory accessory = createdAccessories.get(itemName);
+        if (accessory == null) {
+            return null;
+        }
+        final StringBuilder structure = new StringBuilder();
+        structure.append(accessory.getId()).append(':').append(accessory.getName().getNow(null));
+        for (Service service : accessory.getServices()) {
+            structure.append("\n").append(service.getType());
+            for (Characteristic characteristic : service.getCharacteristics()) {
+                structure.append(' ').append(getStructure(characteristic));
+            }
+        }
+        return structure.toString();
+    }
+
+    private String getStructure(Characteristic characteristic) {
+        try {
+            final @Nullable JsonObject json = characteristic.toJson(0).getNow(null);
+            if (json != null) {
+                final StringBuilder structure = new StringBuilder("{");
+                for (Map.Entry<String, JsonValue> property : json.entrySet()) {
+                    if (!"value".equals(property.getKey())) {
+                        structure.append(property.getKey()).append('=').append(property.getValue()).append(';');
+                    }
+                }
+                return structure.append('}').toString();
+            }
+        } catch (CompletionException e) {
+            logger.trace("Could not describe characteristic {}: {}", characteristic, e.getMessage());
+        }
+        // the value is not available yet, fall back to the type of the characteristic
+        return characteristic.getClass().getName();
+    }
 }
@@ -12,10 +12,19 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.core.common.ThreadPoolManager;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.Item;
 import org.openhab.core.items.StateChangeListener;
@@ -31,11 +40,38 @@ import io.github.hapjava.characteristics.HomekitCharacteristicChangeCallback;
  * HomeKit library takes care of insuring only a single subscription exists for
  * each accessory.
  *
+ * Notifications are coalesced: State changes within a short window are delivered to HomeKit together, so that the
+ * underlying HomeKit library can send them to the clients at once, and intermediate states of an item which changes
+ * again before the notification is sent are never reported. Each characteristic is notified at most once per
+ * {@link #MIN_NOTIFICATION_INTERVAL_MS}, later changes are delivered when the interval has passed.
+ *
  * @author Andy Lintner - Initial contribution
  */
 public class HomekitAccessoryUpdater {
+    /** time to wait for further state changes before notifying HomeKit */
+    private static final long COALESCING_WINDOW_MS = 50;
+    /** minimum time between two notifications of the same characteristic */
+    private static final long MIN_NOTIFICATION_INTERVAL_MS = 500;
+    private static final long STATISTICS_LOG_INTERVAL = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
     private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    // guarded by this
+    private final Set<Subscription> pendingNotifications = new LinkedHashSet<>();
+    private ScheduledFuture<?> notificationJob;
+    private long notificationTime;
+    private long changesReceived;
+    private long notificationsSent;
+
+    public HomekitAccessoryUpdater() {
+        this(ThreadPoolManager.getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON));
+    }
+
+    HomekitAccessoryUpdater(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
 
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
@@ -57,7 +93,7 @@ public class HomekitAccessoryUpdater {
                 unsubscribe(item, key);
             }
             logger.trace("Adding subscription for {} / {}", item, key);
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
+            Subscription subscription = new Subscription(callback);
             item.addStateChangeListener(subscription);
             return subscription;
         });
@@ -74,19 +110,94 @@ public class HomekitAccessoryUpdater {
         subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
             logger.trace("Removing existing subscription for {} / {}", item, key);
             item.removeStateChangeListener(v);
+            cancelNotification(v);
             return null;
         });
     }
 
-    @FunctionalInterface
+    private synchronized void requestNotification(Subscription subscription) {
+        changesReceived++;
+        if (pendingNotifications.add(subscription)) {
+            scheduleNotifications(now() + COALESCING_WINDOW_MS);
+        }
+    }
+
+    private synchronized void cancelNotification(Subscription subscription) {
+        pendingNotifications.remove(subscription);
+    }
+
+    private void scheduleNotifications(long time) {
+        ScheduledFuture<?> job = notificationJob;
+        if (job != null) {
+            if (notificationTime <= time) {
+                return;
+            }
+            job.cancel(false);
+        }
+        notificationTime = time;
+        notificationJob = scheduler.schedule(this::sendNotifications, Math.max(0, time - now()),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void sendNotifications() {
+        List<Subscription> notifications = new ArrayList<>();
+        synchronized (this) {
+            notificationJob = null;
+            long now = now();
+            long next = Long.MAX_VALUE;
+            for (Iterator<Subscription> iterator = pendingNotifications.iterator(); iterator.hasNext();) {
+                Subscription subscription = iterator.next();
+                long earliest = subscription.lastNotification + MIN_NOTIFICATION_INTERVAL_MS;
+                if (earliest <= now) {
+                    iterator.remove();
+                    subscription.lastNotification = now;
+                    notifications.add(subscription);
+                } else {
+                    next = Math.min(next, earliest);
+                }
+            }
+            if (next != Long.MAX_VALUE) {
+                scheduleNotifications(next);
+            }
+            long sentBefore = notificationsSent;
+            notificationsSent += notifications.size();
+            if (notificationsSent / STATISTICS_LOG_INTERVAL != sentBefore / STATISTICS_LOG_INTERVAL) {
+                logger.debug("Sent {} HomeKit notifications for {} state changes, {} superseded changes suppressed",
+                        notificationsSent, changesReceived,
+                        changesReceived - notificationsSent - pendingNotifications.size());
+            }
+        }
+        logger.trace("Notifying HomeKit about {} changed characteristics", notifications.size());
+        for (Subscription subscription : notifications) {
+            try {
+                subscription.callback.changed();
+            } catch (RuntimeException e) {
+                logger.warn("Failed to notify HomeKit about a changed characteristic: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
     @NonNullByDefault
-    private interface Subscription extends StateChangeListener {
+    private class Subscription implements StateChangeListener {
+        private final HomekitCharacteristicChangeCallback callback;
+        // guarded by the updater
+        private long lastNotification = Long.MIN_VALUE;
+
+        Subscription(HomekitCharacteristicChangeCallback callback) {
+            this.callback = callback;
+        }
 
         @Override
-        void stateChanged(Item item, State oldState, State newState);
+        public void stateChanged(Item item, State oldState, State newState) {
+            requestNotification(this);
+        }
 
         @Override
-        default void stateUpdated(Item item, State state) {
+        public void stateUpdated(Item item, State state) {
             // Do nothing on non-change update
         }
     }
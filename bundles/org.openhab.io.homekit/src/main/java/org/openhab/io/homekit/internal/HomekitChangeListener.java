@@ -14,11 +14,15 @@ package org.openhab.io.homekit.internal;
 
 import java.time.Clock;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
@@ -128,7 +132,8 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         };
         itemRegistry.addRegistryChangeListener(this);
         metadataRegistry.addRegistryChangeListener(metadataChangeListener);
-        itemRegistry.getItems().forEach(this::createRootAccessories);
+        final Map<String, Optional<GroupItem>> accessoryGroups = new HashMap<>();
+        itemRegistry.getItems().forEach(item -> createRootAccessories(item, accessoryGroups));
         initialiseRevision();
         makeNewConfigurationRevision();
         logger.info("Created {} HomeKit items.", accessoryRegistry.getAllAccessories().size());
@@ -227,15 +232,26 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
 
     private synchronized void applyUpdates() {
         logger.trace("Apply updates");
+        // group lookups are shared by all items of this batch, e.g. by all members of a group
+        final Map<String, Optional<GroupItem>> accessoryGroups = new HashMap<>();
+        boolean structureChanged = false;
         for (final String name : pendingUpdates) {
+            final @Nullable String oldStructure = accessoryRegistry.getStructure(name);
             accessoryRegistry.remove(name);
             logger.trace(" Add items {}", name);
-            getItemOptional(name).ifPresent(this::createRootAccessories);
+            getItemOptional(name).ifPresent(item -> createRootAccessories(item, accessoryGroups));
+            if (!Objects.equals(oldStructure, accessoryRegistry.getStructure(name))) {
+                logger.trace(" Structure of accessory {} changed", name);
+                structureChanged = true;
+            }
         }
-        if (!pendingUpdates.isEmpty()) {
+        if (structureChanged) {
             makeNewConfigurationRevision();
-            pendingUpdates.clear();
+        } else if (!pendingUpdates.isEmpty()) {
+            logger.trace("Structure of accessories unchanged, keeping configuration revision {}",
+                    accessoryRegistry.getConfigurationRevision());
         }
+        pendingUpdates.clear();
     }
 
     @Override
@@ -292,15 +308,14 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
      * - if accessory has primary type defined per configuration and this type is NOT on the list of types, then the
      * first type on the list is the primary type
      *
-     * @param item openhab item
      * @param accessoryTypes list of accessory type attached to the item
+     * @param configuration HomeKit metadata configuration of the item
      * @return primary accessory type
      */
-    private HomekitAccessoryType getPrimaryAccessoryType(Item item,
-            List<Entry<HomekitAccessoryType, HomekitCharacteristicType>> accessoryTypes) {
+    private HomekitAccessoryType getPrimaryAccessoryType(
+            List<Entry<HomekitAccessoryType, HomekitCharacteristicType>> accessoryTypes,
+            @Nullable Map<String, Object> configuration) {
         if (accessoryTypes.size() > 1) {
-            final @Nullable Map<String, Object> configuration = HomekitAccessoryFactory.getItemConfiguration(item,
-                    metadataRegistry);
             if (configuration != null) {
                 final @Nullable Object value = configuration.get(HomekitTaggedItem.PRIMARY_SERVICE);
                 if (value instanceof String) {
@@ -353,19 +368,24 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
      * Switch light "Light" (gLight) {homekit="Lighting.OnState"}
      *
      * @param item openHAB item
+     * @param accessoryGroups accessory groups looked up so far, by group name
      */
-    private void createRootAccessories(Item item) {
+    private void createRootAccessories(Item item, Map<String, Optional<GroupItem>> accessoryGroups) {
         final List<Entry<HomekitAccessoryType, HomekitCharacteristicType>> accessoryTypes = HomekitAccessoryFactory
                 .getAccessoryTypes(item, metadataRegistry);
-        final List<GroupItem> groups = HomekitAccessoryFactory.getAccessoryGroups(item, itemRegistry, metadataRegistry);
-        if (!accessoryTypes.isEmpty()
-                && (groups.isEmpty() || groups.stream().noneMatch(g -> g.getBaseItem() == null))) {
-            final HomekitAccessoryType primaryAccessoryType = getPrimaryAccessoryType(item, accessoryTypes);
+        if (accessoryTypes.isEmpty()) {
+            return;
+        }
+        final List<GroupItem> groups = getAccessoryGroups(item, accessoryGroups);
+        if (groups.isEmpty() || groups.stream().noneMatch(g -> g.getBaseItem() == null)) {
+            final @Nullable Map<String, Object> configuration = HomekitAccessoryFactory.getItemConfiguration(item,
+                    metadataRegistry);
+            final HomekitAccessoryType primaryAccessoryType = getPrimaryAccessoryType(accessoryTypes, configuration);
             logger.trace("Item {} is a HomeKit accessory of types {}. Primary type is {}", item.getName(),
                     accessoryTypes, primaryAccessoryType);
             final HomekitOHItemProxy itemProxy = new HomekitOHItemProxy(item);
             final HomekitTaggedItem taggedItem = new HomekitTaggedItem(new HomekitOHItemProxy(item),
-                    primaryAccessoryType, HomekitAccessoryFactory.getItemConfiguration(item, metadataRegistry));
+                    primaryAccessoryType, configuration);
             try {
                 final HomekitAccessory accessory = HomekitAccessoryFactory.create(taggedItem, metadataRegistry, updater,
                         settings);
@@ -373,8 +393,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
                 accessoryTypes.stream().filter(aType -> !primaryAccessoryType.equals(aType.getKey()))
                         .forEach(additionalAccessoryType -> {
                             final HomekitTaggedItem additionalTaggedItem = new HomekitTaggedItem(itemProxy,
-                                    additionalAccessoryType.getKey(),
-                                    HomekitAccessoryFactory.getItemConfiguration(item, metadataRegistry));
+                                    additionalAccessoryType.getKey(), configuration);
                             try {
                                 final HomekitAccessory additionalAccessory = HomekitAccessoryFactory
                                         .create(additionalTaggedItem, metadataRegistry, updater, settings);
@@ -389,4 +408,29 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
             }
         }
     }
+
+    /**
+     * Same as {@link HomekitAccessoryFactory#getAccessoryGroups}, but each group is only looked up once.
+     *
+     * @param item openHAB item
+     * @param accessoryGroups accessory groups looked up so far, by group name
+     * @return list of relevant group items
+     */
+    private List<GroupItem> getAccessoryGroups(Item item, Map<String, Optional<GroupItem>> accessoryGroups) {
+        if (item instanceof GroupItem) {
+            return Collections.emptyList();
+        }
+        final List<GroupItem> groups = new ArrayList<>();
+        for (String groupName : item.getGroupNames()) {
+            accessoryGroups.computeIfAbsent(groupName, name -> {
+                final @Nullable Item groupItem = itemRegistry.get(name);
+                if (groupItem instanceof GroupItem && ((GroupItem) groupItem).getBaseItem() == null
+                        && !HomekitAccessoryFactory.getAccessoryTypes(groupItem, metadataRegistry).isEmpty()) {
+                    return Optional.of((GroupItem) groupItem);
+                }
+                return Optional.empty();
+            }).ifPresent(groups::add);
+        }
+        return groups;
+    }
 }
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.homekit.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.jupiter.api.Test;
+
+import io.github.hapjava.accessories.HomekitAccessory;
+import io.github.hapjava.characteristics.Characteristic;
+import io.github.hapjava.services.Service;
+
+/**
+ * Tests the structure description of accessories in {@link HomekitAccessoryRegistry}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HomekitAccessoryRegistryTest {
+    private final HomekitAccessoryRegistry registry = new HomekitAccessoryRegistry();
+
+    private HomekitAccessory accessory(String name, JsonObject characteristicJson) {
+        Characteristic characteristic = mock(Characteristic.class);
+        when(characteristic.toJson(anyInt())).thenReturn(CompletableFuture.completedFuture(characteristicJson));
+        Service service = mock(Service.class);
+        when(service.getType()).thenReturn("49");
+        when(service.getCharacteristics()).thenReturn(List.of(characteristic));
+        HomekitAccessory accessory = mock(HomekitAccessory.class);
+        when(accessory.getId()).thenReturn(42);
+        when(accessory.getName()).thenReturn(CompletableFuture.completedFuture(name));
+        when(accessory.getServices()).thenReturn(List.of(service));
+        return accessory;
+    }
+
+    private JsonObject onCharacteristic(boolean value, String... permissions) {
+        JsonArrayBuilder perms = Json.createArrayBuilder();
+        for (String permission : permissions) {
+            perms.add(permission);
+        }
+        return Json.createObjectBuilder().add("iid", 10).add("type", "25").add("format", "bool").add("perms", perms)
+                .add("value", value).build();
+    }
+
+    private @Nullable String structureOf(HomekitAccessory accessory) {
+        registry.addRootAccessory("switch", accessory);
+        return registry.getStructure("switch");
+    }
+
+    @Test
+    public void structureOfUnknownItemIsNull() {
+        assertNull(registry.getStructure("unknown"));
+    }
+
+    @Test
+    public void valueIsNotPartOfStructure() {
+        String on = structureOf(accessory("Switch", onCharacteristic(true, "pr", "pw", "ev")));
+        String off = structureOf(accessory("Switch", onCharacteristic(false, "pr", "pw", "ev")));
+
+        assertNotNull(on);
+        assertEquals(on, off);
+    }
+
+    @Test
+    public void nameIsPartOfStructure() {
+        String before = structureOf(accessory("Switch", onCharacteristic(true, "pr", "pw", "ev")));
+        String after = structureOf(accessory("Kitchen switch", onCharacteristic(true, "pr", "pw", "ev")));
+
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    public void characteristicPropertiesArePartOfStructure() {
+        String before = structureOf(accessory("Switch", onCharacteristic(true, "pr", "pw", "ev")));
+        String after = structureOf(accessory("Switch", onCharacteristic(true, "pr", "ev")));
+
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    public void characteristicWithoutValueIsDescribedByType() {
+        Characteristic characteristic = mock(Characteristic.class);
+        when(characteristic.toJson(anyInt())).thenReturn(new CompletableFuture<>());
+        Service service = mock(Service.class);
+        when(service.getType()).thenReturn("49");
+        when(service.getCharacteristics()).thenReturn(List.of(characteristic));
+        HomekitAccessory accessory = mock(HomekitAccessory.class);
+        when(accessory.getName()).thenReturn(CompletableFuture.completedFuture("Switch"));
+        when(accessory.getServices()).thenReturn(List.of(service));
+
+        String structure = structureOf(accessory);
+
+        assertNotNull(structure);
+        assertTrue(structure.contains(characteristic.getClass().getName()));
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.homekit.internal;
+
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.core.library.types.OnOffType;
+
+import io.github.hapjava.characteristics.HomekitCharacteristicChangeCallback;
+
+/**
+ * Tests the coalescing and rate limiting of change notifications by {@link HomekitAccessoryUpdater}
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class HomekitAccessoryUpdaterTest {
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final HomekitAccessoryUpdater updater = new HomekitAccessoryUpdater(scheduler);
+    private final HomekitCharacteristicChangeCallback callback = mock(HomekitCharacteristicChangeCallback.class);
+    private final SwitchItem item = new SwitchItem("switch");
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void rapidChangesAreNotifiedOnce() {
+        updater.subscribe(item, callback);
+
+        item.setState(OnOffType.ON);
+        item.setState(OnOffType.OFF);
+        item.setState(OnOffType.ON);
+
+        verify(callback, after(400).times(1)).changed();
+    }
+
+    @Test
+    public void updateWithoutChangeIsNotNotified() {
+        item.setState(OnOffType.ON);
+        updater.subscribe(item, callback);
+
+        item.setState(OnOffType.ON);
+
+        verify(callback, after(200).never()).changed();
+    }
+
+    @Test
+    public void changeWithinIntervalIsDeliveredAfterInterval() {
+        updater.subscribe(item, callback);
+
+        item.setState(OnOffType.ON);
+        verify(callback, timeout(1000).times(1)).changed();
+
+        item.setState(OnOffType.OFF);
+        // Not before the minimum interval has passed, but eventually
+        verify(callback, after(200).times(1)).changed();
+        verify(callback, timeout(2000).times(2)).changed();
+    }
+
+    @Test
+    public void unsubscribeCancelsPendingNotification() {
+        updater.subscribe(item, callback);
+
+        item.setState(OnOffType.ON);
+        updater.unsubscribe(item);
+
+        verify(callback, after(300).never()).changed();
+    }
+
+    @Test
+    public void failingCallbackDoesNotStopOtherNotifications() {
+        HomekitCharacteristicChangeCallback failingCallback = mock(HomekitCharacteristicChangeCallback.class);
+        doThrow(new IllegalStateException("connection closed")).when(failingCallback).changed();
+        SwitchItem otherItem = new SwitchItem("other");
+        updater.subscribe(otherItem, failingCallback);
+        updater.subscribe(item, callback);
+
+        otherItem.setState(OnOffType.ON);
+        item.setState(OnOffType.ON);
+
+        verify(failingCallback, timeout(1000)).changed();
+        verify(callback, timeout(1000)).changed();
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.homekit.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.ItemNotFoundException;
+import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.Metadata;
+import org.openhab.core.items.MetadataKey;
+import org.openhab.core.items.MetadataRegistry;
+import org.openhab.core.library.items.SwitchItem;
+import org.openhab.core.library.types.OnOffType;
+import org.openhab.core.storage.Storage;
+
+/**
+ * Tests that {@link HomekitChangeListener} only makes a new configuration revision if the structure of an
+ * accessory changed
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+@SuppressWarnings({ "null", "unchecked" })
+public class HomekitChangeListenerTest {
+    private static final String ITEM_NAME = "light";
+    private static final String REVISION = "revision";
+    /** the updates are debounced for one second */
+    private static final int APPLY_TIMEOUT_MS = 3000;
+
+    private final ItemRegistry itemRegistry = mock(ItemRegistry.class);
+    private final MetadataRegistry metadataRegistry = mock(MetadataRegistry.class);
+    private final Storage<String> storage = mock(Storage.class);
+    private final Map<String, String> storageContent = new HashMap<>();
+    private final Map<String, Item> items = new HashMap<>();
+
+    @BeforeEach
+    public void setUp() throws ItemNotFoundException {
+        doAnswer(invocation -> storageContent.get(invocation.getArgument(0))).when(storage).get(any());
+        doAnswer(invocation -> storageContent.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(storage).put(any(), any());
+
+        Metadata metadata = new Metadata(new MetadataKey("homekit", ITEM_NAME), "Switchable", Map.of());
+        doAnswer(invocation -> ITEM_NAME.equals(((MetadataKey) invocation.getArgument(0)).getItemName()) ? metadata
+                : null).when(metadataRegistry).get(any());
+
+        doAnswer(invocation -> List.copyOf(items.values())).when(itemRegistry).getItems();
+        doAnswer(invocation -> items.get(invocation.getArgument(0))).when(itemRegistry).get(any());
+        doAnswer(invocation -> {
+            Item item = items.get(invocation.getArgument(0));
+            if (item == null) {
+                throw new ItemNotFoundException(invocation.getArgument(0));
+            }
+            return item;
+        }).when(itemRegistry).getItem(any());
+    }
+
+    private SwitchItem switchItem(String label) {
+        SwitchItem item = new SwitchItem(ITEM_NAME);
+        item.setLabel(label);
+        items.put(ITEM_NAME, item);
+        return item;
+    }
+
+    private HomekitChangeListener createListener() {
+        HomekitChangeListener listener = new HomekitChangeListener(itemRegistry, new HomekitSettings(),
+                metadataRegistry, storage);
+        assertEquals(1, listener.getAccessories().size());
+        assertEquals("2", storageContent.get(REVISION));
+        return listener;
+    }
+
+    @Test
+    public void unchangedStructureKeepsRevision() {
+        SwitchItem oldItem = switchItem("Light");
+        HomekitChangeListener listener = createListener();
+
+        SwitchItem newItem = switchItem("Light");
+        newItem.setState(OnOffType.ON);
+        listener.updated(oldItem, newItem);
+
+        verify(storage, after(APPLY_TIMEOUT_MS).never()).put(REVISION, "3");
+        assertEquals("2", storageContent.get(REVISION));
+        assertEquals(1, listener.getAccessories().size());
+        listener.stop();
+    }
+
+    @Test
+    public void changedStructureMakesNewRevision() {
+        SwitchItem oldItem = switchItem("Light");
+        HomekitChangeListener listener = createListener();
+
+        SwitchItem newItem = switchItem("Kitchen light");
+        listener.updated(oldItem, newItem);
+
+        verify(storage, timeout(APPLY_TIMEOUT_MS)).put(REVISION, "3");
+        listener.stop();
+    }
+
+    @Test
+    public void removedAccessoryMakesNewRevision() {
+        SwitchItem item = switchItem("Light");
+        HomekitChangeListener listener = createListener();
+
+        items.clear();
+        listener.removed(item);
+
+        verify(storage, timeout(APPLY_TIMEOUT_MS)).put(REVISION, "3");
+        assertTrue(listener.getAccessories().isEmpty());
+        listener.stop();
+    }
+}
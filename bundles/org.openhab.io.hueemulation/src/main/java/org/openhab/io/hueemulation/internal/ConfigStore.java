@@ -99,6 +99,17 @@ public class ConfigStore {
             .registerTypeAdapter(HueSuccessResponseStateChanged.class, new HueSuccessResponseStateChanged.Serializer())
             .registerTypeAdapter(HueGroupEntry.class, new HueGroupEntry.Serializer(this)).create();
 
+    /**
+     * The serialized json of the lights, reused until a light changes. Use this instead of serializing
+     * {@link HueDataStore#lights} or the full data store with {@link #gson} for frequently polled resources.
+     */
+    public final LightsJsonCache lightsJson = new LightsJsonCache(gson);
+
+    /**
+     * Posts the commands of group actions and scene recalls in the background
+     */
+    public final ItemCommandDispatcher commandDispatcher;
+
     @Reference
     protected @NonNullByDefault({}) ConfigurationAdmin configAdmin;
 
@@ -126,6 +137,7 @@ public class ConfigStore {
 
     public ConfigStore() {
         scheduler = ThreadPoolManager.getScheduledPool(ThreadPoolManager.THREAD_POOL_NAME_COMMON);
+        commandDispatcher = new ItemCommandDispatcher(scheduler);
     }
 
     /**
@@ -141,6 +153,7 @@ public class ConfigStore {
         this.configAdmin = configAdmin;
         this.metadataRegistry = metadataRegistry;
         this.scheduler = scheduler;
+        this.commandDispatcher = new ItemCommandDispatcher(scheduler);
     }
 
     @Activate
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.events.EventPublisher;
+import org.openhab.core.items.GroupItem;
+import org.openhab.core.items.Item;
+import org.openhab.core.items.events.ItemEventFactory;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Posts the item commands of group actions and scene recalls in the background, so that the hue client gets its
+ * response without waiting for dozens of commands to be published.
+ * <p>
+ * Commands for items that are already in the commanded state are dropped. A command for an item that still has a
+ * command pending replaces the pending one. At most {@link #MAX_PENDING_COMMANDS} commands are queued; if the queue is
+ * full, further commands are posted on the calling thread.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class ItemCommandDispatcher {
+    static final int MAX_PENDING_COMMANDS = 500;
+    private static final String SOURCE = "hueemulation";
+
+    private final Logger logger = LoggerFactory.getLogger(ItemCommandDispatcher.class);
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Command> pendingCommands = new LinkedHashMap<>();
+    private @Nullable EventPublisher eventPublisher;
+    private boolean dispatching = false;
+
+    public ItemCommandDispatcher(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Queues the given commands.
+     *
+     * @param eventPublisher The event publisher
+     * @param commands Item commands. Commands for items that are already in the commanded state are skipped.
+     * @return The number of queued commands
+     */
+    public int dispatch(EventPublisher eventPublisher, Map<Item, Command> commands) {
+        int queued = 0;
+        boolean startDispatching = false;
+        Map<String, Command> overflow = new LinkedHashMap<>();
+        synchronized (this) {
+            this.eventPublisher = eventPublisher;
+            for (Entry<Item, Command> entry : commands.entrySet()) {
+                Item item = entry.getKey();
+                Command command = entry.getValue();
+                if (isInState(item, command)) {
+                    logger.trace("Skip {} for {}, the item is in this state already", command, item.getName());
+                    continue;
+                }
+                queued++;
+                if (pendingCommands.size() >= MAX_PENDING_COMMANDS && !pendingCommands.containsKey(item.getName())) {
+                    overflow.put(item.getName(), command);
+                } else {
+                    pendingCommands.put(item.getName(), command);
+                }
+            }
+            if (!dispatching && !pendingCommands.isEmpty()) {
+                dispatching = true;
+                startDispatching = true;
+            }
+        }
+
+        if (!overflow.isEmpty()) {
+            logger.debug("Too many pending commands, posting {} commands directly", overflow.size());
+            overflow.forEach((itemName, command) -> post(eventPublisher, itemName, command));
+        }
+        if (startDispatching) {
+            try {
+                scheduler.schedule(this::postPendingCommands, 0, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                postPendingCommands();
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Returns true if the item state already corresponds to the given command. Commands that are not states, like
+     * increase or decrease commands, always change the item.
+     * <p>
+     * The state of a group is an aggregation and may hide single members. A group is only considered to be in the
+     * commanded state if all its members are.
+     *
+     * @param item An item
+     * @param command A command for this item
+     */
+    public static boolean isInState(Item item, Command command) {
+        if (!(command instanceof State)) {
+            return false;
+        }
+        State commandState = (State) command;
+        if (item instanceof GroupItem) {
+            Set<Item> members = ((GroupItem) item).getAllMembers();
+            return !members.isEmpty() && members.stream().allMatch(member -> isInState(member, command));
+        }
+        return commandState.equals(item.getState().as(commandState.getClass()));
+    }
+
+    private void postPendingCommands() {
+        while (true) {
+            String itemName;
+            Command command;
+            EventPublisher eventPublisher;
+            synchronized (this) {
+                Iterator<Entry<String, Command>> iterator = pendingCommands.entrySet().iterator();
+                EventPublisher localEventPublisher = this.eventPublisher;
+                if (!iterator.hasNext() || localEventPublisher == null) {
+                    pendingCommands.clear();
+                    dispatching = false;
+                    return;
+                }
+                Entry<String, Command> entry = iterator.next();
+                iterator.remove();
+                itemName = entry.getKey();
+                command = entry.getValue();
+                eventPublisher = localEventPublisher;
+            }
+            post(eventPublisher, itemName, command);
+        }
+    }
+
+    private void post(EventPublisher eventPublisher, String itemName, Command command) {
+        logger.debug("sending {} to {}", command, itemName);
+        try {
+            eventPublisher.post(ItemEventFactory.createCommandEvent(itemName, command, SOURCE));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to post command {} to item '{}'", command, itemName, e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2010-2022 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.core.items.GenericItem;
+import org.openhab.core.types.Command;
+import org.openhab.core.types.State;
+import org.openhab.io.hueemulation.internal.dto.HueDataStore;
+import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
+import org.openhab.io.hueemulation.internal.dto.changerequest.HueStateChange;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Keeps the serialized json of the lights of the hue data store. Hue clients like Amazon echos and Harmony hubs poll
+ * the lights very frequently, although they rarely change.
+ * <p>
+ * Every light is serialized to a json fragment, which is reused as long as the item, its state and label and the last
+ * hue command of the light are unchanged. The json of all lights is only assembled again if any fragment changed.
+ * Because those properties are compared on every access, lights that are added to or changed in the data store
+ * directly are picked up as well.
+ * <p>
+ * Each assembled json document has a version, which is exposed as entity tag for conditional requests.
+ *
+ * @author agent - Initial contribution
+ */
+@NonNullByDefault
+public class LightsJsonCache {
+    /**
+     * A serialized json document and its entity tag
+     */
+    public static class Snapshot {
+        public final String json;
+        public final String etag;
+
+        Snapshot(String json, String etag) {
+            this.json = json;
+            this.etag = etag;
+        }
+    }
+
+    private static class Fragment {
+        final HueLightEntry light;
+        final GenericItem item;
+        final State state;
+        final @Nullable String label;
+        final String name;
+        final @Nullable Command lastCommand;
+        final @Nullable HueStateChange lastHueChange;
+        final String json;
+
+        Fragment(HueLightEntry light, String json) {
+            this.light = light;
+            this.item = light.item;
+            this.state = light.item.getState();
+            this.label = light.item.getLabel();
+            this.name = light.name;
+            this.lastCommand = light.lastCommand;
+            this.lastHueChange = light.lastHueChange;
+            this.json = json;
+        }
+
+        /**
+         * The hue state and name of a light are derived from the item during serialization. A fragment is still
+         * valid if all inputs of the serializer are the same.
+         */
+        boolean isValidFor(HueLightEntry light) {
+            return this.light == light && item == light.item && state.equals(light.item.getState())
+                    && Objects.equals(label, light.item.getLabel()) && name.equals(light.name)
+                    && lastCommand == light.lastCommand && lastHueChange == light.lastHueChange;
+        }
+    }
+
+    /** The fields of the data store, in the order gson serializes them */
+    private static final List<Field> DATA_STORE_FIELDS = Stream.of(HueDataStore.class.getDeclaredFields())
+            .filter(f -> !Modifier.isStatic(f.getModifiers()) && !Modifier.isTransient(f.getModifiers()))
+            .collect(Collectors.toList());
+
+    private final Gson gson;
+    private final String etagPrefix = Long.toHexString(System.currentTimeMillis()) + "-";
+    private final Map<String, Fragment> fragments = new HashMap<>();
+    private @Nullable Snapshot allLights;
+    private long version;
+
+    public LightsJsonCache(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * Returns the json of all given lights. Only lights that changed since the last call are serialized again.
+     *
+     * @param lights The lights of the hue data store
+     */
+    public synchronized Snapshot getAllLights(Map<String, HueLightEntry> lights) {
+        boolean changed = fragments.size() != lights.size();
+        for (Entry<String, HueLightEntry> entry : lights.entrySet()) {
+            Fragment fragment = fragments.get(entry.getKey());
+            if (fragment == null || !fragment.isValidFor(entry.getValue())) {
+                fragments.put(entry.getKey(), serialize(entry.getValue()));
+                changed = true;
+            }
+        }
+
+        Snapshot snapshot = allLights;
+        if (snapshot != null && !changed) {
+            return snapshot;
+        }
+
+        if (fragments.size() != lights.size()) {
+            fragments.keySet().retainAll(lights.keySet());
+        }
+
+        // Assemble in the iteration order of the given map, like gson would do
+        StringBuilder json = new StringBuilder();
+        json.append('{');
+        Iterator<Entry<String, HueLightEntry>> iterator = lights.entrySet().iterator();
+        while (iterator.hasNext()) {
+            String id = iterator.next().getKey();
+            json.append(gson.toJson(id)).append(':').append(Objects.requireNonNull(fragments.get(id)).json);
+            if (iterator.hasNext()) {
+                json.append(',');
+            }
+        }
+        json.append('}');
+
+        snapshot = new Snapshot(json.toString(), etagPrefix + (++version));
+        allLights = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * Returns the json of a single light.
+     *
+     * @param id The hue id of the light
+     * @param light The light
+     */
+    public synchronized Snapshot getLight(String id, HueLightEntry light) {
+        Fragment fragment = fragments.get(id);
+        if (fragment == null || !fragment.isValidFor(light)) {
+            fragment = serialize(light);
+            fragments.put(id, fragment);
+            // The assembled json must be checked on the next access
+            allLights = null;
+        }
+        return new Snapshot(fragment.json, etagPrefix + id + "-" + Integer.toHexString(fragment.json.hashCode()));
+    }
+
+    /**
+     * Serializes the full hue data store like {@link Gson#toJson(Object)}, but uses the cached json for the lights.
+     * The entity tag is derived from the content, because the other parts of the data store are not tracked.
+     *
+     * @param ds The hue data store
+     */
+    public Snapshot getDataStore(HueDataStore ds) {
+        String lights = getAllLights(ds.lights).json;
+        StringWriter stringWriter = new StringWriter();
+        try (JsonWriter writer = gson.newJsonWriter(stringWriter)) {
+            writer.beginObject();
+            for (Field field : DATA_STORE_FIELDS) {
+                if (field.getName().equals("lights")) {
+                    writer.name(field.getName()).jsonValue(lights);
+                    continue;
+                }
+                Object value = field.get(ds);
+                if (value != null || gson.serializeNulls()) {
+                    writer.name(field.getName());
+                    gson.toJson(value, field.getGenericType(), writer);
+                }
+            }
+            writer.endObject();
+        } catch (IOException | IllegalAccessException e) {
+            throw new JsonIOException(e);
+        }
+        String json = stringWriter.toString();
+        return new Snapshot(json, etagPrefix + Integer.toHexString(json.hashCode()) + "-" + json.length());
+    }
+
+    /**
+     * Drops all cached json, for example if the gson configuration or the lights changed fundamentally.
+     */
+    public synchronized void invalidate() {
+        fragments.clear();
+        allLights = null;
+    }
+
+    private Fragment serialize(HueLightEntry light) {
+        return new Fragment(light, gson.toJson(light));
+    }
+}
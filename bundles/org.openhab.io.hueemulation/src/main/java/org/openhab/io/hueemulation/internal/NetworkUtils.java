@@ -20,6 +20,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -116,6 +118,23 @@ public class NetworkUtils {
         return Response.status(httpCode).entity(str).build();
     }
 
+    /**
+     * Creates a json response for the given snapshot with its entity tag. If the client already has the snapshot,
+     * indicated by a matching If-None-Match header, a "Not Modified" response without a body is returned.
+     *
+     * @param request The original request
+     * @param snapshot A serialized json document
+     * @return
+     */
+    public static Response snapshotResponse(Request request, LightsJsonCache.Snapshot snapshot) {
+        EntityTag etag = new EntityTag(snapshot.etag);
+        ResponseBuilder response = request.evaluatePreconditions(etag);
+        if (response == null) {
+            response = Response.ok(snapshot.json);
+        }
+        return response.tag(etag).build();
+    }
+
     public static Response singleSuccess(Gson gson, String message, String uriPart) {
         List<HueResponse> responses = new ArrayList<>();
         responses.add(new HueResponse(new HueSuccessGeneric(message, uriPart)));
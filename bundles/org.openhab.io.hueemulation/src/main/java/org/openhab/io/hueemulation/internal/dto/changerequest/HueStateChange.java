@@ -35,4 +35,6 @@ public class HueStateChange {
     public Integer sat_inc;
     public List<Double> xy_inc;
     public Integer ct_inc;
+    /** Recalls a scene, only valid for group actions */
+    public String scene;
 }
@@ -13,7 +13,9 @@
 package org.openhab.io.hueemulation.internal.rest;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -27,6 +29,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
@@ -49,6 +52,7 @@ import org.openhab.io.hueemulation.internal.StateUtils;
 import org.openhab.io.hueemulation.internal.dto.HueGroupEntry;
 import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
 import org.openhab.io.hueemulation.internal.dto.HueNewLights;
+import org.openhab.io.hueemulation.internal.dto.HueStateColorBulb;
 import org.openhab.io.hueemulation.internal.dto.changerequest.HueChangeRequest;
 import org.openhab.io.hueemulation.internal.dto.changerequest.HueStateChange;
 import org.openhab.io.hueemulation.internal.dto.response.HueResponse;
@@ -117,6 +121,8 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     protected @NonNullByDefault({}) ItemRegistry itemRegistry;
     @Reference(policy = ReferencePolicy.DYNAMIC, cardinality = ReferenceCardinality.OPTIONAL)
     protected volatile @Nullable EventPublisher eventPublisher;
+    @Reference(policy = ReferencePolicy.DYNAMIC, cardinality = ReferenceCardinality.OPTIONAL)
+    protected volatile @Nullable Scenes scenes;
 
     /**
      * Registers to the {@link ItemRegistry} and enumerates currently existing items.
@@ -247,12 +253,12 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @GET
     @Path("{username}/lights")
     @Operation(summary = "Return all lights", responses = { @ApiResponse(responseCode = "200", description = "OK") })
-    public Response getAllLightsApi(@Context UriInfo uri,
+    public Response getAllLightsApi(@Context UriInfo uri, @Context Request request,
             @PathParam("username") @Parameter(description = "username") String username) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights)).build();
+        return NetworkUtils.snapshotResponse(request, cs.lightsJson.getAllLights(cs.ds.lights));
     }
 
     @GET
@@ -282,13 +288,17 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
     @GET
     @Path("{username}/lights/{id}")
     @Operation(summary = "Return a light", responses = { @ApiResponse(responseCode = "200", description = "OK") })
-    public Response getLightApi(@Context UriInfo uri, //
+    public Response getLightApi(@Context UriInfo uri, @Context Request request, //
             @PathParam("username") @Parameter(description = "username") String username,
             @PathParam("id") @Parameter(description = "light id") String id) {
         if (!userManagement.authorizeUser(username)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
-        return Response.ok(cs.gson.toJson(cs.ds.lights.get(id))).build();
+        HueLightEntry hueDevice = cs.ds.lights.get(id);
+        if (hueDevice == null) {
+            return Response.ok(cs.gson.toJson(null)).build();
+        }
+        return NetworkUtils.snapshotResponse(request, cs.lightsJson.getLight(id, hueDevice));
     }
 
     @SuppressWarnings({ "null", "unused" })
@@ -401,8 +411,11 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.UNAUTHORIZED, "Not Authorized");
         }
         HueGroupEntry hueDevice = cs.ds.groups.get(id);
+        if (hueDevice == null) {
+            return NetworkUtils.singleError(cs.gson, uri, HueResponse.NOT_AVAILABLE, "Group not existing");
+        }
         GroupItem groupItem = hueDevice.groupItem;
-        if (hueDevice == null || groupItem == null) {
+        if (groupItem == null && !"0".equals(id)) {
             return NetworkUtils.singleError(cs.gson, uri, HueResponse.NOT_AVAILABLE, "Group not existing");
         }
 
@@ -412,29 +425,64 @@ public class LightsAndGroups implements RegistryChangeListener<Item> {
                     "Invalid request: No state change data received!");
         }
 
-        // First synchronize the internal state information with the framework
-        hueDevice.action = StateUtils.colorStateFromItemState(groupItem.getState(), hueDevice.deviceType);
+        String sceneId = state.scene;
+        if (sceneId != null) {
+            Scenes localScenes = scenes;
+            Map<Item, Command> commands = localScenes != null ? localScenes.getSceneCommands(sceneId) : null;
+            if (commands == null) {
+                return NetworkUtils.singleError(cs.gson, uri, HueResponse.NOT_AVAILABLE, "Scene not existing");
+            }
+            dispatchCommands(commands);
+            return NetworkUtils.singleSuccess(cs.gson, sceneId, "/groups/" + id + "/action/scene");
+        }
 
         List<HueResponse> responses = new ArrayList<>();
-        Command command = StateUtils.computeCommandByState(responses, "/groups/" + id + "/state/", hueDevice.action,
-                state);
-
-        // If a command could be created, post it to the framework now
-        if (command != null) {
-            logger.debug("sending {} to {}", command, id);
-            EventPublisher localEventPublisher = eventPublisher;
-            if (localEventPublisher != null) {
-                localEventPublisher
-                        .post(ItemEventFactory.createCommandEvent(groupItem.getUID(), command, "hueemulation"));
-            } else {
-                logger.warn("No event publisher. Cannot post item '{}' command!", groupItem.getUID());
+        Map<Item, Command> commands = new LinkedHashMap<>();
+        if (groupItem != null) {
+            // First synchronize the internal state information with the framework
+            hueDevice.action = StateUtils.colorStateFromItemState(groupItem.getState(), hueDevice.deviceType);
+
+            Command command = StateUtils.computeCommandByState(responses, "/groups/" + id + "/state/",
+                    hueDevice.action, state);
+            if (command != null) {
+                commands.put(groupItem, command);
+            }
+        } else {
+            // The group of all lights is not backed by an item: Compute the command for every light
+            StateUtils.computeCommandByState(responses, "/groups/" + id + "/state/", new HueStateColorBulb(false),
+                    state);
+            for (HueLightEntry light : cs.ds.lights.values()) {
+                light.state = StateUtils.colorStateFromItemState(light.item.getState(), light.deviceType);
+                Command command = StateUtils.computeCommandByState(new ArrayList<>(), "", light.state, state);
+                if (command != null) {
+                    commands.put(light.item, command);
+                    light.lastCommand = command;
+                    light.lastHueChange = state;
+                }
             }
         }
+        dispatchCommands(commands);
 
         return Response.ok(cs.gson.toJson(responses, new TypeToken<List<?>>() {
         }.getType())).build();
     }
 
+    /**
+     * Posts the commands of a group action in the background, the response is sent immediately.
+     */
+    private void dispatchCommands(Map<Item, Command> commands) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        EventPublisher localEventPublisher = eventPublisher;
+        if (localEventPublisher == null) {
+            logger.warn("No event publisher. Cannot post {} item commands!", commands.size());
+            return;
+        }
+        int queued = cs.commandDispatcher.dispatch(localEventPublisher, commands);
+        logger.debug("Queued {} of {} item commands", queued, commands.size());
+    }
+
     @GET
     @Path("{username}/groups")
     @Operation(summary = "Return all groups", responses = { @ApiResponse(responseCode = "200", description = "OK") })
@@ -15,6 +15,7 @@ package org.openhab.io.hueemulation.internal.rest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,6 +36,7 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
 import org.openhab.core.automation.Action;
 import org.openhab.core.automation.Rule;
 import org.openhab.core.automation.RuleRegistry;
@@ -48,6 +50,7 @@ import org.openhab.core.items.ItemNotFoundException;
 import org.openhab.core.items.ItemRegistry;
 import org.openhab.core.types.Command;
 import org.openhab.core.types.State;
+import org.openhab.core.types.TypeParser;
 import org.openhab.io.hueemulation.internal.ConfigStore;
 import org.openhab.io.hueemulation.internal.HueEmulationService;
 import org.openhab.io.hueemulation.internal.NetworkUtils;
@@ -229,6 +232,42 @@ public class Scenes implements RegistryChangeListener<Rule> {
         return NetworkUtils.singleSuccess(cs.gson, "/scenes/" + id + " deleted.");
     }
 
+    /**
+     * Computes the item commands for recalling the given scene.
+     *
+     * @param id The scene id
+     * @return The commands per item or null if the scene does not exist
+     */
+    public @Nullable Map<Item, Command> getSceneCommands(String id) {
+        Rule scene = ruleRegistry.get(id);
+        if (scene == null || !scene.getTags().contains("scene")) {
+            return null;
+        }
+
+        Map<Item, Command> commands = new LinkedHashMap<>();
+        for (Action a : scene.getActions()) {
+            if (!a.getTypeUID().equals("core.ItemCommandAction")) {
+                continue;
+            }
+            ItemCommandActionConfig config = a.getConfiguration().as(ItemCommandActionConfig.class);
+            Item item;
+            try {
+                item = itemRegistry.getItem(config.itemName);
+            } catch (ItemNotFoundException e) {
+                logger.warn("Scene {} is referring to a non existing item {}", scene.getName(), config.itemName);
+                continue;
+            }
+            Command command = TypeParser.parseCommand(item.getAcceptedCommandTypes(), config.command);
+            if (command == null) {
+                logger.warn("Scene {} has an invalid command {} for item {}", scene.getName(), config.command,
+                        config.itemName);
+                continue;
+            }
+            commands.put(item, command);
+        }
+        return commands;
+    }
+
     protected static Action actionFromState(String itemID, State state) {
         final Configuration actionConfig = new Configuration();
         actionConfig.put("itemName", itemID);
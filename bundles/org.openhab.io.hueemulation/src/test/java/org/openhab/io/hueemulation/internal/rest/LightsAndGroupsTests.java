@@ -16,6 +16,7 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.IOException;
@@ -227,6 +228,25 @@ public class LightsAndGroupsTests {
         }));
     }
 
+    @Test
+    public void changeAllLightsSwitchState() {
+        cs.ds.lights.get("1").item.setState(OnOffType.ON);
+
+        String body = "{'on':true}";
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/groups/0/action").request()
+                .put(Entity.json(body));
+        assertEquals(200, response.getStatus());
+        assertThat(response.readEntity(String.class), containsString("success"));
+
+        // The switch is on already, only the other lights are commanded
+        verify(commonSetup.eventPublisher, times(2)).post(argThat((Event e) -> {
+            ItemCommandEvent event = (ItemCommandEvent) e;
+            assertThat(event.getItemName(), not(is("switch")));
+            assertThat(event.getItemCommand(), is(OnOffType.ON));
+            return true;
+        }));
+    }
+
     @Test
     public void changeOnValue() {
         assertThat(((HueStateColorBulb) cs.ds.lights.get("2").state).on, is(false));
@@ -336,6 +356,46 @@ public class LightsAndGroupsTests {
         assertThat(body, containsString("color"));
     }
 
+    @Test
+    public void allLightsAreCachedAndTagged() {
+        Response response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get();
+        assertEquals(200, response.getStatus());
+        String etag = response.getHeaderString("ETag");
+        assertThat(etag, notNullValue());
+        assertThat(response.readEntity(String.class), is(cs.gson.toJson(cs.ds.lights)));
+
+        // Unchanged lights
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header("If-None-Match", etag).get();
+        assertEquals(304, response.getStatus());
+
+        // A changed item state results in a new snapshot
+        cs.ds.lights.get("1").item.setState(OnOffType.ON);
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request()
+                .header("If-None-Match", etag).get();
+        assertEquals(200, response.getStatus());
+        assertThat(response.getHeaderString("ETag"), not(is(etag)));
+        assertThat(response.readEntity(String.class), is(cs.gson.toJson(cs.ds.lights)));
+
+        // Added lights are picked up
+        cs.ds.lights.put("4", new HueLightEntry(new SwitchItem("switch4"), "switch4", DeviceType.SwitchType));
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights").request().get();
+        assertThat(response.readEntity(String.class), is(cs.gson.toJson(cs.ds.lights)));
+
+        response = commonSetup.client.target(commonSetup.basePath + "/testuser/lights/4").request().get();
+        assertEquals(200, response.getStatus());
+        assertThat(response.readEntity(String.class), is(cs.gson.toJson(cs.ds.lights.get("4"))));
+    }
+
+    @Test
+    public void dataStoreWithCachedLights() {
+        cs.ds.lights.get("2").item.setLabel("label");
+        // The time fields of the configuration are updated on every serialization
+        String expected = cs.gson.toJson(cs.ds).replaceAll("\"(UTC|localtime)\":\"[^\"]*\"", "");
+        String json = cs.lightsJson.getDataStore(cs.ds).json.replaceAll("\"(UTC|localtime)\":\"[^\"]*\"", "");
+        assertThat(json, is(expected));
+    }
+
     private boolean assertHueValue(ItemCommandEvent ce, int hueValue) {
         assertThat(((HSBType) ce.getItemCommand()).getHue().intValue(), is(hueValue * 360 / HueStateColorBulb.MAX_HUE));
         return true;
@@ -15,6 +15,8 @@ package org.openhab.io.hueemulation.internal.rest;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -23,6 +25,7 @@ import java.util.Map.Entry;
 
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.glassfish.jersey.server.ResourceConfig;
@@ -33,9 +36,11 @@ import org.junit.jupiter.api.Test;
 import org.openhab.core.automation.Rule;
 import org.openhab.core.automation.RuleRegistry;
 import org.openhab.core.automation.util.RuleBuilder;
+import org.openhab.core.events.Event;
 import org.openhab.core.items.GenericItem;
 import org.openhab.core.items.GroupItem;
 import org.openhab.core.items.ItemRegistry;
+import org.openhab.core.items.events.ItemCommandEvent;
 import org.openhab.core.library.items.ColorItem;
 import org.openhab.core.library.items.DimmerItem;
 import org.openhab.core.library.items.RollershutterItem;
@@ -129,6 +134,38 @@ public class SceneTests {
         assertThat(sceneEntry, CoreMatchers.nullValue());
     }
 
+    @Test
+    public void recallSceneViaGroupAction() {
+        Rule rule = RuleBuilder.create("demo1").withTags("scene") //
+                .withActions(Scenes.actionFromState("switch1", (Command) OnOffType.ON),
+                        Scenes.actionFromState("white1", (Command) new PercentType(50)))
+                .build();
+        ruleRegistry.add(rule);
+
+        LightsAndGroups lightsAndGroups = new LightsAndGroups();
+        lightsAndGroups.cs = cs;
+        lightsAndGroups.userManagement = commonSetup.userManagement;
+        lightsAndGroups.itemRegistry = itemRegistry;
+        lightsAndGroups.eventPublisher = commonSetup.eventPublisher;
+        lightsAndGroups.scenes = subject;
+        lightsAndGroups.activate();
+
+        Response response = lightsAndGroups.setGroupActionApi(mock(UriInfo.class), "testuser", "0",
+                "{'scene':'demo1'}");
+        assertEquals(200, response.getStatus());
+        assertThat((String) response.getEntity(), is("[{\"success\":{\"/groups/0/action/scene\":\"demo1\"}}]"));
+
+        // switch1 is already on, only white1 is commanded
+        verify(commonSetup.eventPublisher).post(argThat((Event e) -> {
+            ItemCommandEvent event = (ItemCommandEvent) e;
+            return event.getItemName().equals("white1") && event.getItemCommand().equals(new PercentType(50));
+        }));
+        verifyNoMoreInteractions(commonSetup.eventPublisher);
+
+        response = lightsAndGroups.setGroupActionApi(mock(UriInfo.class), "testuser", "0", "{'scene':'unknown'}");
+        assertEquals(404, response.getStatus());
+    }
+
     @SuppressWarnings("null")
     @Test
     public void addGetRemoveSceneViaRest() {
@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -103,6 +104,24 @@ public class ModbusDataHandlerTest extends AbstractModbusOSGiTest {
         }
     }
 
+    /**
+     * Identity transformation counting its invocations
+     */
+    private static final class CountingTransformation implements TransformationService {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        @Override
+        public String transform(String function, String source) throws TransformationException {
+            invocations.incrementAndGet();
+            return source;
+        }
+
+        public int getInvocations() {
+            return invocations.get();
+        }
+    }
+
     private static final String HOST = "thisishost";
     private static final int PORT = 44;
 
@@ -616,6 +635,93 @@ public class ModbusDataHandlerTest extends AbstractModbusOSGiTest {
         // no datetime, conversion not possible without transformation
     }
 
+    private static AsyncModbusReadResult registersResult(int value) {
+        return new AsyncModbusReadResult(Mockito.mock(ModbusReadRequestBlueprint.class),
+                new ModbusRegisterArray(new byte[] { (byte) (value >> 8), (byte) value }));
+    }
+
+    @Test
+    public void testOnRegistersChangedValueIsTransformed() {
+        CountingTransformation transformation = new CountingTransformation();
+        mockTransformation("COUNT", transformation);
+        ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,
+                "0", "COUNT(1)", ModbusConstants.ValueType.INT16, null, new ModbusRegisterArray(new byte[] { 0, 5 }),
+                null, bundleContext);
+        int invocationsPerRead = transformation.getInvocations();
+        assertTrue(invocationsPerRead > 0);
+
+        dataHandler.onReadResult(registersResult(6));
+
+        assertThat(transformation.getInvocations(), is(equalTo(2 * invocationsPerRead)));
+        waitForAssert(() -> {
+            List<State> updates = getStateUpdates(
+                    getItemName(new ChannelUID(dataHandler.getThing().getUID(), CHANNEL_NUMBER)));
+            assertThat(updates, is(equalTo(List.of(new DecimalType(5), new DecimalType(6)))));
+        });
+    }
+
+    @Test
+    public void testOnRegistersUnchangedValueIsNotTransformedAgain() {
+        CountingTransformation transformation = new CountingTransformation();
+        mockTransformation("COUNT", transformation);
+        ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,
+                "0", "COUNT(1)", ModbusConstants.ValueType.INT16, null, new ModbusRegisterArray(new byte[] { 0, 5 }),
+                null, bundleContext);
+        int invocationsPerRead = transformation.getInvocations();
+
+        dataHandler.onReadResult(registersResult(5));
+
+        assertThat(transformation.getInvocations(), is(equalTo(invocationsPerRead)));
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.ONLINE)));
+        // the value is republished only after updateUnchangedValuesEveryMillis
+        assertSingleStateUpdate(dataHandler, CHANNEL_NUMBER, new DecimalType(5));
+    }
+
+    @Test
+    public void testOnRegistersUnchangedValueAfterErrorIsTransformedAgain() {
+        CountingTransformation transformation = new CountingTransformation();
+        mockTransformation("COUNT", transformation);
+        ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,
+                "0", "COUNT(1)", ModbusConstants.ValueType.INT16, null, new ModbusRegisterArray(new byte[] { 0, 5 }),
+                null, bundleContext);
+        int invocationsPerRead = transformation.getInvocations();
+
+        dataHandler.handleReadError(new AsyncModbusFailure<ModbusReadRequestBlueprint>(
+                Mockito.mock(ModbusReadRequestBlueprint.class), new Exception("fooerror")));
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.OFFLINE)));
+
+        dataHandler.onReadResult(registersResult(5));
+
+        assertThat(transformation.getInvocations(), is(equalTo(2 * invocationsPerRead)));
+        assertThat(dataHandler.getThing().getStatus(), is(equalTo(ThingStatus.ONLINE)));
+    }
+
+    /**
+     * Repeated poll results are only parsed and transformed when the registers change.
+     */
+    @Test
+    public void testOnRegistersRepeatedResultsAreTransformedOnlyWhenChanged() {
+        CountingTransformation transformation = new CountingTransformation();
+        mockTransformation("COUNT", transformation);
+        ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,
+                "0", "COUNT(1)", ModbusConstants.ValueType.INT16, null, new ModbusRegisterArray(new byte[] { 0, 5 }),
+                null, bundleContext);
+        int invocationsPerRead = transformation.getInvocations();
+        int deliveries = 100;
+
+        AsyncModbusReadResult unchanged = registersResult(5);
+        for (int i = 0; i < deliveries; i++) {
+            dataHandler.onReadResult(unchanged);
+        }
+        assertThat(transformation.getInvocations(), is(equalTo(invocationsPerRead)));
+
+        AsyncModbusReadResult[] changing = { registersResult(6), registersResult(7) };
+        for (int i = 0; i < deliveries; i++) {
+            dataHandler.onReadResult(changing[i % 2]);
+        }
+        assertThat(transformation.getInvocations(), is(equalTo((deliveries + 1) * invocationsPerRead)));
+    }
+
     @Test
     public void testOnRegistersNaNFloatInRegisters() throws InvalidSyntaxException {
         ModbusDataThingHandler dataHandler = testReadHandlingGeneric(ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,